@@ -4,19 +4,24 @@ import com.czertainly.api.interfaces.core.web.AuditLogController;
 import com.czertainly.api.model.client.certificate.SearchFilterRequestDto;
 import com.czertainly.api.model.client.certificate.SearchRequestDto;
 import com.czertainly.api.model.core.audit.AuditLogResponseDto;
-import com.czertainly.api.model.core.audit.ExportResultDto;
 import com.czertainly.api.model.core.auth.Resource;
 import com.czertainly.api.model.core.logging.enums.Module;
 import com.czertainly.api.model.core.logging.enums.Operation;
 import com.czertainly.api.model.core.search.SearchFieldDataByGroupDto;
 import com.czertainly.core.aop.AuditLogged;
+import com.czertainly.core.model.ExportFile;
 import com.czertainly.core.service.AuditLogService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 
 @RestController
@@ -38,13 +43,21 @@ public class AuditLogControllerImpl implements AuditLogController {
     @Override
     @AuditLogged(module = Module.CORE, resource = Resource.AUDIT_LOG, operation = Operation.EXPORT)
     public ResponseEntity<org.springframework.core.io.Resource> exportAuditLogs(final List<SearchFilterRequestDto> filters) {
-        ExportResultDto export = auditLogService.exportAuditLogs(filters);
+        ExportFile export = auditLogService.exportAuditLogs(filters);
+
+        // export file is streamed to response and deleted when the stream is closed
+        InputStream exportStream;
+        try {
+            exportStream = Files.newInputStream(export.file(), StandardOpenOption.DELETE_ON_CLOSE);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
 
         return ResponseEntity.ok()
                 .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                .contentLength(export.getFileContent().length)
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + export.getFileName())
-                .body(new ByteArrayResource(export.getFileContent()));
+                .contentLength(export.size())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + export.fileName())
+                .body(new InputStreamResource(exportStream));
     }
 
     @Override
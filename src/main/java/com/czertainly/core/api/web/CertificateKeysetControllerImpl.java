@@ -0,0 +1,40 @@
+package com.czertainly.core.api.web;
+
+import com.czertainly.api.exception.ValidationException;
+import com.czertainly.api.model.client.certificate.SearchRequestDto;
+import com.czertainly.api.model.core.auth.Resource;
+import com.czertainly.api.model.core.logging.enums.Module;
+import com.czertainly.api.model.core.logging.enums.Operation;
+import com.czertainly.core.aop.AuditLogged;
+import com.czertainly.core.model.CertificateKeysetResponseDto;
+import com.czertainly.core.security.authz.SecurityFilter;
+import com.czertainly.core.service.CertificateService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Listing of certificates using keyset pagination, intended for paging through large inventories
+ * where offset pagination of deep pages is slow.
+ */
+@RestController
+@RequestMapping("/v1/certificates")
+public class CertificateKeysetControllerImpl {
+
+    private CertificateService certificateService;
+
+    @Autowired
+    public void setCertificateService(CertificateService certificateService) {
+        this.certificateService = certificateService;
+    }
+
+    @PostMapping(path = "/keyset", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @AuditLogged(module = Module.CERTIFICATES, resource = Resource.CERTIFICATE, operation = Operation.LIST)
+    public CertificateKeysetResponseDto listCertificatesByKeyset(@RequestBody SearchRequestDto request, @RequestParam(required = false) String cursor) throws ValidationException {
+        return certificateService.listCertificatesByKeyset(SecurityFilter.create(), request, cursor);
+    }
+}
@@ -0,0 +1,61 @@
+package com.czertainly.core.config;
+
+import com.czertainly.core.util.AdaptiveConcurrencyLimiter;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Concurrency limiters of discovered certificates shared by all discoveries running on the node. Download limiter bounds
+ * calls to discovery connectors and adapts to their latency and errors. Store limiter bounds storing of downloaded pages
+ * and process limiter bounds processing of single discovered certificates, both adapt to latency and errors of the tasks
+ * and back off when threads are waiting for database connection. Storing of page and processing of certificate have
+ * different latency, so each has its own limiter with own latency baseline.
+ */
+@Configuration
+public class DiscoveryConcurrencyConfig {
+
+    @Bean
+    public AdaptiveConcurrencyLimiter discoveryDownloadLimiter(@Value("${discovery.concurrency.download.min:2}") int minLimit,
+                                                               @Value("${discovery.concurrency.download.max:20}") int maxLimit,
+                                                               @Value("${discovery.concurrency.download.initial:10}") int initialLimit) {
+        return new AdaptiveConcurrencyLimiter("discovery download", minLimit, maxLimit, initialLimit, null);
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimiter discoveryStoreLimiter(DataSource dataSource,
+                                                            @Value("${discovery.concurrency.store.min:2}") int minLimit,
+                                                            @Value("${discovery.concurrency.store.max:20}") int maxLimit,
+                                                            @Value("${discovery.concurrency.store.initial:10}") int initialLimit) {
+        return new AdaptiveConcurrencyLimiter("discovery storing", minLimit, maxLimit, initialLimit, connectionPoolSaturation(dataSource));
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimiter discoveryProcessLimiter(DataSource dataSource,
+                                                              @Value("${discovery.concurrency.process.min:2}") int minLimit,
+                                                              @Value("${discovery.concurrency.process.max:20}") int maxLimit,
+                                                              @Value("${discovery.concurrency.process.initial:10}") int initialLimit) {
+        return new AdaptiveConcurrencyLimiter("discovery processing", minLimit, maxLimit, initialLimit, connectionPoolSaturation(dataSource));
+    }
+
+    private static BooleanSupplier connectionPoolSaturation(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                HikariDataSource hikariDataSource = dataSource.unwrap(HikariDataSource.class);
+                return () -> {
+                    HikariPoolMXBean pool = hikariDataSource.getHikariPoolMXBean();
+                    return pool != null && pool.getThreadsAwaitingConnection() > 0;
+                };
+            }
+        } catch (SQLException e) {
+            // connection pool saturation is not available for other data sources
+        }
+        return null;
+    }
+}
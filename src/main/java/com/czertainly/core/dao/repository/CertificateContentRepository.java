@@ -1,16 +1,20 @@
 package com.czertainly.core.dao.repository;
 
 import com.czertainly.core.dao.entity.CertificateContent;
+import com.czertainly.core.dao.repository.custom.CustomCertificateContentRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface CertificateContentRepository extends SecurityFilterRepository<CertificateContent, Long> {
+public interface CertificateContentRepository extends SecurityFilterRepository<CertificateContent, Long>, CustomCertificateContentRepository {
 
     CertificateContent findByFingerprint(String thumbprint);
+
+    List<CertificateContent> findByFingerprintIn(Collection<String> fingerprints);
     CertificateContent findByContent(String content);
 
     @Query("SELECT c FROM CertificateContent c " +
@@ -12,6 +12,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -24,6 +25,25 @@ public interface CertificateRepository extends SecurityFilterRepository<Certific
 
     List<Certificate> findAllByUuidIn(List<UUID> uuids);
 
+    @EntityGraph(attributePaths = {"certificateContent"})
+    List<Certificate> findWithContentByFingerprintIn(Collection<String> fingerprints);
+
+    @EntityGraph(attributePaths = {"certificateContent"})
+    List<Certificate> findWithContentByUuidIn(Collection<UUID> uuids);
+
+    @Query("SELECT c.keySize, c.certificateType, c.subjectType, c.state, c.validationStatus, c.complianceStatus, c.raProfileUuid, COUNT(c) FROM Certificate c " +
+            "GROUP BY c.keySize, c.certificateType, c.subjectType, c.state, c.validationStatus, c.complianceStatus, c.raProfileUuid")
+    List<Object[]> countGroupedByStatisticsDimensions();
+
+    @Query("SELECT c.raProfileUuid, cast(c.notAfter as LocalDate), COUNT(c) FROM Certificate c GROUP BY c.raProfileUuid, cast(c.notAfter as LocalDate)")
+    List<Object[]> countGroupedByRaProfileAndNotAfterDate();
+
+    @Query("SELECT c.raProfileUuid, g.uuid, COUNT(DISTINCT c) FROM Certificate c LEFT JOIN c.groups g GROUP BY c.raProfileUuid, g.uuid")
+    List<Object[]> countGroupedByRaProfileAndGroup();
+
+    @Query("SELECT c.uuid, c.issuerCertificateUuid FROM Certificate c WHERE c.uuid IN :uuids ORDER BY c.issuerCertificateUuid")
+    List<Object[]> findIssuerUuidsByUuidIn(@Param("uuids") List<UUID> uuids);
+
     @EntityGraph(attributePaths = {"certificateContent", "groups", "owner"})
     Optional<Certificate> findWithAssociationsByUuid(UUID uuid);
 
@@ -70,6 +90,10 @@ public interface CertificateRepository extends SecurityFilterRepository<Certific
 
     List<Certificate> findByRaProfileAndComplianceStatusIsNotNull(RaProfile raProfile);
 
+    @Query("SELECT c FROM Certificate c JOIN FETCH c.certificateContent " +
+            "WHERE c.raProfileUuid = :raProfileUuid AND c.uuid > :afterUuid ORDER BY c.uuid")
+    List<Certificate> findWithContentByRaProfileUuid(@Param("raProfileUuid") UUID raProfileUuid, @Param("afterUuid") UUID afterUuid, Pageable pageable);
+
     Optional<Certificate> findBySubjectDnNormalizedAndSerialNumber(String subjectDnNormalized, String serialNumber);
 
     Optional<Certificate> findByIssuerDnNormalizedAndSerialNumber(String issuerDnNormalized, String serialNumber);
@@ -79,4 +103,12 @@ public interface CertificateRepository extends SecurityFilterRepository<Certific
     List<Certificate> findByValidationStatusAndCertificateContentDiscoveryCertificatesDiscoveryUuid(CertificateValidationStatus validationStatus, UUID discoveryUuid);
 
     List<Certificate> findByValidationStatusAndLocationsLocationUuid(CertificateValidationStatus validationStatus, UUID locationUuid);
+
+    @Query("SELECT DISTINCT c.uuid FROM Certificate c JOIN c.certificateContent cc JOIN cc.discoveryCertificates dc " +
+            "WHERE c.validationStatus = :validationStatus AND dc.discoveryUuid = :discoveryUuid AND c.uuid > :afterUuid ORDER BY c.uuid")
+    List<UUID> findUuidsByValidationStatusAndDiscoveryUuid(@Param("validationStatus") CertificateValidationStatus validationStatus, @Param("discoveryUuid") UUID discoveryUuid, @Param("afterUuid") UUID afterUuid, Pageable pageable);
+
+    @Query("SELECT c.uuid FROM Certificate c JOIN c.locations cl " +
+            "WHERE c.validationStatus = :validationStatus AND cl.location.uuid = :locationUuid AND c.uuid > :afterUuid ORDER BY c.uuid")
+    List<UUID> findUuidsByValidationStatusAndLocationUuid(@Param("validationStatus") CertificateValidationStatus validationStatus, @Param("locationUuid") UUID locationUuid, @Param("afterUuid") UUID afterUuid, Pageable pageable);
 }
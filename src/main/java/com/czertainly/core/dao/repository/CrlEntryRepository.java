@@ -2,15 +2,28 @@ package com.czertainly.core.dao.repository;
 
 import com.czertainly.core.dao.entity.CrlEntry;
 import com.czertainly.core.dao.entity.CrlEntryId;
+import com.czertainly.core.dao.repository.custom.CustomCrlEntryRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface CrlEntryRepository extends SecurityFilterRepository<CrlEntry, Long> {
+public interface CrlEntryRepository extends SecurityFilterRepository<CrlEntry, Long>, CustomCrlEntryRepository {
 
     Optional<CrlEntry> findById(CrlEntryId id);
 
     void deleteAllByCrlUuid(UUID crlUuid);
+
+    @Modifying
+    @Query("DELETE FROM CrlEntry ce WHERE ce.id.crlUuid = :crlUuid")
+    int deleteAllEntriesByCrlUuid(UUID crlUuid);
+
+    long countByIdCrlUuid(UUID crlUuid);
+
+    @Query("SELECT ce.id.serialNumber, ce.revocationDate, ce.revocationReason FROM CrlEntry ce WHERE ce.id.crlUuid = :crlUuid")
+    List<Object[]> findRevocationEntriesByCrlUuid(UUID crlUuid);
 }
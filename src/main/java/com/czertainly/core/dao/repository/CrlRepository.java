@@ -1,6 +1,7 @@
 package com.czertainly.core.dao.repository;
 
 import com.czertainly.core.dao.entity.Crl;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,5 +15,10 @@ public interface CrlRepository extends SecurityFilterRepository<Crl, Long>
 
     List<Crl> findByCaCertificateUuid(UUID caCertificateUuid);
 
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(hashtext(:lockKey))", nativeQuery = true)
+    int acquireRefreshLock(String lockKey);
+
+    @Query(value = "SELECT pg_try_advisory_xact_lock(hashtext(:lockKey))", nativeQuery = true)
+    boolean tryAcquireRefreshLock(String lockKey);
 
 }
@@ -11,9 +11,11 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.repository.NoRepositoryBean;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.function.BiFunction;
 
 @NoRepositoryBean
@@ -33,9 +35,30 @@ public interface SecurityFilterRepository<T, ID> extends JpaRepository<T, ID> {
 
     Map<String, Long> countGroupedUsingSecurityFilter(SecurityFilter filter, Attribute join, SingularAttribute groupBy, BiFunction<Root<T>, CriteriaBuilder, Expression> groupByExpression);
 
+    Map<String, Long> countGroupedUsingSecurityFilter(SecurityFilter filter, Attribute join, SingularAttribute groupBy, BiFunction<Root<T>, CriteriaBuilder, Expression> groupByExpression, TriFunction<Root<T>, CriteriaBuilder, CriteriaQuery, Predicate> additionalWhereClause);
+
     Long countUsingSecurityFilter(SecurityFilter filter);
 
     Long countUsingSecurityFilter(SecurityFilter filter, TriFunction<Root<T>, CriteriaBuilder, CriteriaQuery, Predicate> additionalWhereClause);
 
+    /**
+     * Find objects ordered from newest using keyset pagination, objects older than given keyset are returned
+     *
+     * @param createdBefore creation timestamp of last object of previous page, null for first page
+     * @param uuidBefore    UUID of last object of previous page, null for first page
+     * @param limit         maximum number of returned objects
+     * @return objects ordered by creation timestamp and UUID descending
+     */
+    List<T> findUsingSecurityFilterByKeyset(SecurityFilter filter, List<String> fetchAssociations, TriFunction<Root<T>, CriteriaBuilder, CriteriaQuery, Predicate> additionalWhereClause, OffsetDateTime createdBefore, UUID uuidBefore, int limit);
+
+    /**
+     * Count objects, counting stops when threshold is exceeded. When number of objects exceeds threshold
+     * and no predicates apply, planner estimate of table rows is returned instead of exact count.
+     *
+     * @param threshold maximum number of objects counted exactly
+     * @return exact count when it does not exceed threshold, estimate otherwise
+     */
+    Long estimateCountUsingSecurityFilter(SecurityFilter filter, TriFunction<Root<T>, CriteriaBuilder, CriteriaQuery, Predicate> additionalWhereClause, int threshold);
+
     List<T> findUsingSecurityFilterByCustomCriteriaQuery(SecurityFilter filter, Root<T> root, CriteriaQuery<T> criteriaQuery, Predicate customPredicates);
 }
@@ -17,10 +17,17 @@ import jakarta.persistence.criteria.*;
 import jakarta.persistence.metamodel.Attribute;
 import jakarta.persistence.metamodel.SingularAttribute;
 import org.apache.commons.lang3.function.TriFunction;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.query.criteria.JpaCriteriaQuery;
+import org.hibernate.query.criteria.JpaSubQuery;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.support.JpaEntityInformation;
 import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
 
+import java.time.OffsetDateTime;
 import java.util.*;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
@@ -89,6 +96,11 @@ public class SecurityFilterRepositoryImpl<T, ID> extends SimpleJpaRepository<T,
 
     @Override
     public Map<String, Long> countGroupedUsingSecurityFilter(SecurityFilter filter, Attribute join, SingularAttribute groupBy, BiFunction<Root<T>, CriteriaBuilder, Expression> groupByExpression) {
+        return countGroupedUsingSecurityFilter(filter, join, groupBy, groupByExpression, null);
+    }
+
+    @Override
+    public Map<String, Long> countGroupedUsingSecurityFilter(SecurityFilter filter, Attribute join, SingularAttribute groupBy, BiFunction<Root<T>, CriteriaBuilder, Expression> groupByExpression, TriFunction<Root<T>, CriteriaBuilder, CriteriaQuery, Predicate> additionalWhereClause) {
         final Class<T> entity = this.entityInformation.getJavaType();
         final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
         CriteriaQuery<AggregateResultDto> cr = cb.createQuery(AggregateResultDto.class);
@@ -104,7 +116,7 @@ public class SecurityFilterRepositoryImpl<T, ID> extends SimpleJpaRepository<T,
         cr.multiselect(groupBySelection, cb.countDistinct(root));
         cr.groupBy(groupBySelection);
 
-        final List<Predicate> predicates = getPredicates(filter, null, root, cb, cr);
+        final List<Predicate> predicates = getPredicates(filter, additionalWhereClause, root, cb, cr);
         cr = predicates.isEmpty() ? cr : cr.where(predicates.toArray(new Predicate[]{}));
 
         return entityManager.createQuery(cr).getResultList().stream().collect(Collectors.toMap(i -> i.aggregatedValue() == null ? "Unassigned" : i.aggregatedValue(), i -> i.aggregation().longValue()));
@@ -122,6 +134,52 @@ public class SecurityFilterRepositoryImpl<T, ID> extends SimpleJpaRepository<T,
         return crlist.get(0);
     }
 
+    @Override
+    public List<T> findUsingSecurityFilterByKeyset(final SecurityFilter filter, List<String> fetchAssociations, final TriFunction<Root<T>, CriteriaBuilder, CriteriaQuery, Predicate> additionalWhereClause, final OffsetDateTime createdBefore, final UUID uuidBefore, final int limit) {
+        final TriFunction<Root<T>, CriteriaBuilder, CriteriaQuery, Predicate> keysetWhereClause = createdBefore == null ? additionalWhereClause : (root, cb, cr) -> {
+            Predicate keysetPredicate = cb.or(cb.lessThan(root.get("created"), createdBefore),
+                    cb.and(cb.equal(root.get("created"), createdBefore), cb.lessThan(root.get("uuid"), uuidBefore)));
+            return additionalWhereClause == null ? keysetPredicate : cb.and(additionalWhereClause.apply(root, cb, cr), keysetPredicate);
+        };
+
+        final CriteriaQuery<T> cr = createCriteriaBuilder(filter, fetchAssociations, keysetWhereClause, null);
+        final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        final Root<?> root = cr.getRoots().iterator().next();
+        cr.orderBy(cb.desc(root.get("created")), cb.desc(root.get("uuid")));
+        return entityManager.createQuery(cr).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public Long estimateCountUsingSecurityFilter(SecurityFilter filter, TriFunction<Root<T>, CriteriaBuilder, CriteriaQuery, Predicate> additionalWhereClause, int threshold) {
+        final Class<T> entity = this.entityInformation.getJavaType();
+        final HibernateCriteriaBuilder cb = entityManager.unwrap(Session.class).getCriteriaBuilder();
+        final JpaCriteriaQuery<Long> cr = cb.createQuery(Long.class);
+
+        // count only up to the threshold in database, i.e. SELECT count(*) FROM (SELECT DISTINCT uuid ... LIMIT threshold + 1)
+        final JpaSubQuery<UUID> subquery = cr.subquery(UUID.class);
+        final Root<T> root = subquery.from(entity);
+        subquery.select(root.get("uuid")).distinct(true);
+        final List<Predicate> predicates = getPredicates(filter, additionalWhereClause, root, cb, cr);
+        if (!predicates.isEmpty()) {
+            subquery.where(predicates.toArray(new Predicate[]{}));
+        }
+        subquery.fetch(threshold + 1);
+        cr.from(subquery);
+        cr.select(cb.count(cb.literal(1)));
+
+        long count = entityManager.createQuery(cr).getSingleResult();
+        if (count <= threshold || !predicates.isEmpty()) {
+            return count;
+        }
+
+        String tableName = ((AbstractEntityPersister) entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getMappingMetamodel().getEntityDescriptor(entity)).getTableName();
+        Number estimate = (Number) entityManager.createNativeQuery("SELECT reltuples FROM pg_class WHERE oid = to_regclass(:tableName)")
+                .setParameter("tableName", tableName)
+                .getResultStream().findFirst().orElse(null);
+        return estimate == null ? count : Math.max(count, estimate.longValue());
+    }
+
     @Override
     public List<T> findUsingSecurityFilterByCustomCriteriaQuery(SecurityFilter filter, Root<T> root, CriteriaQuery<T> criteriaQuery, Predicate customPredicates) {
         List<Predicate> predicates = new ArrayList<>();
@@ -2,6 +2,8 @@ package com.czertainly.core.dao.repository.acme;
 
 import com.czertainly.core.dao.entity.acme.AcmeNonce;
 import com.czertainly.core.dao.repository.SecurityFilterRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Date;
@@ -13,4 +15,12 @@ public interface AcmeNonceRepository extends SecurityFilterRepository<AcmeNonce,
     Optional<AcmeNonce> findByNonce(String nonce);
 
     List<AcmeNonce> findAllByExpiresBefore(Date expires);
+
+    @Modifying
+    @Query(value = "INSERT INTO acme_nonce (nonce, created, expires) VALUES (?1, ?2, ?3) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(String nonce, Date created, Date expires);
+
+    @Modifying
+    @Query("DELETE FROM acme_nonce n WHERE n.expires < ?1")
+    int deleteByExpiresBefore(Date expires);
 }
@@ -0,0 +1,14 @@
+package com.czertainly.core.dao.repository.custom;
+
+import java.util.Map;
+
+public interface CustomCertificateContentRepository {
+
+    /**
+     * Insert certificate contents using single JDBC batch, contents are not attached to persistence context.
+     * Contents with fingerprint that already exists are skipped.
+     *
+     * @param contentsByFingerprint normalized certificate contents mapped by their fingerprints
+     */
+    void batchInsert(Map<String, String> contentsByFingerprint);
+}
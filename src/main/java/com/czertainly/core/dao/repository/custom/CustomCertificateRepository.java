@@ -1,6 +1,18 @@
 package com.czertainly.core.dao.repository.custom;
 
+import com.czertainly.core.dao.entity.Certificate;
+
+import java.time.LocalDateTime;
+
 public interface CustomCertificateRepository {
 
     void bulkUpdateQuery(String query);
+
+    /**
+     * Update only validation timestamp of the certificate, other columns of the certificate are not written
+     *
+     * @param certificate                certificate entity, updated timestamp is set also to the entity
+     * @param statusValidationTimestamp  new validation timestamp
+     */
+    void updateStatusValidationTimestamp(Certificate certificate, LocalDateTime statusValidationTimestamp);
 }
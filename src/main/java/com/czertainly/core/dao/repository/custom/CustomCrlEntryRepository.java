@@ -0,0 +1,15 @@
+package com.czertainly.core.dao.repository.custom;
+
+import com.czertainly.core.dao.entity.CrlEntry;
+
+import java.util.List;
+
+public interface CustomCrlEntryRepository {
+
+    /**
+     * Insert CRL entries using single JDBC batch, entries are not attached to persistence context
+     *
+     * @param crlEntries CRL entries to insert
+     */
+    void batchInsert(List<CrlEntry> crlEntries);
+}
@@ -0,0 +1,42 @@
+package com.czertainly.core.dao.repository.custom.impl;
+
+import com.czertainly.core.dao.entity.CertificateContent;
+import com.czertainly.core.dao.repository.custom.CustomCertificateContentRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+
+import java.sql.PreparedStatement;
+import java.util.Map;
+
+public class CustomCertificateContentRepositoryImpl implements CustomCertificateContentRepository {
+
+    private static final String ID_SEQUENCE_NAME = "certificate_content_id_seq";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void batchInsert(Map<String, String> contentsByFingerprint) {
+        if (contentsByFingerprint.isEmpty()) return;
+
+        Session session = entityManager.unwrap(Session.class);
+        // table name qualified with default schema, sequence is in the same schema
+        String tableName = ((AbstractEntityPersister) session.getSessionFactory().unwrap(SessionFactoryImplementor.class).getMappingMetamodel().getEntityDescriptor(CertificateContent.class)).getTableName();
+        String sequenceName = tableName.substring(0, tableName.lastIndexOf('.') + 1) + ID_SEQUENCE_NAME;
+        session.doWork(connection -> {
+            // identifiers are generated by database in the same statement, so no round trip per row is needed to allocate them,
+            // contents inserted meanwhile by concurrent transaction are skipped and have to be selected by caller
+            try (PreparedStatement statement = connection.prepareStatement("INSERT INTO " + tableName + " (id, fingerprint, content) VALUES (nextval('" + sequenceName + "'), ?, ?) ON CONFLICT (fingerprint) DO NOTHING")) {
+                for (Map.Entry<String, String> content : contentsByFingerprint.entrySet()) {
+                    statement.setString(1, content.getKey());
+                    statement.setString(2, content.getValue());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+}
@@ -1,8 +1,12 @@
 package com.czertainly.core.dao.repository.custom.impl;
 
+import com.czertainly.core.dao.entity.Certificate;
 import com.czertainly.core.dao.repository.custom.CustomCertificateRepository;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.time.LocalDateTime;
 
 public class CustomCertificateRepositoryImpl implements CustomCertificateRepository {
 
@@ -13,4 +17,24 @@ public class CustomCertificateRepositoryImpl implements CustomCertificateReposit
     public void bulkUpdateQuery(String query) {
         entityManager.createQuery(query).executeUpdate();
     }
+
+    @Override
+    public void updateStatusValidationTimestamp(Certificate certificate, LocalDateTime statusValidationTimestamp) {
+        // pending changes of the certificate are flushed before the update query is executed
+        entityManager.createQuery("UPDATE Certificate c SET c.statusValidationTimestamp = :statusValidationTimestamp WHERE c.uuid = :uuid")
+                .setParameter("statusValidationTimestamp", statusValidationTimestamp)
+                .setParameter("uuid", certificate.getUuid())
+                .executeUpdate();
+
+        Session session = entityManager.unwrap(Session.class);
+        if (!session.contains(certificate)) {
+            certificate.setStatusValidationTimestamp(statusValidationTimestamp);
+            return;
+        }
+        // when read-only entity is made modifiable again, its current state is taken as database state,
+        // so the timestamp set meanwhile does not make the entity dirty and the whole row is not written again
+        session.setReadOnly(certificate, true);
+        certificate.setStatusValidationTimestamp(statusValidationTimestamp);
+        session.setReadOnly(certificate, false);
+    }
 }
@@ -0,0 +1,43 @@
+package com.czertainly.core.dao.repository.custom.impl;
+
+import com.czertainly.core.dao.entity.CrlEntry;
+import com.czertainly.core.dao.repository.custom.CustomCrlEntryRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.List;
+
+public class CustomCrlEntryRepositoryImpl implements CustomCrlEntryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void batchInsert(List<CrlEntry> crlEntries) {
+        if (crlEntries.isEmpty()) return;
+
+        // flush pending changes, CRL entity needs to be present in DB because of foreign key
+        entityManager.flush();
+
+        Session session = entityManager.unwrap(Session.class);
+        // table name qualified with default schema
+        String tableName = ((AbstractEntityPersister) session.getSessionFactory().unwrap(SessionFactoryImplementor.class).getMappingMetamodel().getEntityDescriptor(CrlEntry.class)).getTableName();
+        session.doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("INSERT INTO " + tableName + " (crl_uuid, serial_number, revocation_date, revocation_reason) VALUES (?, ?, ?, ?) ON CONFLICT DO NOTHING")) {
+                for (CrlEntry crlEntry : crlEntries) {
+                    statement.setObject(1, crlEntry.getId().getCrlUuid());
+                    statement.setString(2, crlEntry.getId().getSerialNumber());
+                    statement.setTimestamp(3, new Timestamp(crlEntry.getRevocationDate().getTime()));
+                    statement.setString(4, crlEntry.getRevocationReason().name());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+}
@@ -0,0 +1,59 @@
+package com.czertainly.core.evaluator;
+
+import com.czertainly.api.model.common.attribute.v2.content.AttributeContentType;
+import com.czertainly.api.model.core.auth.Resource;
+import com.czertainly.api.model.core.search.FilterConditionOperator;
+import com.czertainly.api.model.core.search.FilterFieldSource;
+import com.czertainly.core.dao.entity.workflows.ExecutionItem;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Trigger with its rules and actions compiled by {@link IRuleEvaluator#compileTrigger}. Compiled trigger does not reference
+ * lazily loaded entity graph and can be evaluated repeatedly outside the transaction it was compiled in.
+ */
+public record CompiledTrigger(
+        UUID uuid,
+        String name,
+        Resource resource,
+        Class<?> resourceClass,
+        List<CompiledRule> rules,
+        List<CompiledExecutionItem> executionItems
+) {
+
+    public record CompiledRule(
+            String name,
+            Resource resource,
+            Class<?> resourceClass,
+            List<CompiledConditionItem> conditionItems
+    ) {
+    }
+
+    /**
+     * Condition item with resolved property path and predicate applying operator on pre-parsed condition value.
+     * When condition item cannot be compiled, error is set and reported when condition item is evaluated.
+     */
+    public record CompiledConditionItem(
+            UUID conditionUuid,
+            FilterFieldSource fieldSource,
+            String fieldIdentifier,
+            FilterConditionOperator operator,
+            Object value,
+            String[] propertyPath,
+            String[] nestedPropertyPath,
+            Predicate<Object> predicate,
+            String metadataName,
+            AttributeContentType metadataContentType,
+            String error
+    ) {
+    }
+
+    public record CompiledExecutionItem(
+            UUID actionUuid,
+            UUID executionUuid,
+            ExecutionItem executionItem
+    ) {
+    }
+}
@@ -11,6 +11,14 @@ import java.util.List;
 
 public interface IRuleEvaluator<T> {
 
+    /**
+     * Method to compile Rules and Actions of a Trigger to be evaluated repeatedly without access to database
+     *
+     * @param trigger Trigger with Rules and Actions to compile
+     * @return Compiled Trigger
+     */
+    public CompiledTrigger compileTrigger(Trigger trigger);
+
     /**
      * Method to evaluate a list of Rules on an Object
      *
@@ -19,6 +27,14 @@ public interface IRuleEvaluator<T> {
      * @return True if all the rules are satisfied, false otherwise
      */
     public boolean evaluateRules(List<Rule> rules, T object, TriggerHistory triggerHistory) throws RuleException;
+    /**
+     * Method to evaluate Rules of a compiled Trigger on an Object
+     *
+     * @param trigger  Compiled Trigger
+     * @param object   Object to evaluate Rules on
+     * @return True if all the rules are satisfied, false otherwise
+     */
+    public boolean evaluateRules(CompiledTrigger trigger, T object, TriggerHistory triggerHistory) throws RuleException;
     /**
      * Method to evaluate a list of Rules on a list of Objects
      *
@@ -45,4 +61,13 @@ public interface IRuleEvaluator<T> {
      */
     public void performActions(Trigger trigger, T object, TriggerHistory triggerHistory) throws RuleException;
 
+    /**
+     * Method to perform Actions of a compiled Trigger on an Object
+     *
+     * @param trigger        Compiled Trigger
+     * @param object         Object to perform Actions in Trigger on
+     * @param triggerHistory Trigger History to fill action results records for
+     */
+    public void performActions(CompiledTrigger trigger, T object, TriggerHistory triggerHistory) throws RuleException;
+
 }
@@ -0,0 +1,63 @@
+package com.czertainly.core.evaluator;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads bean properties using getters resolved once per class
+ */
+final class PropertyReader {
+
+    private static final ClassValue<Map<String, Method>> READ_METHODS = new ClassValue<>() {
+        @Override
+        protected Map<String, Method> computeValue(Class<?> type) {
+            Map<String, Method> readMethods = new HashMap<>();
+            try {
+                for (PropertyDescriptor descriptor : Introspector.getBeanInfo(type).getPropertyDescriptors()) {
+                    if (descriptor.getReadMethod() != null) {
+                        readMethods.put(descriptor.getName(), descriptor.getReadMethod());
+                    }
+                }
+            } catch (IntrospectionException e) {
+                // class has no readable properties
+            }
+            return Map.copyOf(readMethods);
+        }
+    };
+
+    private PropertyReader() {
+    }
+
+    static Object readProperty(Object bean, String property) throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
+        Method readMethod = READ_METHODS.get(bean.getClass()).get(property);
+        if (readMethod == null) {
+            throw new NoSuchMethodException("Unknown property '" + property + "' on class '" + bean.getClass().getName() + "'");
+        }
+        return readMethod.invoke(bean);
+    }
+
+    /**
+     * Read value of nested property. If value of the first property in path is collection, the collection is returned
+     * when collection is allowed, and nested properties are read from its items by caller.
+     *
+     * @param bean            bean to read property from
+     * @param path            path to the property
+     * @param allowCollection return collection found as value of first property in path
+     * @return value of the property, null when some property in path is null
+     */
+    static Object readPath(Object bean, String[] path, boolean allowCollection) throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
+        Object value = bean;
+        for (int i = 0; i < path.length; i++) {
+            if (value == null) return null;
+            if (i == 1 && allowCollection && value instanceof Collection<?>) return value;
+            value = readProperty(value, path[i]);
+        }
+        return value;
+    }
+}
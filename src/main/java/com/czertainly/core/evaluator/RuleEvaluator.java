@@ -21,7 +21,6 @@ import com.czertainly.core.enums.ResourceToClass;
 import com.czertainly.core.service.TriggerService;
 import com.czertainly.core.util.AttributeDefinitionUtils;
 import com.czertainly.core.util.FilterPredicatesBuilder;
-import jakarta.persistence.metamodel.Attribute;
 import org.apache.commons.beanutils.PropertyUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,6 +35,8 @@ import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.function.BiFunction;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
 
 @Component
 @Transactional
@@ -43,6 +44,7 @@ public class RuleEvaluator<T> implements IRuleEvaluator<T> {
 
     private static final Logger logger = LoggerFactory.getLogger(RuleEvaluator.class);
     private static final String DATETIME_FORMAT = "yyyy-MM-dd'T'HH:mm:ss.SSSXXX";
+    private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern(DATETIME_FORMAT);
 
     private AttributeEngine attributeEngine;
     private TriggerService triggerService;
@@ -57,8 +59,116 @@ public class RuleEvaluator<T> implements IRuleEvaluator<T> {
         this.attributeEngine = attributeEngine;
     }
 
+    @Override
+    public CompiledTrigger compileTrigger(Trigger trigger) {
+        List<CompiledTrigger.CompiledExecutionItem> executionItems = new ArrayList<>();
+        if (trigger.getActions() != null) {
+            for (Action action : trigger.getActions()) {
+                for (Execution execution : action.getExecutions()) {
+                    for (ExecutionItem executionItem : execution.getItems()) {
+                        executionItems.add(new CompiledTrigger.CompiledExecutionItem(action.getUuid(), execution.getUuid(), executionItem));
+                    }
+                }
+            }
+        }
+        return new CompiledTrigger(trigger.getUuid(), trigger.getName(), trigger.getResource(), ResourceToClass.getClassByResource(trigger.getResource()), compileRules(trigger.getRules()), executionItems);
+    }
+
     @Override
     public boolean evaluateRules(List<Rule> rules, T object, TriggerHistory triggerHistory) throws RuleException {
+        return evaluateCompiledRules(compileRules(rules), object, triggerHistory);
+    }
+
+    @Override
+    public boolean evaluateRules(CompiledTrigger trigger, T object, TriggerHistory triggerHistory) throws RuleException {
+        return evaluateCompiledRules(trigger.rules(), object, triggerHistory);
+    }
+
+    @Override
+    public boolean evaluateRules(List<Rule> rules, List<T> listOfObjects) throws RuleException {
+        List<CompiledTrigger.CompiledRule> compiledRules = compileRules(rules);
+        for (T object : listOfObjects) {
+            if (!evaluateCompiledRules(compiledRules, object, null)) {
+                logger.debug("Rules have not been satisfied for a object in the list, the list does not contain objects satisfying the rules.");
+                return false;
+            }
+        }
+        logger.debug("All objects in the list satisfy the rules.");
+        return true;
+    }
+
+    @Override
+    public Boolean evaluateConditionItem(ConditionItem conditionItem, T object, Resource resource) throws RuleException {
+        UUID conditionUuid = conditionItem.getCondition() == null ? null : conditionItem.getCondition().getUuid();
+        return evaluateCompiledConditionItem(compileConditionItem(conditionItem, conditionUuid), object, resource);
+    }
+
+    @Override
+    public void performActions(Trigger trigger, T object, TriggerHistory triggerHistory) throws RuleException {
+        performActions(compileTrigger(trigger), object, triggerHistory);
+    }
+
+    @Override
+    public void performActions(CompiledTrigger trigger, T object, TriggerHistory triggerHistory) throws RuleException {
+        if (trigger.resourceClass() == null) {
+            throw new RuleException("Unknown class for resource " + trigger.resource().getLabel());
+        }
+
+        if (!trigger.resourceClass().isInstance(object)) {
+            logger.debug("Trigger '{}' cannot be executed due to incompatible resource.", trigger.name());
+            return;
+        }
+
+        for (CompiledTrigger.CompiledExecutionItem compiledExecutionItem : trigger.executionItems()) {
+            try {
+                performAction(compiledExecutionItem.executionItem(), object, trigger.resource());
+                logger.debug("Action with UUID {} has been performed.", compiledExecutionItem.actionUuid());
+            } catch (Exception e) {
+                logger.debug("Action with UUID {} has not been performed. Reason: {}", compiledExecutionItem.actionUuid(), e.getMessage());
+                TriggerHistoryRecord triggerHistoryRecord = triggerService.createTriggerHistoryRecord(triggerHistory, null, compiledExecutionItem.executionUuid(), e.getMessage());
+                triggerHistory.getRecords().add(triggerHistoryRecord);
+            }
+        }
+    }
+
+    public void performAction(ExecutionItem executionItem, T object, Resource resource) throws RuleException, NotFoundException, AttributeException, CertificateOperationException {
+        String fieldIdentifier = executionItem.getFieldIdentifier();
+        Object actionData = executionItem.getData();
+        FilterFieldSource fieldSource = executionItem.getFieldSource();
+
+        // Set a property of the object using setter, the property must be set as settable
+        if (fieldSource == FilterFieldSource.PROPERTY) {
+            FilterField propertyEnum = Enum.valueOf(FilterField.class, fieldIdentifier);
+            if (propertyEnum == null) {
+                throw new RuleException("Field identifier '" + fieldIdentifier + "' is not supported.");
+            }
+            if (!propertyEnum.isSettable())
+                throw new RuleException("Setting property '" + fieldIdentifier + "' is not supported.");
+            try {
+                PropertyUtils.setProperty(object, propertyEnum.getFieldAttribute().getName(), actionData);
+            } catch (IllegalArgumentException | IllegalAccessException | InvocationTargetException |
+                     NoSuchMethodException e) {
+                throw new RuleException(e.getMessage());
+            }
+        }
+        // Set a custom attribute for the object
+        if (fieldSource == FilterFieldSource.CUSTOM) {
+            UUID objectUuid;
+            try {
+                objectUuid = (UUID) PropertyUtils.getProperty(object, "uuid");
+            } catch (IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
+                throw new RuleException("Cannot get uuid from resource " + resource + ".");
+            }
+
+            if (objectUuid == null)
+                throw new RuleException("Cannot set custom attributes for an object not in database.");
+
+            List<BaseAttributeContent> attributeContents = AttributeDefinitionUtils.convertContentItemsFromObject(actionData);
+            attributeEngine.updateObjectCustomAttributeContent(resource, objectUuid, null, fieldIdentifier.substring(0, fieldIdentifier.indexOf("|")), attributeContents);
+        }
+    }
+
+    private boolean evaluateCompiledRules(List<CompiledTrigger.CompiledRule> rules, T object, TriggerHistory triggerHistory) throws RuleException {
         // if trigger has no rules, return true as it is trigger that should perform actions on all objects
         if (rules.isEmpty()) {
             return true;
@@ -66,24 +176,20 @@ public class RuleEvaluator<T> implements IRuleEvaluator<T> {
 
         // Rule evaluated is check if any rule has been evaluated, no rules will be evaluated if all rules in the list have incompatible resource
         boolean ruleEvaluated = false;
-        for (Rule rule : rules) {
-            logger.debug("Evaluating rule '{}'.", rule.getName());
+        for (CompiledTrigger.CompiledRule rule : rules) {
+            logger.debug("Evaluating rule '{}'.", rule.name());
             // Check if resource in the rule corresponds to the class of evaluator
-
-            Class resourceClass = ResourceToClass.getClassByResource(rule.getResource());
-            if (resourceClass == null) {
-                throw new RuleException("Unknown class for resource " + rule.getResource().getLabel());
+            if (rule.resourceClass() == null) {
+                throw new RuleException("Unknown class for resource " + rule.resource().getLabel());
             }
 
-            if (!resourceClass.isInstance(object)) {
-                logger.debug("Rule '{}' has been skipped due to incompatible resource.", rule.getName());
+            if (!rule.resourceClass().isInstance(object)) {
+                logger.debug("Rule '{}' has been skipped due to incompatible resource.", rule.name());
                 continue;
             }
             ruleEvaluated = true;
-            for (Condition condition : rule.getConditions()) {
-                for (ConditionItem conditionItem : condition.getItems()) {
-                    if (!getConditionEvaluationResult(conditionItem, object, triggerHistory, rule)) return false;
-                }
+            for (CompiledTrigger.CompiledConditionItem conditionItem : rule.conditionItems()) {
+                if (!getConditionEvaluationResult(conditionItem, object, triggerHistory, rule)) return false;
             }
         }
 
@@ -95,50 +201,34 @@ public class RuleEvaluator<T> implements IRuleEvaluator<T> {
         return ruleEvaluated;
     }
 
-    @Override
-    public boolean evaluateRules(List<Rule> rules, List<T> listOfObjects) throws RuleException {
-        for (T object : listOfObjects) {
-            if (!evaluateRules(rules, object, null)) {
-                logger.debug("Rules have not been satisfied for a object in the list, the list does not contain objects satisfying the rules.");
-                return false;
-            }
+    private Boolean evaluateCompiledConditionItem(CompiledTrigger.CompiledConditionItem conditionItem, T object, Resource resource) throws RuleException {
+        if (conditionItem.error() != null) {
+            throw new RuleException(conditionItem.error());
         }
-        logger.debug("All objects in the list satisfy the rules.");
-        return true;
-    }
 
-    @Override
-    public Boolean evaluateConditionItem(ConditionItem conditionItem, T object, Resource resource) throws RuleException {
-        FilterFieldSource fieldSource = conditionItem.getFieldSource();
-        String fieldIdentifier = conditionItem.getFieldIdentifier();
-        FilterConditionOperator operator = conditionItem.getOperator();
-        Object conditionValue = conditionItem.getValue();
+        FilterFieldSource fieldSource = conditionItem.fieldSource();
+        String fieldIdentifier = conditionItem.fieldIdentifier();
+        FilterConditionOperator operator = conditionItem.operator();
+        Object conditionValue = conditionItem.value();
 
         // First, check where from to get object value based on Field Source
         if (fieldSource == FilterFieldSource.PROPERTY) {
+            // Get value of property from the object, collection is returned if nested property is joined through collection
             Object objectValue;
-            FilterField field;
-            try {
-                field = Enum.valueOf(FilterField.class, fieldIdentifier);
-            } catch (IllegalArgumentException e) {
-                throw new RuleException("Field identifier '" + fieldIdentifier + "' is not supported.");
-            }
-            // Get value of property from the object
             try {
-                objectValue = getPropertyValue(object, field, false);
-            } catch (IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
+                objectValue = PropertyReader.readPath(object, conditionItem.propertyPath(), conditionItem.propertyPath().length > 1);
+            } catch (ReflectiveOperationException e) {
                 throw new RuleException("Cannot get property " + fieldIdentifier + " from resource " + resource + ".");
             }
 
-            FilterFieldType fieldType = field.getType().getFieldType();
-            // Apply comparing function on value in object and value in condition, based on operator and field type, return whether the condition is satisfied
+            // Apply compiled predicate on value in object, return whether the condition is satisfied
             try {
                 if (!(objectValue instanceof Collection<?> objectValues)) {
-                    return fieldTypeToOperatorActionMap.get(fieldType).get(operator).apply(objectValue, conditionValue);
+                    return conditionItem.predicate().test(objectValue);
                 }
                 for (Object item : objectValues) {
-                    Object o = getPropertyValue(item, field, true);
-                    if (!fieldTypeToOperatorActionMap.get(fieldType).get(operator).apply(o, conditionValue)) {
+                    Object o = PropertyReader.readPath(item, conditionItem.nestedPropertyPath(), false);
+                    if (!conditionItem.predicate().test(o)) {
                         return false;
                     }
                 }
@@ -151,8 +241,8 @@ public class RuleEvaluator<T> implements IRuleEvaluator<T> {
         // Check for UUID in the object, if there is no UUID, it means that the object is not yet in database and therefore won't have any attributes linked to it
         UUID objectUuid;
         try {
-            objectUuid = (UUID) PropertyUtils.getProperty(object, "uuid");
-        } catch (IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
+            objectUuid = (UUID) PropertyReader.readProperty(object, "uuid");
+        } catch (ReflectiveOperationException e) {
             throw new RuleException("Cannot get uuid from resource " + resource + ".");
         }
 
@@ -167,16 +257,11 @@ public class RuleEvaluator<T> implements IRuleEvaluator<T> {
             }
 
             if (fieldSource == FilterFieldSource.META) {
-                // If the Field Source is Meta Attribute, we expect Field Identifier to be formatted as follows 'name|contentType', since there can be multiple Meta Attributes with the same name, the Content Type must be specified
-                String[] split = fieldIdentifier.split("\\|");
-                if (split.length < 2) throw new RuleException("Field identifier is not in correct format.");
-                AttributeContentType fieldAttributeContentType = AttributeContentType.valueOf(split[1]);
-                String fieldIdentifierName = split[0];
                 // From all Metadata of the object, find those with matching Name and Content Type and evaluate condition on these, return true for the first satisfying attribute, otherwise continue wit next
                 List<MetadataResponseDto> metadata = attributeEngine.getMappedMetadataContent(new ObjectAttributeContentInfo(resource, objectUuid));
                 for (List<ResponseMetadataDto> responseMetadataDtos : metadata.stream().map(MetadataResponseDto::getItems).toList()) {
                     for (ResponseAttributeDto responseAttributeDto : responseMetadataDtos) {
-                        if (Objects.equals(responseAttributeDto.getName(), fieldIdentifierName) & fieldAttributeContentType == responseAttributeDto.getContentType()) {
+                        if (Objects.equals(responseAttributeDto.getName(), conditionItem.metadataName()) & conditionItem.metadataContentType() == responseAttributeDto.getContentType()) {
                             // Evaluate condition on each attribute content of the attribute, if at least one condition is evaluated as satisfied at least once, the condition is satisfied for the object
                             if (evaluateConditionOnAttribute(responseAttributeDto, conditionValue, operator))
                                 return true;
@@ -191,115 +276,115 @@ public class RuleEvaluator<T> implements IRuleEvaluator<T> {
         return false;
     }
 
-    @Override
-    public void performActions(Trigger trigger, T object, TriggerHistory triggerHistory) throws RuleException {
-        Class resourceClass = ResourceToClass.getClassByResource(trigger.getResource());
-        if (resourceClass == null) {
-            throw new RuleException("Unknown class for resource " + trigger.getResource().getLabel());
+    private boolean getConditionEvaluationResult(CompiledTrigger.CompiledConditionItem conditionItem, T object, TriggerHistory triggerHistory, CompiledTrigger.CompiledRule rule) {
+        try {
+            if (!evaluateCompiledConditionItem(conditionItem, object, rule.resource())) {
+                String message = String.format("Condition item '%s %s %s %s' is false.", conditionItem.fieldSource().getLabel(), conditionItem.fieldIdentifier(), conditionItem.operator().getLabel(), conditionItem.value() != null ? conditionItem.value().toString() : "");
+                logger.debug("Rule {} is not satisfied. Reason: {}", rule.name(), message);
+                TriggerHistoryRecord triggerHistoryRecord = triggerService.createTriggerHistoryRecord(triggerHistory, conditionItem.conditionUuid(), null, message);
+                triggerHistory.getRecords().add(triggerHistoryRecord);
+                return false;
+            }
+        } catch (RuleException e) {
+            TriggerHistoryRecord triggerHistoryRecord = triggerService.createTriggerHistoryRecord(triggerHistory, conditionItem.conditionUuid(), null, e.getMessage());
+            triggerHistory.getRecords().add(triggerHistoryRecord);
+            return false;
         }
+        return true;
+    }
 
-        if (!resourceClass.isInstance(object)) {
-            logger.debug("Trigger '{}' cannot be executed due to incompatible resource.", trigger.getName());
-            return;
+    private static List<CompiledTrigger.CompiledRule> compileRules(List<Rule> rules) {
+        if (rules == null) {
+            return List.of();
         }
-
-        if (trigger.getActions() != null) {
-            for (Action action : trigger.getActions()) {
-                for (Execution execution : action.getExecutions()) {
-                    for (ExecutionItem executionItem : execution.getItems()) {
-                        try {
-                            performAction(executionItem, object, trigger.getResource());
-                            logger.debug("Action with UUID {} has been performed.", action.getUuid());
-                        } catch (Exception e) {
-                            logger.debug("Action with UUID {} has not been performed. Reason: {}", action.getUuid(), e.getMessage());
-                            TriggerHistoryRecord triggerHistoryRecord = triggerService.createTriggerHistoryRecord(triggerHistory, null, execution.getUuid(), e.getMessage());
-                            triggerHistory.getRecords().add(triggerHistoryRecord);
-                        }
+        List<CompiledTrigger.CompiledRule> compiledRules = new ArrayList<>(rules.size());
+        for (Rule rule : rules) {
+            List<CompiledTrigger.CompiledConditionItem> conditionItems = new ArrayList<>();
+            if (rule.getConditions() != null) {
+                for (Condition condition : rule.getConditions()) {
+                    if (condition.getItems() == null) continue;
+                    for (ConditionItem conditionItem : condition.getItems()) {
+                        conditionItems.add(compileConditionItem(conditionItem, condition.getUuid()));
                     }
                 }
             }
+            compiledRules.add(new CompiledTrigger.CompiledRule(rule.getName(), rule.getResource(), ResourceToClass.getClassByResource(rule.getResource()), conditionItems));
         }
+        return compiledRules;
     }
 
+    private static CompiledTrigger.CompiledConditionItem compileConditionItem(ConditionItem conditionItem, UUID conditionUuid) {
+        FilterFieldSource fieldSource = conditionItem.getFieldSource();
+        String fieldIdentifier = conditionItem.getFieldIdentifier();
+        FilterConditionOperator operator = conditionItem.getOperator();
+        Object conditionValue = conditionItem.getValue();
 
-    public void performAction(ExecutionItem executionItem, T object, Resource resource) throws RuleException, NotFoundException, AttributeException, CertificateOperationException {
-        String fieldIdentifier = executionItem.getFieldIdentifier();
-        Object actionData = executionItem.getData();
-        FilterFieldSource fieldSource = executionItem.getFieldSource();
+        String[] propertyPath = null;
+        String[] nestedPropertyPath = null;
+        Predicate<Object> predicate = null;
+        String metadataName = null;
+        AttributeContentType metadataContentType = null;
+        String error = null;
 
-        // Set a property of the object using setter, the property must be set as settable
         if (fieldSource == FilterFieldSource.PROPERTY) {
-            FilterField propertyEnum = Enum.valueOf(FilterField.class, fieldIdentifier);
-            if (propertyEnum == null) {
-                throw new RuleException("Field identifier '" + fieldIdentifier + "' is not supported.");
-            }
-            if (!propertyEnum.isSettable())
-                throw new RuleException("Setting property '" + fieldIdentifier + "' is not supported.");
-            try {
-                PropertyUtils.setProperty(object, propertyEnum.getFieldAttribute().getName(), actionData);
-            } catch (IllegalArgumentException | IllegalAccessException | InvocationTargetException |
-                     NoSuchMethodException e) {
-                throw new RuleException(e.getMessage());
-            }
-        }
-        // Set a custom attribute for the object
-        if (fieldSource == FilterFieldSource.CUSTOM) {
-            UUID objectUuid;
+            FilterField field = null;
             try {
-                objectUuid = (UUID) PropertyUtils.getProperty(object, "uuid");
-            } catch (IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
-                throw new RuleException("Cannot get uuid from resource " + resource + ".");
-            }
-
-            if (objectUuid == null)
-                throw new RuleException("Cannot set custom attributes for an object not in database.");
-
-            List<BaseAttributeContent> attributeContents = AttributeDefinitionUtils.convertContentItemsFromObject(actionData);
-            attributeEngine.updateObjectCustomAttributeContent(resource, objectUuid, null, fieldIdentifier.substring(0, fieldIdentifier.indexOf("|")), attributeContents);
-        }
-    }
-
-    private Object getPropertyValue(Object object, FilterField filterField, boolean alreadyNested) throws InvocationTargetException, IllegalAccessException, NoSuchMethodException {
-        boolean isNested = filterField.getJoinAttributes() != null;
-        String pathToProperty = FilterPredicatesBuilder.buildPathToProperty(filterField, alreadyNested);
-
-        try {
-            if (alreadyNested) {
-                return PropertyUtils.getProperty(object, pathToProperty);
+                field = Enum.valueOf(FilterField.class, fieldIdentifier);
+            } catch (IllegalArgumentException | NullPointerException e) {
+                error = "Field identifier '" + fieldIdentifier + "' is not supported.";
             }
-            return PropertyUtils.getProperty(object, pathToProperty);
-        } catch (NoSuchMethodException e) {
-            if (!isNested || alreadyNested) {
-                throw e;
+            if (field != null) {
+                propertyPath = FilterPredicatesBuilder.buildPathToProperty(field, false).split("\\.");
+                nestedPropertyPath = FilterPredicatesBuilder.buildPathToProperty(field, true).split("\\.");
+                try {
+                    predicate = compileOperatorPredicate(field.getType().getFieldType(), operator, conditionValue);
+                } catch (Exception e) {
+                    error = "Condition is not set properly: " + e.getMessage();
+                }
             }
-
-            Object tmpValue = PropertyUtils.getProperty(object, filterField.getJoinAttributes().getFirst().getName());
-            if (tmpValue instanceof Collection<?>) {
-                return tmpValue;
+        } else if (fieldSource == FilterFieldSource.META) {
+            // If the Field Source is Meta Attribute, we expect Field Identifier to be formatted as follows 'name|contentType', since there can be multiple Meta Attributes with the same name, the Content Type must be specified
+            String[] split = fieldIdentifier.split("\\|");
+            try {
+                if (split.length < 2) throw new IllegalArgumentException();
+                metadataContentType = AttributeContentType.valueOf(split[1]);
+                metadataName = split[0];
+            } catch (IllegalArgumentException e) {
+                error = "Field identifier is not in correct format.";
             }
-
-            throw e;
-
         }
 
+        return new CompiledTrigger.CompiledConditionItem(conditionUuid, fieldSource, fieldIdentifier, operator, conditionValue, propertyPath, nestedPropertyPath, predicate, metadataName, metadataContentType, error);
     }
 
+    private static Predicate<Object> compileOperatorPredicate(FilterFieldType fieldType, FilterConditionOperator operator, Object conditionValue) {
+        BiFunction<Object, Object, Boolean> operatorFunction = fieldTypeToOperatorActionMap.get(fieldType).get(operator);
+        if (operatorFunction == null) {
+            throw new IllegalArgumentException("Operator " + operator + " is not supported for field type " + fieldType);
+        }
 
-    private boolean getConditionEvaluationResult(ConditionItem conditionItem, T object, TriggerHistory triggerHistory, Rule rule) {
-        try {
-            if (!evaluateConditionItem(conditionItem, object, rule.getResource())) {
-                String message = String.format("Condition item '%s %s %s %s' is false.", conditionItem.getFieldSource().getLabel(), conditionItem.getFieldIdentifier(), conditionItem.getOperator().getLabel(), conditionItem.getValue() != null ? conditionItem.getValue().toString() : "");
-                logger.debug("Rule {} is not satisfied. Reason: {}", rule.getName(), message);
-                TriggerHistoryRecord triggerHistoryRecord = triggerService.createTriggerHistoryRecord(triggerHistory, conditionItem.getCondition().getUuid(), null, message);
-                triggerHistory.getRecords().add(triggerHistoryRecord);
-                return false;
+        // Condition values of comparing operators are parsed once, so that evaluation only compares them with object value
+        IntPredicate comparisonResultPredicate = comparisonResultPredicateMap.get(operator);
+        if (comparisonResultPredicate != null) {
+            switch (fieldType) {
+                case NUMBER -> {
+                    float conditionNumber = ((Number) conditionValue).floatValue();
+                    return o -> comparisonResultPredicate.test(Float.compare(((Number) o).floatValue(), conditionNumber));
+                }
+                case DATE -> {
+                    LocalDate conditionDate = LocalDate.parse(conditionValue.toString());
+                    return o -> comparisonResultPredicate.test(((Date) o).toInstant().atZone(ZoneId.systemDefault()).toLocalDate().compareTo(conditionDate));
+                }
+                case DATETIME -> {
+                    LocalDateTime conditionDateTime = LocalDateTime.parse(conditionValue.toString(), DATETIME_FORMATTER);
+                    return o -> comparisonResultPredicate.test(((Date) o).toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime().compareTo(conditionDateTime));
+                }
+                default -> {
+                    // other field types are evaluated by operator function
+                }
             }
-        } catch (RuleException e) {
-            TriggerHistoryRecord triggerHistoryRecord = triggerService.createTriggerHistoryRecord(triggerHistory, conditionItem.getCondition().getUuid(), null, e.getMessage());
-            triggerHistory.getRecords().add(triggerHistoryRecord);
-            return false;
         }
-        return true;
+        return o -> operatorFunction.apply(o, conditionValue);
     }
 
     private static final Map<FilterConditionOperator, BiFunction<Object, Object, Boolean>> commonOperatorFunctionMap;
@@ -308,6 +393,7 @@ public class RuleEvaluator<T> implements IRuleEvaluator<T> {
     private static final Map<FilterConditionOperator, BiFunction<Object, Object, Boolean>> numberOperatorFunctionMap;
     private static final Map<FilterConditionOperator, BiFunction<Object, Object, Boolean>> dateOperatorFunctionMap;
     private static final Map<FilterConditionOperator, BiFunction<Object, Object, Boolean>> datetimeOperatorFunctionMap;
+    private static final Map<FilterConditionOperator, IntPredicate> comparisonResultPredicateMap;
 
 
     static {
@@ -345,15 +431,21 @@ public class RuleEvaluator<T> implements IRuleEvaluator<T> {
 
         datetimeOperatorFunctionMap = new HashMap<>();
         datetimeOperatorFunctionMap.putAll(commonOperatorFunctionMap);
-        datetimeOperatorFunctionMap.put(FilterConditionOperator.GREATER, (o, c) -> ((Date) o).toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime().isAfter(LocalDateTime.parse(c.toString(), DateTimeFormatter.ofPattern(DATETIME_FORMAT))));
-        datetimeOperatorFunctionMap.put(FilterConditionOperator.GREATER_OR_EQUAL, (o, c) -> !(((Date) o).toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime().isBefore(LocalDateTime.parse(c.toString(), DateTimeFormatter.ofPattern(DATETIME_FORMAT)))));
-        datetimeOperatorFunctionMap.put(FilterConditionOperator.LESSER, (o, c) -> ((Date) o).toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime().isBefore(LocalDateTime.parse(c.toString(), DateTimeFormatter.ofPattern(DATETIME_FORMAT))));
-        datetimeOperatorFunctionMap.put(FilterConditionOperator.LESSER_OR_EQUAL, (o, c) -> !(((Date) o).toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime().isAfter(LocalDateTime.parse(c.toString(), DateTimeFormatter.ofPattern(DATETIME_FORMAT)))));
+        datetimeOperatorFunctionMap.put(FilterConditionOperator.GREATER, (o, c) -> ((Date) o).toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime().isAfter(LocalDateTime.parse(c.toString(), DATETIME_FORMATTER)));
+        datetimeOperatorFunctionMap.put(FilterConditionOperator.GREATER_OR_EQUAL, (o, c) -> !(((Date) o).toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime().isBefore(LocalDateTime.parse(c.toString(), DATETIME_FORMATTER))));
+        datetimeOperatorFunctionMap.put(FilterConditionOperator.LESSER, (o, c) -> ((Date) o).toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime().isBefore(LocalDateTime.parse(c.toString(), DATETIME_FORMATTER)));
+        datetimeOperatorFunctionMap.put(FilterConditionOperator.LESSER_OR_EQUAL, (o, c) -> !(((Date) o).toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime().isAfter(LocalDateTime.parse(c.toString(), DATETIME_FORMATTER))));
         fieldTypeToOperatorActionMap.put(FilterFieldType.DATETIME, datetimeOperatorFunctionMap);
 
         fieldTypeToOperatorActionMap.put(FilterFieldType.LIST, commonOperatorFunctionMap);
         fieldTypeToOperatorActionMap.put(FilterFieldType.BOOLEAN, commonOperatorFunctionMap);
 
+        comparisonResultPredicateMap = new EnumMap<>(FilterConditionOperator.class);
+        comparisonResultPredicateMap.put(FilterConditionOperator.GREATER, r -> r > 0);
+        comparisonResultPredicateMap.put(FilterConditionOperator.GREATER_OR_EQUAL, r -> r >= 0);
+        comparisonResultPredicateMap.put(FilterConditionOperator.LESSER, r -> r < 0);
+        comparisonResultPredicateMap.put(FilterConditionOperator.LESSER_OR_EQUAL, r -> r <= 0);
+
     }
 
     private static int compareNumbers(Number objectNumber, Number conditionNumber) {
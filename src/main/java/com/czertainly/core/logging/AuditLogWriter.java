@@ -0,0 +1,379 @@
+package com.czertainly.core.logging;
+
+import com.czertainly.api.model.core.logging.records.LogRecord;
+import com.czertainly.core.dao.entity.AuditLog;
+import com.czertainly.core.dao.repository.AuditLogRepository;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous writer of audit logs to database. Log records are queued in bounded ring buffer and inserted in batches
+ * by single background thread in its own transaction, so audited operations do not wait for insert of the audit log.
+ * When buffer is full, overflow policy decides whether caller waits for free space, record is dropped or record is
+ * spilled to disk. With spill policy, records that could not be inserted are spilled to disk too. Spilled records are
+ * inserted when buffer is drained and at least once per replay interval, records of spill file that could not be
+ * inserted again are kept in the file for next replay.
+ */
+@Component
+public class AuditLogWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    private static final String SPILL_FILE_NAME = "audit-log-spill.jsonl";
+    private static final String REPLAY_FILE_SUFFIX = ".replay";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    static {
+        MAPPER.findAndRegisterModules();
+        MAPPER.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+        MAPPER.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        MAPPER.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    }
+
+    public enum OverflowPolicy {
+        BLOCK, DROP, SPILL
+    }
+
+    @Value("${auditLog.writer.async.enabled:true}")
+    private boolean asyncEnabled;
+
+    @Value("${auditLog.writer.buffer-size:10000}")
+    private int bufferSize;
+
+    @Value("${auditLog.writer.batch-size:500}")
+    private int batchSize;
+
+    @Value("${auditLog.writer.overflow-policy:BLOCK}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${auditLog.writer.spill-directory:${java.io.tmpdir}/czertainly-audit-log}")
+    private String spillDirectory;
+
+    @Value("${auditLog.writer.replay-interval:60000}")
+    private long replayInterval;
+
+    private BlockingQueue<PendingAuditLog> buffer;
+    private Thread writerThread;
+    private volatile boolean running;
+    private final Object spillLock = new Object();
+
+    private AuditLogRepository auditLogRepository;
+    private PlatformTransactionManager transactionManager;
+    private MeterRegistry meterRegistry;
+
+    private Counter writtenCounter;
+    private Counter droppedCounter;
+    private Counter spilledCounter;
+    private Counter failedCounter;
+
+    @Autowired
+    public void setAuditLogRepository(AuditLogRepository auditLogRepository) {
+        this.auditLogRepository = auditLogRepository;
+    }
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionManager = transactionManager;
+    }
+
+    @Autowired
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!asyncEnabled) return;
+
+        buffer = new ArrayBlockingQueue<>(bufferSize);
+        Gauge.builder("audit.log.writer.buffer.size", buffer, BlockingQueue::size)
+                .description("Number of audit logs waiting to be written to database")
+                .register(meterRegistry);
+        Gauge.builder("audit.log.writer.lag", this, AuditLogWriter::getLagSeconds)
+                .description("Time the oldest audit log waiting to be written to database is queued")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        writtenCounter = Counter.builder("audit.log.writer.written")
+                .description("Number of audit logs written to database")
+                .register(meterRegistry);
+        droppedCounter = Counter.builder("audit.log.writer.dropped")
+                .description("Number of audit logs dropped because buffer was full")
+                .register(meterRegistry);
+        spilledCounter = Counter.builder("audit.log.writer.spilled")
+                .description("Number of audit logs spilled to disk because buffer was full")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("audit.log.writer.failed")
+                .description("Number of audit logs that could not be written to database")
+                .register(meterRegistry);
+
+        running = true;
+        writerThread = Thread.ofVirtual().name("audit-log-writer").start(this::writeBufferedLogs);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!asyncEnabled) return;
+
+        running = false;
+        writerThread.interrupt();
+        writerThread.join(TimeUnit.SECONDS.toMillis(30));
+        // write audit logs buffered after writer thread finished, spilled audit logs stay on disk for next start
+        List<PendingAuditLog> remaining = new ArrayList<>();
+        buffer.drainTo(remaining);
+        for (int i = 0; i < remaining.size(); i += batchSize) {
+            writeBatchOrSpill(remaining.subList(i, Math.min(remaining.size(), i + batchSize)).stream().map(PendingAuditLog::logRecord).toList());
+        }
+    }
+
+    /**
+     * Write audit log to database, asynchronously if enabled
+     *
+     * @param logRecord audit log record
+     */
+    public void write(LogRecord logRecord) {
+        if (!asyncEnabled) {
+            auditLogRepository.save(AuditLog.fromLogRecord(logRecord));
+            return;
+        }
+
+        PendingAuditLog pendingAuditLog = new PendingAuditLog(logRecord, System.nanoTime());
+        if (buffer.offer(pendingAuditLog)) {
+            return;
+        }
+
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                try {
+                    buffer.put(pendingAuditLog);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    logger.warn("Interrupted while waiting for space in audit log buffer, audit log is written synchronously");
+                    writeBatchOrSpill(List.of(logRecord));
+                }
+            }
+            case DROP -> {
+                droppedCounter.increment();
+                logger.warn("Buffer of audit log writer is full, audit log of operation {} on {} was dropped", logRecord.operation(), logRecord.resource().type());
+            }
+            case SPILL -> spill(logRecord);
+        }
+    }
+
+    private void writeBufferedLogs() {
+        List<LogRecord> batch = new ArrayList<>(batchSize);
+        List<PendingAuditLog> pendingBatch = new ArrayList<>(batchSize);
+        long lastReplay = System.nanoTime();
+        while (running) {
+            try {
+                PendingAuditLog first = buffer.poll(1, TimeUnit.SECONDS);
+                // insert audit logs spilled to disk when buffer is drained, but also periodically under sustained load
+                if (first == null || System.nanoTime() - lastReplay >= TimeUnit.MILLISECONDS.toNanos(replayInterval)) {
+                    replaySpilledLogs();
+                    lastReplay = System.nanoTime();
+                }
+                if (first == null) {
+                    continue;
+                }
+                pendingBatch.add(first);
+                buffer.drainTo(pendingBatch, batchSize - 1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            for (PendingAuditLog pendingAuditLog : pendingBatch) {
+                batch.add(pendingAuditLog.logRecord());
+            }
+            writeBatchOrSpill(batch);
+            batch.clear();
+            pendingBatch.clear();
+        }
+    }
+
+    private void writeBatchOrSpill(List<LogRecord> logRecords) {
+        for (LogRecord logRecord : writeBatch(logRecords)) {
+            if (overflowPolicy == OverflowPolicy.SPILL) {
+                // spilled audit log is written again when spilled audit logs are replayed
+                spill(logRecord);
+            } else {
+                failedCounter.increment();
+                logger.error("Audit log of operation {} on {} could not be written to database and was dropped", logRecord.operation(), logRecord.resource().type());
+            }
+        }
+    }
+
+    /**
+     * Write audit logs to database in single transaction, or one by one when batch fails
+     *
+     * @param logRecords audit log records
+     * @return audit log records that could not be written
+     */
+    private List<LogRecord> writeBatch(List<LogRecord> logRecords) {
+        List<AuditLog> auditLogs = logRecords.stream().map(AuditLog::fromLogRecord).toList();
+        try {
+            saveInTransaction(auditLogs);
+            writtenCounter.increment(auditLogs.size());
+            return List.of();
+        } catch (Exception e) {
+            // batch is rolled back as whole, write audit logs one by one so that single invalid audit log does not discard others
+            logger.debug("Batch insert of {} audit logs failed, audit logs will be written one by one. Error: {}", auditLogs.size(), e.getMessage());
+        }
+
+        List<LogRecord> failedLogRecords = new ArrayList<>();
+        for (LogRecord logRecord : logRecords) {
+            try {
+                saveInTransaction(List.of(AuditLog.fromLogRecord(logRecord)));
+                writtenCounter.increment();
+            } catch (Exception e) {
+                failedLogRecords.add(logRecord);
+                logger.warn("Unable to write audit log of operation {} on {}: {}", logRecord.operation(), logRecord.resource().type(), e.getMessage());
+            }
+        }
+        return failedLogRecords;
+    }
+
+    private void saveInTransaction(List<AuditLog> auditLogs) {
+        TransactionStatus status = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        try {
+            auditLogRepository.saveAll(auditLogs);
+            transactionManager.commit(status);
+        } catch (RuntimeException e) {
+            if (!status.isCompleted()) transactionManager.rollback(status);
+            throw e;
+        }
+    }
+
+    private void spill(LogRecord logRecord) {
+        try {
+            String line = MAPPER.writeValueAsString(logRecord) + System.lineSeparator();
+            synchronized (spillLock) {
+                Path directory = Path.of(spillDirectory);
+                Files.createDirectories(directory);
+                Files.writeString(directory.resolve(SPILL_FILE_NAME), line, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            spilledCounter.increment();
+        } catch (IOException e) {
+            droppedCounter.increment();
+            logger.error("Unable to spill audit log of operation {} on {} to disk, audit log was dropped: {}", logRecord.operation(), logRecord.resource().type(), e.getMessage());
+        }
+    }
+
+    private void replaySpilledLogs() {
+        Path directory = Path.of(spillDirectory);
+        if (!Files.isDirectory(directory)) return;
+
+        try {
+            // move spill file aside, so that new audit logs are spilled to new file while this one is replayed
+            synchronized (spillLock) {
+                Path spillFile = directory.resolve(SPILL_FILE_NAME);
+                if (Files.exists(spillFile)) {
+                    Files.move(spillFile, directory.resolve(SPILL_FILE_NAME + "." + System.currentTimeMillis() + REPLAY_FILE_SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+
+            List<Path> replayFiles = new ArrayList<>();
+            try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directory, "*" + REPLAY_FILE_SUFFIX)) {
+                directoryStream.forEach(replayFiles::add);
+            }
+            for (Path replayFile : replayFiles) {
+                List<String> remainingLines = replaySpillFile(replayFile);
+                if (remainingLines.isEmpty()) {
+                    Files.delete(replayFile);
+                } else {
+                    // keep only audit logs that were not written, so that written ones are not replayed again
+                    logger.warn("{} audit logs spilled to disk in file {} could not be written to database and will be replayed later", remainingLines.size(), replayFile);
+                    Path remainderFile = replayFile.resolveSibling(replayFile.getFileName() + ".tmp");
+                    Files.write(remainderFile, remainingLines, StandardCharsets.UTF_8);
+                    Files.move(remainderFile, replayFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Unable to replay audit logs spilled to disk: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Write audit logs spilled to disk in the file to database
+     *
+     * @param replayFile file with spilled audit logs
+     * @return lines of the file with audit logs that could not be written
+     */
+    private List<String> replaySpillFile(Path replayFile) throws IOException {
+        logger.debug("Writing audit logs spilled to disk from file {}", replayFile);
+        List<String> remainingLines = new ArrayList<>();
+        List<LogRecord> batch = new ArrayList<>(batchSize);
+        List<String> batchLines = new ArrayList<>(batchSize);
+        try (BufferedReader reader = Files.newBufferedReader(replayFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                try {
+                    batch.add(MAPPER.readValue(line, LogRecord.class));
+                    batchLines.add(line);
+                } catch (IOException e) {
+                    // unreadable line is never written, so it is not kept for next replay
+                    failedCounter.increment();
+                    logger.error("Unable to read audit log spilled to disk: {}", e.getMessage());
+                }
+                if (batch.size() == batchSize) {
+                    replayBatch(batch, batchLines, remainingLines);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            replayBatch(batch, batchLines, remainingLines);
+        }
+        return remainingLines;
+    }
+
+    private void replayBatch(List<LogRecord> batch, List<String> batchLines, List<String> remainingLines) {
+        Map<LogRecord, String> linesByLogRecord = new IdentityHashMap<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            linesByLogRecord.put(batch.get(i), batchLines.get(i));
+        }
+        for (LogRecord failedLogRecord : writeBatch(batch)) {
+            remainingLines.add(linesByLogRecord.get(failedLogRecord));
+        }
+        batch.clear();
+        batchLines.clear();
+    }
+
+    private double getLagSeconds() {
+        PendingAuditLog oldest = buffer.peek();
+        return oldest == null ? 0 : (System.nanoTime() - oldest.enqueuedAt()) / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    private record PendingAuditLog(LogRecord logRecord, long enqueuedAt) {
+    }
+}
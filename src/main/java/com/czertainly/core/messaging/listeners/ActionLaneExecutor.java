@@ -0,0 +1,162 @@
+package com.czertainly.core.messaging.listeners;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.ImmediateRequeueAmqpException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor of actions in independent lanes. Each lane, e.g. actions of one authority instance, has its own concurrency
+ * limit and its own limit of waiting actions, so slow processing in one lane does not delay other lanes. Actions of
+ * a lane are started in order of submission, but with concurrency greater than one they run in parallel and can finish
+ * in any order. Action submitted to a lane with full backlog is rejected with {@link ImmediateRequeueAmqpException}
+ * after requeue delay, so its message is returned to the queue instead of holding consumer prefetch. Lanes without
+ * any queued or active action are removed together with their metrics. When partitioning is disabled, all actions are
+ * processed one by one in single lane.
+ */
+@Component
+public class ActionLaneExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActionLaneExecutor.class);
+
+    public static final String DEFAULT_LANE = "default";
+
+    private final boolean partitioned;
+    private final int laneConcurrency;
+    private final int laneMaxQueued;
+    private final long laneRequeueDelay;
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("action-lane-", 0).factory());
+
+    private MeterRegistry meterRegistry;
+
+    public ActionLaneExecutor(@Value("${messaging.actions.partitioned.enabled:true}") boolean partitioned,
+                              @Value("${messaging.actions.lane-concurrency:4}") int laneConcurrency,
+                              @Value("${messaging.actions.lane-max-queued:50}") int laneMaxQueued,
+                              @Value("${messaging.actions.lane-requeue-delay:1000}") long laneRequeueDelay) {
+        this.partitioned = partitioned;
+        this.laneConcurrency = partitioned ? Math.max(1, laneConcurrency) : 1;
+        this.laneMaxQueued = Math.max(1, laneMaxQueued);
+        this.laneRequeueDelay = Math.max(0, laneRequeueDelay);
+    }
+
+    @Autowired
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public boolean isPartitioned() {
+        return partitioned;
+    }
+
+    /**
+     * Submit action to the lane
+     *
+     * @param laneKey key of the lane, ignored when partitioning is disabled
+     * @param action  action to be performed
+     * @return future completed when the action is performed, or failed with {@link ImmediateRequeueAmqpException}
+     * when backlog of the lane is full
+     */
+    public CompletableFuture<Void> submit(String laneKey, Callable<?> action) {
+        String key = partitioned && laneKey != null ? laneKey : DEFAULT_LANE;
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        // queued count is incremented under the map lock, so the lane cannot be removed as idle meanwhile
+        Lane lane = lanes.compute(key, (k, existing) -> {
+            Lane current = existing != null ? existing : createLane(k);
+            current.queued().incrementAndGet();
+            return current;
+        });
+
+        if (lane.queued().get() > laneMaxQueued) {
+            lane.queued().decrementAndGet();
+            removeIfIdle(lane);
+            logger.debug("Backlog of action lane {} is full, action is returned to the queue", key);
+            CompletableFuture.delayedExecutor(laneRequeueDelay, TimeUnit.MILLISECONDS, executor)
+                    .execute(() -> result.completeExceptionally(new ImmediateRequeueAmqpException("Backlog of action lane " + key + " is full")));
+            return result;
+        }
+
+        try {
+            executor.execute(() -> runInLane(lane, action, result));
+        } catch (RejectedExecutionException e) {
+            lane.queued().decrementAndGet();
+            removeIfIdle(lane);
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            logger.warn("Actions still being processed were interrupted on shutdown");
+            executor.shutdownNow();
+        }
+    }
+
+    private void runInLane(Lane lane, Callable<?> action, CompletableFuture<Void> result) {
+        try {
+            lane.permits().acquire();
+        } catch (InterruptedException e) {
+            lane.queued().decrementAndGet();
+            removeIfIdle(lane);
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+            return;
+        }
+        // active count is incremented before queued is decremented, so the lane is never seen idle in between
+        lane.active().incrementAndGet();
+        lane.queued().decrementAndGet();
+        try {
+            action.call();
+            result.complete(null);
+        } catch (Throwable e) {
+            result.completeExceptionally(e);
+        } finally {
+            lane.active().decrementAndGet();
+            lane.permits().release();
+            removeIfIdle(lane);
+        }
+    }
+
+    private void removeIfIdle(Lane lane) {
+        lanes.computeIfPresent(lane.key(), (k, current) -> {
+            if (current != lane || current.queued().get() > 0 || current.active().get() > 0) {
+                return current;
+            }
+            current.meters().forEach(meterRegistry::remove);
+            logger.debug("Removed idle action lane {}", k);
+            return null;
+        });
+    }
+
+    private Lane createLane(String laneKey) {
+        AtomicInteger queued = new AtomicInteger();
+        AtomicInteger active = new AtomicInteger();
+        Gauge queuedGauge = Gauge.builder("messaging.actions.lane.queued", queued, AtomicInteger::get)
+                .description("Number of actions waiting for processing in the lane")
+                .tag("lane", laneKey)
+                .register(meterRegistry);
+        Gauge activeGauge = Gauge.builder("messaging.actions.lane.active", active, AtomicInteger::get)
+                .description("Number of actions being processed in the lane")
+                .tag("lane", laneKey)
+                .register(meterRegistry);
+        logger.debug("Created action lane {} with concurrency {}", laneKey, laneConcurrency);
+        return new Lane(laneKey, new Semaphore(laneConcurrency, true), queued, active, List.of(queuedGauge, activeGauge));
+    }
+
+    private record Lane(String key, Semaphore permits, AtomicInteger queued, AtomicInteger active, List<Meter> meters) {
+    }
+}
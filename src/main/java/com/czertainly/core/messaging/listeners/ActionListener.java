@@ -1,160 +1,87 @@
 package com.czertainly.core.messaging.listeners;
 
-import com.czertainly.api.exception.*;
-import com.czertainly.api.model.client.approval.ApprovalStatusEnum;
-import com.czertainly.api.model.core.v2.ClientCertificateRekeyRequestDto;
-import com.czertainly.api.model.core.v2.ClientCertificateRenewRequestDto;
-import com.czertainly.api.model.core.v2.ClientCertificateRevocationDto;
-import com.czertainly.core.dao.entity.Approval;
-import com.czertainly.core.dao.entity.ApprovalProfileRelation;
-import com.czertainly.core.dao.entity.ApprovalProfileVersion;
-import com.czertainly.core.dao.repository.ApprovalProfileRelationRepository;
+import com.czertainly.api.model.core.auth.Resource;
+import com.czertainly.core.dao.entity.Certificate;
+import com.czertainly.core.dao.entity.RaProfile;
+import com.czertainly.core.dao.repository.CertificateRepository;
+import com.czertainly.core.dao.repository.RaProfileRepository;
 import com.czertainly.core.messaging.configuration.RabbitMQConstants;
 import com.czertainly.core.messaging.model.ActionMessage;
-import com.czertainly.core.messaging.model.NotificationRecipient;
-import com.czertainly.core.messaging.producers.NotificationProducer;
-import com.czertainly.core.service.ApprovalService;
-import com.czertainly.core.service.v2.ClientOperationService;
-import com.czertainly.core.util.AuthHelper;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.ImmediateRequeueAmqpException;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.security.NoSuchAlgorithmException;
-import java.security.cert.CertificateException;
-import java.util.List;
-import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * Listener of the actions queue. Actions are routed by authority instance of their RA profile to independent lanes
+ * of {@link ActionLaneExecutor}, so that slow authority does not block actions of other authorities. Message is
+ * acknowledged when its action is processed, returned to the queue when backlog of its lane is full and rejected
+ * without requeue when processing fails.
+ */
 @Component
-@Transactional
 public class ActionListener {
     private static final Logger logger = LoggerFactory.getLogger(ActionListener.class);
 
-    private ApprovalProfileRelationRepository approvalProfileRelationRepository;
+    private ActionProcessor actionProcessor;
 
-    private ApprovalService approvalService;
+    private ActionLaneExecutor actionLaneExecutor;
 
-    private ClientOperationService clientOperationService;
+    private CertificateRepository certificateRepository;
 
-    private final ObjectMapper mapper = new ObjectMapper();
-
-    private NotificationProducer notificationProducer;
-
-    private AuthHelper authHelper;
+    private RaProfileRepository raProfileRepository;
 
     @RabbitListener(queues = RabbitMQConstants.QUEUE_ACTIONS_NAME, messageConverter = "jsonMessageConverter")
-    public void processMessage(final ActionMessage actionMessage) throws MessageHandlingException {
-        boolean hasApproval = actionMessage.getApprovalUuid() != null;
-        boolean isApproved = hasApproval && actionMessage.getApprovalStatus().equals(ApprovalStatusEnum.APPROVED);
-
-        if (!hasApproval) {
-            final Optional<List<ApprovalProfileRelation>> approvalProfileRelationOptional = approvalProfileRelationRepository.findByResourceUuidAndResource(actionMessage.getApprovalProfileResourceUuid(), actionMessage.getApprovalProfileResource());
-            if (approvalProfileRelationOptional.isPresent() && !approvalProfileRelationOptional.get().isEmpty()) {
-                try {
-                    final ApprovalProfileRelation approvalProfileRelation = approvalProfileRelationOptional.get().get(0);
-                    final ApprovalProfileVersion approvalProfileVersion = approvalProfileRelation.getApprovalProfile().getTheLatestApprovalProfileVersion();
-                    final Approval approval = approvalService.createApproval(approvalProfileVersion, actionMessage.getResource(), actionMessage.getResourceAction(), actionMessage.getResourceUuid(), actionMessage.getUserUuid(), actionMessage.getData());
-                    logger.info("Created new Approval {} for object {}", approval.getUuid(), actionMessage.getResourceUuid());
-                    processApprovalCreated(actionMessage);
-                } catch (Exception e) {
-                    String errorMessage = String.format("Cannot create new approval to approve %s %s action!", actionMessage.getResource().getLabel(), actionMessage.getResourceAction().getCode());
-                    logger.error("{}: {}", errorMessage, e.getMessage());
-                    notificationProducer.produceNotificationText(actionMessage.getResource(), actionMessage.getResourceUuid(),
-                            NotificationRecipient.buildUserNotificationRecipient(actionMessage.getUserUuid()), errorMessage, e.getMessage());
-                    throw new MessageHandlingException(RabbitMQConstants.QUEUE_ACTIONS_NAME, actionMessage, "Handling of action approval creation failed: " + e.getMessage());
-                }
-                return;
-            }
-        }
-
-        try {
-            authHelper.authenticateAsUser(actionMessage.getUserUuid());
-            processAction(actionMessage, hasApproval, isApproved);
-        } catch (Exception e) {
-            String errorMessage = String.format("Failed to perform %s %s%s action!", actionMessage.getResource().getLabel(), actionMessage.getResourceAction().getCode(), !hasApproval || isApproved ? "" : " rejected");
-            logger.error("{}: {}", errorMessage, e.getMessage());
-            notificationProducer.produceNotificationText(actionMessage.getResource(), actionMessage.getResourceUuid(),
-                    NotificationRecipient.buildUserNotificationRecipient(actionMessage.getUserUuid()), errorMessage, e.getMessage());
-            throw new MessageHandlingException(RabbitMQConstants.QUEUE_ACTIONS_NAME, actionMessage, "Unable to process action: " + e.getMessage());
-        }
-    }
-
-    private void processApprovalCreated(final ActionMessage actionMessage) throws NotFoundException {
-        switch (actionMessage.getResource()) {
-            case CERTIFICATE -> clientOperationService.approvalCreatedAction(actionMessage.getResourceUuid());
-            default ->
-                    logger.error("Action listener does not support resource {}", actionMessage.getResource().getLabel());
-        }
+    public CompletableFuture<Void> processMessage(final ActionMessage actionMessage) {
+        String laneKey = actionLaneExecutor.isPartitioned() ? getLaneKey(actionMessage) : ActionLaneExecutor.DEFAULT_LANE;
+        return actionLaneExecutor.submit(laneKey, () -> {
+            actionProcessor.processMessage(actionMessage);
+            return null;
+        }).exceptionallyCompose(e -> CompletableFuture.failedFuture(e instanceof ImmediateRequeueAmqpException ? e : new AmqpRejectAndDontRequeueException(e.getMessage(), e)));
     }
 
-    private void processAction(final ActionMessage actionMessage, boolean hasApproval, boolean isApproved) throws CertificateOperationException, ConnectorException, CertificateException, NoSuchAlgorithmException, AlreadyExistException {
-        switch (actionMessage.getResource()) {
-            case CERTIFICATE -> processCertificateAction(actionMessage, hasApproval, isApproved);
-            default ->
-                    logger.error("Action listener does not support resource {}", actionMessage.getResource().getLabel());
-        }
-    }
-
-    private void processCertificateAction(final ActionMessage actionMessage, boolean hasApproval, boolean isApproved) throws ConnectorException, CertificateException, NoSuchAlgorithmException, AlreadyExistException, CertificateOperationException {
-        // handle rejected actions
-        if (hasApproval && !isApproved) {
-            switch (actionMessage.getResourceAction()) {
-                case ISSUE, RENEW, REKEY ->
-                        clientOperationService.issueCertificateRejectedAction(actionMessage.getResourceUuid());
-                default ->
-                        logger.debug("Action listener does not handle reject of action {} for resource {}", actionMessage.getResourceAction().getCode(), actionMessage.getResource().getLabel());
-            }
-            return;
-        }
-
-        // handle
-        switch (actionMessage.getResourceAction()) {
-            case ISSUE -> clientOperationService.issueCertificateAction(actionMessage.getResourceUuid(), isApproved);
-            case REKEY -> {
-                final ClientCertificateRekeyRequestDto clientCertificateRekeyRequestDto = mapper.convertValue(actionMessage.getData(), ClientCertificateRekeyRequestDto.class);
-                clientOperationService.rekeyCertificateAction(actionMessage.getResourceUuid(), clientCertificateRekeyRequestDto, isApproved);
-            }
-            case RENEW -> {
-                final ClientCertificateRenewRequestDto clientCertificateRenewRequestDto = mapper.convertValue(actionMessage.getData(), ClientCertificateRenewRequestDto.class);
-                clientOperationService.renewCertificateAction(actionMessage.getResourceUuid(), clientCertificateRenewRequestDto, isApproved);
+    private String getLaneKey(final ActionMessage actionMessage) {
+        try {
+            UUID raProfileUuid = actionMessage.getApprovalProfileResource() == Resource.RA_PROFILE ? actionMessage.getApprovalProfileResourceUuid() : null;
+            if (raProfileUuid == null && actionMessage.getResource() == Resource.CERTIFICATE && actionMessage.getResourceUuid() != null) {
+                raProfileUuid = certificateRepository.findByUuid(actionMessage.getResourceUuid()).map(Certificate::getRaProfileUuid).orElse(null);
             }
-            case REVOKE -> {
-                final ClientCertificateRevocationDto clientCertificateRevocationDto = mapper.convertValue(actionMessage.getData(), ClientCertificateRevocationDto.class);
-                clientOperationService.revokeCertificateAction(actionMessage.getResourceUuid(), clientCertificateRevocationDto, isApproved);
+            if (raProfileUuid == null) {
+                return ActionLaneExecutor.DEFAULT_LANE;
             }
-            default ->
-                    logger.error("Action listener does not support action {} for resource {}", actionMessage.getResourceAction().getCode(), actionMessage.getResource().getLabel());
+
+            UUID authorityInstanceUuid = raProfileRepository.findByUuid(raProfileUuid).map(RaProfile::getAuthorityInstanceReferenceUuid).orElse(null);
+            return authorityInstanceUuid != null ? authorityInstanceUuid.toString() : raProfileUuid.toString();
+        } catch (Exception e) {
+            logger.warn("Unable to determine lane of action {} of {} {}: {}", actionMessage.getResourceAction(), actionMessage.getResource(), actionMessage.getResourceUuid(), e.getMessage());
+            return ActionLaneExecutor.DEFAULT_LANE;
         }
     }
 
     // SETTERs
 
     @Autowired
-    public void setApprovalProfileRelationRepository(ApprovalProfileRelationRepository approvalProfileRelationRepository) {
-        this.approvalProfileRelationRepository = approvalProfileRelationRepository;
-    }
-
-    @Autowired
-    public void setApprovalService(ApprovalService approvalService) {
-        this.approvalService = approvalService;
+    public void setActionProcessor(ActionProcessor actionProcessor) {
+        this.actionProcessor = actionProcessor;
     }
 
     @Autowired
-    public void setClientOperationService(ClientOperationService clientOperationService) {
-        this.clientOperationService = clientOperationService;
+    public void setActionLaneExecutor(ActionLaneExecutor actionLaneExecutor) {
+        this.actionLaneExecutor = actionLaneExecutor;
     }
 
     @Autowired
-    public void setNotificationProducer(NotificationProducer notificationProducer) {
-        this.notificationProducer = notificationProducer;
+    public void setCertificateRepository(CertificateRepository certificateRepository) {
+        this.certificateRepository = certificateRepository;
     }
 
     @Autowired
-    public void setAuthHelper(AuthHelper authHelper) {
-        this.authHelper = authHelper;
+    public void setRaProfileRepository(RaProfileRepository raProfileRepository) {
+        this.raProfileRepository = raProfileRepository;
     }
 }
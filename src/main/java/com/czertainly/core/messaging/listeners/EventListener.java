@@ -3,6 +3,7 @@ package com.czertainly.core.messaging.listeners;
 import com.czertainly.api.model.core.auth.Resource;
 import com.czertainly.api.model.core.certificate.CertificateEvent;
 import com.czertainly.api.model.core.certificate.CertificateEventStatus;
+import com.czertainly.core.dao.entity.CertificateEventHistory;
 import com.czertainly.core.messaging.configuration.RabbitMQConstants;
 import com.czertainly.core.messaging.model.EventMessage;
 import com.czertainly.core.service.CertificateEventHistoryService;
@@ -11,12 +12,12 @@ import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 @Component
-@Transactional
 public class EventListener {
 
     private static final Logger logger = LoggerFactory.getLogger(EventListener.class);
@@ -28,13 +29,46 @@ public class EventListener {
         this.certificateEventHistoryService = certificateEventHistoryService;
     }
 
-    @RabbitListener(queues = RabbitMQConstants.QUEUE_EVENTS_NAME, messageConverter = "jsonMessageConverter", concurrency = "3")
-    public void processMessage(EventMessage eventMessage) {
-        if (Objects.requireNonNull(eventMessage.getResource()) == Resource.CERTIFICATE) {
-            certificateEventHistoryService.addEventHistory(eventMessage.getResourceUUID(), CertificateEvent.findByCode(eventMessage.getEventName()), CertificateEventStatus.valueOf(eventMessage.getEventStatus()), eventMessage.getEventMessage(), eventMessage.getEventDetail());
-        } else {
-            logger.warn("Event handling is supported only for certificates for now");
+    @RabbitListener(queues = RabbitMQConstants.QUEUE_EVENTS_NAME, containerFactory = "batchListenerContainerFactory", concurrency = "3")
+    public void processMessages(List<EventMessage> eventMessages) {
+        List<CertificateEventHistory> histories = new ArrayList<>(eventMessages.size());
+        for (EventMessage eventMessage : eventMessages) {
+            if (Objects.requireNonNull(eventMessage.getResource()) == Resource.CERTIFICATE) {
+                try {
+                    histories.add(mapToEventHistory(eventMessage));
+                } catch (Exception e) {
+                    logger.warn("Unable to process event message {}: {}", eventMessage, e.getMessage());
+                }
+            } else {
+                logger.warn("Event handling is supported only for certificates for now");
+            }
         }
+        if (histories.isEmpty()) return;
+
+        try {
+            certificateEventHistoryService.addEventHistories(histories);
+            logger.debug("Recorded {} certificate events", histories.size());
+        } catch (Exception e) {
+            // batch is rolled back as whole, record events one by one so that single invalid event does not discard others
+            logger.debug("Batch insert of {} certificate events failed, events will be recorded one by one. Error: {}", histories.size(), e.getMessage());
+            for (CertificateEventHistory history : histories) {
+                try {
+                    certificateEventHistoryService.addEventHistory(history.getCertificateUuid(), history.getEvent(), history.getStatus(), history.getMessage(), history.getAdditionalInformation());
+                } catch (Exception ex) {
+                    logger.warn("Unable to record event {} of certificate {}: {}", history.getEvent(), history.getCertificateUuid(), ex.getMessage());
+                }
+            }
+        }
+    }
+
+    private static CertificateEventHistory mapToEventHistory(EventMessage eventMessage) {
+        CertificateEventHistory history = new CertificateEventHistory();
+        history.setCertificateUuid(eventMessage.getResourceUUID());
+        history.setEvent(CertificateEvent.findByCode(eventMessage.getEventName()));
+        history.setStatus(CertificateEventStatus.valueOf(eventMessage.getEventStatus()));
+        history.setMessage(eventMessage.getEventMessage());
+        history.setAdditionalInformation(eventMessage.getEventDetail());
+        return history;
     }
 
 }
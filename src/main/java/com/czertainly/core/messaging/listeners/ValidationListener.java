@@ -6,55 +6,163 @@ import com.czertainly.core.dao.repository.CertificateRepository;
 import com.czertainly.core.messaging.configuration.RabbitMQConstants;
 import com.czertainly.core.messaging.model.ValidationMessage;
 import com.czertainly.core.service.handler.CertificateHandler;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
 
 import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
 
+/**
+ * Validates certificates in chunks committed in separate transactions by bounded number of workers. Certificates of
+ * discovery or location are read by pages of UUIDs of not yet checked certificates, so when message is redelivered,
+ * certificates from already committed chunks are not validated again. Progress of running validation of discovery or
+ * location is published by gauges of validated and failed certificates tagged by the source, which are removed when
+ * the validation finishes.
+ */
 @Component
-@Transactional
 public class ValidationListener {
     private static final Logger logger = LoggerFactory.getLogger(ValidationListener.class);
 
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
+
+    @Value("${validation.queue.workers:4}")
+    private int workers;
+
+    @Value("${validation.queue.chunk-size:100}")
+    private int chunkSize;
+
     private CertificateRepository certificateRepository;
 
     private CertificateHandler certificateHandler;
 
+    private PlatformTransactionManager transactionManager;
+
+    private MeterRegistry meterRegistry;
+
     @RabbitListener(queues = RabbitMQConstants.QUEUE_VALIDATION_NAME, messageConverter = "jsonMessageConverter", concurrency = "5")
     public void processMessage(final ValidationMessage validationMessage) {
-        List<Certificate> certificates;
         if (validationMessage.getUuids() != null) {
-            certificates = certificateRepository.findAllByUuidIn(validationMessage.getUuids());
-
-            logger.debug("Validating {} certificate(s)", certificates.size());
-            for (Certificate certificate : certificates) {
-                certificateHandler.validate(certificate);
-            }
+            logger.debug("Validating {} certificate(s)", validationMessage.getUuids().size());
+            validateCertificates(validationMessage.getUuids(), new ValidationProgress());
             logger.debug("Certificates validated");
         }
 
         if (validationMessage.getDiscoveryUuid() != null) {
-            certificates = certificateRepository.findByValidationStatusAndCertificateContentDiscoveryCertificatesDiscoveryUuid(CertificateValidationStatus.NOT_CHECKED, validationMessage.getDiscoveryUuid());
-
-            logger.debug("Validating {} certificates from discovery {}", certificates.size(), validationMessage.getDiscoveryName());
-            for (Certificate certificate : certificates) {
-                certificateHandler.validate(certificate);
-            }
-            logger.debug("Certificates from discovery {} validated", validationMessage.getDiscoveryName());
+            logger.debug("Validating certificates from discovery {}", validationMessage.getDiscoveryName());
+            int validated = validatePagedCertificates("discovery", validationMessage.getDiscoveryUuid(), validationMessage.getDiscoveryName(),
+                    (afterUuid, pageable) -> certificateRepository.findUuidsByValidationStatusAndDiscoveryUuid(CertificateValidationStatus.NOT_CHECKED, validationMessage.getDiscoveryUuid(), afterUuid, pageable));
+            logger.debug("{} certificates from discovery {} validated", validated, validationMessage.getDiscoveryName());
         }
 
         if (validationMessage.getLocationUuid() != null) {
-            certificates = certificateRepository.findByValidationStatusAndLocationsLocationUuid(CertificateValidationStatus.NOT_CHECKED, validationMessage.getLocationUuid());
+            logger.debug("Validating certificates from location {}", validationMessage.getLocationName());
+            int validated = validatePagedCertificates("location", validationMessage.getLocationUuid(), validationMessage.getLocationName(),
+                    (afterUuid, pageable) -> certificateRepository.findUuidsByValidationStatusAndLocationUuid(CertificateValidationStatus.NOT_CHECKED, validationMessage.getLocationUuid(), afterUuid, pageable));
+            logger.debug("{} certificates from location {} validated", validated, validationMessage.getLocationName());
+        }
+    }
+
+    private int validatePagedCertificates(String sourceType, UUID sourceUuid, String sourceName, BiFunction<UUID, PageRequest, List<UUID>> pageLoader) {
+        ValidationProgress progress = new ValidationProgress();
+        List<Meter> meters = List.of(
+                Gauge.builder("validation.queue.progress.validated", progress.validated(), AtomicInteger::get)
+                        .description("Number of certificates validated by running validation of discovery or location")
+                        .tag("source", sourceType)
+                        .tag("uuid", sourceUuid.toString())
+                        .register(meterRegistry),
+                Gauge.builder("validation.queue.progress.failed", progress.failed(), AtomicInteger::get)
+                        .description("Number of certificates that could not be validated by running validation of discovery or location")
+                        .tag("source", sourceType)
+                        .tag("uuid", sourceUuid.toString())
+                        .register(meterRegistry));
+        try {
+            PageRequest pageable = PageRequest.ofSize(chunkSize * workers);
+            UUID afterUuid = MIN_UUID;
+            List<UUID> page;
+            do {
+                page = pageLoader.apply(afterUuid, pageable);
+                if (page.isEmpty()) break;
+
+                validateCertificates(page, progress);
+                afterUuid = page.getLast();
+                logger.info("Validated {} certificates from {} {}, {} failed", progress.validated().get(), sourceType, sourceName, progress.failed().get());
+            } while (page.size() == pageable.getPageSize());
+            return progress.validated().get();
+        } finally {
+            meters.forEach(meterRegistry::remove);
+        }
+    }
+
+    private void validateCertificates(List<UUID> certificateUuids, ValidationProgress progress) {
+        Queue<List<UUID>> chunks = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < certificateUuids.size(); i += chunkSize) {
+            chunks.add(certificateUuids.subList(i, Math.min(i + chunkSize, certificateUuids.size())));
+        }
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < Math.min(workers, chunks.size()); i++) {
+                executor.execute(() -> {
+                    List<UUID> chunk;
+                    while ((chunk = chunks.poll()) != null) {
+                        validateChunk(chunk, progress);
+                    }
+                });
+            }
+        }
+    }
 
-            logger.debug("Validating {} certificates from location {}", certificates.size(), validationMessage.getLocationName());
+    private void validateChunk(List<UUID> certificateUuids, ValidationProgress progress) {
+        TransactionStatus status = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        try {
+            List<Certificate> certificates = certificateRepository.findAllByUuidIn(certificateUuids);
             for (Certificate certificate : certificates) {
                 certificateHandler.validate(certificate);
             }
-            logger.debug("Certificates from location {} validated", validationMessage.getLocationName());
+            transactionManager.commit(status);
+            progress.validated().addAndGet(certificates.size());
+            return;
+        } catch (Exception e) {
+            rollback(status);
+            logger.debug("Validation of chunk of {} certificates failed, certificates will be validated one by one. Error: {}", certificateUuids.size(), e.getMessage());
+        }
+
+        for (UUID certificateUuid : certificateUuids) {
+            status = transactionManager.getTransaction(new DefaultTransactionDefinition());
+            try {
+                List<Certificate> certificates = certificateRepository.findAllByUuidIn(List.of(certificateUuid));
+                for (Certificate certificate : certificates) {
+                    certificateHandler.validate(certificate);
+                }
+                transactionManager.commit(status);
+                progress.validated().addAndGet(certificates.size());
+            } catch (Exception e) {
+                rollback(status);
+                progress.failed().incrementAndGet();
+                logger.warn("Unable to validate certificate {}: {}", certificateUuid, e.getMessage());
+            }
+        }
+    }
+
+    private void rollback(TransactionStatus status) {
+        if (!status.isCompleted()) {
+            transactionManager.rollback(status);
         }
     }
 
@@ -67,4 +175,20 @@ public class ValidationListener {
     public void setCertificateHandler(CertificateHandler certificateHandler) {
         this.certificateHandler = certificateHandler;
     }
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionManager = transactionManager;
+    }
+
+    @Autowired
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    private record ValidationProgress(AtomicInteger validated, AtomicInteger failed) {
+        ValidationProgress() {
+            this(new AtomicInteger(), new AtomicInteger());
+        }
+    }
 }
@@ -8,7 +8,6 @@ import com.czertainly.core.messaging.configuration.RabbitMQConstants;
 import com.czertainly.core.messaging.model.EventMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -18,15 +17,15 @@ import java.util.UUID;
 public class EventProducer {
 
     private static final Logger logger = LoggerFactory.getLogger(EventProducer.class);
-    private RabbitTemplate rabbitTemplate;
+    private MessagePublisher messagePublisher;
 
     @Autowired
-    public void setRabbitTemplate(final RabbitTemplate rabbitTemplate) {
-        this.rabbitTemplate = rabbitTemplate;
+    public void setMessagePublisher(final MessagePublisher messagePublisher) {
+        this.messagePublisher = messagePublisher;
     }
 
     public void produceMessage(final EventMessage eventMessage) {
-        rabbitTemplate.convertAndSend(RabbitMQConstants.EXCHANGE_NAME, RabbitMQConstants.EVENT_ROUTING_KEY, eventMessage);
+        messagePublisher.publish(RabbitMQConstants.EVENT_ROUTING_KEY, eventMessage);
     }
 
     public void produceCertificateEventMessage(final UUID certificateUUID, final String eventName, final String eventStatus, final String message, final String detail) {
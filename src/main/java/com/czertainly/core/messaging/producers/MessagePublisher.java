@@ -0,0 +1,232 @@
+package com.czertainly.core.messaging.producers;
+
+import com.czertainly.core.messaging.configuration.RabbitMQConstants;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Batching publisher of messages to RabbitMQ exchange. Messages of concurrent callers are buffered in bounded queue and
+ * published by single background thread in batches on one channel, each batch waiting for publisher confirms of all its
+ * messages. Callers are not blocked by publishing, they receive future completed when their message is confirmed by
+ * broker. Unconfirmed batches are published again with backoff, and when attempts are exhausted their messages are
+ * returned to the end of the buffer to be retried later, so publishing of other messages is not held. Messages that
+ * could not be published after all requeues are logged and their futures are failed. Caller waits for free space only
+ * when buffer is full and fails after enqueue timeout.
+ */
+@Component
+public class MessagePublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessagePublisher.class);
+
+    @Value("${messaging.publisher.async.enabled:true}")
+    private boolean asyncEnabled;
+
+    @Value("${messaging.publisher.buffer-size:10000}")
+    private int bufferSize;
+
+    @Value("${messaging.publisher.batch-size:100}")
+    private int batchSize;
+
+    @Value("${messaging.publisher.enqueue-timeout:5000}")
+    private long enqueueTimeout;
+
+    @Value("${messaging.publisher.confirm-timeout:5000}")
+    private long confirmTimeout;
+
+    @Value("${messaging.publisher.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${messaging.publisher.max-requeues:3}")
+    private int maxRequeues;
+
+    private BlockingQueue<OutgoingMessage> buffer;
+    private Thread publisherThread;
+    private volatile boolean running;
+
+    private RabbitTemplate rabbitTemplate;
+    private MeterRegistry meterRegistry;
+
+    private Counter publishedCounter;
+    private Counter retriedCounter;
+    private Counter requeuedCounter;
+    private Counter failedCounter;
+
+    @Autowired
+    public void setRabbitTemplate(final RabbitTemplate rabbitTemplate) {
+        this.rabbitTemplate = rabbitTemplate;
+    }
+
+    @Autowired
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!asyncEnabled) return;
+
+        buffer = new LinkedBlockingQueue<>(bufferSize);
+        Gauge.builder("messaging.publisher.buffer.size", buffer, BlockingQueue::size)
+                .description("Number of messages waiting to be published to RabbitMQ")
+                .register(meterRegistry);
+        publishedCounter = Counter.builder("messaging.publisher.published")
+                .description("Number of messages published to RabbitMQ and confirmed by broker")
+                .register(meterRegistry);
+        retriedCounter = Counter.builder("messaging.publisher.retried")
+                .description("Number of messages published again because broker did not confirm them")
+                .register(meterRegistry);
+        requeuedCounter = Counter.builder("messaging.publisher.requeued")
+                .description("Number of messages returned to the buffer after all attempts to publish them failed")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("messaging.publisher.failed")
+                .description("Number of messages that could not be published to RabbitMQ")
+                .register(meterRegistry);
+
+        running = true;
+        publisherThread = Thread.ofVirtual().name("rabbitmq-publisher").start(this::publishBufferedMessages);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!asyncEnabled) return;
+
+        running = false;
+        publisherThread.interrupt();
+        publisherThread.join(TimeUnit.SECONDS.toMillis(30));
+        // publish messages buffered after publisher thread finished
+        List<OutgoingMessage> remaining = new ArrayList<>();
+        buffer.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            publishBatch(remaining);
+        }
+    }
+
+    /**
+     * Publish message to the exchange without waiting for its confirmation by broker
+     *
+     * @param routingKey routing key of the message
+     * @param message    message to be converted and published
+     * @return future completed when message is confirmed by broker, or failed when message could not be published
+     * @throws AmqpException when message could not be buffered
+     */
+    public CompletableFuture<Void> publish(final String routingKey, final Object message) {
+        if (!asyncEnabled || !running) {
+            rabbitTemplate.convertAndSend(RabbitMQConstants.EXCHANGE_NAME, routingKey, message);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        OutgoingMessage outgoingMessage = new OutgoingMessage(routingKey, message, new CompletableFuture<>(), new AtomicInteger());
+        try {
+            if (!buffer.offer(outgoingMessage, enqueueTimeout, TimeUnit.MILLISECONDS)) {
+                failedCounter.increment();
+                throw new AmqpException("Buffer of RabbitMQ publisher is full, message with routing key " + routingKey + " was not published");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmqpException("Interrupted while publishing message with routing key " + routingKey, e);
+        }
+        // publisher was stopped meanwhile and message was not drained on shutdown
+        if (!running && buffer.remove(outgoingMessage)) {
+            rabbitTemplate.convertAndSend(RabbitMQConstants.EXCHANGE_NAME, routingKey, message);
+            outgoingMessage.confirmed().complete(null);
+        }
+        return outgoingMessage.confirmed();
+    }
+
+    /**
+     * Publish messages with the same routing key to the exchange without waiting for their confirmation by broker.
+     * Messages are buffered in given order and published in batches with messages of other callers.
+     *
+     * @param routingKey routing key of the messages
+     * @param messages   messages to be converted and published
+     * @return future completed when all messages are confirmed by broker, or failed when any message could not be published
+     * @throws AmqpException when any of the messages could not be buffered, messages buffered before are still published
+     */
+    public CompletableFuture<Void> publishAll(final String routingKey, final Collection<?> messages) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>(messages.size());
+        for (Object message : messages) {
+            futures.add(publish(routingKey, message));
+        }
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new));
+    }
+
+    private void publishBufferedMessages() {
+        List<OutgoingMessage> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                OutgoingMessage first = buffer.take();
+                batch.add(first);
+                buffer.drainTo(batch, batchSize - 1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            publishBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void publishBatch(List<OutgoingMessage> batch) {
+        Exception lastException = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                rabbitTemplate.invoke(operations -> {
+                    for (OutgoingMessage outgoingMessage : batch) {
+                        operations.convertAndSend(RabbitMQConstants.EXCHANGE_NAME, outgoingMessage.routingKey(), outgoingMessage.message());
+                    }
+                    operations.waitForConfirmsOrDie(confirmTimeout);
+                    return null;
+                });
+                publishedCounter.increment(batch.size());
+                batch.forEach(outgoingMessage -> outgoingMessage.confirmed().complete(null));
+                return;
+            } catch (Exception e) {
+                lastException = e;
+                logger.warn("Publishing of {} messages to RabbitMQ was not confirmed (attempt {}/{}): {}", batch.size(), attempt, maxAttempts, e.getMessage());
+                if (attempt < maxAttempts) {
+                    retriedCounter.increment(batch.size());
+                    try {
+                        Thread.sleep(Math.min(TimeUnit.SECONDS.toMillis(30), 100L << attempt));
+                    } catch (InterruptedException ie) {
+                        // interrupted by shutdown, finish remaining attempts without waiting
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        }
+        AmqpException failure = lastException instanceof AmqpException amqpException ? amqpException : new AmqpException("Publishing of messages to RabbitMQ was not confirmed", lastException);
+        for (OutgoingMessage outgoingMessage : batch) {
+            // return message to the end of the buffer to retry it after messages buffered meanwhile, never wait for free space
+            // as publisher thread is the only consumer of the buffer
+            if (running && outgoingMessage.requeues().incrementAndGet() <= maxRequeues && buffer.offer(outgoingMessage)) {
+                requeuedCounter.increment();
+                continue;
+            }
+            failedCounter.increment();
+            logger.error("Unable to publish message with routing key {} to RabbitMQ: {}", outgoingMessage.routingKey(), outgoingMessage.message(), failure);
+            outgoingMessage.confirmed().completeExceptionally(failure);
+        }
+    }
+
+    private record OutgoingMessage(String routingKey, Object message, CompletableFuture<Void> confirmed, AtomicInteger requeues) {
+    }
+}
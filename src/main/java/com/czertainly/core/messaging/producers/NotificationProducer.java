@@ -17,7 +17,6 @@ import com.czertainly.core.security.authn.client.UserManagementApiClient;
 import com.czertainly.core.util.AuthHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -30,13 +29,13 @@ public class NotificationProducer {
 
     private static final Logger logger = LoggerFactory.getLogger(NotificationProducer.class);
 
-    private RabbitTemplate rabbitTemplate;
+    private MessagePublisher messagePublisher;
 
     private UserManagementApiClient userManagementApiClient;
 
     @Autowired
-    public void setRabbitTemplate(final RabbitTemplate rabbitTemplate) {
-        this.rabbitTemplate = rabbitTemplate;
+    public void setMessagePublisher(final MessagePublisher messagePublisher) {
+        this.messagePublisher = messagePublisher;
     }
 
     @Autowired
@@ -48,7 +47,7 @@ public class NotificationProducer {
         if (notificationMessage.getRecipients() == null || notificationMessage.getRecipients().isEmpty()) {
             logger.warn("Recipients for notification {} is empty. Message: {}", notificationMessage.getType(), notificationMessage);
         } else {
-            rabbitTemplate.convertAndSend(RabbitMQConstants.EXCHANGE_NAME, RabbitMQConstants.NOTIFICATION_ROUTING_KEY, notificationMessage);
+            messagePublisher.publish(RabbitMQConstants.NOTIFICATION_ROUTING_KEY, notificationMessage);
         }
     }
 
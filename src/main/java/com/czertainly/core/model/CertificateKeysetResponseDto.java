@@ -0,0 +1,26 @@
+package com.czertainly.core.model;
+
+import com.czertainly.api.model.core.certificate.CertificateDto;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CertificateKeysetResponseDto {
+
+    private List<CertificateDto> certificates;
+
+    private int itemsPerPage;
+
+    /**
+     * Cursor of the next page, null when there are no more certificates
+     */
+    private String nextCursor;
+
+    private Long totalItems;
+
+    /**
+     * True when total number of items is estimated and not exact
+     */
+    private boolean totalItemsEstimated;
+}
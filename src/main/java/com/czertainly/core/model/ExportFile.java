@@ -0,0 +1,13 @@
+package com.czertainly.core.model;
+
+import java.nio.file.Path;
+
+/**
+ * Export written to temporary file, the file is deleted by consumer after it is sent
+ *
+ * @param fileName name of the exported file
+ * @param file     path to temporary file with content of the export
+ * @param size     size of the file in bytes
+ */
+public record ExportFile(String fileName, Path file, long size) {
+}
@@ -0,0 +1,120 @@
+package com.czertainly.core.security.authn.client;
+
+import com.czertainly.core.model.auth.AuthenticationRequestDto;
+import com.czertainly.core.util.CertificateUtil;
+import com.czertainly.core.util.ExpiringCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Short-lived cache of authentication results of the authentication service keyed by hash of the presented credentials.
+ * Entries older than the refresh interval are still served but should be refreshed in the background, entries are
+ * evicted after their time to live. Cache is invalidated when users or roles are changed through this instance.
+ */
+@Component
+public class AuthenticationCache {
+
+    private final boolean enabled;
+    private final Duration ttl;
+    private final Duration refreshAfter;
+    private final ExpiringCache<String, CachedAuthentication> authentications;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final AtomicLong generation = new AtomicLong();
+
+    public AuthenticationCache(@Value("${auth.cache.enabled:true}") boolean enabled,
+                               @Value("${auth.cache.max-entries:1000}") int maxEntries,
+                               @Value("${auth.cache.ttl:60}") long ttlSeconds,
+                               @Value("${auth.cache.refresh-after:15}") long refreshAfterSeconds) {
+        this.enabled = enabled;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.refreshAfter = Duration.ofSeconds(Math.min(refreshAfterSeconds, ttlSeconds));
+        this.authentications = new ExpiringCache<>(maxEntries);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Get key of the cache entry. Credentials are not kept in the cache, only their hash.
+     *
+     * @param authRequest authentication request sent to the authentication service
+     * @return hash of the credentials in the request
+     */
+    public String getKey(AuthenticationRequestDto authRequest) {
+        String credentials = String.join("\n",
+                String.valueOf(authRequest.getAuthMethod()),
+                String.valueOf(authRequest.getCertificateContent()),
+                String.valueOf(authRequest.getAuthenticationToken()),
+                String.valueOf(authRequest.getSystemUsername()),
+                String.valueOf(authRequest.getUserUuid()));
+        try {
+            return CertificateUtil.getThumbprint(credentials.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+
+    /**
+     * Get cached authentication
+     *
+     * @param key key of the credentials
+     * @return cached authentication or null when credentials were not authenticated recently
+     */
+    public CachedAuthentication get(String key) {
+        if (!enabled) return null;
+        return authentications.get(key);
+    }
+
+    /**
+     * Generation of the cache changed by each invalidation. Authentication result is cached only if no invalidation
+     * happened since the generation was read before the authentication service was called.
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    public void put(String key, AuthenticationInfo authenticationInfo, long expectedGeneration) {
+        if (!enabled || authenticationInfo.isAnonymous()) return;
+        synchronized (generation) {
+            if (generation.get() != expectedGeneration) return;
+            Instant now = authentications.now();
+            authentications.put(key, new CachedAuthentication(authenticationInfo, now.plus(refreshAfter)), now.plus(ttl));
+        }
+    }
+
+    /**
+     * Mark stale entry as being refreshed
+     *
+     * @return true when the caller should refresh the entry, false when the entry is fresh or already being refreshed
+     */
+    public boolean startRefresh(String key, CachedAuthentication cachedAuthentication) {
+        return cachedAuthentication.refreshAt().isBefore(authentications.now()) && refreshing.add(key);
+    }
+
+    public void finishRefresh(String key) {
+        refreshing.remove(key);
+    }
+
+    public void invalidate(String key) {
+        authentications.invalidate(key);
+    }
+
+    public void invalidateAll() {
+        synchronized (generation) {
+            generation.incrementAndGet();
+            authentications.invalidateAll();
+        }
+    }
+
+    public record CachedAuthentication(AuthenticationInfo authenticationInfo, Instant refreshAt) {
+    }
+}
@@ -49,12 +49,19 @@ public class CzertainlyAuthenticationClient extends CzertainlyBaseAuthentication
 
     private final AuditLogService auditLogService;
 
+    private AuthenticationCache authenticationCache;
+
     public CzertainlyAuthenticationClient(@Autowired AuditLogService auditLogService, @Autowired ObjectMapper objectMapper, @Value("${auth-service.base-url}") String customAuthServiceBaseUrl) {
         this.objectMapper = objectMapper;
         this.auditLogService = auditLogService;
         this.customAuthServiceBaseUrl = customAuthServiceBaseUrl;
     }
 
+    @Autowired
+    public void setAuthenticationCache(AuthenticationCache authenticationCache) {
+        this.authenticationCache = authenticationCache;
+    }
+
     public AuthenticationInfo authenticate(HttpHeaders headers, boolean isLocalhostRequest) throws AuthenticationException {
         if (logger.isTraceEnabled()) {
             logger.trace(
@@ -68,7 +75,51 @@ public class CzertainlyAuthenticationClient extends CzertainlyBaseAuthentication
         }
 
         AuthenticationRequestDto authRequest = getAuthPayload(headers, isLocalhostRequest);
+        if (authenticationCache == null || !authenticationCache.isEnabled()) {
+            return requestAuthentication(authRequest);
+        }
+
+        String cacheKey = authenticationCache.getKey(authRequest);
+        AuthenticationCache.CachedAuthentication cachedAuthentication = authenticationCache.get(cacheKey);
+        if (cachedAuthentication == null) {
+            long generation = authenticationCache.getGeneration();
+            AuthenticationInfo authenticationInfo = requestAuthentication(authRequest);
+            authenticationCache.put(cacheKey, authenticationInfo, generation);
+            return authenticationInfo;
+        }
+
+        // serve cached authentication and refresh stale entry in the background
+        if (authenticationCache.startRefresh(cacheKey, cachedAuthentication)) {
+            Thread.ofVirtual().name("auth-cache-refresh").start(() -> refreshAuthentication(cacheKey, authRequest));
+        }
+
+        AuthenticationInfo authenticationInfo = cachedAuthentication.authenticationInfo();
+
+        // update MDC for actor logging after successful authentication
+        LoggingHelper.putActorInfoWhenNull(ActorType.USER, authenticationInfo.getUserUuid(), authenticationInfo.getUsername());
+
+        return authenticationInfo;
+    }
+
+    private void refreshAuthentication(String cacheKey, AuthenticationRequestDto authRequest) {
+        try {
+            long generation = authenticationCache.getGeneration();
+            AuthenticationInfo authenticationInfo = requestAuthentication(authRequest);
+            if (authenticationInfo.isAnonymous()) {
+                authenticationCache.invalidate(cacheKey);
+            } else {
+                authenticationCache.put(cacheKey, authenticationInfo, generation);
+            }
+        } catch (Exception e) {
+            // next request authenticates against the authentication service again
+            logger.warn("Unable to refresh cached authentication: {}", e.getMessage());
+            authenticationCache.invalidate(cacheKey);
+        } finally {
+            authenticationCache.finishRefresh(cacheKey);
+        }
+    }
 
+    private AuthenticationInfo requestAuthentication(AuthenticationRequestDto authRequest) throws AuthenticationException {
         try {
 
             WebClient.RequestHeadersSpec<?> request = getClient(customAuthServiceBaseUrl)
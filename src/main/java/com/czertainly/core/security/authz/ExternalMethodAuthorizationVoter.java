@@ -122,6 +122,7 @@ public class ExternalMethodAuthorizationVoter extends AbstractExternalAuthorizat
             properties.put(NAME_PROP_NAME, Resource.GROUP.getCode());
             properties.put(ACTION_PROP_NAME, ResourceAction.MEMBERS.getCode());
 
+            List<OpaRequestedResource> opaRequests = new ArrayList<>();
             for (SecuredUUID objectUuid : objectUUIDs) {
                 // load groups associations
                 List<String> groupUuids = groupAssociationRepository.findByResourceAndObjectUuid(resource, objectUuid.getValue()).stream().map(g -> g.getGroupUuid().toString()).toList();
@@ -130,12 +131,14 @@ public class ExternalMethodAuthorizationVoter extends AbstractExternalAuthorizat
                 }
                 OpaRequestedResource opaRequest = new OpaRequestedResource(properties);
                 opaRequest.setObjectUUIDs(groupUuids);
+                opaRequests.add(opaRequest);
+            }
 
-                OpaResourceAccessResult result = this.checkAccess(principal.getRawData(), opaRequest);
-                if (!result.isAuthorized()) {
-                    logger.trace(String.format("Access to the method '%s' object has been denied by missing group member permissions.", methodInvocation.getMethod().getName()));
-                    return ACCESS_DENIED;
-                }
+            // check group members permissions of all objects in one batch
+            List<OpaResourceAccessResult> results = this.checkAccess(principal.getRawData(), opaRequests);
+            if (results.size() != opaRequests.size() || !results.stream().allMatch(OpaResourceAccessResult::isAuthorized)) {
+                logger.trace(String.format("Access to the method '%s' object has been denied by missing group member permissions.", methodInvocation.getMethod().getName()));
+                return ACCESS_DENIED;
             }
 
             logger.trace(String.format("Access to the method '%s' object has been granted by group member permissions.", methodInvocation.getMethod().getName()));
@@ -245,6 +248,19 @@ public class ExternalMethodAuthorizationVoter extends AbstractExternalAuthorizat
         }
     }
 
+    protected List<OpaResourceAccessResult> checkAccess(String principal, List<OpaRequestedResource> resources) {
+        try {
+            return this.opaClient.checkResourcesAccess(OpaPolicy.METHOD.policyName, resources, principal, new OpaRequestDetails(null));
+        } catch (Exception e) {
+            logger.error(
+                    "An error occurred during the authorization request to the OPA policy '%s'.".formatted(
+                            OpaPolicy.METHOD.policyName),
+                    e
+            );
+            return List.of(OpaResourceAccessResult.unauthorized());
+        }
+    }
+
     private Optional<ParentUUIDGetter> getParentUUIDGetter(List<ExternalAuthorizationConfigAttribute> attributes) throws InstantiationException, IllegalAccessException, InvocationTargetException, NoSuchMethodException {
         @SuppressWarnings("unchecked")
         Optional<Class<ParentUUIDGetter>> parentUUIDGetterClass = attributes.stream()
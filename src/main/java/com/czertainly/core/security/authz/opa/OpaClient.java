@@ -11,65 +11,113 @@ import org.springframework.http.MediaType;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
 
 @Component
 public class OpaClient {
 
     protected final Log logger = LogFactory.getLog(this.getClass());
 
+    private static final int MAX_CONCURRENT_REQUESTS = 16;
+
     private WebClient client;
 
     ObjectMapper om;
 
     private final String opaBaseUrl;
 
+    private OpaDecisionCache decisionCache;
+
     public OpaClient(@Autowired ObjectMapper om, @Value("${opa.base-url}") String opaBaseUrl) {
         this.om = om;
         this.opaBaseUrl = opaBaseUrl;
     }
 
+    @Autowired(required = false)
+    public void setDecisionCache(OpaDecisionCache decisionCache) {
+        this.decisionCache = decisionCache;
+    }
+
     public OpaResourceAccessResult checkResourceAccess(String policyName, OpaRequestedResource resource, String principal, OpaRequestDetails details) throws AccessDeniedException {
-        return sendRequest(policyName, resource, principal, details, OpaReturnType.fromInner(OpaResourceAccessResult.class));
+        return sendRequests(policyName, List.of(resource), principal, details, OpaResourceAccessResult.class).getFirst();
     }
 
-    public OpaObjectAccessResult checkObjectAccess(String policyName, OpaRequestedResource resource, String principal, OpaRequestDetails details) throws AccessDeniedException {
-        return sendRequest(policyName, resource, principal, details, OpaReturnType.fromInner(OpaObjectAccessResult.class));
+    /**
+     * Check access to multiple resources by the principal. Decisions not found in the decision cache are requested
+     * from OPA concurrently, so the caller waits for the slowest decision only.
+     *
+     * @return access results in the order of requested resources
+     */
+    public List<OpaResourceAccessResult> checkResourcesAccess(String policyName, List<OpaRequestedResource> resources, String principal, OpaRequestDetails details) throws AccessDeniedException {
+        return sendRequests(policyName, resources, principal, details, OpaResourceAccessResult.class);
     }
 
-    private <T> T sendRequest(String policyName, OpaRequestedResource resource, String principal, OpaRequestDetails details, ParameterizedType type) throws AccessDeniedException {
-        logger.trace(
-                
-                        "Going to call OPA policy '%s' with %s and %s.".formatted(
-                        policyName,
-                        resource.toString(),
-                        details != null ? details.toString() : "no additional details"
-                )
-        );
+    public OpaObjectAccessResult checkObjectAccess(String policyName, OpaRequestedResource resource, String principal, OpaRequestDetails details) throws AccessDeniedException {
+        return sendRequests(policyName, List.of(resource), principal, details, OpaObjectAccessResult.class).getFirst();
+    }
 
+    private <T> List<T> sendRequests(String policyName, List<OpaRequestedResource> resources, String principal, OpaRequestDetails details, Class<T> resultType) throws AccessDeniedException {
         try {
-            ParameterizedTypeReference<OpaResultWrapper<T>> typeReference = ParameterizedTypeReference.forType(type);
-            String body = om.writeValueAsString(new OpaRequestWrapper<>(new OpaInput(resource, principal, details)));
-
-            OpaResultWrapper<T> wrapper = getClient()
-                    .post()
-                    .uri("/v1/data/" + policyName)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .accept(MediaType.APPLICATION_JSON)
-                    .bodyValue(body)
-                    .retrieve()
-                    .bodyToMono(typeReference)
-                    .block();
-
-            if (wrapper == null) throw new RuntimeException("Empty response received from OPA.");
-            return wrapper.getResult();
+            List<T> results = new ArrayList<>(resources.size());
+            List<Integer> requestIndexes = new ArrayList<>();
+            List<String> requestBodies = new ArrayList<>();
+            for (OpaRequestedResource resource : resources) {
+                String body = om.writeValueAsString(new OpaRequestWrapper<>(new OpaInput(resource, principal, details)));
+                T cachedResult = decisionCache != null ? decisionCache.get(policyName, resultType, body) : null;
+                if (cachedResult == null) {
+                    logger.trace(
+                            "Going to call OPA policy '%s' with %s and %s.".formatted(
+                                    policyName,
+                                    resource.toString(),
+                                    details != null ? details.toString() : "no additional details"
+                            )
+                    );
+                    requestIndexes.add(results.size());
+                    requestBodies.add(body);
+                }
+                results.add(cachedResult);
+            }
+
+            if (!requestBodies.isEmpty()) {
+                ParameterizedTypeReference<OpaResultWrapper<T>> typeReference = ParameterizedTypeReference.forType(OpaReturnType.fromInner(resultType));
+                List<T> requestedResults = Flux.fromIterable(requestBodies)
+                        .flatMapSequential(body -> sendRequest(policyName, body, typeReference), MAX_CONCURRENT_REQUESTS)
+                        .collectList()
+                        .block();
+
+                for (int i = 0; i < requestIndexes.size(); i++) {
+                    T result = requestedResults.get(i);
+                    results.set(requestIndexes.get(i), result);
+                    if (decisionCache != null) decisionCache.put(policyName, resultType, requestBodies.get(i), result);
+                }
+            }
+            return results;
         } catch (Exception e) {
             throw new AccessDeniedException("An error occurred when calling OPA.", e);
         }
     }
 
+    private <T> Mono<T> sendRequest(String policyName, String body, ParameterizedTypeReference<OpaResultWrapper<T>> typeReference) {
+        return getClient()
+                .post()
+                .uri("/v1/data/" + policyName)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .retrieve()
+                .bodyToMono(typeReference)
+                .<T>handle((wrapper, sink) -> {
+                    if (wrapper.getResult() != null) sink.next(wrapper.getResult());
+                })
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Empty response received from OPA.")));
+    }
+
     public WebClient getClient() {
         if (client == null) {
             client = WebClient.builder().baseUrl(opaBaseUrl).build();
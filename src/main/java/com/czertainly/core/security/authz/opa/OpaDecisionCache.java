@@ -0,0 +1,54 @@
+package com.czertainly.core.security.authz.opa;
+
+import com.czertainly.core.util.ExpiringCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Short-lived cache of OPA authorization decisions. Decisions are cached per policy and OPA input, which contains
+ * the principal, requested resource and request details, so repeated authorization of the same operation by the same
+ * principal does not call OPA again within configured time window. Cache is invalidated when roles or permissions
+ * are changed through this instance, the time window limits staleness of decisions after changes made elsewhere.
+ */
+@Component
+public class OpaDecisionCache {
+
+    private final boolean enabled;
+    private final Duration ttl;
+    private final ExpiringCache<DecisionKey, Object> decisions;
+
+    public OpaDecisionCache(@Value("${opa.decision-cache.enabled:true}") boolean enabled,
+                            @Value("${opa.decision-cache.max-entries:5000}") int maxEntries,
+                            @Value("${opa.decision-cache.ttl:5}") long ttlSeconds) {
+        this.enabled = enabled;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.decisions = new ExpiringCache<>(maxEntries);
+    }
+
+    /**
+     * Get cached decision
+     *
+     * @param policyName name of the OPA policy
+     * @param resultType type of the decision returned by the policy
+     * @param input      serialized OPA input
+     * @return cached decision or null when the decision was not evaluated recently
+     */
+    public <T> T get(String policyName, Class<T> resultType, String input) {
+        if (!enabled) return null;
+        return resultType.cast(decisions.get(new DecisionKey(policyName, resultType, input)));
+    }
+
+    public <T> void put(String policyName, Class<T> resultType, String input, T decision) {
+        if (!enabled || decision == null) return;
+        decisions.put(new DecisionKey(policyName, resultType, input), decision, decisions.now().plus(ttl));
+    }
+
+    public void invalidateAll() {
+        decisions.invalidateAll();
+    }
+
+    private record DecisionKey(String policyName, Class<?> resultType, String input) {
+    }
+}
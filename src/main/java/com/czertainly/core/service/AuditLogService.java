@@ -3,13 +3,13 @@ package com.czertainly.core.service;
 import com.czertainly.api.model.client.certificate.SearchFilterRequestDto;
 import com.czertainly.api.model.client.certificate.SearchRequestDto;
 import com.czertainly.api.model.core.audit.AuditLogResponseDto;
-import com.czertainly.api.model.core.audit.ExportResultDto;
 import com.czertainly.api.model.core.auth.Resource;
 import com.czertainly.api.model.core.logging.enums.Module;
 import com.czertainly.api.model.core.logging.enums.Operation;
 import com.czertainly.api.model.core.logging.enums.OperationResult;
 import com.czertainly.api.model.core.logging.records.LogRecord;
 import com.czertainly.api.model.core.search.SearchFieldDataByGroupDto;
+import com.czertainly.core.model.ExportFile;
 
 import java.util.List;
 
@@ -25,12 +25,12 @@ public interface AuditLogService {
     AuditLogResponseDto listAuditLogs(final SearchRequestDto request);
 
     /**
-     *
+     * Exports the audit logs to temporary file, the file should be deleted after it is sent
      * @param filters {@link SearchFilterRequestDto}
      *
-     * @return {@link ExportResultDto}
+     * @return {@link ExportFile}
      */
-    ExportResultDto exportAuditLogs(final List<SearchFilterRequestDto> filters);
+    ExportFile exportAuditLogs(final List<SearchFilterRequestDto> filters);
 
     /**
      * Removes the audit logs from the database
@@ -29,4 +29,10 @@ public interface CertificateEventHistoryService {
 
     void addEventHistory(UUID certificateUuid, CertificateEvent event, CertificateEventStatus status, String message, String additionalInformation);
 
+    /**
+     * Method to add multiple events into the Certificate history in single transaction using JDBC batch insert.
+     * @param certificateEventHistories Certificate events to be recorded
+     */
+    void addEventHistories(List<CertificateEventHistory> certificateEventHistories);
+
 }
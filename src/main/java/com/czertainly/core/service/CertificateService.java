@@ -13,6 +13,7 @@ import com.czertainly.api.model.core.search.SearchFieldDataByGroupDto;
 import com.czertainly.core.dao.entity.Certificate;
 import com.czertainly.core.dao.entity.CertificateContent;
 import com.czertainly.core.dao.entity.RaProfile;
+import com.czertainly.core.model.CertificateKeysetResponseDto;
 import com.czertainly.core.model.auth.CertificateProtocolInfo;
 import com.czertainly.core.security.authz.SecuredUUID;
 import com.czertainly.core.security.authz.SecurityFilter;
@@ -29,6 +30,17 @@ public interface CertificateService extends ResourceExtensionService  {
 
     CertificateResponseDto listCertificates(SecurityFilter filter, SearchRequestDto request) throws ValidationException;
 
+    /**
+     * List certificates ordered from newest using keyset pagination. Page number of the request is ignored,
+     * the page following the previous one is identified by cursor returned with the previous page.
+     *
+     * @param filter  Security filter
+     * @param request Search request with filters and page size
+     * @param cursor  Cursor returned with previous page, null for first page
+     * @return Page of certificates with cursor of the next page
+     */
+    CertificateKeysetResponseDto listCertificatesByKeyset(SecurityFilter filter, SearchRequestDto request, String cursor) throws ValidationException;
+
     CertificateDetailDto getCertificate(SecuredUUID uuid) throws NotFoundException, CertificateException, IOException;
 
     Certificate getCertificateEntity(SecuredUUID uuid) throws NotFoundException;
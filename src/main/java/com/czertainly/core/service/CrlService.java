@@ -16,7 +16,27 @@ public interface CrlService {
 
     Crl getCurrentCrl(X509Certificate certificate, X509Certificate issuerCertificate) throws IOException;
 
+    /**
+     * Get current CRL of certificate issuer, CRL is downloaded when it is not present or is outdated.
+     * Concurrent refreshes of the same CRL are coordinated so that the CRL is downloaded only once.
+     *
+     * @param certificate       certificate with CRL distribution points
+     * @param issuerCertificate issuer certificate
+     * @param waitForRefresh    if true, wait for CRL being refreshed by other thread or node, otherwise use last known CRL
+     * @return current CRL or null if CRL is not available
+     */
+    Crl getCurrentCrl(X509Certificate certificate, X509Certificate issuerCertificate, boolean waitForRefresh) throws IOException;
+
     CrlEntry findCrlEntryForCertificate(String serialNumber, UUID crlUuid);
 
+    /**
+     * Find CRL entry of certificate using in-memory revocation index of the CRL
+     *
+     * @param serialNumber serial number of certificate in hexadecimal format
+     * @param crl          CRL entity
+     * @return detached CRL entry or null if certificate is not revoked by the CRL
+     */
+    CrlEntry findCrlEntryForCertificate(String serialNumber, Crl crl);
+
     List<Crl> findCrlsForCaCertificate(UUID caCertificateUuid);
 }
@@ -0,0 +1,19 @@
+package com.czertainly.core.service.acme;
+
+public interface AcmeNonceService {
+
+    /**
+     * Generate new nonce for Replay-Nonce header of ACME response
+     *
+     * @return new nonce
+     */
+    String generateNonce();
+
+    /**
+     * Validate nonce received in ACME request and mark it as consumed
+     *
+     * @param nonce nonce from JWS protected header
+     * @return true if nonce was issued by the server, is not expired and was not used before
+     */
+    boolean consumeNonce(String nonce);
+}
@@ -0,0 +1,141 @@
+package com.czertainly.core.service.acme.impl;
+
+import com.czertainly.core.dao.repository.acme.AcmeNonceRepository;
+import com.czertainly.core.service.acme.AcmeConstants;
+import com.czertainly.core.service.acme.AcmeNonceService;
+import com.nimbusds.jose.util.Base64URL;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stateless ACME nonces. Nonce consists of its issue time, random part and HMAC of both, so it can be verified without
+ * storing issued nonces. Only consumed nonces are tracked until they expire, either in memory in sets rotated by issue
+ * time window, or in database when Core runs in multiple replicas and nonces must be shared.
+ */
+@Service
+public class AcmeNonceServiceImpl implements AcmeNonceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AcmeNonceServiceImpl.class);
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final String STORE_DATABASE = "database";
+    private static final int TIMESTAMP_SIZE = Long.BYTES;
+    private static final int RANDOM_SIZE = 16;
+    private static final int MAC_SIZE = 16;
+    private static final int NONCE_SIZE = TIMESTAMP_SIZE + RANDOM_SIZE + MAC_SIZE;
+    // tolerated difference of clocks of replicas issuing and validating nonce
+    private static final long CLOCK_SKEW_SECONDS = 60;
+    private static final long CONSUMED_WINDOW_SECONDS = 60;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final SecretKeySpec secretKey;
+    private final boolean databaseStore;
+
+    // consumed nonces by window of their issue time, windows older than nonce validity are dropped
+    private final ConcurrentNavigableMap<Long, Set<ConsumedNonce>> consumedNonces = new ConcurrentSkipListMap<>();
+
+    private AcmeNonceRepository acmeNonceRepository;
+
+    public AcmeNonceServiceImpl(@Value("${acme.nonce.secret:}") String secret, @Value("${acme.nonce.store:memory}") String store) {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            keyBytes = new byte[32];
+            secureRandom.nextBytes(keyBytes);
+        } else {
+            keyBytes = Base64.getDecoder().decode(secret.trim());
+        }
+        this.secretKey = new SecretKeySpec(keyBytes, HMAC_ALGORITHM);
+        this.databaseStore = STORE_DATABASE.equalsIgnoreCase(store);
+        if (databaseStore && (secret == null || secret.isBlank())) {
+            logger.warn("ACME nonces are stored in database, but nonce secret is not configured. Nonces issued by other instances will be rejected.");
+        }
+    }
+
+    @Autowired
+    public void setAcmeNonceRepository(AcmeNonceRepository acmeNonceRepository) {
+        this.acmeNonceRepository = acmeNonceRepository;
+    }
+
+    @Override
+    public String generateNonce() {
+        ByteBuffer buffer = ByteBuffer.allocate(NONCE_SIZE);
+        buffer.putLong(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
+        byte[] random = new byte[RANDOM_SIZE];
+        secureRandom.nextBytes(random);
+        buffer.put(random);
+        buffer.put(computeMac(buffer.array()));
+        return Base64URL.encode(buffer.array()).toString();
+    }
+
+    @Override
+    public boolean consumeNonce(String nonce) {
+        byte[] decoded = new Base64URL(nonce).decode();
+        if (decoded.length != NONCE_SIZE) {
+            return false;
+        }
+        byte[] mac = new byte[MAC_SIZE];
+        System.arraycopy(decoded, TIMESTAMP_SIZE + RANDOM_SIZE, mac, 0, MAC_SIZE);
+        if (!MessageDigest.isEqual(mac, computeMac(decoded))) {
+            return false;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(decoded);
+        long issuedAt = buffer.getLong();
+        long now = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+        if (issuedAt > now + CLOCK_SKEW_SECONDS || issuedAt + AcmeConstants.NONCE_VALIDITY <= now) {
+            return false;
+        }
+
+        if (databaseStore) {
+            return acmeNonceRepository.insertIfAbsent(nonce, new Date(TimeUnit.SECONDS.toMillis(issuedAt)), new Date(TimeUnit.SECONDS.toMillis(issuedAt + AcmeConstants.NONCE_VALIDITY))) > 0;
+        }
+
+        consumedNonces.headMap(Math.floorDiv(now - AcmeConstants.NONCE_VALIDITY, CONSUMED_WINDOW_SECONDS)).clear();
+        return consumedNonces.computeIfAbsent(Math.floorDiv(issuedAt, CONSUMED_WINDOW_SECONDS), k -> ConcurrentHashMap.newKeySet())
+                .add(new ConsumedNonce(buffer.getLong(), buffer.getLong()));
+    }
+
+    @Transactional
+    @Scheduled(fixedDelay = 10, timeUnit = TimeUnit.MINUTES)
+    public void deleteExpiredNonces() {
+        if (!databaseStore) return;
+
+        int deleted = acmeNonceRepository.deleteByExpiresBefore(new Date());
+        logger.debug("Deleted {} expired ACME nonces", deleted);
+    }
+
+    private byte[] computeMac(byte[] nonce) {
+        try {
+            Mac hmac = Mac.getInstance(HMAC_ALGORITHM);
+            hmac.init(secretKey);
+            hmac.update(nonce, 0, TIMESTAMP_SIZE + RANDOM_SIZE);
+            byte[] mac = new byte[MAC_SIZE];
+            System.arraycopy(hmac.doFinal(), 0, mac, 0, MAC_SIZE);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot compute MAC of ACME nonce: " + e.getMessage(), e);
+        }
+    }
+
+    private record ConsumedNonce(long randomHigh, long randomLow) {
+    }
+}
@@ -29,6 +29,7 @@ import com.czertainly.core.security.authz.SecuredParentUUID;
 import com.czertainly.core.security.authz.SecuredUUID;
 import com.czertainly.core.service.CertificateService;
 import com.czertainly.core.service.acme.AcmeConstants;
+import com.czertainly.core.service.acme.AcmeNonceService;
 import com.czertainly.core.service.acme.AcmeService;
 import com.czertainly.core.service.acme.message.AcmeJwsRequest;
 import com.czertainly.core.service.v2.ClientOperationService;
@@ -91,7 +92,7 @@ public class AcmeServiceImpl implements AcmeService {
 
     private static final Logger logger = LoggerFactory.getLogger(AcmeServiceImpl.class);
 
-    private AcmeNonceRepository acmeNonceRepository;
+    private AcmeNonceService acmeNonceService;
     private RaProfileRepository raProfileRepository;
     private AcmeProfileRepository acmeProfileRepository;
     private AcmeAccountRepository acmeAccountRepository;
@@ -108,8 +109,8 @@ public class AcmeServiceImpl implements AcmeService {
     }
 
     @Autowired
-    public void setAcmeNonceRepository(AcmeNonceRepository acmeNonceRepository) {
-        this.acmeNonceRepository = acmeNonceRepository;
+    public void setAcmeNonceService(AcmeNonceService acmeNonceService) {
+        this.acmeNonceService = acmeNonceService;
     }
 
     @Autowired
@@ -715,14 +716,7 @@ public class AcmeServiceImpl implements AcmeService {
     }
 
     private String generateNonce() {
-        String nonceString = AcmeRandomGeneratorAndValidator.generateNonce();
-        Date expires = AcmeCommonHelper.addSeconds(new Date(), AcmeConstants.NONCE_VALIDITY);
-        AcmeNonce acmeNonce = new AcmeNonce();
-        acmeNonce.setCreated(new Date());
-        acmeNonce.setNonce(nonceString);
-        acmeNonce.setExpires(expires);
-        acmeNonceRepository.save(acmeNonce);
-        return nonceString;
+        return acmeNonceService.generateNonce();
     }
 
     // RFC 8555 Section 7.1
@@ -1246,10 +1240,7 @@ public class AcmeServiceImpl implements AcmeService {
             throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.BAD_NONCE);
         }
 
-        acmeNonceRepository.deleteAll(acmeNonceRepository.findAllByExpiresBefore(new Date()));
-        AcmeNonce acmeNonce = acmeNonceRepository.findByNonce(nonce.toString()).orElseThrow(
-                () -> new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.BAD_NONCE));
-        if (acmeNonce.getExpires().after(AcmeCommonHelper.addSeconds(new Date(), AcmeConstants.NONCE_VALIDITY))) {
+        if (!acmeNonceService.consumeNonce(nonce.toString())) {
             throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.BAD_NONCE);
         }
     }
@@ -14,16 +14,19 @@ import com.czertainly.core.attribute.engine.AttributeEngine;
 import com.czertainly.core.attribute.engine.records.ObjectAttributeContentInfo;
 import com.czertainly.core.dao.entity.AttributeDefinition;
 import com.czertainly.core.dao.entity.Certificate;
+import com.czertainly.core.dao.entity.CertificateContent;
 import com.czertainly.core.dao.entity.DiscoveryCertificate;
 import com.czertainly.core.dao.entity.DiscoveryHistory;
 import com.czertainly.core.dao.entity.workflows.Trigger;
 import com.czertainly.core.dao.entity.workflows.TriggerAssociation;
 import com.czertainly.core.dao.entity.workflows.TriggerHistory;
+import com.czertainly.core.dao.repository.CertificateContentRepository;
 import com.czertainly.core.dao.repository.CertificateRepository;
 import com.czertainly.core.dao.repository.DiscoveryCertificateRepository;
 import com.czertainly.core.dao.repository.DiscoveryRepository;
 import com.czertainly.core.dao.repository.workflows.TriggerAssociationRepository;
 import com.czertainly.core.evaluator.CertificateRuleEvaluator;
+import com.czertainly.core.evaluator.CompiledTrigger;
 import com.czertainly.core.event.transaction.CertificateValidationEvent;
 import com.czertainly.core.messaging.model.ValidationMessage;
 import com.czertainly.core.messaging.producers.ValidationProducer;
@@ -47,6 +50,7 @@ import org.springframework.transaction.event.TransactionalEventListener;
 import java.security.cert.X509Certificate;
 import java.time.OffsetDateTime;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 @Transactional
@@ -64,6 +68,7 @@ public class CertificateHandler {
     private CertificateEventHistoryService certificateEventHistoryService;
 
     private CertificateRepository certificateRepository;
+    private CertificateContentRepository certificateContentRepository;
     private DiscoveryRepository discoveryRepository;
     private DiscoveryCertificateRepository discoveryCertificateRepository;
     private TriggerAssociationRepository triggerAssociationRepository;
@@ -108,6 +113,11 @@ public class CertificateHandler {
         this.certificateRepository = certificateRepository;
     }
 
+    @Autowired
+    public void setCertificateContentRepository(CertificateContentRepository certificateContentRepository) {
+        this.certificateContentRepository = certificateContentRepository;
+    }
+
     @Autowired
     public void setDiscoveryRepository(DiscoveryRepository discoveryRepository) {
         this.discoveryRepository = discoveryRepository;
@@ -148,41 +158,127 @@ public class CertificateHandler {
         }
     }
 
+    /**
+     * Create discovery certificates from one page of certificates downloaded from discovery provider. Existing certificates
+     * and certificate contents of the whole page are resolved by their fingerprints at once and new certificate contents
+     * and discovery certificates are inserted in batches. Certificate present in the page multiple times has its content
+     * inserted once and discovery certificate is created for each of its occurrences.
+     *
+     * @param batch                       identification of the page for logging
+     * @param discovery                   discovery history
+     * @param discoveredCertificates      certificates downloaded from discovery provider
+     * @param downloadedCertificatesCount counter of downloaded certificates of the discovery shared by all pages, used to report progress
+     */
     @Transactional(propagation = Propagation.REQUIRES_NEW, isolation = Isolation.DEFAULT)
-    public void createDiscoveredCertificate(String batch, DiscoveryHistory discovery, List<DiscoveryProviderCertificateDataDto> discoveredCertificates) {
+    public void createDiscoveredCertificate(String batch, DiscoveryHistory discovery, List<DiscoveryProviderCertificateDataDto> discoveredCertificates, AtomicLong downloadedCertificatesCount) {
+        Map<String, X509Certificate> x509Certificates = new HashMap<>();
+        Map<String, List<DiscoveryProviderCertificateDataDto>> certificatesByFingerprint = new LinkedHashMap<>();
         for (DiscoveryProviderCertificateDataDto certificate : discoveredCertificates) {
-            DiscoveryCertificate discoveryCertificate = null;
             try {
                 X509Certificate x509Cert = CertificateUtil.parseCertificate(certificate.getBase64Content());
                 String fingerprint = CertificateUtil.getThumbprint(x509Cert.getEncoded());
-                Certificate existingCertificate = certificateRepository.findByFingerprint(fingerprint).orElse(null);
+                x509Certificates.put(fingerprint, x509Cert);
+                certificatesByFingerprint.computeIfAbsent(fingerprint, k -> new ArrayList<>()).add(certificate);
+            } catch (Exception e) {
+                logger.error("Unable to create discovery certificate {} in batch {} for discovery {}. Message: {}", certificate.getUuid(), batch, discovery.getName(), e.getMessage(), e);
+            }
+        }
+        if (certificatesByFingerprint.isEmpty()) return;
 
-                discoveryCertificate = CertificateUtil.prepareDiscoveryCertificate(existingCertificate, x509Cert);
-                discoveryCertificate.setDiscovery(discovery);
-                discoveryCertificate.setNewlyDiscovered(existingCertificate == null);
-                discoveryCertificate.setMeta(certificate.getMeta());
+        Map<String, Certificate> existingCertificates = new HashMap<>();
+        for (Certificate certificate : certificateRepository.findWithContentByFingerprintIn(certificatesByFingerprint.keySet())) {
+            existingCertificates.put(certificate.getFingerprint(), certificate);
+        }
 
-                if (existingCertificate == null) {
-                    discoveryCertificate.setCertificateContent(certificateService.checkAddCertificateContent(fingerprint, X509ObjectToString.toPem(x509Cert)));
-                } else {
-                    updateDiscoveredCertificate(discovery, existingCertificate, certificate.getMeta());
-                    discoveryCertificate.setProcessed(true);
+        // certificate contents of new certificates, content can already exist for certificate discovered before
+        Map<String, CertificateContent> certificateContents = new HashMap<>();
+        List<String> newFingerprints = certificatesByFingerprint.keySet().stream().filter(fingerprint -> !existingCertificates.containsKey(fingerprint)).toList();
+        if (!newFingerprints.isEmpty()) {
+            for (CertificateContent certificateContent : certificateContentRepository.findByFingerprintIn(newFingerprints)) {
+                certificateContents.put(certificateContent.getFingerprint(), certificateContent);
+            }
+            Map<String, String> missingContents = new HashMap<>();
+            for (String fingerprint : newFingerprints) {
+                if (!certificateContents.containsKey(fingerprint)) {
+                    try {
+                        missingContents.put(fingerprint, CertificateUtil.normalizeCertificateContent(X509ObjectToString.toPem(x509Certificates.get(fingerprint))));
+                    } catch (Exception e) {
+                        logger.error("Unable to create content of discovery certificate {} in batch {} for discovery {}. Message: {}", certificatesByFingerprint.get(fingerprint).getFirst().getUuid(), batch, discovery.getName(), e.getMessage(), e);
+                    }
+                }
+            }
+            if (!missingContents.isEmpty()) {
+                certificateContentRepository.batchInsert(missingContents);
+                for (CertificateContent certificateContent : certificateContentRepository.findByFingerprintIn(missingContents.keySet())) {
+                    certificateContents.put(certificateContent.getFingerprint(), certificateContent);
                 }
+            }
+        }
 
-                discoveryCertificateRepository.save(discoveryCertificate);
-            } catch (Exception e) {
-                logger.error("Unable to create discovery certificate {} in batch {} for discovery {}. Message: {}", discoveryCertificate == null ? certificate.getUuid() : discoveryCertificate.getCommonName(), batch, discovery.getName(), e.getMessage(), e);
+        List<DiscoveryCertificate> discoveryCertificates = new ArrayList<>(discoveredCertificates.size());
+        for (Map.Entry<String, List<DiscoveryProviderCertificateDataDto>> entry : certificatesByFingerprint.entrySet()) {
+            Certificate existingCertificate = existingCertificates.get(entry.getKey());
+            CertificateContent certificateContent = certificateContents.get(entry.getKey());
+            if (existingCertificate == null && certificateContent == null) continue;
+
+            for (DiscoveryProviderCertificateDataDto certificate : entry.getValue()) {
+                DiscoveryCertificate discoveryCertificate = null;
+                try {
+                    discoveryCertificate = CertificateUtil.prepareDiscoveryCertificate(existingCertificate, x509Certificates.get(entry.getKey()));
+                    discoveryCertificate.setDiscovery(discovery);
+                    discoveryCertificate.setNewlyDiscovered(existingCertificate == null);
+                    discoveryCertificate.setMeta(certificate.getMeta());
+
+                    if (existingCertificate == null) {
+                        discoveryCertificate.setCertificateContent(certificateContent);
+                    } else {
+                        updateDiscoveredCertificate(discovery, existingCertificate, certificate.getMeta());
+                        discoveryCertificate.setProcessed(true);
+                    }
+
+                    discoveryCertificates.add(discoveryCertificate);
+                } catch (Exception e) {
+                    logger.error("Unable to create discovery certificate {} in batch {} for discovery {}. Message: {}", discoveryCertificate == null ? certificate.getUuid() : discoveryCertificate.getCommonName(), batch, discovery.getName(), e.getMessage(), e);
+                }
             }
         }
+        discoveryCertificateRepository.saveAll(discoveryCertificates);
 
         // report progress
-        long currentCount = discoveryCertificateRepository.countByDiscovery(discovery);
+        long currentCount = downloadedCertificatesCount.addAndGet(discoveryCertificates.size());
         discovery.setMessage(String.format("Downloaded %d %% of discovered certificates from provider (%d / %d)", (int) ((currentCount / (double) discovery.getConnectorTotalCertificatesDiscovered()) * 100), currentCount, discovery.getConnectorTotalCertificatesDiscovered()));
         discoveryRepository.save(discovery);
     }
 
+    /**
+     * Load and compile triggers of the discovery once for processing of all its discovered certificates.
+     * Triggers with ignore action are separated, the rest of triggers are in given order.
+     *
+     * @param discoveryUuid UUID of the discovery
+     * @return Compiled triggers of the discovery
+     */
+    public DiscoveryTriggers getDiscoveryTriggers(UUID discoveryUuid) {
+        List<TriggerAssociation> triggerAssociations = triggerAssociationRepository.findAllByResourceAndObjectUuidOrderByTriggerOrderAsc(Resource.DISCOVERY, discoveryUuid);
+        List<CompiledTrigger> orderedTriggers = new ArrayList<>();
+        List<CompiledTrigger> ignoreTriggers = new ArrayList<>();
+        for (TriggerAssociation triggerAssociation : triggerAssociations) {
+            try {
+                Trigger trigger = triggerService.getTriggerEntity(String.valueOf(triggerAssociation.getTriggerUuid()));
+                CompiledTrigger compiledTrigger = certificateRuleEvaluator.compileTrigger(trigger);
+                if (triggerAssociation.getTriggerOrder() == -1) {
+                    ignoreTriggers.add(compiledTrigger);
+                } else {
+                    orderedTriggers.add(compiledTrigger);
+                }
+            } catch (NotFoundException e) {
+                logger.error(e.getMessage());
+            }
+        }
+        return new DiscoveryTriggers(ignoreTriggers, orderedTriggers);
+    }
+
     @Transactional(propagation = Propagation.REQUIRES_NEW, isolation = Isolation.DEFAULT)
-    public void processDiscoveredCertificate(int certIndex, int totalCount, DiscoveryHistory discovery, DiscoveryCertificate discoveryCertificate) {
+    public void processDiscoveredCertificate(int certIndex, int totalCount, DiscoveryHistory discovery, DiscoveryCertificate discoveryCertificate, DiscoveryTriggers discoveryTriggers) {
         // Get X509 from discovered certificate and create certificate entity, do not save in database yet
         Certificate certificate;
         X509Certificate x509Cert;
@@ -197,25 +293,8 @@ public class CertificateHandler {
             return;
         }
 
-        // Get triggers for the discovery, separately for triggers with ignore action, the rest of triggers are in given order
-        List<TriggerAssociation> triggerAssociations = triggerAssociationRepository.findAllByResourceAndObjectUuidOrderByTriggerOrderAsc(Resource.DISCOVERY, discovery.getUuid());
-        List<Trigger> orderedTriggers = new ArrayList<>();
-        List<Trigger> ignoreTriggers = new ArrayList<>();
-        for (TriggerAssociation triggerAssociation : triggerAssociations) {
-            try {
-                Trigger trigger = triggerService.getTriggerEntity(String.valueOf(triggerAssociation.getTriggerUuid()));
-                if (triggerAssociation.getTriggerOrder() == -1) {
-                    ignoreTriggers.add(trigger);
-                } else {
-                    orderedTriggers.add(trigger);
-                }
-            } catch (NotFoundException e) {
-                logger.error(e.getMessage());
-            }
-        }
-
         try {
-            processTriggers(discovery.getUuid(), certificate, discoveryCertificate, ignoreTriggers, orderedTriggers);
+            processTriggers(discovery.getUuid(), certificate, discoveryCertificate, discoveryTriggers.ignoreTriggers(), discoveryTriggers.orderedTriggers());
         } catch (RuleException e) {
             logger.error("Unable to process trigger on certificate {} from discovery certificate with UUID {}. Message: {}", certificate.getUuid(), discoveryCertificate.getUuid(), e.getMessage());
         }
@@ -233,13 +312,13 @@ public class CertificateHandler {
         }
     }
 
-    private void processTriggers(UUID discoveryUuid, Certificate certificate, DiscoveryCertificate discoveryCertificate, List<Trigger> ignoreTriggers, List<Trigger> orderedTriggers) throws RuleException {
+    private void processTriggers(UUID discoveryUuid, Certificate certificate, DiscoveryCertificate discoveryCertificate, List<CompiledTrigger> ignoreTriggers, List<CompiledTrigger> orderedTriggers) throws RuleException {
         // First, check the triggers that have action with action type set to ignore
         boolean ignored = false;
         List<TriggerHistory> ignoreTriggerHistories = new ArrayList<>();
-        for (Trigger trigger : ignoreTriggers) {
-            TriggerHistory triggerHistory = triggerService.createTriggerHistory(OffsetDateTime.now(), trigger.getUuid(), discoveryUuid, null, discoveryCertificate.getUuid());
-            if (certificateRuleEvaluator.evaluateRules(trigger.getRules(), certificate, triggerHistory)) {
+        for (CompiledTrigger trigger : ignoreTriggers) {
+            TriggerHistory triggerHistory = triggerService.createTriggerHistory(OffsetDateTime.now(), trigger.uuid(), discoveryUuid, null, discoveryCertificate.getUuid());
+            if (certificateRuleEvaluator.evaluateRules(trigger, certificate, triggerHistory)) {
                 ignored = true;
                 triggerHistory.setConditionsMatched(true);
                 triggerHistory.setActionsPerformed(true);
@@ -265,11 +344,11 @@ public class CertificateHandler {
         }
 
         // Evaluate rest of the triggers in given order
-        for (Trigger trigger : orderedTriggers) {
+        for (CompiledTrigger trigger : orderedTriggers) {
             // Create trigger history entry
-            TriggerHistory triggerHistory = triggerService.createTriggerHistory(OffsetDateTime.now(), trigger.getUuid(), discoveryUuid, certificate.getUuid(), discoveryCertificate.getUuid());
+            TriggerHistory triggerHistory = triggerService.createTriggerHistory(OffsetDateTime.now(), trigger.uuid(), discoveryUuid, certificate.getUuid(), discoveryCertificate.getUuid());
             // If rules are satisfied, perform defined actions
-            if (certificateRuleEvaluator.evaluateRules(trigger.getRules(), certificate, triggerHistory)) {
+            if (certificateRuleEvaluator.evaluateRules(trigger, certificate, triggerHistory)) {
                 triggerHistory.setConditionsMatched(true);
                 certificateRuleEvaluator.performActions(trigger, certificate, triggerHistory);
                 triggerHistory.setActionsPerformed(triggerHistory.getRecords().isEmpty());
@@ -306,4 +385,7 @@ public class CertificateHandler {
         ValidationMessage validationMessage = new ValidationMessage(Resource.CERTIFICATE, event.certificateUuids(), event.discoveryUuid(), event.discoveryName(), event.locationUuid(), event.locationName());
         validationProducer.produceMessage(validationMessage);
     }
+
+    public record DiscoveryTriggers(List<CompiledTrigger> ignoreTriggers, List<CompiledTrigger> orderedTriggers) {
+    }
 }
@@ -19,6 +19,8 @@ import com.czertainly.core.dao.entity.AuditLog_;
 import com.czertainly.core.dao.repository.AuditLogRepository;
 import com.czertainly.core.enums.FilterField;
 import com.czertainly.core.logging.AuditLogExportDto;
+import com.czertainly.core.logging.AuditLogWriter;
+import com.czertainly.core.model.ExportFile;
 import com.czertainly.core.logging.LoggerWrapper;
 import com.czertainly.core.model.auth.ResourceAction;
 import com.czertainly.core.security.authz.ExternalAuthorization;
@@ -38,15 +40,21 @@ import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Root;
 import org.apache.commons.lang3.function.TriFunction;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -65,8 +73,16 @@ public class AuditLogServiceImpl implements AuditLogService {
     @Value("${export.auditLog.fileName.prefix:audit-logs}")
     private String fileNamePrefix;
 
+    @Value("${auditLog.export.fetch-size:1000}")
+    private int exportFetchSize;
+
+    @Value("${auditLog.purge.chunk-size:5000}")
+    private int purgeChunkSize;
+
     private AuditLogRepository auditLogRepository;
     private ExportProcessor exportProcessor;
+    private AuditLogWriter auditLogWriter;
+    private PlatformTransactionManager transactionManager;
 
     @PersistenceContext
     private EntityManager entityManager;
@@ -81,6 +97,16 @@ public class AuditLogServiceImpl implements AuditLogService {
         this.exportProcessor = exportProcessor;
     }
 
+    @Autowired
+    public void setAuditLogWriter(AuditLogWriter auditLogWriter) {
+        this.auditLogWriter = auditLogWriter;
+    }
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionManager = transactionManager;
+    }
+
     @Override
     @ExternalAuthorization(resource = Resource.AUDIT_LOG, action = ResourceAction.LIST)
     public AuditLogResponseDto listAuditLogs(final SearchRequestDto request) {
@@ -105,62 +131,61 @@ public class AuditLogServiceImpl implements AuditLogService {
 
     @Override
     @ExternalAuthorization(resource = Resource.AUDIT_LOG, action = ResourceAction.EXPORT)
-    public ExportResultDto exportAuditLogs(final List<SearchFilterRequestDto> filters) {
-        final TriFunction<Root<AuditLog>, CriteriaBuilder, CriteriaQuery, jakarta.persistence.criteria.Predicate> additionalWhereClause = (root, cb, cr) -> FilterPredicatesBuilder.getFiltersPredicate(cb, cr, root, filters);
-
-        final List<AuditLog> auditLogsEntities = auditLogRepository.findUsingSecurityFilter(SecurityFilter.create(), List.of(), additionalWhereClause, Pageable.ofSize(Integer.MAX_VALUE), (root, cb) -> cb.desc(root.get(AuditLog_.id)));
-        final List<AuditLogExportDto> auditLogs = auditLogsEntities
-                .stream()
-                .map(a -> {
-                    AuditLogExportDto.AuditLogExportDtoBuilder builder = AuditLogExportDto.builder();
-                    builder.id(a.getId());
-                    builder.version(a.getVersion());
-                    builder.loggedAt(a.getLoggedAt());
-                    builder.module(a.getModule());
-                    builder.resource(a.getResource());
-                    builder.resourceUuids(a.getLogRecord().resource().uuids());
-                    builder.resourceNames(a.getLogRecord().resource().names());
-                    builder.affiliatedResource(a.getAffiliatedResource());
-                    if (a.getLogRecord().affiliatedResource() != null) {
-                        builder.affiliatedResourceUuids(a.getLogRecord().affiliatedResource().uuids());
-                        builder.affiliatedResourceNames(a.getLogRecord().affiliatedResource().names());
-                    }
-                    builder.actorType(a.getActorType());
-                    builder.actorAuthMethod(a.getActorAuthMethod());
-                    builder.actorUuid(a.getActorUuid());
-                    builder.actorName(a.getActorName());
-                    if (a.getLogRecord().source() != null) {
-                        builder.ipAddress(a.getLogRecord().source().ipAddress());
-                        builder.userAgent(a.getLogRecord().source().userAgent());
-                    }
-                    builder.operation(a.getOperation());
-                    builder.operationResult(a.getOperationResult());
-                    builder.message(a.getMessage());
-
-                    try {
-                        builder.operationData(MAPPER.writeValueAsString(a.getLogRecord().operationData()));
-                    } catch (JsonProcessingException e) {
-                        builder.operationData("ERROR_SERIALIZATION");
-                    }
-
-                    try {
-                        builder.additionalData(MAPPER.writeValueAsString(a.getLogRecord().additionalData()));
-                    } catch (JsonProcessingException e) {
-                        builder.additionalData("ERROR_SERIALIZATION");
-                    }
-
-                    return builder.build();
-                }).toList();
-
-        return exportProcessor.generateExport(fileNamePrefix, auditLogs);
+    @Transactional(readOnly = true)
+    public ExportFile exportAuditLogs(final List<SearchFilterRequestDto> filters) {
+        final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        final CriteriaQuery<AuditLog> cr = cb.createQuery(AuditLog.class);
+        final Root<AuditLog> root = cr.from(AuditLog.class);
+        cr.select(root).where(FilterPredicatesBuilder.getFiltersPredicate(cb, cr, root, filters)).orderBy(cb.desc(root.get(AuditLog_.id)));
+
+        // audit logs are read by forward-only cursor and detached after they are written to export, so that they do not accumulate in memory
+        try (Stream<AuditLog> auditLogs = entityManager.createQuery(cr)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, exportFetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            return exportProcessor.generateExport(fileNamePrefix, AuditLogExportDto.class, auditLogs.map(auditLog -> {
+                AuditLogExportDto exportDto = mapToExportDto(auditLog);
+                entityManager.detach(auditLog);
+                return exportDto;
+            }));
+        }
     }
 
     @Override
     @ExternalAuthorization(resource = Resource.AUDIT_LOG, action = ResourceAction.DELETE)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void purgeAuditLogs(final List<SearchFilterRequestDto> filters) {
-        final TriFunction<Root<AuditLog>, CriteriaBuilder, CriteriaQuery, jakarta.persistence.criteria.Predicate> additionalWhereClause = (root, cb, cr) -> FilterPredicatesBuilder.getFiltersPredicate(cb, cr, root, filters);
-        final List<AuditLog> auditLogs = auditLogRepository.findUsingSecurityFilter(SecurityFilter.create(), List.of(), additionalWhereClause);
-        auditLogRepository.deleteAll(auditLogs);
+        // audit logs are deleted in chunks of IDs ordered by ID, each chunk by single statement without loading the entities
+        // and in its own transaction, so that locks and undo of already deleted chunks are not held until whole purge is finished
+        long lastId = Long.MIN_VALUE;
+        List<Long> ids;
+        do {
+            ids = purgeAuditLogsChunk(filters, lastId);
+            if (!ids.isEmpty()) {
+                lastId = ids.getLast();
+            }
+        } while (ids.size() == purgeChunkSize);
+    }
+
+    private List<Long> purgeAuditLogsChunk(final List<SearchFilterRequestDto> filters, final long lastId) {
+        TransactionStatus status = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        try {
+            final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+            final CriteriaQuery<Long> cr = cb.createQuery(Long.class);
+            final Root<AuditLog> root = cr.from(AuditLog.class);
+            cr.select(root.get(AuditLog_.id))
+                    .where(cb.and(FilterPredicatesBuilder.getFiltersPredicate(cb, cr, root, filters), cb.greaterThan(root.get(AuditLog_.id), lastId)))
+                    .orderBy(cb.asc(root.get(AuditLog_.id)));
+            final List<Long> ids = entityManager.createQuery(cr).setMaxResults(purgeChunkSize).getResultList();
+            if (!ids.isEmpty()) {
+                auditLogRepository.deleteAllByIdInBatch(ids);
+            }
+            transactionManager.commit(status);
+            return ids;
+        } catch (RuntimeException e) {
+            if (!status.isCompleted()) transactionManager.rollback(status);
+            throw e;
+        }
     }
 
     @Override
@@ -192,6 +217,47 @@ public class AuditLogServiceImpl implements AuditLogService {
         log(logRecord);
     }
 
+    private static AuditLogExportDto mapToExportDto(AuditLog a) {
+        AuditLogExportDto.AuditLogExportDtoBuilder builder = AuditLogExportDto.builder();
+        builder.id(a.getId());
+        builder.version(a.getVersion());
+        builder.loggedAt(a.getLoggedAt());
+        builder.module(a.getModule());
+        builder.resource(a.getResource());
+        builder.resourceUuids(a.getLogRecord().resource().uuids());
+        builder.resourceNames(a.getLogRecord().resource().names());
+        builder.affiliatedResource(a.getAffiliatedResource());
+        if (a.getLogRecord().affiliatedResource() != null) {
+            builder.affiliatedResourceUuids(a.getLogRecord().affiliatedResource().uuids());
+            builder.affiliatedResourceNames(a.getLogRecord().affiliatedResource().names());
+        }
+        builder.actorType(a.getActorType());
+        builder.actorAuthMethod(a.getActorAuthMethod());
+        builder.actorUuid(a.getActorUuid());
+        builder.actorName(a.getActorName());
+        if (a.getLogRecord().source() != null) {
+            builder.ipAddress(a.getLogRecord().source().ipAddress());
+            builder.userAgent(a.getLogRecord().source().userAgent());
+        }
+        builder.operation(a.getOperation());
+        builder.operationResult(a.getOperationResult());
+        builder.message(a.getMessage());
+
+        try {
+            builder.operationData(MAPPER.writeValueAsString(a.getLogRecord().operationData()));
+        } catch (JsonProcessingException e) {
+            builder.operationData("ERROR_SERIALIZATION");
+        }
+
+        try {
+            builder.additionalData(MAPPER.writeValueAsString(a.getLogRecord().additionalData()));
+        } catch (JsonProcessingException e) {
+            builder.additionalData("ERROR_SERIALIZATION");
+        }
+
+        return builder.build();
+    }
+
     private void handleAuditLogging(LogRecord logRecord) {
         if (logger.isLogFiltered(true, logRecord.module(), logRecord.resource().type(), null)) {
             return;
@@ -204,8 +270,7 @@ public class AuditLogServiceImpl implements AuditLogService {
 
         // log to DB
         if (loggingSettingsDto.getAuditLogs().getOutput() == AuditLogOutput.ALL || loggingSettingsDto.getAuditLogs().getOutput() == AuditLogOutput.DATABASE) {
-            AuditLog auditLog = AuditLog.fromLogRecord(logRecord);
-            auditLogRepository.save(auditLog);
+            auditLogWriter.write(logRecord);
         }
 
         // log to output
@@ -49,6 +49,12 @@ public class CertificateEventHistoryServiceImpl implements CertificateEventHisto
         certificateEventHistoryRepository.save(history);
     }
 
+    @Override
+    public void addEventHistories(List<CertificateEventHistory> certificateEventHistories) {
+        // inserts are grouped to JDBC batches by Hibernate according to hibernate.jdbc.batch_size
+        certificateEventHistoryRepository.saveAll(certificateEventHistories);
+    }
+
     @Override
     public CertificateEventHistory getEventHistory(CertificateEvent event, CertificateEventStatus status, String message, String additionalInformation, Certificate certificate) {
         CertificateEventHistory history = new CertificateEventHistory();
@@ -35,6 +35,7 @@ import com.czertainly.core.event.transaction.CertificateValidationEvent;
 import com.czertainly.core.messaging.model.NotificationRecipient;
 import com.czertainly.core.messaging.producers.EventProducer;
 import com.czertainly.core.messaging.producers.NotificationProducer;
+import com.czertainly.core.model.CertificateKeysetResponseDto;
 import com.czertainly.core.model.auth.CertificateProtocolInfo;
 import com.czertainly.core.model.auth.ResourceAction;
 import com.czertainly.core.model.request.CertificateRequest;
@@ -43,10 +44,17 @@ import com.czertainly.core.security.authz.ExternalAuthorization;
 import com.czertainly.core.security.authz.SecuredParentUUID;
 import com.czertainly.core.security.authz.SecuredUUID;
 import com.czertainly.core.security.authz.SecurityFilter;
+import com.czertainly.core.security.authz.SecurityResourceFilter;
 import com.czertainly.core.service.*;
 import com.czertainly.core.service.v2.ExtendedAttributeService;
+import com.czertainly.core.statistics.CertificateStatisticsStore;
 import com.czertainly.core.util.*;
 import com.czertainly.core.validation.certificate.ICertificateValidator;
+import com.czertainly.core.validation.certificate.IssuerValidationCache;
+import com.czertainly.core.validation.certificate.OcspResponseCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.criteria.*;
 import org.apache.commons.lang3.function.TriFunction;
 import org.bouncycastle.asn1.ASN1Primitive;
@@ -59,11 +67,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MarkerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.TransactionStatus;
@@ -75,6 +86,7 @@ import java.io.*;
 import java.net.URI;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
@@ -86,10 +98,14 @@ import java.security.cert.X509Certificate;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
@@ -99,6 +115,7 @@ public class CertificateServiceImpl implements CertificateService {
 
 
     private static final String UNDEFINED_CERTIFICATE_OBJECT_NAME = "undefined";
+    private static final int OCSP_PREFETCH_PAGE_SIZE = 1000;
     private static final Logger logger = LoggerFactory.getLogger(CertificateServiceImpl.class);
 
     @Autowired
@@ -174,6 +191,63 @@ public class CertificateServiceImpl implements CertificateService {
 
     private CertificateProtocolAssociationRepository certificateProtocolAssociationRepository;
 
+    private OcspResponseCache ocspResponseCache;
+
+    private IssuerValidationCache issuerValidationCache;
+
+    private CertificateStatisticsStore certificateStatisticsStore;
+
+    @Value("${certificate.list.estimated-count.enabled:false}")
+    private boolean estimatedCountEnabled;
+
+    @Value("${certificate.list.estimated-count.threshold:10000}")
+    private int estimatedCountThreshold;
+
+    @Value("${certificate.validation.scheduled.workers:1}")
+    private int scheduledValidationWorkers;
+
+    @Value("${certificate.validation.scheduled.batch-size:20}")
+    private int scheduledValidationBatchSize;
+
+    @Value("${certificate.validation.scheduled.window-hours:24}")
+    private int scheduledValidationWindowHours;
+
+    private final AtomicLong scheduledValidationEligible = new AtomicLong();
+    private final AtomicLong scheduledValidationPending = new AtomicLong();
+    private Counter scheduledValidationUpdated;
+    private Counter scheduledValidationFailed;
+
+    @Autowired
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        Gauge.builder("certificate.validation.scheduled.eligible", scheduledValidationEligible, AtomicLong::get)
+                .description("Number of certificates eligible for scheduled status update")
+                .register(meterRegistry);
+        Gauge.builder("certificate.validation.scheduled.pending", scheduledValidationPending, AtomicLong::get)
+                .description("Number of certificates remaining in current scheduled status update run")
+                .register(meterRegistry);
+        scheduledValidationUpdated = Counter.builder("certificate.validation.scheduled.updated")
+                .description("Number of certificates with status updated by scheduled task")
+                .register(meterRegistry);
+        scheduledValidationFailed = Counter.builder("certificate.validation.scheduled.failed")
+                .description("Number of certificates which scheduled task failed to update")
+                .register(meterRegistry);
+    }
+
+    @Autowired
+    public void setOcspResponseCache(OcspResponseCache ocspResponseCache) {
+        this.ocspResponseCache = ocspResponseCache;
+    }
+
+    @Autowired
+    public void setIssuerValidationCache(IssuerValidationCache issuerValidationCache) {
+        this.issuerValidationCache = issuerValidationCache;
+    }
+
+    @Autowired
+    public void setCertificateStatisticsStore(CertificateStatisticsStore certificateStatisticsStore) {
+        this.certificateStatisticsStore = certificateStatisticsStore;
+    }
+
     @Autowired
     public void setCertificateProtocolAssociationRepository(CertificateProtocolAssociationRepository certificateProtocolAssociationRepository) {
         this.certificateProtocolAssociationRepository = certificateProtocolAssociationRepository;
@@ -218,7 +292,7 @@ public class CertificateServiceImpl implements CertificateService {
 
         final TriFunction<Root<Certificate>, CriteriaBuilder, CriteriaQuery, Predicate> additionalWhereClause = (root, cb, cr) -> FilterPredicatesBuilder.getFiltersPredicate(cb, cr, root, request.getFilters());
         final List<CertificateDto> listedKeyDTOs = certificateRepository.findUsingSecurityFilter(filter, List.of(), additionalWhereClause, p, (root, cb) -> cb.desc(root.get("created"))).stream().map(Certificate::mapToListDto).toList();
-        final Long maxItems = certificateRepository.countUsingSecurityFilter(filter, additionalWhereClause);
+        final Long maxItems = countCertificates(filter, request, additionalWhereClause);
 
         final CertificateResponseDto responseDto = new CertificateResponseDto();
         responseDto.setCertificates(listedKeyDTOs);
@@ -229,6 +303,50 @@ public class CertificateServiceImpl implements CertificateService {
         return responseDto;
     }
 
+    @Override
+    @ExternalAuthorization(resource = Resource.CERTIFICATE, action = ResourceAction.LIST, parentResource = Resource.RA_PROFILE, parentAction = ResourceAction.MEMBERS)
+    public CertificateKeysetResponseDto listCertificatesByKeyset(SecurityFilter filter, SearchRequestDto request, String cursor) throws ValidationException {
+        setupSecurityFilter(filter);
+        RequestValidatorHelper.revalidateSearchRequestDto(request);
+
+        OffsetDateTime createdBefore = null;
+        UUID uuidBefore = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                String[] cursorParts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+                createdBefore = OffsetDateTime.parse(cursorParts[0]);
+                uuidBefore = UUID.fromString(cursorParts[1]);
+            } catch (RuntimeException e) {
+                throw new ValidationException(ValidationError.create("Invalid certificate list cursor: " + cursor));
+            }
+        }
+
+        final TriFunction<Root<Certificate>, CriteriaBuilder, CriteriaQuery, Predicate> additionalWhereClause = (root, cb, cr) -> FilterPredicatesBuilder.getFiltersPredicate(cb, cr, root, request.getFilters());
+        final List<Certificate> certificates = certificateRepository.findUsingSecurityFilterByKeyset(filter, List.of(), additionalWhereClause, createdBefore, uuidBefore, request.getItemsPerPage());
+
+        final CertificateKeysetResponseDto responseDto = new CertificateKeysetResponseDto();
+        responseDto.setCertificates(certificates.stream().map(Certificate::mapToListDto).toList());
+        responseDto.setItemsPerPage(request.getItemsPerPage());
+        if (certificates.size() == request.getItemsPerPage()) {
+            Certificate lastCertificate = certificates.getLast();
+            String nextCursor = lastCertificate.getCreated().toString() + "|" + lastCertificate.getUuid();
+            responseDto.setNextCursor(Base64.getUrlEncoder().withoutPadding().encodeToString(nextCursor.getBytes(StandardCharsets.UTF_8)));
+        }
+        // total count is computed only for first page, following pages are requested by cursor
+        if (createdBefore == null) {
+            responseDto.setTotalItems(countCertificates(filter, request, additionalWhereClause));
+            responseDto.setTotalItemsEstimated(estimatedCountEnabled && responseDto.getTotalItems() > estimatedCountThreshold);
+        }
+        return responseDto;
+    }
+
+    private Long countCertificates(SecurityFilter filter, SearchRequestDto request, TriFunction<Root<Certificate>, CriteriaBuilder, CriteriaQuery, Predicate> additionalWhereClause) {
+        if (!estimatedCountEnabled) {
+            return certificateRepository.countUsingSecurityFilter(filter, additionalWhereClause);
+        }
+        return certificateRepository.estimateCountUsingSecurityFilter(filter, request.getFilters().isEmpty() ? null : additionalWhereClause, estimatedCountThreshold);
+    }
+
     @Override
     @ExternalAuthorization(resource = Resource.CERTIFICATE, action = ResourceAction.DETAIL)
     public CertificateDetailDto getCertificate(SecuredUUID uuid) throws NotFoundException, CertificateException, IOException {
@@ -321,6 +439,7 @@ public class CertificateServiceImpl implements CertificateService {
             certificateContentRepository.delete(content);
             certificate.setCertificateContent(null);
         }
+        issuerValidationCache.invalidate(certificate.getUuid());
 
         objectAssociationService.removeObjectAssociations(Resource.CERTIFICATE, uuid.getValue());
         attributeEngine.deleteAllObjectAttributeContent(Resource.CERTIFICATE, uuid.getValue());
@@ -350,6 +469,7 @@ public class CertificateServiceImpl implements CertificateService {
             throw new ValidationException("Trying to mark certificate as trusted CA when certificate is not CA.");
         }
         certificate.setTrustedCa(trustedCa);
+        issuerValidationCache.invalidate(certificate.getUuid());
     }
 
     @Async
@@ -987,40 +1107,166 @@ public class CertificateServiceImpl implements CertificateService {
     public int updateCertificatesStatusScheduled() {
         List<CertificateValidationStatus> skipStatuses = List.of(CertificateValidationStatus.REVOKED, CertificateValidationStatus.EXPIRED);
         long totalCertificates = certificateRepository.countCertificatesToCheckStatus(skipStatuses);
-        int maxCertsToValidate = Math.max(100, Math.round(totalCertificates / (float) 24));
+        int maxCertsToValidate = Math.max(100, Math.round(totalCertificates / (float) scheduledValidationWindowHours));
 
         LocalDateTime before = LocalDateTime.now().minusDays(1);
 
-        // process 1/24 of eligible certificates for status update
+        // process part of eligible certificates for status update, so all are revalidated within configured window
         final List<UUID> certificateUuids = certificateRepository.findCertificatesToCheckStatus(before, skipStatuses, PageRequest.of(0, maxCertsToValidate));
 
-        int certificatesUpdated = 0;
         logger.info(MarkerFactory.getMarker("scheduleInfo"), "Scheduled certificate status update. Batch size {}/{} certificates", certificateUuids.size(), totalCertificates);
-        for (final UUID certificateUuid : certificateUuids) {
-            Certificate certificate = null;
-            TransactionStatus status = transactionManager.getTransaction(new DefaultTransactionDefinition());
-            try {
-                certificate = certificateRepository.findWithAssociationsByUuid(certificateUuid).orElseThrow(() -> new NotFoundException(Certificate.class, certificateUuid));
-                validate(certificate);
-                if (certificate.getRaProfileUuid() != null && certificate.getComplianceStatus() == ComplianceStatus.NOT_CHECKED) {
-                    complianceService.checkComplianceOfCertificate(certificate);
+        long startTime = System.currentTimeMillis();
+        scheduledValidationEligible.set(totalCertificates);
+        scheduledValidationPending.set(certificateUuids.size());
+        prefetchOcspResponses(certificateUuids);
+
+        int certificatesUpdated;
+        if (scheduledValidationWorkers > 1) {
+            certificatesUpdated = updateCertificatesStatusParallel(certificateUuids);
+        } else {
+            certificatesUpdated = 0;
+            for (final UUID certificateUuid : certificateUuids) {
+                if (updateCertificateStatusInTransaction(certificateUuid)) {
+                    ++certificatesUpdated;
                 }
+            }
+        }
+        scheduledValidationPending.set(0);
 
-                transactionManager.commit(status);
-                ++certificatesUpdated;
-            } catch (NotFoundException e) {
-                logger.warn(MarkerFactory.getMarker("scheduleInfo"), "Scheduled task was unable to update status of the certificate. Error: {}", e.getMessage(), e);
-                transactionManager.rollback(status);
-            } catch (Exception e) {
-                logger.warn(MarkerFactory.getMarker("scheduleInfo"), "Scheduled task was unable to update status of the certificate. Certificate {}. Error: {}", certificate, e.getMessage(), e);
+        logger.info(MarkerFactory.getMarker("scheduleInfo"), "Certificates status updated for {}/{} certificates in {} ms", certificatesUpdated, certificateUuids.size(), System.currentTimeMillis() - startTime);
+        return certificatesUpdated;
+    }
+
+    /**
+     * Validate certificates by multiple workers. Certificates are grouped by issuer and split into small batches
+     * committed in single transaction, so certificates sharing chain, CRL and OCSP responder are processed together.
+     *
+     * @param certificateUuids UUIDs of certificates to be validated
+     * @return number of updated certificates
+     */
+    private int updateCertificatesStatusParallel(List<UUID> certificateUuids) {
+        Map<UUID, List<UUID>> certificatesByIssuer = new LinkedHashMap<>();
+        for (int i = 0; i < certificateUuids.size(); i += OCSP_PREFETCH_PAGE_SIZE) {
+            for (Object[] certificateIssuer : certificateRepository.findIssuerUuidsByUuidIn(certificateUuids.subList(i, Math.min(i + OCSP_PREFETCH_PAGE_SIZE, certificateUuids.size())))) {
+                certificatesByIssuer.computeIfAbsent((UUID) certificateIssuer[1], k -> new ArrayList<>()).add((UUID) certificateIssuer[0]);
+            }
+        }
+
+        Queue<List<UUID>> batches = new ConcurrentLinkedQueue<>();
+        for (List<UUID> issuerCertificates : certificatesByIssuer.values()) {
+            for (int i = 0; i < issuerCertificates.size(); i += scheduledValidationBatchSize) {
+                batches.add(issuerCertificates.subList(i, Math.min(i + scheduledValidationBatchSize, issuerCertificates.size())));
+            }
+        }
+        logger.debug("Scheduled certificate status update split into {} batches of {} issuers processed by {} workers", batches.size(), certificatesByIssuer.size(), scheduledValidationWorkers);
+
+        AtomicInteger certificatesUpdated = new AtomicInteger();
+        try (ExecutorService virtualThreadExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            DelegatingSecurityContextExecutor executor = new DelegatingSecurityContextExecutor(virtualThreadExecutor, SecurityContextHolder.getContext());
+            for (int i = 0; i < scheduledValidationWorkers; i++) {
+                executor.execute(() -> {
+                    List<UUID> batch;
+                    while ((batch = batches.poll()) != null) {
+                        certificatesUpdated.addAndGet(updateCertificatesStatusBatch(batch));
+                    }
+                });
+            }
+        }
+        return certificatesUpdated.get();
+    }
+
+    private int updateCertificatesStatusBatch(List<UUID> certificateUuids) {
+        TransactionStatus status = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        try {
+            for (UUID certificateUuid : certificateUuids) {
+                updateCertificateStatus(certificateUuid);
+            }
+            transactionManager.commit(status);
+            scheduledValidationUpdated.increment(certificateUuids.size());
+            scheduledValidationPending.addAndGet(-certificateUuids.size());
+            return certificateUuids.size();
+        } catch (Exception e) {
+            if (!status.isCompleted()) {
                 transactionManager.rollback(status);
             }
+            logger.debug("Batch status update of {} certificates failed, certificates will be updated one by one. Error: {}", certificateUuids.size(), e.getMessage());
+        }
 
+        int certificatesUpdated = 0;
+        for (UUID certificateUuid : certificateUuids) {
+            if (updateCertificateStatusInTransaction(certificateUuid)) {
+                ++certificatesUpdated;
+            }
         }
-        logger.info(MarkerFactory.getMarker("scheduleInfo"), "Certificates status updated for {}/{} certificates", certificatesUpdated, certificateUuids.size());
         return certificatesUpdated;
     }
 
+    private boolean updateCertificateStatusInTransaction(UUID certificateUuid) {
+        TransactionStatus status = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        try {
+            updateCertificateStatus(certificateUuid);
+            transactionManager.commit(status);
+            scheduledValidationUpdated.increment();
+            return true;
+        } catch (NotFoundException e) {
+            logger.warn(MarkerFactory.getMarker("scheduleInfo"), "Scheduled task was unable to update status of the certificate. Error: {}", e.getMessage(), e);
+            rollbackScheduledStatusUpdate(status);
+        } catch (Exception e) {
+            logger.warn(MarkerFactory.getMarker("scheduleInfo"), "Scheduled task was unable to update status of the certificate. Certificate {}. Error: {}", certificateUuid, e.getMessage(), e);
+            rollbackScheduledStatusUpdate(status);
+        } finally {
+            scheduledValidationPending.decrementAndGet();
+        }
+        return false;
+    }
+
+    private void rollbackScheduledStatusUpdate(TransactionStatus status) {
+        if (!status.isCompleted()) {
+            transactionManager.rollback(status);
+        }
+        scheduledValidationFailed.increment();
+    }
+
+    private void updateCertificateStatus(UUID certificateUuid) throws NotFoundException {
+        Certificate certificate = certificateRepository.findWithAssociationsByUuid(certificateUuid).orElseThrow(() -> new NotFoundException(Certificate.class, certificateUuid));
+        validate(certificate);
+        if (certificate.getRaProfileUuid() != null && certificate.getComplianceStatus() == ComplianceStatus.NOT_CHECKED) {
+            complianceService.checkComplianceOfCertificate(certificate);
+        }
+    }
+
+    /**
+     * Load OCSP statuses of certificates grouped by issuer using batch OCSP requests, so certificates
+     * of the same issuer do not need to be checked by OCSP one by one during validation
+     *
+     * @param certificateUuids UUIDs of certificates to be validated
+     */
+    private void prefetchOcspResponses(List<UUID> certificateUuids) {
+        for (int i = 0; i < certificateUuids.size(); i += OCSP_PREFETCH_PAGE_SIZE) {
+            List<Certificate> certificates = certificateRepository.findWithContentByUuidIn(certificateUuids.subList(i, Math.min(i + OCSP_PREFETCH_PAGE_SIZE, certificateUuids.size())));
+            Map<UUID, List<X509Certificate>> certificatesByIssuer = new HashMap<>();
+            for (Certificate certificate : certificates) {
+                if (certificate.getIssuerCertificateUuid() == null || certificate.getCertificateContent() == null || certificate.getCertificateType() != CertificateType.X509) {
+                    continue;
+                }
+                try {
+                    certificatesByIssuer.computeIfAbsent(certificate.getIssuerCertificateUuid(), k -> new ArrayList<>()).add(CertificateUtil.parseCertificate(certificate.getCertificateContent().getContent()));
+                } catch (Exception e) {
+                    logger.debug("Unable to parse certificate {} for OCSP prefetch: {}", certificate.getUuid(), e.getMessage());
+                }
+            }
+
+            for (Certificate issuer : certificateRepository.findWithContentByUuidIn(certificatesByIssuer.keySet())) {
+                if (issuer.getCertificateContent() == null) continue;
+                try {
+                    ocspResponseCache.prefetch(CertificateUtil.parseCertificate(issuer.getCertificateContent().getContent()), certificatesByIssuer.get(issuer.getUuid()));
+                } catch (Exception e) {
+                    logger.debug("Unable to prefetch OCSP responses for certificates issued by {}: {}", issuer.getUuid(), e.getMessage());
+                }
+            }
+        }
+    }
+
     @Override
     // Internal Use Only
     public void updateCertificateUser(UUID certificateUuid, String userUuid) throws NotFoundException {
@@ -1049,6 +1295,13 @@ public class CertificateServiceImpl implements CertificateService {
     @ExternalAuthorization(resource = Resource.CERTIFICATE, action = ResourceAction.LIST, parentResource = Resource.RA_PROFILE, parentAction = ResourceAction.LIST)
     public Long statisticsCertificateCount(SecurityFilter filter) {
         setupSecurityFilter(filter);
+        if (isServedByStatisticsStore(filter)) {
+            long count = certificateStatisticsStore.getTotalCertificates(filter.getParentResourceFilter());
+            if (!isUnrestricted(filter.getParentResourceFilter())) {
+                count += certificateRepository.countUsingSecurityFilter(filter, getOutsideRaProfilesWhereClause(filter.getParentResourceFilter()));
+            }
+            return count;
+        }
         return certificateRepository.countUsingSecurityFilter(filter);
     }
 
@@ -1056,40 +1309,51 @@ public class CertificateServiceImpl implements CertificateService {
     @ExternalAuthorization(resource = Resource.CERTIFICATE, action = ResourceAction.LIST, parentResource = Resource.RA_PROFILE, parentAction = ResourceAction.LIST)
     public StatisticsDto addCertificateStatistics(SecurityFilter filter, StatisticsDto dto) {
         setupSecurityFilter(filter);
+        if (isServedByStatisticsStore(filter)) {
+            certificateStatisticsStore.fillStatistics(dto, filter.getParentResourceFilter(), filter.getGroupMembersFilter());
+            if (!isUnrestricted(filter.getParentResourceFilter())) {
+                // certificates outside permitted RA profiles accessible by ownership or group membership
+                mergeStatistics(dto, queryCertificateStatistics(filter, getOutsideRaProfilesWhereClause(filter.getParentResourceFilter()), new StatisticsDto()));
+            }
+            return dto;
+        }
+        return queryCertificateStatistics(filter, null, dto);
+    }
 
+    private StatisticsDto queryCertificateStatistics(SecurityFilter filter, TriFunction<Root<Certificate>, CriteriaBuilder, CriteriaQuery, Predicate> additionalWhereClause, StatisticsDto dto) {
         long start = System.nanoTime();
         try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
             executor.invokeAll(List.of(
                     () -> {
-                        dto.setCertificateStatByKeySize(certificateRepository.countGroupedUsingSecurityFilter(filter, null, Certificate_.keySize, null));
+                        dto.setCertificateStatByKeySize(certificateRepository.countGroupedUsingSecurityFilter(filter, null, Certificate_.keySize, null, additionalWhereClause));
                         return null;
                     },
                     () -> {
-                        dto.setCertificateStatByType(certificateRepository.countGroupedUsingSecurityFilter(filter, null, Certificate_.certificateType, null));
+                        dto.setCertificateStatByType(certificateRepository.countGroupedUsingSecurityFilter(filter, null, Certificate_.certificateType, null, additionalWhereClause));
                         return null;
                     },
                     () -> {
-                        dto.setGroupStatByCertificateCount(certificateRepository.countGroupedUsingSecurityFilter(filter, Certificate_.groups, Group_.name, null));
+                        dto.setGroupStatByCertificateCount(certificateRepository.countGroupedUsingSecurityFilter(filter, Certificate_.groups, Group_.name, null, additionalWhereClause));
                         return null;
                     },
                     () -> {
-                        dto.setRaProfileStatByCertificateCount(certificateRepository.countGroupedUsingSecurityFilter(filter, Certificate_.raProfile, RaProfile_.name, null));
+                        dto.setRaProfileStatByCertificateCount(certificateRepository.countGroupedUsingSecurityFilter(filter, Certificate_.raProfile, RaProfile_.name, null, additionalWhereClause));
                         return null;
                     },
                     () -> {
-                        dto.setCertificateStatBySubjectType(certificateRepository.countGroupedUsingSecurityFilter(filter, null, Certificate_.subjectType, null));
+                        dto.setCertificateStatBySubjectType(certificateRepository.countGroupedUsingSecurityFilter(filter, null, Certificate_.subjectType, null, additionalWhereClause));
                         return null;
                     },
                     () -> {
-                        dto.setCertificateStatByState(certificateRepository.countGroupedUsingSecurityFilter(filter, null, Certificate_.state, null));
+                        dto.setCertificateStatByState(certificateRepository.countGroupedUsingSecurityFilter(filter, null, Certificate_.state, null, additionalWhereClause));
                         return null;
                     },
                     () -> {
-                        dto.setCertificateStatByValidationStatus(certificateRepository.countGroupedUsingSecurityFilter(filter, null, Certificate_.validationStatus, null));
+                        dto.setCertificateStatByValidationStatus(certificateRepository.countGroupedUsingSecurityFilter(filter, null, Certificate_.validationStatus, null, additionalWhereClause));
                         return null;
                     },
                     () -> {
-                        dto.setCertificateStatByComplianceStatus(certificateRepository.countGroupedUsingSecurityFilter(filter, null, Certificate_.complianceStatus, null));
+                        dto.setCertificateStatByComplianceStatus(certificateRepository.countGroupedUsingSecurityFilter(filter, null, Certificate_.complianceStatus, null, additionalWhereClause));
                         return null;
                     },
                     (Callable<Void>) () -> {
@@ -1104,7 +1368,7 @@ public class CertificateServiceImpl implements CertificateService {
                                 .when(cb.greaterThan(root.get(Certificate_.notAfter), cb.literal(Date.from(nowInstant.plus(Duration.ofDays(90))))), "More")
                                 .otherwise("Expired");
 
-                        dto.setCertificateStatByExpiry(certificateRepository.countGroupedUsingSecurityFilter(filter, null, null, groupByExpression));
+                        dto.setCertificateStatByExpiry(certificateRepository.countGroupedUsingSecurityFilter(filter, null, null, groupByExpression, additionalWhereClause));
                         return null;
                     }
             ));
@@ -1605,6 +1869,49 @@ public class CertificateServiceImpl implements CertificateService {
         filter.setParentRefProperty("raProfileUuid");
     }
 
+    /**
+     * Materialized statistics are aggregated by RA profile, so they can be used when security filter does not restrict
+     * specific certificates. When RA profiles are restricted, certificates accessible outside permitted RA profiles
+     * by owner and group permissions are added by queries. Otherwise, statistics are computed by queries only.
+     */
+    private boolean isServedByStatisticsStore(SecurityFilter filter) {
+        return certificateStatisticsStore.isEnabled() && isUnrestricted(filter.getResourceFilter());
+    }
+
+    private static TriFunction<Root<Certificate>, CriteriaBuilder, CriteriaQuery, Predicate> getOutsideRaProfilesWhereClause(SecurityResourceFilter raProfileFilter) {
+        return (root, cb, cr) -> {
+            Path<UUID> raProfileUuid = root.get(Certificate_.raProfileUuid);
+            Predicate permitted = raProfileFilter.areOnlySpecificObjectsAllowed()
+                    ? raProfileUuid.in(raProfileFilter.getAllowedObjects())
+                    : cb.not(raProfileUuid.in(raProfileFilter.getForbiddenObjects()));
+            return cb.or(cb.isNull(raProfileUuid), cb.not(permitted));
+        };
+    }
+
+    private static void mergeStatistics(StatisticsDto dto, StatisticsDto other) {
+        dto.setCertificateStatByKeySize(mergeCounts(dto.getCertificateStatByKeySize(), other.getCertificateStatByKeySize()));
+        dto.setCertificateStatByType(mergeCounts(dto.getCertificateStatByType(), other.getCertificateStatByType()));
+        dto.setCertificateStatBySubjectType(mergeCounts(dto.getCertificateStatBySubjectType(), other.getCertificateStatBySubjectType()));
+        dto.setCertificateStatByState(mergeCounts(dto.getCertificateStatByState(), other.getCertificateStatByState()));
+        dto.setCertificateStatByValidationStatus(mergeCounts(dto.getCertificateStatByValidationStatus(), other.getCertificateStatByValidationStatus()));
+        dto.setCertificateStatByComplianceStatus(mergeCounts(dto.getCertificateStatByComplianceStatus(), other.getCertificateStatByComplianceStatus()));
+        dto.setRaProfileStatByCertificateCount(mergeCounts(dto.getRaProfileStatByCertificateCount(), other.getRaProfileStatByCertificateCount()));
+        dto.setGroupStatByCertificateCount(mergeCounts(dto.getGroupStatByCertificateCount(), other.getGroupStatByCertificateCount()));
+        dto.setCertificateStatByExpiry(mergeCounts(dto.getCertificateStatByExpiry(), other.getCertificateStatByExpiry()));
+    }
+
+    private static Map<String, Long> mergeCounts(Map<String, Long> counts, Map<String, Long> otherCounts) {
+        Map<String, Long> result = counts == null ? new HashMap<>() : new HashMap<>(counts);
+        if (otherCounts != null) {
+            otherCounts.forEach((key, count) -> result.merge(key, count, Long::sum));
+        }
+        return result;
+    }
+
+    private static boolean isUnrestricted(SecurityResourceFilter resourceFilter) {
+        return resourceFilter == null || (!resourceFilter.areOnlySpecificObjectsAllowed() && resourceFilter.getForbiddenObjects().isEmpty());
+    }
+
     private ICertificateValidator getCertificateValidator(CertificateType certificateType) {
         ICertificateValidator certificateValidator = certificateValidatorMap.get(certificateType.getCode());
         if (certificateValidator == null) {
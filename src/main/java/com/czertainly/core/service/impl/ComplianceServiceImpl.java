@@ -16,6 +16,7 @@ import com.czertainly.api.model.core.certificate.CertificateComplianceStorageDto
 import com.czertainly.api.model.core.compliance.ComplianceConnectorAndRulesDto;
 import com.czertainly.api.model.core.compliance.ComplianceRulesDto;
 import com.czertainly.api.model.core.compliance.ComplianceStatus;
+import com.czertainly.api.model.core.connector.ConnectorDto;
 import com.czertainly.api.model.core.connector.FunctionGroupCode;
 import com.czertainly.api.model.core.connector.FunctionGroupDto;
 import com.czertainly.core.dao.entity.*;
@@ -25,14 +26,22 @@ import com.czertainly.core.security.authz.ExternalAuthorization;
 import com.czertainly.core.security.authz.SecuredUUID;
 import com.czertainly.core.service.ComplianceService;
 import com.czertainly.core.util.AttributeDefinitionUtils;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.stream.Collectors;
 
 @Service
@@ -41,6 +50,17 @@ public class ComplianceServiceImpl implements ComplianceService {
 
     private static final Logger logger = LoggerFactory.getLogger(ComplianceServiceImpl.class);
 
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
+
+    @Value("${compliance.check.page-size:500}")
+    private int pageSize;
+
+    @Value("${compliance.check.parallelism:8}")
+    private int parallelism;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Autowired
     private ComplianceApiClient complianceApiClient;
 
@@ -113,7 +133,6 @@ public class ComplianceServiceImpl implements ComplianceService {
         }
         logger.debug("Checking the Compliance of the Certificate: {}", certificate);
         RaProfile raProfile = certificate.getRaProfile();
-        CertificateComplianceStorageDto complianceResults = new CertificateComplianceStorageDto();
         if (raProfile == null) {
             logger.debug("Certificate with uuid: {} does not have any RA Profile association", certificate.getUuid());
             return;
@@ -123,60 +142,9 @@ public class ComplianceServiceImpl implements ComplianceService {
             logger.debug("Certificate with uuid: {} does not have any Compliance Profile association", certificate.getUuid());
             return;
         }
-        for (ComplianceProfile complianceProfile : complianceProfiles) {
-            logger.debug("Applying profile: {}", complianceProfile);
-            Set<ComplianceGroup> applicableGroups = complianceProfile.getGroups();
-            Map<String, List<ComplianceRulesDto>> groupRuleMap = new HashMap<>();
-            for (ComplianceGroup grp : applicableGroups) {
-                groupRuleMap.computeIfAbsent(grp.getConnector().getUuid().toString(), k -> new ArrayList<>()).addAll(grp.getRules().stream().map(ComplianceRule::mapToDto).collect(Collectors.toList()));
-            }
-
-            for (ComplianceConnectorAndRulesDto connector : complianceProfile.mapToDto().getRules()) {
-                logger.debug("Checking for Connector: {}", connector);
-                ComplianceRequestDto complianceRequestDto = new ComplianceRequestDto();
-                complianceRequestDto.setCertificate(certificate.getCertificateContent().getContent());
-                List<ComplianceRulesDto> applicableRules = connector.getRules();
-                if (groupRuleMap.containsKey(connector.getConnectorUuid())) {
-                    applicableRules.addAll(groupRuleMap.get(connector.getConnectorUuid()));
-                }
-                if (applicableRules.isEmpty()) {
-                    logger.debug("Compliance Profile {} does not have any rule for Connector:{}", complianceProfile.getName(), connector.getConnectorName());
-                    setComplianceForCertificate(certificate.getUuid().toString(), ComplianceStatus.NA, complianceResults);
-                    return;
-                }
-                complianceRequestDto.setRules(getComplianceRequestRules(applicableRules));
-                ComplianceResponseDto responseDto = complianceApiClient.checkCompliance(
-                        getConnectorEntity(connector.getConnectorUuid()).mapToDto(),
-                        connector.getKind(),
-                        complianceRequestDto
-                );
-                logger.debug("Certificate Compliance Response from Connector: {}", responseDto);
-
-                for (ComplianceResponseRulesDto rule : responseDto.getRules()) {
-                    ComplianceRule complianceRule = getComplianceRuleEntity(SecuredUUID.fromString(rule.getUuid()),
-                            getConnectorEntity(connector.getConnectorUuid()), connector.getKind());
-                    String complianceProfileRuleUuid = null;
-                    try {
-                        complianceProfileRuleUuid = complianceProfileRuleRepository.findByComplianceProfileAndComplianceRule(complianceProfile, complianceRule)
-                                .orElseThrow(() -> new NotFoundException("Unable to find compliance profile rule for the result")).getUuid().toString();
-                    } catch (NotFoundException e) {
-                        complianceProfileRuleUuid = complianceRule.getUuid().toString();
-                    }
-                    switch (rule.getStatus()) {
-                        case OK:
-                            complianceResults.getOk().add(complianceProfileRuleUuid);
-                            break;
-                        case NOK:
-                            complianceResults.getNok().add(complianceProfileRuleUuid);
-                            break;
-                        case NA:
-                            complianceResults.getNa().add(complianceProfileRuleUuid);
-                    }
-                }
-                logger.debug("Status from the Connector: {}", responseDto.getStatus());
-            }
-        }
-        ComplianceStatus overallStatus = computeOverallComplianceStatus(complianceResults);
+        CompliancePlan compliancePlan = getCompliancePlan(complianceProfiles);
+        CertificateComplianceStorageDto complianceResults = checkCompliance(compliancePlan, certificate.getCertificateContent().getContent());
+        ComplianceStatus overallStatus = compliancePlan.notApplicable() ? ComplianceStatus.NA : computeOverallComplianceStatus(complianceResults);
         logger.debug("Overall Status: {}", overallStatus);
         setComplianceForCertificate(certificate.getUuid().toString(), overallStatus, complianceResults);
     }
@@ -199,8 +167,11 @@ public class ComplianceServiceImpl implements ComplianceService {
         ComplianceProfile complianceProfile = complianceProfileRepository.findByUuid(uuid).orElseThrow(
                 () -> new NotFoundException(ComplianceProfile.class, uuid));
         logger.debug("Checking the compliance for all the Certificates with profile: {}", complianceProfile);
-        Set<RaProfile> raProfiles = complianceProfile.getRaProfiles();
-        for (RaProfile raProfile : raProfiles) {
+        // RA profiles are loaded again for each check since persistence context is cleared during the check
+        List<UUID> raProfileUuids = complianceProfile.getRaProfiles().stream().map(RaProfile::getUuid).toList();
+        for (UUID raProfileUuid : raProfileUuids) {
+            RaProfile raProfile = raProfileRepository.findByUuid(raProfileUuid)
+                    .orElseThrow(() -> new NotFoundException(RaProfile.class, raProfileUuid));
             complianceCheckForRaProfile(raProfile);
         }
     }
@@ -285,12 +256,143 @@ public class ComplianceServiceImpl implements ComplianceService {
     }
 
     private void complianceCheckForRaProfile(RaProfile raProfile) throws ConnectorException {
-        List<Certificate> certificates = certificateRepository.findByRaProfile(raProfile);
-        for (Certificate certificate : certificates) {
-            checkComplianceOfCertificate(certificate);
+        Set<ComplianceProfile> complianceProfiles = raProfile.getComplianceProfiles();
+        if (complianceProfiles == null || complianceProfiles.isEmpty()) {
+            logger.debug("RA Profile {} does not have any Compliance Profile association", raProfile.getName());
+            return;
+        }
+        CompliancePlan compliancePlan = getCompliancePlan(complianceProfiles);
+        String raProfileName = raProfile.getName();
+
+        PageRequest pageable = PageRequest.ofSize(pageSize);
+        UUID afterUuid = MIN_UUID;
+        int checked = 0;
+        List<Certificate> page;
+        do {
+            page = certificateRepository.findWithContentByRaProfileUuid(raProfile.getUuid(), afterUuid, pageable);
+            if (page.isEmpty()) break;
+
+            checkComplianceOfCertificates(compliancePlan, page);
+            checked += page.size();
+            afterUuid = page.getLast().getUuid();
+
+            // write compliance results of the page and release the certificates from persistence context
+            entityManager.flush();
+            entityManager.clear();
+            logger.debug("Checked compliance of {} certificates in RA Profile {}", checked, raProfileName);
+        } while (page.size() == pageable.getPageSize());
+    }
+
+    /**
+     * Check compliance of certificates concurrently. Only compliance providers are called concurrently, results are set
+     * to the certificates in the calling thread.
+     */
+    private void checkComplianceOfCertificates(CompliancePlan compliancePlan, List<Certificate> certificates) {
+        Queue<Integer> indexes = new ConcurrentLinkedQueue<>();
+        List<String> contents = new ArrayList<>(certificates.size());
+        for (int i = 0; i < certificates.size(); i++) {
+            indexes.add(i);
+            contents.add(certificates.get(i).getCertificateContent().getContent());
+        }
+
+        AtomicReferenceArray<CertificateComplianceStorageDto> results = new AtomicReferenceArray<>(certificates.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < Math.min(parallelism, certificates.size()); i++) {
+                executor.execute(() -> {
+                    Integer index;
+                    while ((index = indexes.poll()) != null) {
+                        try {
+                            results.set(index, checkCompliance(compliancePlan, contents.get(index)));
+                        } catch (Exception e) {
+                            logger.warn("Unable to check compliance of certificate {}: {}", certificates.get(index).getUuid(), e.getMessage());
+                        }
+                    }
+                });
+            }
+        }
+
+        for (int i = 0; i < certificates.size(); i++) {
+            CertificateComplianceStorageDto complianceResults = results.get(i);
+            if (complianceResults == null) continue;
+            Certificate certificate = certificates.get(i);
+            certificate.setComplianceStatus(compliancePlan.notApplicable() ? ComplianceStatus.NA : computeOverallComplianceStatus(complianceResults));
+            certificate.setComplianceResult(complianceResults);
         }
     }
 
+    /**
+     * Resolve connectors, rules sent to them and mapping of rules to compliance profile rules once for all checked certificates
+     */
+    private CompliancePlan getCompliancePlan(Set<ComplianceProfile> complianceProfiles) throws NotFoundException {
+        List<ConnectorComplianceCheck> checks = new ArrayList<>();
+        Map<String, ConnectorDto> connectors = new HashMap<>();
+        for (ComplianceProfile complianceProfile : complianceProfiles) {
+            logger.debug("Applying profile: {}", complianceProfile);
+            Map<String, List<ComplianceRulesDto>> groupRuleMap = new HashMap<>();
+            for (ComplianceGroup grp : complianceProfile.getGroups()) {
+                groupRuleMap.computeIfAbsent(grp.getConnector().getUuid().toString(), k -> new ArrayList<>()).addAll(grp.getRules().stream().map(ComplianceRule::mapToDto).toList());
+            }
+            Map<String, String> profileRuleUuids = new HashMap<>();
+            for (ComplianceProfileRule complianceProfileRule : complianceProfile.getComplianceRules()) {
+                profileRuleUuids.putIfAbsent(complianceProfileRule.getComplianceRuleUuid().toString(), complianceProfileRule.getUuid().toString());
+            }
+
+            for (ComplianceConnectorAndRulesDto connector : complianceProfile.mapToDto().getRules()) {
+                List<ComplianceRulesDto> applicableRules = connector.getRules();
+                if (groupRuleMap.containsKey(connector.getConnectorUuid())) {
+                    applicableRules.addAll(groupRuleMap.get(connector.getConnectorUuid()));
+                }
+                if (applicableRules.isEmpty()) {
+                    logger.debug("Compliance Profile {} does not have any rule for Connector:{}", complianceProfile.getName(), connector.getConnectorName());
+                    return new CompliancePlan(checks, true);
+                }
+
+                // results of rules from groups not added to the profile directly are stored with UUID of the rule
+                Map<String, String> resultRuleUuids = new HashMap<>();
+                for (ComplianceRulesDto rule : applicableRules) {
+                    resultRuleUuids.put(rule.getUuid(), profileRuleUuids.getOrDefault(rule.getUuid(), rule.getUuid()));
+                }
+                ConnectorDto connectorDto = connectors.get(connector.getConnectorUuid());
+                if (connectorDto == null) {
+                    connectorDto = getConnectorEntity(connector.getConnectorUuid()).mapToDto();
+                    connectors.put(connector.getConnectorUuid(), connectorDto);
+                }
+                checks.add(new ConnectorComplianceCheck(connectorDto, connector.getKind(), getComplianceRequestRules(applicableRules), resultRuleUuids));
+            }
+        }
+        return new CompliancePlan(checks, false);
+    }
+
+    private CertificateComplianceStorageDto checkCompliance(CompliancePlan compliancePlan, String certificateContent) throws ConnectorException {
+        CertificateComplianceStorageDto complianceResults = new CertificateComplianceStorageDto();
+        for (ConnectorComplianceCheck check : compliancePlan.checks()) {
+            ComplianceRequestDto complianceRequestDto = new ComplianceRequestDto();
+            complianceRequestDto.setCertificate(certificateContent);
+            complianceRequestDto.setRules(check.rules());
+            ComplianceResponseDto responseDto = complianceApiClient.checkCompliance(check.connector(), check.kind(), complianceRequestDto);
+            logger.debug("Certificate Compliance Response from Connector: {}", responseDto);
+
+            for (ComplianceResponseRulesDto rule : responseDto.getRules()) {
+                String complianceProfileRuleUuid = check.resultRuleUuids().get(rule.getUuid());
+                if (complianceProfileRuleUuid == null) {
+                    throw new NotFoundException(ComplianceRule.class, rule.getUuid());
+                }
+                switch (rule.getStatus()) {
+                    case OK:
+                        complianceResults.getOk().add(complianceProfileRuleUuid);
+                        break;
+                    case NOK:
+                        complianceResults.getNok().add(complianceProfileRuleUuid);
+                        break;
+                    case NA:
+                        complianceResults.getNa().add(complianceProfileRuleUuid);
+                }
+            }
+            logger.debug("Status from the Connector: {}", responseDto.getStatus());
+        }
+        return complianceResults;
+    }
+
     private void setComplianceForCertificate(String uuid, ComplianceStatus status,
                                              CertificateComplianceStorageDto result) throws NotFoundException {
         Certificate certificate = certificateRepository.findByUuid(UUID.fromString(uuid)).orElseThrow(() -> new NotFoundException(Certificate.class, uuid));
@@ -474,4 +576,16 @@ public class ComplianceServiceImpl implements ComplianceService {
         return connectorRepository.findByUuid(UUID.fromString(uuid))
                 .orElseThrow(() -> new NotFoundException(Connector.class, uuid));
     }
+
+    /**
+     * Compliance checks applied to all certificates of RA profile
+     *
+     * @param checks        checks of connectors in order of evaluation
+     * @param notApplicable compliance profile has connector without rules, compliance status of certificates is NA
+     */
+    private record CompliancePlan(List<ConnectorComplianceCheck> checks, boolean notApplicable) {
+    }
+
+    private record ConnectorComplianceCheck(ConnectorDto connector, String kind, List<ComplianceRequestRulesDto> rules, Map<String, String> resultRuleUuids) {
+    }
 }
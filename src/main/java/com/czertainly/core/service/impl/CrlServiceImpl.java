@@ -12,18 +12,37 @@ import com.czertainly.core.dao.repository.CrlRepository;
 import com.czertainly.core.service.CrlService;
 import com.czertainly.core.util.CrlUtil;
 import com.czertainly.core.util.CzertainlyX500NameStyle;
+import com.czertainly.core.util.RevocationHttpClient;
+import com.czertainly.core.validation.certificate.CrlRevocationIndexCache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.PersistenceContext;
 import org.bouncycastle.asn1.ASN1Primitive;
 import org.bouncycastle.asn1.x500.X500Name;
 import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.TBSCertList;
 import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.UnexpectedRollbackException;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.cert.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 
 @Service
 public class CrlServiceImpl implements CrlService {
@@ -36,6 +55,29 @@ public class CrlServiceImpl implements CrlService {
 
     private CrlEntryRepository crlEntryRepository;
 
+    private PlatformTransactionManager transactionManager;
+
+    private CrlRevocationIndexCache crlRevocationIndexCache;
+
+    private RevocationHttpClient revocationHttpClient;
+
+    @Value("${crl.streaming.enabled:true}")
+    private boolean crlStreamingEnabled;
+
+    @Value("${crl.streaming.batch-size:1000}")
+    private int crlStreamingBatchSize;
+
+    @Value("${crl.refresh.wait-for-refresh:true}")
+    private boolean crlRefreshWait;
+
+    @Value("${crl.refresh.distributed-lock.enabled:true}")
+    private boolean crlRefreshDistributedLock;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final Map<String, CompletableFuture<Void>> crlRefreshes = new ConcurrentHashMap<>();
+
     @Autowired
     public void setCertificateRepository(CertificateRepository certificateRepository) {
         this.certificateRepository = certificateRepository;
@@ -51,60 +93,63 @@ public class CrlServiceImpl implements CrlService {
         this.crlEntryRepository = crlEntryRepository;
     }
 
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionManager = transactionManager;
+    }
+
+    @Autowired
+    public void setRevocationHttpClient(RevocationHttpClient revocationHttpClient) {
+        this.revocationHttpClient = revocationHttpClient;
+    }
+
+    @Autowired
+    public void setCrlRevocationIndexCache(CrlRevocationIndexCache crlRevocationIndexCache) {
+        this.crlRevocationIndexCache = crlRevocationIndexCache;
+    }
+
     @Override
     public Crl createCrlAndCrlEntries(byte[] crlDistributionPointsEncoded, String issuerDn, String issuerSerialNumber, UUID caCertificateUuid, Crl oldCrl) throws IOException {
         List<String> crlUrls = CrlUtil.getCDPFromCertificate(crlDistributionPointsEncoded);
 
-        Crl crl = null;
-
         for (String crlUrl : crlUrls) {
-            X509CRL X509Crl;
-            try {
-                X509Crl = CrlUtil.getX509Crl(crlUrl);
-            } catch (Exception e) {
-                // Failed to read content from URL, continue to next URL
-                logger.error("Failed to read CRL content from URL: {}, {}", crlUrl, e.getMessage());
-                continue;
-            }
-
-            String crlNumber = JcaX509ExtensionUtils.parseExtensionValue(X509Crl.getExtensionValue(Extension.cRLNumber.getId())).toString();
+            if (crlStreamingEnabled) {
+                Path crlFile;
+                try {
+                    crlFile = CrlUtil.downloadX509CrlToFile(crlUrl, revocationHttpClient);
+                } catch (Exception e) {
+                    // Failed to read content from URL, continue to next URL
+                    logger.error("Failed to read CRL content from URL: {}, {}", crlUrl, e.getMessage());
+                    continue;
+                }
 
-            if (oldCrl != null) {
-                if (Objects.equals(crlNumber, oldCrl.getCrlNumber())) return null;
-                crl = oldCrl;
-                crlEntryRepository.deleteAllByCrlUuid(oldCrl.getUuid());
+                try {
+                    // PEM encoded CRLs cannot be parsed incrementally, process them in memory
+                    if (!CrlUtil.isDerEncoded(crlFile)) {
+                        return processX509Crl(CrlUtil.getX509Crl(crlFile), issuerDn, issuerSerialNumber, caCertificateUuid, oldCrl);
+                    }
+                    return processX509CrlStreaming(crlFile, issuerDn, issuerSerialNumber, caCertificateUuid, oldCrl);
+                } catch (IOException | CertificateException | IllegalArgumentException e) {
+                    // Failed to parse CRL content, continue to next URL
+                    logger.error("Failed to process CRL content from URL: {}, {}", crlUrl, e.getMessage());
+                } finally {
+                    Files.deleteIfExists(crlFile);
+                }
             } else {
-                crl = new Crl();
-                byte[] issuerDnPrincipalEncoded = X509Crl.getIssuerX500Principal().getEncoded();
-                crl.setCrlIssuerDn(X500Name.getInstance(CzertainlyX500NameStyle.NORMALIZED, issuerDnPrincipalEncoded).toString());
-                crl.setSerialNumber(issuerSerialNumber);
-                crl.setIssuerDn(issuerDn);
-                crl.setCaCertificateUuid(caCertificateUuid);
-            }
-
-            crl.setNextUpdate(X509Crl.getNextUpdate());
-            crl.setCrlNumber(crlNumber);
-            List<CrlEntry> crlEntries = new ArrayList<>();
-            crl.setCrlEntries(crlEntries);
-            crlRepository.save(crl);
-
-            Set<? extends X509CRLEntry> crlCertificates = X509Crl.getRevokedCertificates();
-            if (crlCertificates != null) {
-                Date lastRevocationDate = new Date(0);
-                for (X509CRLEntry x509CRLEntry : crlCertificates) {
-                    CrlEntry crlEntry = createCrlEntry(x509CRLEntry, crl);
-                    crlEntries.add(crlEntry);
-                    if (crlEntry.getRevocationDate().after(lastRevocationDate))
-                        lastRevocationDate = crlEntry.getRevocationDate();
+                X509CRL X509Crl;
+                try {
+                    X509Crl = CrlUtil.getX509Crl(crlUrl, revocationHttpClient);
+                } catch (Exception e) {
+                    // Failed to read content from URL, continue to next URL
+                    logger.error("Failed to read CRL content from URL: {}, {}", crlUrl, e.getMessage());
+                    continue;
                 }
-                crl.setLastRevocationDate(lastRevocationDate);
-                crlRepository.save(crl);
-            }
 
-            // Managed to process a CRL url and do not need to try other URLs
-            break;
+                // Managed to process a CRL url and do not need to try other URLs
+                return processX509Crl(X509Crl, issuerDn, issuerSerialNumber, caCertificateUuid, oldCrl);
+            }
         }
-        return crl;
+        return null;
     }
 
     @Override
@@ -113,7 +158,7 @@ public class CrlServiceImpl implements CrlService {
         for (String deltaCrlUrl : deltaCrlUrls) {
             X509CRL deltaCrl;
             try {
-                deltaCrl = CrlUtil.getX509Crl(deltaCrlUrl);
+                deltaCrl = CrlUtil.getX509Crl(deltaCrlUrl, revocationHttpClient);
             } catch (Exception e) {
                 // Failed to read content from URL, continue to next URL
                 continue;
@@ -143,17 +188,92 @@ public class CrlServiceImpl implements CrlService {
 
     @Override
     public Crl getCurrentCrl(X509Certificate certificate, X509Certificate issuerCertificate) throws IOException {
+        return getCurrentCrl(certificate, issuerCertificate, crlRefreshWait);
+    }
+
+    @Override
+    public Crl getCurrentCrl(X509Certificate certificate, X509Certificate issuerCertificate, boolean waitForRefresh) throws IOException {
         byte[] issuerDnPrincipalEncoded = certificate.getIssuerX500Principal().getEncoded();
         String issuerDn = X500Name.getInstance(CzertainlyX500NameStyle.NORMALIZED, issuerDnPrincipalEncoded).toString();
         String issuerSerialNumber = issuerCertificate.getSerialNumber().toString(16);
-        Optional<Crl> crlOptional = crlRepository.findByIssuerDnAndSerialNumber(issuerDn, issuerSerialNumber);
-        Optional<Certificate> caCertificate = certificateRepository.findBySubjectDnNormalizedAndSerialNumber(issuerDn, issuerSerialNumber);
-        byte[] crlDistributionPoints = certificate.getExtensionValue(Extension.cRLDistributionPoints.getId());
+        boolean hasDeltaCrl = certificate.getExtensionValue(Extension.freshestCRL.getId()) != null;
+
+        Crl crl = crlRepository.findByIssuerDnAndSerialNumber(issuerDn, issuerSerialNumber).orElse(null);
+        if (!isCrlRefreshNeeded(crl, hasDeltaCrl)) {
+            return crl;
+        }
 
-        Crl crl = null;
+        // Only one thread (and one node) refreshes CRL of the issuer at a time, others wait for the refreshed CRL or use the last known one
+        String refreshKey = issuerDn + "|" + issuerSerialNumber;
+        boolean tryOnly = !waitForRefresh && crl != null;
+        while (true) {
+            CompletableFuture<Void> refresh = new CompletableFuture<>();
+            CompletableFuture<Void> runningRefresh = crlRefreshes.putIfAbsent(refreshKey, refresh);
+            if (runningRefresh == null) {
+                try {
+                    return refreshCrlInTransaction(certificate, crl, issuerDn, issuerSerialNumber, refreshKey, hasDeltaCrl, tryOnly);
+                } finally {
+                    crlRefreshes.remove(refreshKey, refresh);
+                    refresh.complete(null);
+                }
+            }
+
+            if (tryOnly) {
+                logger.debug("CRL of issuer {} with serial number {} is being refreshed, last known CRL is used", issuerDn, issuerSerialNumber);
+                return crl;
+            }
+            try {
+                runningRefresh.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return crl;
+            } catch (ExecutionException e) {
+                // refresh future is always completed normally
+            }
+
+            // CRL refreshed by other thread could have been already committed
+            crl = reloadCrl(crl, issuerDn, issuerSerialNumber);
+            if (!isCrlRefreshNeeded(crl, hasDeltaCrl)) {
+                return crl;
+            }
+        }
+    }
+
+    /**
+     * Refresh CRL in its own transaction when distributed lock is enabled, so that the lock is held only during
+     * the refresh and the refreshed CRL is committed before the lock is released, regardless of transaction of the caller
+     */
+    private Crl refreshCrlInTransaction(X509Certificate certificate, Crl crl, String issuerDn, String issuerSerialNumber, String refreshKey, boolean hasDeltaCrl, boolean tryOnly) throws IOException {
+        if (!crlRefreshDistributedLock) {
+            return refreshCrl(certificate, crl, issuerDn, issuerSerialNumber, refreshKey, hasDeltaCrl, tryOnly);
+        }
+
+        TransactionStatus status = transactionManager.getTransaction(new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+        try {
+            Crl refreshedCrl = refreshCrl(certificate, crl, issuerDn, issuerSerialNumber, refreshKey, hasDeltaCrl, tryOnly);
+            transactionManager.commit(status);
+            return refreshedCrl;
+        } finally {
+            if (!status.isCompleted()) {
+                transactionManager.rollback(status);
+            }
+        }
+    }
+
+    private Crl refreshCrl(X509Certificate certificate, Crl crl, String issuerDn, String issuerSerialNumber, String refreshKey, boolean hasDeltaCrl, boolean tryOnly) throws IOException {
+        if (!acquireDistributedRefreshLock(refreshKey, tryOnly)) {
+            logger.debug("CRL of issuer {} with serial number {} is being refreshed by other node, last known CRL is used", issuerDn, issuerSerialNumber);
+            return crl;
+        }
+
+        // CRL could have been refreshed by other thread or node while waiting for the lock
+        crl = reloadCrl(crl, issuerDn, issuerSerialNumber);
+
+        Optional<Certificate> caCertificate = certificateRepository.findBySubjectDnNormalizedAndSerialNumber(issuerDn, issuerSerialNumber);
         UUID caCertificateUuid = caCertificate.isPresent() ? caCertificate.get().getUuid() : null;
         // If CRL is not present or current UTC time is past its next_update timestamp, download the CRL and save the CRL and its entries in database
-        if (crlOptional.isEmpty() || (crl = crlOptional.get()).getNextUpdate().before(new Date())) {
+        if (crl == null || crl.getNextUpdate().before(new Date())) {
+            byte[] crlDistributionPoints = certificate.getExtensionValue(Extension.cRLDistributionPoints.getId());
             Crl newCrl = createCrlAndCrlEntries(crlDistributionPoints, issuerDn, issuerSerialNumber, caCertificateUuid, crl);
             // If CRL received is not null, then the downloaded CRL is updated CRL, delete old CRL and use updated one
             if (newCrl != null) {
@@ -161,12 +281,9 @@ public class CrlServiceImpl implements CrlService {
             }
         }
 
-        // Check if certificate has freshestCrl extension set
-        if (certificate.getExtensionValue(Extension.freshestCRL.getId()) != null) {
-            // If no delta CRL is set or delta CRL is not up-to-date, download delta CRL
-            if (crl != null && (crl.getNextUpdateDelta() == null || !crl.getNextUpdateDelta().before(new Date()))) {
-                updateCrlAndCrlEntriesFromDeltaCrl(certificate, crl, issuerDn, issuerSerialNumber, caCertificateUuid);
-            }
+        // If no delta CRL is set or delta CRL is not up-to-date, download delta CRL
+        if (hasDeltaCrl && crl != null && (crl.getNextUpdateDelta() == null || crl.getNextUpdateDelta().before(new Date()))) {
+            updateCrlAndCrlEntriesFromDeltaCrl(certificate, crl, issuerDn, issuerSerialNumber, caCertificateUuid);
         }
         return crl;
     }
@@ -177,33 +294,161 @@ public class CrlServiceImpl implements CrlService {
         return crlEntryRepository.findById(crlEntryId).orElse(null);
     }
 
+    @Override
+    public CrlEntry findCrlEntryForCertificate(String serialNumber, Crl crl) {
+        return crlRevocationIndexCache.findCrlEntry(crl, serialNumber);
+    }
+
     @Override
     public List<Crl> findCrlsForCaCertificate(UUID caCertificateUuid) {
         return crlRepository.findByCaCertificateUuid(caCertificateUuid);
     }
 
+    private boolean isCrlRefreshNeeded(Crl crl, boolean hasDeltaCrl) {
+        Date now = new Date();
+        if (crl == null || crl.getNextUpdate().before(now)) return true;
+        return hasDeltaCrl && (crl.getNextUpdateDelta() == null || crl.getNextUpdateDelta().before(now));
+    }
+
+    private Crl reloadCrl(Crl crl, String issuerDn, String issuerSerialNumber) {
+        if (crl != null && entityManager.contains(crl)) {
+            try {
+                entityManager.refresh(crl);
+                return crl;
+            } catch (EntityNotFoundException e) {
+                // CRL was deleted in the meantime, try to find new one
+            }
+        }
+        return crlRepository.findByIssuerDnAndSerialNumber(issuerDn, issuerSerialNumber).orElse(null);
+    }
+
+    /**
+     * Acquire database advisory lock for refresh of CRL identified by the refresh key, so that CRL is refreshed by one
+     * node at a time. Lock is bound to the transaction of the refresh and released automatically on its commit or
+     * rollback, so other nodes read already committed CRL and transaction of the caller never holds the lock.
+     * Refreshes in this instance are coordinated without holding any lock after the refresh finishes.
+     *
+     * @param refreshKey key of the CRL composed of issuer DN and issuer serial number
+     * @param tryOnly    if true, do not wait when CRL is already being refreshed
+     * @return false when lock is already held and tryOnly is set, true otherwise
+     */
+    private boolean acquireDistributedRefreshLock(String refreshKey, boolean tryOnly) {
+        if (!crlRefreshDistributedLock || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return true;
+        }
+        if (tryOnly) {
+            return crlRepository.tryAcquireRefreshLock(refreshKey);
+        }
+        crlRepository.acquireRefreshLock(refreshKey);
+        return true;
+    }
+
+    private Crl processX509Crl(X509CRL X509Crl, String issuerDn, String issuerSerialNumber, UUID caCertificateUuid, Crl oldCrl) throws IOException {
+        String crlNumber = JcaX509ExtensionUtils.parseExtensionValue(X509Crl.getExtensionValue(Extension.cRLNumber.getId())).toString();
+
+        Crl crl;
+        if (oldCrl != null) {
+            if (Objects.equals(crlNumber, oldCrl.getCrlNumber())) return null;
+            crl = oldCrl;
+            crlEntryRepository.deleteAllByCrlUuid(oldCrl.getUuid());
+        } else {
+            crl = new Crl();
+            byte[] issuerDnPrincipalEncoded = X509Crl.getIssuerX500Principal().getEncoded();
+            crl.setCrlIssuerDn(X500Name.getInstance(CzertainlyX500NameStyle.NORMALIZED, issuerDnPrincipalEncoded).toString());
+            crl.setSerialNumber(issuerSerialNumber);
+            crl.setIssuerDn(issuerDn);
+            crl.setCaCertificateUuid(caCertificateUuid);
+        }
+
+        crl.setNextUpdate(X509Crl.getNextUpdate());
+        crl.setCrlNumber(crlNumber);
+        List<CrlEntry> crlEntries = new ArrayList<>();
+        crl.setCrlEntries(crlEntries);
+        crlRepository.save(crl);
+        crlRevocationIndexCache.markModified(crl.getUuid());
+
+        Set<? extends X509CRLEntry> crlCertificates = X509Crl.getRevokedCertificates();
+        if (crlCertificates != null) {
+            Date lastRevocationDate = new Date(0);
+            for (X509CRLEntry x509CRLEntry : crlCertificates) {
+                CrlEntry crlEntry = createCrlEntry(x509CRLEntry, crl);
+                crlEntries.add(crlEntry);
+                if (crlEntry.getRevocationDate().after(lastRevocationDate))
+                    lastRevocationDate = crlEntry.getRevocationDate();
+            }
+            crl.setLastRevocationDate(lastRevocationDate);
+            crlRepository.save(crl);
+        }
+        return crl;
+    }
+
+    private Crl processX509CrlStreaming(Path crlFile, String issuerDn, String issuerSerialNumber, UUID caCertificateUuid, Crl oldCrl) throws IOException {
+        // First pass only parses the CRL to validate its structure and read the CRL number, database is not touched
+        CrlUtil.StreamedCrlInfo crlInfo = CrlUtil.parseX509CrlStreaming(crlFile, null);
+        if (crlInfo.crlNumber() == null) throw new IOException("CRL does not contain CRL number extension");
+        if (oldCrl != null && Objects.equals(crlInfo.crlNumber(), oldCrl.getCrlNumber())) return null;
+
+        // Second pass writes entries in batches, old entries are replaced within single transaction
+        // so concurrent readers see either complete old or complete new set of entries
+        TransactionStatus status = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        try {
+            Crl crl;
+            if (oldCrl != null) {
+                crl = oldCrl;
+                crlEntryRepository.deleteAllEntriesByCrlUuid(oldCrl.getUuid());
+            } else {
+                crl = new Crl();
+                crl.setCrlIssuerDn(X500Name.getInstance(CzertainlyX500NameStyle.NORMALIZED, crlInfo.issuer().getEncoded()).toString());
+                crl.setSerialNumber(issuerSerialNumber);
+                crl.setIssuerDn(issuerDn);
+                crl.setCaCertificateUuid(caCertificateUuid);
+            }
+            crl.setNextUpdate(crlInfo.nextUpdate());
+            crl.setCrlNumber(crlInfo.crlNumber());
+            crlRepository.save(crl);
+            crlRevocationIndexCache.markModified(crl.getUuid());
+
+            CrlEntriesBatchWriter batchWriter = new CrlEntriesBatchWriter(crl);
+            CrlUtil.parseX509CrlStreaming(crlFile, batchWriter);
+            batchWriter.flush();
+
+            if (batchWriter.getEntriesCount() > 0) {
+                crl.setLastRevocationDate(batchWriter.getLastRevocationDate());
+                crlRepository.save(crl);
+            }
+            transactionManager.commit(status);
+
+            logger.debug("CRL with number {} of issuer {} processed with {} entries", crl.getCrlNumber(), crl.getCrlIssuerDn(), batchWriter.getEntriesCount());
+            return crl;
+        } catch (Exception e) {
+            transactionManager.rollback(status);
+            if (!status.isNewTransaction()) {
+                // rollback only marked joined transaction as rollback-only, so CRL from other distribution point cannot be stored in it
+                throw new UnexpectedRollbackException("Processing of CRL failed, transaction has been marked as rollback-only", e);
+            }
+            throw e;
+        }
+    }
+
     private void updateDeltaCrl(Crl crl, X509CRL deltaCrl) throws IOException {
         ASN1Primitive encodedCrlNumber = JcaX509ExtensionUtils.parseExtensionValue(deltaCrl.getExtensionValue(Extension.cRLNumber.getId()));
         // If delta CRL number has been set, check if delta CRL number is greater than one in DB entity, if it is, process delta CRL entries
         if (crl.getCrlNumberDelta() == null || Integer.parseInt(encodedCrlNumber.toString()) > Integer.parseInt(crl.getCrlNumberDelta())) {
-            List<CrlEntry> crlEntries = crl.getCrlEntries();
+            crlRevocationIndexCache.markModified(crl.getUuid());
             Date lastRevocationDateNew = crl.getLastRevocationDate();
             Set<? extends X509CRLEntry> deltaCrlEntries = deltaCrl.getRevokedCertificates();
             if (deltaCrlEntries != null) {
-                Map<String, CrlEntry> crlEntryMap = crl.getCrlEntriesMap();
                 for (X509CRLEntry deltaCrlEntry : deltaCrlEntries) {
                     Date entryRevocationDate = deltaCrlEntry.getRevocationDate();
                     // Process only entries which revocation date is >= last_revocation_date, others are already in DB
                     if (entryRevocationDate.after(crl.getLastRevocationDate()) || entryRevocationDate.equals(crl.getLastRevocationDate())) {
-                        String serialNumber = String.valueOf(deltaCrlEntry.getSerialNumber());
-                        CrlEntry crlEntry = crlEntryMap.get(serialNumber);
+                        // Look up single entry instead of loading all CRL entries, base CRL can contain large number of entries
+                        CrlEntry crlEntry = findCrlEntryForCertificate(deltaCrlEntry.getSerialNumber().toString(16), crl.getUuid());
                         //  Entry by serial number is not present, add new one
                         if (crlEntry == null) {
-                            CrlEntry crlEntryNew = createCrlEntry(deltaCrlEntry, crl);
-                            crlEntries.add(crlEntryNew);
+                            createCrlEntry(deltaCrlEntry, crl);
                             // Entry by serial number is present and revocation reason is REMOVE_FROM_CRL, remove this entry
                         } else if (Objects.equals(deltaCrlEntry.getRevocationReason(), CRLReason.REMOVE_FROM_CRL)) {
-                            crlEntries.remove(crlEntry);
                             crlEntryRepository.delete(crlEntry);
                             // Entry by serial number is present, probably reason changed so update its revocation reason and date
                         } else {
@@ -237,4 +482,48 @@ public class CrlServiceImpl implements CrlService {
         return crlEntry;
     }
 
+    /**
+     * Collects CRL entries parsed from streamed CRL and inserts them into database in batches
+     */
+    private class CrlEntriesBatchWriter implements Consumer<TBSCertList.CRLEntry> {
+
+        private final Crl crl;
+        private final List<CrlEntry> batch = new ArrayList<>();
+        private Date lastRevocationDate = new Date(0);
+        private long entriesCount;
+
+        CrlEntriesBatchWriter(Crl crl) {
+            this.crl = crl;
+        }
+
+        @Override
+        public void accept(TBSCertList.CRLEntry x509CrlEntry) {
+            CrlEntry crlEntry = new CrlEntry();
+            crlEntry.getId().setSerialNumber(x509CrlEntry.getUserCertificate().getValue().toString(16));
+            crlEntry.getId().setCrlUuid(crl.getUuid());
+            crlEntry.setRevocationDate(x509CrlEntry.getRevocationDate().getDate());
+            CRLReason revocationReason = CrlUtil.getRevocationReason(x509CrlEntry);
+            crlEntry.setRevocationReason(revocationReason == null ? CertificateRevocationReason.UNSPECIFIED : CertificateRevocationReason.fromCrlReason(revocationReason));
+
+            if (crlEntry.getRevocationDate().after(lastRevocationDate)) lastRevocationDate = crlEntry.getRevocationDate();
+            ++entriesCount;
+
+            batch.add(crlEntry);
+            if (batch.size() >= crlStreamingBatchSize) flush();
+        }
+
+        void flush() {
+            crlEntryRepository.batchInsert(batch);
+            batch.clear();
+        }
+
+        Date getLastRevocationDate() {
+            return lastRevocationDate;
+        }
+
+        long getEntriesCount() {
+            return entriesCount;
+        }
+    }
+
 }
@@ -17,6 +17,7 @@ import com.czertainly.api.model.connector.discovery.DiscoveryProviderCertificate
 import com.czertainly.api.model.connector.discovery.DiscoveryProviderDto;
 import com.czertainly.api.model.connector.discovery.DiscoveryRequestDto;
 import com.czertainly.api.model.core.auth.Resource;
+import com.czertainly.api.model.core.connector.ConnectorDto;
 import com.czertainly.api.model.core.connector.FunctionGroupCode;
 import com.czertainly.api.model.core.discovery.DiscoveryStatus;
 import com.czertainly.api.model.core.search.FilterFieldSource;
@@ -51,6 +52,7 @@ import org.apache.commons.lang3.function.TriFunction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -70,6 +72,7 @@ import java.security.cert.X509Certificate;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
 
 @Service
@@ -77,20 +80,19 @@ import java.util.stream.Stream;
 public class DiscoveryServiceImpl implements DiscoveryService {
 
     private static final Logger logger = LoggerFactory.getLogger(DiscoveryServiceImpl.class);
-    private static final Integer MAXIMUM_PARALLELISM = 5;
     private static final Integer MAXIMUM_CERTIFICATES_PER_PAGE = 100;
     private static final Integer SLEEP_TIME = 5 * 1000; // Seconds * Milliseconds - Retry of discovery for every 5 Seconds
     private static final Long MAXIMUM_WAIT_TIME = (long) (6 * 60 * 60); // Hours * Minutes * Seconds
 
-    public static final Semaphore downloadCertSemaphore = new Semaphore(10);
-    public static final Semaphore processCertSemaphore = new Semaphore(10);
-
     private NotificationProducer notificationProducer;
     private PlatformTransactionManager transactionManager;
     private ApplicationEventPublisher applicationEventPublisher;
 
     private AttributeEngine attributeEngine;
     private CertificateHandler certificateHandler;
+    private AdaptiveConcurrencyLimiter downloadLimiter;
+    private AdaptiveConcurrencyLimiter storeLimiter;
+    private AdaptiveConcurrencyLimiter processLimiter;
 
     private TriggerService triggerService;
     private TriggerAssociationRepository triggerAssociationRepository;
@@ -122,6 +124,21 @@ public class DiscoveryServiceImpl implements DiscoveryService {
         this.certificateHandler = certificateHandler;
     }
 
+    @Autowired
+    public void setDownloadLimiter(@Qualifier("discoveryDownloadLimiter") AdaptiveConcurrencyLimiter downloadLimiter) {
+        this.downloadLimiter = downloadLimiter;
+    }
+
+    @Autowired
+    public void setStoreLimiter(@Qualifier("discoveryStoreLimiter") AdaptiveConcurrencyLimiter storeLimiter) {
+        this.storeLimiter = storeLimiter;
+    }
+
+    @Autowired
+    public void setProcessLimiter(@Qualifier("discoveryProcessLimiter") AdaptiveConcurrencyLimiter processLimiter) {
+        this.processLimiter = processLimiter;
+    }
+
     @Autowired
     public void setDiscoveryRepository(DiscoveryRepository discoveryRepository) {
         this.discoveryRepository = discoveryRepository;
@@ -503,49 +520,53 @@ public class DiscoveryServiceImpl implements DiscoveryService {
     private List<DiscoveryProviderCertificateDataDto> downloadDiscoveredCertificates(final DiscoveryHistory discovery, final Connector connector, DiscoveryProviderDto response) throws DiscoveryException {
         int currentPage = 1;
         int currentTotal = 0;
-
-        DiscoveryDataRequestDto getRequest = new DiscoveryDataRequestDto();
-        getRequest.setName(response.getName());
-        getRequest.setKind(discovery.getKind());
-        getRequest.setPageNumber(1);
-        getRequest.setItemsPerPage(MAXIMUM_CERTIFICATES_PER_PAGE);
+        int totalCertificatesDiscovered = response.getTotalCertificatesDiscovered();
+        int expectedPages = (totalCertificatesDiscovered + MAXIMUM_CERTIFICATES_PER_PAGE - 1) / MAXIMUM_CERTIFICATES_PER_PAGE;
+        int nextPage = 1;
 
         List<Future<?>> futures = new ArrayList<>();
+        Deque<Future<DiscoveryProviderDto>> pageDownloads = new ArrayDeque<>();
         Set<String> uniqueCertificateContents = new HashSet<>();
         List<DiscoveryProviderCertificateDataDto> duplicateCertificates = new ArrayList<>();
+        AtomicLong downloadedCertificatesCount = new AtomicLong();
+        // connector entity is not accessed from download threads
+        ConnectorDto connectorDto = connector.mapToDto();
 
         try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
-            while (currentTotal < response.getTotalCertificatesDiscovered()) {
-                getRequest.setPageNumber(currentPage);
-                getRequest.setItemsPerPage(MAXIMUM_CERTIFICATES_PER_PAGE);
-                try {
-                    response = discoveryApiClient.getDiscoveryData(connector.mapToDto(), getRequest, response.getUuid());
-                } catch (ConnectorException e) {
-                    handleDiscoveredCertificatesBatch(futures, discovery.getName());
-                    updateDiscoveryState(discovery, DiscoveryStatus.FAILED, response.getStatus(), "Discovery has failed on connector side while downloading certificates.", null, null, null);
-                    throw new DiscoveryException(discovery.getName(), discovery.getMessage(), e);
-                }
+            try {
+                while (currentTotal < totalCertificatesDiscovered) {
+                    // pages expected from total count are downloaded ahead in parallel, number of pages downloaded at once is
+                    // adapted by download limiter, further pages are downloaded one by one until total count is reached
+                    while (pageDownloads.size() < downloadLimiter.getMaxLimit() && (nextPage <= expectedPages || pageDownloads.isEmpty())) {
+                        pageDownloads.add(downloadDiscoveryDataPageAsync(discovery, connectorDto, response.getName(), response.getUuid(), nextPage++, executor));
+                    }
+                    DiscoveryProviderDto pageResponse = awaitDiscoveryDataPage(discovery, response, pageDownloads.poll(), futures);
 
-                if (response.getCertificateData().isEmpty()) {
-                    handleDiscoveredCertificatesBatch(futures, discovery.getName());
-                    String message = String.format("Retrieved only %d certificates but provider discovered %d certificates in total.", currentTotal, response.getTotalCertificatesDiscovered());
-                    updateDiscoveryState(discovery, DiscoveryStatus.WARNING, response.getStatus(), message, null, null, null);
-                    throw new DiscoveryException(discovery.getName(), discovery.getMessage());
-                }
-                if (response.getCertificateData().size() > MAXIMUM_CERTIFICATES_PER_PAGE) {
-                    handleDiscoveredCertificatesBatch(futures, discovery.getName());
-                    updateDiscoveryState(discovery, DiscoveryStatus.FAILED, response.getStatus(), "Too many certificates (%d) in response at page %d. Maximum processable is %d.".formatted(response.getCertificateData().size(), currentPage, MAXIMUM_CERTIFICATES_PER_PAGE), null, null, null);
-                    throw new DiscoveryException(discovery.getName(), discovery.getMessage());
-                }
+                    if (pageResponse.getCertificateData().isEmpty()) {
+                        handleDiscoveredCertificatesBatch(futures, discovery.getName());
+                        String message = String.format("Retrieved only %d certificates but provider discovered %d certificates in total.", currentTotal, totalCertificatesDiscovered);
+                        updateDiscoveryState(discovery, DiscoveryStatus.WARNING, pageResponse.getStatus(), message, null, null, null);
+                        throw new DiscoveryException(discovery.getName(), discovery.getMessage());
+                    }
+                    if (pageResponse.getCertificateData().size() > MAXIMUM_CERTIFICATES_PER_PAGE) {
+                        handleDiscoveredCertificatesBatch(futures, discovery.getName());
+                        updateDiscoveryState(discovery, DiscoveryStatus.FAILED, pageResponse.getStatus(), "Too many certificates (%d) in response at page %d. Maximum processable is %d.".formatted(pageResponse.getCertificateData().size(), currentPage, MAXIMUM_CERTIFICATES_PER_PAGE), null, null, null);
+                        throw new DiscoveryException(discovery.getName(), discovery.getMessage());
+                    }
 
-                futures.add(downloadDiscoveredCertificatesBatchAsync(discovery, response, connector, uniqueCertificateContents, duplicateCertificates, executor, currentPage));
+                    futures.add(downloadDiscoveredCertificatesBatchAsync(discovery, pageResponse, connector, uniqueCertificateContents, duplicateCertificates, downloadedCertificatesCount, executor, currentPage));
 
-                ++currentPage;
-                currentTotal += response.getCertificateData().size();
+                    ++currentPage;
+                    currentTotal += pageResponse.getCertificateData().size();
 
-                if (futures.size() >= MAXIMUM_PARALLELISM) {
-                    handleDiscoveredCertificatesBatch(futures, discovery.getName());
+                    // limit number of downloaded pages held in memory while waiting for their storing
+                    if (futures.size() >= storeLimiter.getMaxLimit()) {
+                        handleDiscoveredCertificatesBatch(futures, discovery.getName());
+                    }
                 }
+            } finally {
+                // pages downloaded ahead are not needed when discovery failed
+                pageDownloads.forEach(pageDownload -> pageDownload.cancel(true));
             }
 
             // Wait for all tasks to complete
@@ -556,7 +577,45 @@ public class DiscoveryServiceImpl implements DiscoveryService {
         return duplicateCertificates;
     }
 
-    private Future<?> downloadDiscoveredCertificatesBatchAsync(final DiscoveryHistory discovery, final DiscoveryProviderDto response, final Connector connector, final Set<String> uniqueCertificateContents, final List<DiscoveryProviderCertificateDataDto> duplicateCertificates, final ExecutorService executor, final int currentPage) {
+    private Future<DiscoveryProviderDto> downloadDiscoveryDataPageAsync(final DiscoveryHistory discovery, final ConnectorDto connectorDto, final String discoveryName, final UUID discoveryProviderUuid, final int page, final ExecutorService executor) {
+        DiscoveryDataRequestDto getRequest = new DiscoveryDataRequestDto();
+        getRequest.setName(discoveryName);
+        getRequest.setKind(discovery.getKind());
+        getRequest.setPageNumber(page);
+        getRequest.setItemsPerPage(MAXIMUM_CERTIFICATES_PER_PAGE);
+
+        return executor.submit(() -> {
+            // download limiter adapts to latency and errors of the connector calls of all discoveries running on the node
+            downloadLimiter.acquire(discovery.getUuid());
+            boolean success = false;
+            long start = System.nanoTime();
+            try {
+                logger.trace("Downloading page {} of discovered certificates for discovery {}.", page, discovery.getName());
+                DiscoveryProviderDto pageResponse = discoveryApiClient.getDiscoveryData(connectorDto, getRequest, discoveryProviderUuid);
+                success = true;
+                return pageResponse;
+            } finally {
+                downloadLimiter.release(discovery.getUuid(), System.nanoTime() - start, success);
+            }
+        });
+    }
+
+    private DiscoveryProviderDto awaitDiscoveryDataPage(final DiscoveryHistory discovery, final DiscoveryProviderDto response, final Future<DiscoveryProviderDto> pageDownload, final List<Future<?>> futures) throws DiscoveryException {
+        try {
+            return pageDownload.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            handleDiscoveredCertificatesBatch(futures, discovery.getName());
+            updateDiscoveryState(discovery, DiscoveryStatus.FAILED, response.getStatus(), "Downloading of discovered certificates was interrupted.", null, null, null);
+            throw new DiscoveryException(discovery.getName(), discovery.getMessage(), e);
+        } catch (ExecutionException e) {
+            handleDiscoveredCertificatesBatch(futures, discovery.getName());
+            updateDiscoveryState(discovery, DiscoveryStatus.FAILED, response.getStatus(), "Discovery has failed on connector side while downloading certificates.", null, null, null);
+            throw new DiscoveryException(discovery.getName(), discovery.getMessage(), e.getCause() instanceof Exception cause ? cause : e);
+        }
+    }
+
+    private Future<?> downloadDiscoveredCertificatesBatchAsync(final DiscoveryHistory discovery, final DiscoveryProviderDto response, final Connector connector, final Set<String> uniqueCertificateContents, final List<DiscoveryProviderCertificateDataDto> duplicateCertificates, final AtomicLong downloadedCertificatesCount, final ExecutorService executor, final int currentPage) {
         // categorize certs and collect metadata definitions
         List<MetadataAttribute> metadataDefinitions = new ArrayList<>();
         Map<String, Set<BaseAttributeContent>> metadataContentsMapping = new HashMap<>();
@@ -586,20 +645,28 @@ public class DiscoveryServiceImpl implements DiscoveryService {
 
         // run in separate virtual thread and continue
         return executor.submit(() -> {
+            boolean acquired = false;
+            boolean success = false;
+            long start = 0;
             try {
-                logger.trace("Waiting to download batch {} of discovered certificates for discovery {}.", currentPage, discovery.getName());
-                downloadCertSemaphore.acquire();
-                logger.trace("Downloading batch {} of discovered certificates for discovery {}.", currentPage, discovery.getName());
-
-                certificateHandler.createDiscoveredCertificate(String.valueOf(currentPage), discovery, discoveredCertificates);
+                logger.trace("Waiting to store batch {} of discovered certificates for discovery {}.", currentPage, discovery.getName());
+                storeLimiter.acquire(discovery.getUuid());
+                acquired = true;
+                start = System.nanoTime();
+                logger.trace("Storing batch {} of discovered certificates for discovery {}.", currentPage, discovery.getName());
+
+                certificateHandler.createDiscoveredCertificate(String.valueOf(currentPage), discovery, discoveredCertificates, downloadedCertificatesCount);
+                success = true;
             } catch (InterruptedException e) {
-                logger.error("Downloading batch {} of discovered certificates for discovery {} interrupted.", currentPage, discovery.getName(), e);
+                logger.error("Storing batch {} of discovered certificates for discovery {} interrupted.", currentPage, discovery.getName(), e);
                 Thread.currentThread().interrupt();
             } catch (Exception e) {
-                logger.error("Downloading batch {} of discovered certificates for discovery {} failed.", currentPage, discovery.getName(), e);
+                logger.error("Storing batch {} of discovered certificates for discovery {} failed.", currentPage, discovery.getName(), e);
             } finally {
-                logger.trace("Downloading batch {} of discovered certificates for discovery {} finalized. Released semaphore.", currentPage, discovery.getName());
-                downloadCertSemaphore.release();
+                if (acquired) {
+                    logger.trace("Storing batch {} of discovered certificates for discovery {} finalized. Released permit.", currentPage, discovery.getName());
+                    storeLimiter.release(discovery.getUuid(), System.nanoTime() - start, success);
+                }
             }
         });
     }
@@ -628,6 +695,9 @@ public class DiscoveryServiceImpl implements DiscoveryService {
 
         if (discoveredCertificates.isEmpty()) return;
 
+        // Triggers are loaded and compiled once and evaluated on all discovered certificates
+        CertificateHandler.DiscoveryTriggers discoveryTriggers = certificateHandler.getDiscoveryTriggers(discovery.getUuid());
+
         // For each discovered certificate and for each found trigger, check if it satisfies rules defined by the trigger and perform actions accordingly
         AtomicInteger index = new AtomicInteger(0);
         try (ExecutorService virtualThreadExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
@@ -637,26 +707,34 @@ public class DiscoveryServiceImpl implements DiscoveryService {
                     ParallelCollectors.parallel(
                             discoveryCertificate -> {
                                 int certIndex;
+                                boolean acquired = false;
+                                boolean success = false;
+                                long start = 0;
                                 try {
                                     certIndex = index.incrementAndGet();
                                     logger.trace("Waiting to process cert {} of discovered certificates for discovery {}.", certIndex, discovery.getName());
-                                    processCertSemaphore.acquire();
+                                    processLimiter.acquire(discovery.getUuid());
+                                    acquired = true;
+                                    start = System.nanoTime();
                                     logger.trace("Processing cert {} of discovered certificates for discovery {}.", certIndex, discovery.getName());
 
-                                    certificateHandler.processDiscoveredCertificate(certIndex, discoveredCertificates.size(), discovery, discoveryCertificate);
+                                    certificateHandler.processDiscoveredCertificate(certIndex, discoveredCertificates.size(), discovery, discoveryCertificate, discoveryTriggers);
+                                    success = true;
                                 } catch (InterruptedException e) {
                                     Thread.currentThread().interrupt();
                                     logger.error("Thread {} processing cert {} of discovered certificates interrupted.", Thread.currentThread().getName(), index.get());
                                 } catch (Exception e) {
                                     logger.error("Unable to process certificate {}: {}", discoveryCertificate.getCommonName(), e.getMessage(), e);
                                 } finally {
-                                    logger.trace("Thread {} processing cert {} of discovered certificates finalized. Released semaphore.", Thread.currentThread().getName(), index.get());
-                                    processCertSemaphore.release();
+                                    if (acquired) {
+                                        logger.trace("Thread {} processing cert {} of discovered certificates finalized. Released permit.", Thread.currentThread().getName(), index.get());
+                                        processLimiter.release(discovery.getUuid(), System.nanoTime() - start, success);
+                                    }
                                 }
                                 return null; // Return null to satisfy the return type
                             },
                             executor,
-                            MAXIMUM_PARALLELISM
+                            processLimiter.getMaxLimit()
                     )
             );
 
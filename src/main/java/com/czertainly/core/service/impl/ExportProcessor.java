@@ -1,7 +1,7 @@
 package com.czertainly.core.service.impl;
 
-import com.czertainly.api.model.core.audit.ExportResultDto;
-import com.fasterxml.jackson.databind.ObjectWriter;
+import com.czertainly.core.model.ExportFile;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.dataformat.csv.CsvGenerator;
 import com.fasterxml.jackson.dataformat.csv.CsvMapper;
@@ -9,12 +9,16 @@ import com.fasterxml.jackson.dataformat.csv.CsvSchema;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.util.Iterator;
+import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -46,51 +50,60 @@ public class ExportProcessor {
     @Value("${export.zip:true}")
     private Boolean isZipped;
 
-    public <T> ExportResultDto generateExport(String fileNamePrefix, List<T> data) {
-        ExportResultDto result = new ExportResultDto();
-
+    /**
+     * Write data to CSV export in temporary file. Data are written as they are consumed from the stream, so memory usage
+     * does not depend on number of exported items.
+     *
+     * @param fileNamePrefix prefix of the export file name
+     * @param type           type of exported items defining columns of CSV
+     * @param data           stream of exported items
+     * @return export file
+     */
+    public <T> ExportFile generateExport(String fileNamePrefix, Class<T> type, Stream<T> data) {
         String fileNameDateTime = LocalDateTime.now().format(EXPORT_DATE_TIME_FORMAT);
         String fileName = "%s_%s.csv".formatted(fileNamePrefix, fileNameDateTime);
 
-        if (data == null || data.isEmpty()) {
-            result.setFileContent(new byte[0]);
-            return result;
-        }
-
-        try (ByteArrayOutputStream os = new ByteArrayOutputStream();
-             OutputStreamWriter osWriter = new OutputStreamWriter(os, encoding)) {
-
-            CsvSchema schema = CSV_MAPPER.schemaFor(data.get(0).getClass())
-                    .withColumnSeparator(separator)
-                    .withLineSeparator(lineEnding)
-                    .withUseHeader(isHeaderIncluded)
-                    .withQuoteChar('"')
-                    .withEscapeChar('\\');
-
-            ObjectWriter writer = CSV_MAPPER.writer()
-                    .with(schema);
-
-            writer.writeValue(osWriter, data);
-
+        CsvSchema schema = CSV_MAPPER.schemaFor(type)
+                .withColumnSeparator(separator)
+                .withLineSeparator(lineEnding)
+                .withUseHeader(isHeaderIncluded)
+                .withQuoteChar('"')
+                .withEscapeChar('\\');
+
+        Path file = null;
+        try {
+            file = Files.createTempFile(fileNamePrefix, isZipped ? ".zip" : ".csv");
+            OutputStream os = new BufferedOutputStream(Files.newOutputStream(file));
             if (isZipped) {
-                try (ByteArrayOutputStream bos = new ByteArrayOutputStream();
-                     ZipOutputStream zos = new ZipOutputStream(bos)) {
-                    zos.putNextEntry(new ZipEntry(fileName));
-                    zos.write(os.toByteArray());
-                    zos.closeEntry();
-                    zos.finish();
-                    zos.flush();
-
-                    result.setFileName("%s_%s.zip".formatted(fileNamePrefix, fileNameDateTime));
-                    result.setFileContent(bos.toByteArray());
+                ZipOutputStream zos = new ZipOutputStream(os);
+                zos.putNextEntry(new ZipEntry(fileName));
+                os = zos;
+            }
+
+            try (OutputStreamWriter osWriter = new OutputStreamWriter(os, encoding);
+                 SequenceWriter writer = CSV_MAPPER.writer().with(schema).writeValues(osWriter)) {
+                Iterator<T> iterator = data.iterator();
+                while (iterator.hasNext()) {
+                    writer.write(iterator.next());
                 }
-            } else {
-                result.setFileName(fileName);
-                result.setFileContent(os.toByteArray());
             }
+
+            return new ExportFile(isZipped ? "%s_%s.zip".formatted(fileNamePrefix, fileNameDateTime) : fileName, file, Files.size(file));
         } catch (IOException e) {
+            deleteExportFile(file);
             throw new IllegalStateException(e);
+        } catch (RuntimeException e) {
+            deleteExportFile(file);
+            throw e;
+        }
+    }
+
+    private static void deleteExportFile(Path file) {
+        if (file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // temporary file is left to be removed with other temporary files
         }
-        return result;
     }
 }
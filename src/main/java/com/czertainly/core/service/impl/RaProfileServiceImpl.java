@@ -33,6 +33,7 @@ import com.czertainly.core.service.ComplianceService;
 import com.czertainly.core.service.PermissionEvaluator;
 import com.czertainly.core.service.RaProfileService;
 import com.czertainly.core.service.model.SecuredList;
+import com.czertainly.core.service.scep.impl.ScepProfileContextCache;
 import com.czertainly.core.service.v2.ExtendedAttributeService;
 import com.czertainly.core.util.AttributeDefinitionUtils;
 import com.czertainly.core.util.CertificateUtil;
@@ -81,6 +82,7 @@ public class RaProfileServiceImpl implements RaProfileService {
     private ApprovalProfileRelationRepository approvalProfileRelationRepository;
     private ApprovalProfileRepository approvalProfileRepository;
     private CertificateContentRepository certificateContentRepository;
+    private ScepProfileContextCache scepProfileContextCache;
 
 
     @Override
@@ -162,6 +164,7 @@ public class RaProfileServiceImpl implements RaProfileService {
 
         updateRaProfile(raProfile, authorityInstanceRef, request);
         raProfileRepository.save(raProfile);
+        scepProfileContextCache.invalidateAll();
 
         RaProfileDto raProfileDto = raProfile.mapToDto();
         raProfileDto.setCustomAttributes(attributeEngine.updateObjectCustomAttributesContent(Resource.RA_PROFILE, raProfile.getUuid(), request.getCustomAttributes()));
@@ -191,6 +194,7 @@ public class RaProfileServiceImpl implements RaProfileService {
 
         entity.setEnabled(true);
         raProfileRepository.save(entity);
+        scepProfileContextCache.invalidateAll();
     }
 
     @Override
@@ -201,6 +205,7 @@ public class RaProfileServiceImpl implements RaProfileService {
 
         entity.setEnabled(false);
         raProfileRepository.save(entity);
+        scepProfileContextCache.invalidateAll();
     }
 
     @Override
@@ -225,6 +230,7 @@ public class RaProfileServiceImpl implements RaProfileService {
 
                 entity.setEnabled(false);
                 raProfileRepository.save(entity);
+                scepProfileContextCache.invalidateAll();
             } catch (NotFoundException e) {
                 logger.warn("Unable to disable RA Profile with uuid {}. It may have been deleted", uuid);
             }
@@ -241,6 +247,7 @@ public class RaProfileServiceImpl implements RaProfileService {
 
                 entity.setEnabled(true);
                 raProfileRepository.save(entity);
+                scepProfileContextCache.invalidateAll();
             } catch (NotFoundException e) {
                 logger.warn("Unable to enable RA Profile with uuid {}. It may have been deleted", uuids);
             }
@@ -262,6 +269,7 @@ public class RaProfileServiceImpl implements RaProfileService {
                 uuids.stream().map(SecuredUUID::getValue).toList());
         raProfiles.forEach(raProfile -> raProfile.setScepProfile(null));
         raProfileRepository.saveAll(raProfiles);
+        scepProfileContextCache.invalidateAll();
     }
 
     @Override
@@ -324,6 +332,7 @@ public class RaProfileServiceImpl implements RaProfileService {
         raProfile.setScepProfile(scepProfile);
         raProfile.setProtocolAttribute(raProfileProtocolAttribute);
         raProfileRepository.save(raProfile);
+        scepProfileContextCache.invalidateAll();
 
         return raProfile.mapToScepDto();
     }
@@ -337,6 +346,7 @@ public class RaProfileServiceImpl implements RaProfileService {
         raProfileProtocolAttribute.setScepIssueCertificateAttributes(null);
         raProfile.setProtocolAttribute(raProfileProtocolAttribute);
         raProfileRepository.save(raProfile);
+        scepProfileContextCache.invalidateAll();
     }
 
     // -----------------------------------------------------------------------------------------------------------------
@@ -454,6 +464,7 @@ public class RaProfileServiceImpl implements RaProfileService {
     // TODO - remove, service should not allow modifying RaProfile entity outside of it.
     public RaProfile updateRaProfileEntity(RaProfile raProfile) {
         raProfileRepository.save(raProfile);
+        scepProfileContextCache.invalidateAll();
         return raProfile;
     }
 
@@ -700,6 +711,7 @@ public class RaProfileServiceImpl implements RaProfileService {
 
         attributeEngine.deleteAllObjectAttributeContent(Resource.RA_PROFILE, raProfile.getUuid());
         raProfileRepository.delete(raProfile);
+        scepProfileContextCache.invalidateAll();
     }
 
     private List<SimplifiedComplianceProfileDto> getComplianceProfilesForRaProfile(String raProfileUuid, SecurityFilter filter) {
@@ -805,4 +817,9 @@ public class RaProfileServiceImpl implements RaProfileService {
         this.attributeEngine = attributeEngine;
     }
 
+    @Autowired
+    public void setScepProfileContextCache(ScepProfileContextCache scepProfileContextCache) {
+        this.scepProfileContextCache = scepProfileContextCache;
+    }
+
 }
@@ -8,10 +8,12 @@ import com.czertainly.api.model.common.NameAndUuidDto;
 import com.czertainly.api.model.core.auth.*;
 import com.czertainly.core.attribute.engine.AttributeEngine;
 import com.czertainly.core.model.auth.ResourceAction;
+import com.czertainly.core.security.authn.client.AuthenticationCache;
 import com.czertainly.core.security.authn.client.RoleManagementApiClient;
 import com.czertainly.core.security.authz.ExternalAuthorization;
 import com.czertainly.core.security.authz.SecuredUUID;
 import com.czertainly.core.security.authz.SecurityFilter;
+import com.czertainly.core.security.authz.opa.OpaDecisionCache;
 import com.czertainly.core.service.RoleManagementService;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
@@ -32,11 +34,24 @@ public class RoleManagementServiceImpl implements RoleManagementService {
 
     private AttributeEngine attributeEngine;
 
+    private OpaDecisionCache opaDecisionCache;
+    private AuthenticationCache authenticationCache;
+
     @Autowired
     public void setAttributeEngine(AttributeEngine attributeEngine) {
         this.attributeEngine = attributeEngine;
     }
 
+    @Autowired
+    public void setOpaDecisionCache(OpaDecisionCache opaDecisionCache) {
+        this.opaDecisionCache = opaDecisionCache;
+    }
+
+    @Autowired
+    public void setAuthenticationCache(AuthenticationCache authenticationCache) {
+        this.authenticationCache = authenticationCache;
+    }
+
     @Override
     @ExternalAuthorization(resource = Resource.ROLE, action = ResourceAction.LIST)
     public List<RoleDto> listRoles() {
@@ -75,6 +90,7 @@ public class RoleManagementServiceImpl implements RoleManagementService {
         requestDto.setEmail(request.getEmail());
         requestDto.setSystemRole(false);
         RoleDetailDto dto = roleManagementApiClient.updateRole(roleUuid, requestDto);
+        invalidateCachedAuthentications();
         dto.setCustomAttributes(attributeEngine.updateObjectCustomAttributesContent(Resource.ROLE, UUID.fromString(dto.getUuid()), request.getCustomAttributes()));
 
         return dto;
@@ -84,6 +100,7 @@ public class RoleManagementServiceImpl implements RoleManagementService {
     @ExternalAuthorization(resource = Resource.ROLE, action = ResourceAction.DELETE)
     public void deleteRole(String roleUuid) {
         roleManagementApiClient.deleteRole(roleUuid);
+        invalidateCachedAuthentications();
         attributeEngine.deleteAllObjectAttributeContent(Resource.ROLE, UUID.fromString(roleUuid));
     }
 
@@ -98,7 +115,9 @@ public class RoleManagementServiceImpl implements RoleManagementService {
     public SubjectPermissionsDto addPermissions(String roleUuid, RolePermissionsRequestDto request) {
         checkSystemRole(roleUuid);
 
-        return roleManagementApiClient.savePermissions(roleUuid, request);
+        SubjectPermissionsDto permissions = roleManagementApiClient.savePermissions(roleUuid, request);
+        invalidateCachedAuthentications();
+        return permissions;
     }
 
     @Override
@@ -119,6 +138,7 @@ public class RoleManagementServiceImpl implements RoleManagementService {
         checkSystemRole(roleUuid);
 
         roleManagementApiClient.addResourcePermissionObjects(roleUuid, resourceUuid, request);
+        invalidateCachedAuthentications();
     }
 
     @Override
@@ -127,6 +147,7 @@ public class RoleManagementServiceImpl implements RoleManagementService {
         checkSystemRole(roleUuid);
 
         roleManagementApiClient.updateResourcePermissionObjects(roleUuid, resourceUuid, objectUuid, request);
+        invalidateCachedAuthentications();
     }
 
     @Override
@@ -135,6 +156,7 @@ public class RoleManagementServiceImpl implements RoleManagementService {
         checkSystemRole(roleUuid);
 
         roleManagementApiClient.removeResourcePermissionObjects(roleUuid, resourceUuid, objectUuid);
+        invalidateCachedAuthentications();
     }
 
     @Override
@@ -146,7 +168,9 @@ public class RoleManagementServiceImpl implements RoleManagementService {
     @Override
     @ExternalAuthorization(resource = Resource.ROLE, action = ResourceAction.UPDATE)
     public RoleDetailDto updateUsers(String roleUuid, List<String> userUuids) {
-        return roleManagementApiClient.updateUsers(roleUuid, userUuids);
+        RoleDetailDto dto = roleManagementApiClient.updateUsers(roleUuid, userUuids);
+        invalidateCachedAuthentications();
+        return dto;
     }
 
     @Override
@@ -166,4 +190,9 @@ public class RoleManagementServiceImpl implements RoleManagementService {
             throw new ValidationException("Cannot edit permissions of system role: " + roleDetailDto.getName());
         }
     }
+
+    private void invalidateCachedAuthentications() {
+        authenticationCache.invalidateAll();
+        opaDecisionCache.invalidateAll();
+    }
 }
@@ -24,6 +24,7 @@ import com.czertainly.core.security.authz.SecuredUUID;
 import com.czertainly.core.security.authz.SecurityFilter;
 import com.czertainly.core.service.*;
 import com.czertainly.core.service.model.SecuredList;
+import com.czertainly.core.service.scep.impl.ScepProfileContextCache;
 import com.czertainly.core.service.v2.ExtendedAttributeService;
 import com.czertainly.core.util.CertificateUtil;
 import com.czertainly.core.util.ValidatorUtil;
@@ -48,6 +49,7 @@ public class ScepProfileServiceImpl implements ScepProfileService {
     private ExtendedAttributeService extendedAttributeService;
     private CertificateService certificateService;
     private AttributeEngine attributeEngine;
+    private ScepProfileContextCache scepProfileContextCache;
 
     @Autowired
     public ScepProfileServiceImpl(ScepProfileRepository scepProfileRepository) {
@@ -59,6 +61,11 @@ public class ScepProfileServiceImpl implements ScepProfileService {
         this.attributeEngine = attributeEngine;
     }
 
+    @Autowired
+    public void setScepProfileContextCache(ScepProfileContextCache scepProfileContextCache) {
+        this.scepProfileContextCache = scepProfileContextCache;
+    }
+
     @Autowired
     public void setRaProfileService(RaProfileService raProfileRepository) {
         this.raProfileService = raProfileRepository;
@@ -208,6 +215,7 @@ public class ScepProfileServiceImpl implements ScepProfileService {
         scepProfile.setIntuneApplicationId(request.getIntuneApplicationId());
         scepProfile.setIntuneApplicationKey(request.getIntuneApplicationKey());
         scepProfileRepository.save(scepProfile);
+        scepProfileContextCache.invalidateAll();
 
         ScepProfileDetailDto dto = scepProfile.mapToDetailDto();
         dto.setCustomAttributes(attributeEngine.updateObjectCustomAttributesContent(Resource.SCEP_PROFILE, scepProfile.getUuid(), request.getCustomAttributes()));
@@ -284,6 +292,7 @@ public class ScepProfileServiceImpl implements ScepProfileService {
         ScepProfile scepProfile = getScepProfileEntity(uuid);
         scepProfile.setRaProfile(getRaProfile(raProfileUuid));
         scepProfileRepository.save(scepProfile);
+        scepProfileContextCache.invalidateAll();
     }
 
     @Override
@@ -339,12 +348,14 @@ public class ScepProfileServiceImpl implements ScepProfileService {
         ScepProfile scepProfile = getScepProfileEntity(uuid);
         scepProfile.setEnabled(true);
         scepProfileRepository.save(scepProfile);
+        scepProfileContextCache.invalidateAll();
     }
 
     private void disable(SecuredUUID uuid) throws NotFoundException {
         ScepProfile scepProfile = getScepProfileEntity(uuid);
         scepProfile.setEnabled(false);
         scepProfileRepository.save(scepProfile);
+        scepProfileContextCache.invalidateAll();
     }
 
     private void deleteScepProfile(ScepProfile scepProfile) {
@@ -362,6 +373,7 @@ public class ScepProfileServiceImpl implements ScepProfileService {
         } else {
             attributeEngine.deleteAllObjectAttributeContent(Resource.SCEP_PROFILE, scepProfile.getUuid());
             scepProfileRepository.delete(scepProfile);
+            scepProfileContextCache.invalidateAll();
         }
     }
 
@@ -17,10 +17,12 @@ import com.czertainly.core.attribute.engine.AttributeEngine;
 import com.czertainly.core.dao.entity.Certificate;
 import com.czertainly.core.logging.LoggerWrapper;
 import com.czertainly.core.model.auth.ResourceAction;
+import com.czertainly.core.security.authn.client.AuthenticationCache;
 import com.czertainly.core.security.authn.client.UserManagementApiClient;
 import com.czertainly.core.security.authz.ExternalAuthorization;
 import com.czertainly.core.security.authz.SecuredUUID;
 import com.czertainly.core.security.authz.SecurityFilter;
+import com.czertainly.core.security.authz.opa.OpaDecisionCache;
 import com.czertainly.core.service.CertificateService;
 import com.czertainly.core.service.GroupService;
 import com.czertainly.core.service.ResourceObjectAssociationService;
@@ -51,6 +53,9 @@ public class UserManagementServiceImpl implements UserManagementService {
 
     private AttributeEngine attributeEngine;
 
+    private OpaDecisionCache opaDecisionCache;
+    private AuthenticationCache authenticationCache;
+
     @Autowired
     public void setUserManagementApiClient(UserManagementApiClient userManagementApiClient) {
         this.userManagementApiClient = userManagementApiClient;
@@ -71,6 +76,16 @@ public class UserManagementServiceImpl implements UserManagementService {
         this.objectAssociationService = objectAssociationService;
     }
 
+    @Autowired
+    public void setOpaDecisionCache(OpaDecisionCache opaDecisionCache) {
+        this.opaDecisionCache = opaDecisionCache;
+    }
+
+    @Autowired
+    public void setAuthenticationCache(AuthenticationCache authenticationCache) {
+        this.authenticationCache = authenticationCache;
+    }
+
     @Autowired
     public void setAttributeEngine(AttributeEngine attributeEngine) {
         this.attributeEngine = attributeEngine;
@@ -148,6 +163,7 @@ public class UserManagementServiceImpl implements UserManagementService {
     @ExternalAuthorization(resource = Resource.USER, action = ResourceAction.DELETE)
     public void deleteUser(String userUuid) {
         userManagementApiClient.removeUser(userUuid);
+        invalidateCachedAuthentications();
 
         UUID uuid = UUID.fromString(userUuid);
         certificateService.removeCertificateUser(uuid);
@@ -158,13 +174,17 @@ public class UserManagementServiceImpl implements UserManagementService {
     @Override
     @ExternalAuthorization(resource = Resource.USER, action = ResourceAction.UPDATE)
     public UserDetailDto updateRoles(String userUuid, List<String> roleUuids) {
-        return userManagementApiClient.updateRoles(userUuid, roleUuids);
+        UserDetailDto dto = userManagementApiClient.updateRoles(userUuid, roleUuids);
+        invalidateCachedAuthentications();
+        return dto;
     }
 
     @Override
     @ExternalAuthorization(resource = Resource.USER, action = ResourceAction.UPDATE)
     public UserDetailDto updateRole(String userUuid, String roleUuid) {
-        return userManagementApiClient.updateRole(userUuid, roleUuid);
+        UserDetailDto dto = userManagementApiClient.updateRole(userUuid, roleUuid);
+        invalidateCachedAuthentications();
+        return dto;
     }
 
     @Override
@@ -176,13 +196,17 @@ public class UserManagementServiceImpl implements UserManagementService {
     @Override
     @ExternalAuthorization(resource = Resource.USER, action = ResourceAction.ENABLE)
     public UserDetailDto enableUser(String userUuid) {
-        return userManagementApiClient.enableUser(userUuid);
+        UserDetailDto dto = userManagementApiClient.enableUser(userUuid);
+        invalidateCachedAuthentications();
+        return dto;
     }
 
     @Override
     @ExternalAuthorization(resource = Resource.USER, action = ResourceAction.ENABLE)
     public UserDetailDto disableUser(String userUuid) {
-        return userManagementApiClient.disableUser(userUuid);
+        UserDetailDto dto = userManagementApiClient.disableUser(userUuid);
+        invalidateCachedAuthentications();
+        return dto;
     }
 
     @Override
@@ -194,7 +218,9 @@ public class UserManagementServiceImpl implements UserManagementService {
     @Override
     @ExternalAuthorization(resource = Resource.USER, action = ResourceAction.UPDATE)
     public UserDetailDto removeRole(String userUuid, String roleUuid) {
-        return userManagementApiClient.removeRole(userUuid, roleUuid);
+        UserDetailDto dto = userManagementApiClient.removeRole(userUuid, roleUuid);
+        invalidateCachedAuthentications();
+        return dto;
     }
 
     @Override
@@ -287,6 +313,7 @@ public class UserManagementServiceImpl implements UserManagementService {
         }
 
         UserDetailDto response = userManagementApiClient.updateUser(userUuid, requestDto);
+        invalidateCachedAuthentications();
 
         try {
             certificateService.removeCertificateUser(UUID.fromString(response.getUuid()));
@@ -298,4 +325,9 @@ public class UserManagementServiceImpl implements UserManagementService {
         }
         return response;
     }
+
+    private void invalidateCachedAuthentications() {
+        authenticationCache.invalidateAll();
+        opaDecisionCache.invalidateAll();
+    }
 }
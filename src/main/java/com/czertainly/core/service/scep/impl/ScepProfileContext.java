@@ -0,0 +1,50 @@
+package com.czertainly.core.service.scep.impl;
+
+import com.czertainly.api.model.client.attribute.RequestAttributeDto;
+
+import java.security.cert.X509Certificate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Immutable state of SCEP endpoint of SCEP or RA profile shared by SCEP requests. Context contains only data that
+ * do not change between requests, i.e. parsed CA certificate chain, encoded response of GetCACert operation,
+ * CA capabilities and attributes for certificate issuance.
+ *
+ * @param raProfileBased            SCEP endpoint is addressed by name of RA profile
+ * @param scepProfileUuid           UUID of the SCEP profile
+ * @param scepProfileName           name of the SCEP profile
+ * @param raProfileUuid             UUID of the RA profile
+ * @param raProfileName             name of the RA profile
+ * @param recipient                 CA certificate of the SCEP profile
+ * @param caCertificateChain        certificate chain of the CA certificate
+ * @param caCertificatesResponse    encoded response of GetCACert operation
+ * @param caCertificatesContentType content type of GetCACert operation response
+ * @param caCapabilities            response of GetCACaps operation
+ * @param issueAttributes           attributes for certificate issuance
+ */
+public record ScepProfileContext(
+        boolean raProfileBased,
+        UUID scepProfileUuid,
+        String scepProfileName,
+        UUID raProfileUuid,
+        String raProfileName,
+        X509Certificate recipient,
+        List<X509Certificate> caCertificateChain,
+        byte[] caCertificatesResponse,
+        String caCertificatesContentType,
+        String caCapabilities,
+        List<RequestAttributeDto> issueAttributes
+) {
+
+    public ScepProfileContext {
+        caCertificateChain = List.copyOf(caCertificateChain);
+        caCertificatesResponse = caCertificatesResponse.clone();
+        issueAttributes = issueAttributes == null ? null : List.copyOf(issueAttributes);
+    }
+
+    @Override
+    public byte[] caCertificatesResponse() {
+        return caCertificatesResponse.clone();
+    }
+}
@@ -0,0 +1,85 @@
+package com.czertainly.core.service.scep.impl;
+
+import com.czertainly.core.util.ExpiringCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of SCEP endpoint contexts. Contexts are invalidated when SCEP or RA profiles are changed, time to live limits
+ * staleness of the context after change of the CA certificate chain validity.
+ */
+@Component
+public class ScepProfileContextCache {
+
+    private final boolean enabled;
+    private final Duration ttl;
+    private final ExpiringCache<ContextKey, ScepProfileContext> contexts;
+    private final AtomicLong generation = new AtomicLong();
+
+    public ScepProfileContextCache(@Value("${scep.profile-cache.enabled:true}") boolean enabled,
+                                   @Value("${scep.profile-cache.max-entries:100}") int maxEntries,
+                                   @Value("${scep.profile-cache.ttl:300}") long ttlSeconds) {
+        this.enabled = enabled;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.contexts = new ExpiringCache<>(maxEntries);
+    }
+
+    /**
+     * Get cached context
+     *
+     * @param raProfileBased SCEP endpoint is addressed by name of RA profile
+     * @param profileName    name of SCEP or RA profile
+     * @return cached context or null when context is not cached
+     */
+    public ScepProfileContext get(boolean raProfileBased, String profileName) {
+        if (!enabled) return null;
+        return contexts.get(new ContextKey(raProfileBased, profileName));
+    }
+
+    /**
+     * Generation of the cache changed by each invalidation. Context is cached only if no invalidation happened since
+     * the generation was read before the context was loaded.
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    public void put(String profileName, ScepProfileContext context, long expectedGeneration) {
+        if (!enabled) return;
+        synchronized (generation) {
+            if (generation.get() != expectedGeneration) return;
+            contexts.put(new ContextKey(context.raProfileBased(), profileName), context, contexts.now().plus(ttl));
+        }
+    }
+
+    /**
+     * Invalidate all contexts. When called in transaction, contexts are invalidated again after the transaction
+     * completes, so that contexts loaded before the changes are committed are not kept.
+     */
+    public void invalidateAll() {
+        invalidateContexts();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidateContexts();
+                }
+            });
+        }
+    }
+
+    private void invalidateContexts() {
+        synchronized (generation) {
+            generation.incrementAndGet();
+            contexts.invalidateAll();
+        }
+    }
+
+    private record ContextKey(boolean raProfileBased, String profileName) {
+    }
+}
@@ -93,12 +93,6 @@ public class ScepServiceImpl implements ScepService {
     @Value("${app.version}")
     private String appVersion;
 
-    private List<X509Certificate> caCertificateChain = new ArrayList<>();
-    private X509Certificate recipient;
-    private boolean raProfileBased;
-    private RaProfile raProfile;
-    private List<RequestAttributeDto> issueAttributes;
-    private ScepProfile scepProfile;
     private RaProfileRepository raProfileRepository;
     private ScepProfileRepository scepProfileRepository;
     private ScepTransactionRepository scepTransactionRepository;
@@ -107,6 +101,12 @@ public class ScepServiceImpl implements ScepService {
     private CryptographicKeyService cryptographicKeyService;
     private CryptographicOperationsApiClient cryptographicOperationsApiClient;
     private AttributeEngine attributeEngine;
+    private ScepProfileContextCache scepProfileContextCache;
+
+    @Autowired
+    public void setScepProfileContextCache(ScepProfileContextCache scepProfileContextCache) {
+        this.scepProfileContextCache = scepProfileContextCache;
+    }
 
     @Autowired
     public void setAttributeEngine(AttributeEngine attributeEngine) {
@@ -148,15 +148,6 @@ public class ScepServiceImpl implements ScepService {
         this.cryptographicOperationsApiClient = cryptographicOperationsApiClient;
     }
 
-    public void setRecipient(String certificateContent) {
-        try {
-            this.recipient = CertificateUtil.parseCertificate(certificateContent);
-        } catch (CertificateException e) {
-            // This should not occur
-            throw new IllegalArgumentException("Error converting the certificate to x509 object");
-        }
-    }
-
     @Override
     public ResponseEntity<Object> handleGet(String profileName, String operation, String message) throws ScepException {
         logger.debug("SCEP GET request received for profile: {}, operation: {}, message: {}", profileName, operation, message);
@@ -174,69 +165,119 @@ public class ScepServiceImpl implements ScepService {
     }
 
     private ResponseEntity<Object> service(String profileName, String operation, byte[] message) throws ScepException {
-        init(profileName);
-        validateProfile();
+        ScepProfileContext context = getProfileContext(profileName);
         logger.info("SCEP request received for profile: {}, operation: {}", profileName, operation);
         return switch (operation) {
             case "GetCACert" -> {
                 LoggingHelper.putAuditLogOperation(Operation.LIST_PROTOCOL_CERTIFICATES);
-                yield getCaCerts();
+                yield getCaCerts(context);
             }
             case "GetCACaps" -> {
                 LoggingHelper.putAuditLogOperation(Operation.SCEP_CA_CAPABILITIES);
-                yield getCaCaps();
+                yield getCaCaps(context);
             }
-            case "PKIOperation" -> pkiOperation(message);
+            case "PKIOperation" -> pkiOperation(getOperationContext(context), message);
             default ->
-                    buildResponse(null, buildFailedResponse(new ScepException("Unsupported Operation", FailInfo.BAD_REQUEST), null));
+                    buildResponse(getOperationContext(context), null, buildFailedResponse(context, new ScepException("Unsupported Operation", FailInfo.BAD_REQUEST), null));
         };
     }
 
-    private void init(String profileName) throws ScepException {
-        this.raProfileBased = ServletUriComponentsBuilder.fromCurrentRequestUri().build().toUriString().contains("/raProfile/");
+    private ScepProfileContext getProfileContext(String profileName) throws ScepException {
+        boolean raProfileBased = ServletUriComponentsBuilder.fromCurrentRequestUri().build().toUriString().contains("/raProfile/");
+        ScepProfileContext context = scepProfileContextCache.get(raProfileBased, profileName);
+        if (context != null) {
+            LoggingHelper.putLogResourceInfo(Resource.SCEP_PROFILE, true, context.scepProfileUuid().toString(), context.scepProfileName());
+            return context;
+        }
+
+        long generation = scepProfileContextCache.getGeneration();
+        context = loadProfileContext(profileName, raProfileBased);
+        scepProfileContextCache.put(profileName, context, generation);
+        return context;
+    }
+
+    private ScepProfileContext loadProfileContext(String profileName, boolean raProfileBased) throws ScepException {
+        RaProfile raProfile;
+        ScepProfile scepProfile;
         if (raProfileBased) {
             raProfile = raProfileRepository.findByName(profileName).orElse(null);
-            if (raProfile == null) {
-                return;
-            }
-            scepProfile = raProfile.getScepProfile();
-            String attributesJson = raProfile.getProtocolAttribute() != null ? raProfile.getProtocolAttribute().getScepIssueCertificateAttributes() : null;
-            issueAttributes = AttributeDefinitionUtils.getClientAttributes(AttributeDefinitionUtils.deserialize(attributesJson, DataAttribute.class));
+            scepProfile = raProfile != null ? raProfile.getScepProfile() : null;
         } else {
             scepProfile = scepProfileRepository.findByName(profileName).orElse(null);
-            if (scepProfile == null) {
-                return;
-            }
-            raProfile = scepProfile.getRaProfile();
-            if (raProfile == null) {
-                return;
-            }
+            raProfile = scepProfile != null ? scepProfile.getRaProfile() : null;
+        }
+        if (scepProfile != null) {
+            LoggingHelper.putLogResourceInfo(Resource.SCEP_PROFILE, true, scepProfile.getUuid().toString(), scepProfile.getName());
+        }
+        validateScepProfile(scepProfile, raProfileBased);
+        validateRaProfile(raProfile, raProfileBased);
 
-            issueAttributes = attributeEngine.getRequestObjectDataAttributesContent(scepProfile.getRaProfile().getAuthorityInstanceReference().getConnectorUuid(), AttributeOperation.CERTIFICATE_ISSUE, Resource.SCEP_PROFILE, scepProfile.getUuid());
+        List<RequestAttributeDto> issueAttributes;
+        if (raProfileBased) {
+            String attributesJson = raProfile.getProtocolAttribute() != null ? raProfile.getProtocolAttribute().getScepIssueCertificateAttributes() : null;
+            issueAttributes = AttributeDefinitionUtils.getClientAttributes(AttributeDefinitionUtils.deserialize(attributesJson, DataAttribute.class));
+        } else {
+            issueAttributes = attributeEngine.getRequestObjectDataAttributesContent(raProfile.getAuthorityInstanceReference().getConnectorUuid(), AttributeOperation.CERTIFICATE_ISSUE, Resource.SCEP_PROFILE, scepProfile.getUuid());
         }
-        LoggingHelper.putLogResourceInfo(Resource.SCEP_PROFILE, true, scepProfile.getUuid().toString(), scepProfile.getName());
 
         Certificate scepCaCertificate = scepProfile.getCaCertificate();
-        if (scepCaCertificate == null) {
-            throw new ScepException("SCEP Profile does not have any associated CA certificate", FailInfo.BAD_REQUEST);
+        X509Certificate recipient;
+        try {
+            recipient = CertificateUtil.parseCertificate(scepCaCertificate.getCertificateContent().getContent());
+        } catch (CertificateException e) {
+            // This should not occur
+            throw new IllegalArgumentException("Error converting the certificate to x509 object");
         }
-
-        setRecipient(scepCaCertificate.getCertificateContent().getContent());
+        List<X509Certificate> caCertificateChain;
         try {
-            this.caCertificateChain = loadCertificateChain(scepCaCertificate);
+            caCertificateChain = loadCertificateChain(scepCaCertificate);
         } catch (NotFoundException e) {
             throw new ScepException("Failed to load certificate chain of SCEP profile CA certificate");
         }
 
+        byte[] caCertificatesResponse;
+        String caCertificatesContentType;
+        try {
+            if (caCertificateChain.size() > 1) {
+                CMSSignedDataGenerator generator = new CMSSignedDataGenerator();
+                generator.addCertificates(new JcaCertStore(caCertificateChain));
+                caCertificatesResponse = generator.generate(new CMSProcessableByteArray(new byte[0])).getEncoded();
+                caCertificatesContentType = "application/x-x509-ca-ra-cert";
+            } else {
+                caCertificatesResponse = recipient.getEncoded();
+                caCertificatesContentType = "application/x-x509-ca-cert";
+            }
+        } catch (CertificateException | CMSException | IOException e) {
+            // This should not happen
+            throw new IllegalArgumentException("Error converting the certificate to x509 object");
+        }
+
         logger.debug("SCEP service initialized: isRaProfileBased: {}, raProfile: {}, scepProfile: {}", raProfileBased, raProfile, scepProfile);
+        return new ScepProfileContext(
+                raProfileBased,
+                scepProfile.getUuid(),
+                scepProfile.getName(),
+                raProfile.getUuid(),
+                raProfile.getName(),
+                recipient,
+                caCertificateChain,
+                caCertificatesResponse,
+                caCertificatesContentType,
+                String.join(System.lineSeparator(), SCEP_CA_CAPABILITIES),
+                issueAttributes
+        );
     }
 
-    private void validateProfile() throws ScepException {
-        validateScepProfile();
-        validateRaProfile();
+    private ScepOperationContext getOperationContext(ScepProfileContext context) throws ScepException {
+        // profiles can be changed since the context was cached, validate current state before the operation
+        ScepProfile scepProfile = scepProfileRepository.findByUuid(context.scepProfileUuid()).orElse(null);
+        RaProfile raProfile = raProfileRepository.findByUuid(context.raProfileUuid()).orElse(null);
+        validateScepProfile(scepProfile, context.raProfileBased());
+        validateRaProfile(raProfile, context.raProfileBased());
+        return new ScepOperationContext(context, scepProfile, raProfile);
     }
 
-    private void validateScepProfile() throws ScepException {
+    private void validateScepProfile(ScepProfile scepProfile, boolean raProfileBased) throws ScepException {
         if (scepProfile == null) {
             throw new ScepException("Requested SCEP Profile not found", FailInfo.BAD_REQUEST);
         }
@@ -254,7 +295,7 @@ public class ScepServiceImpl implements ScepService {
         }
     }
 
-    private void validateRaProfile() throws ScepException {
+    private void validateRaProfile(RaProfile raProfile, boolean raProfileBased) throws ScepException {
         if (raProfile == null) {
             throw new ScepException("Requested RA Profile not found", FailInfo.BAD_REQUEST);
         }
@@ -266,29 +307,15 @@ public class ScepServiceImpl implements ScepService {
         }
     }
 
-    private ResponseEntity<Object> getCaCerts() {
-        byte[] encoded;
-        try {
-            if (caCertificateChain.size() > 1) {
-                logger.debug("Certificate chain is more than one, returning CA-RA certificate");
-                CMSSignedDataGenerator generator = new CMSSignedDataGenerator();
-                generator.addCertificates(new JcaCertStore(caCertificateChain));
-                encoded = generator.generate(new CMSProcessableByteArray(new byte[0])).getEncoded();
-                return getResponseEntity(encoded, "application/x-x509-ca-ra-cert", encoded.length);
-            } else {
-                logger.debug("Certificate chain is one, returning CA certificate");
-                encoded = recipient.getEncoded();
-                return getResponseEntity(encoded, "application/x-x509-ca-cert", encoded.length);
-            }
-        } catch (CertificateException | CMSException | IOException e) {
-            // This should not happen
-            throw new IllegalArgumentException("Error converting the certificate to x509 object");
-        }
+    private ResponseEntity<Object> getCaCerts(ScepProfileContext context) {
+        logger.debug("Returning {} certificate(s) of CA certificate chain", context.caCertificateChain().size());
+        byte[] encoded = context.caCertificatesResponse();
+        return getResponseEntity(encoded, context.caCertificatesContentType(), encoded.length);
     }
 
-    private ResponseEntity<Object> getCaCaps() {
+    private ResponseEntity<Object> getCaCaps(ScepProfileContext context) {
         logger.debug("Returning CA capabilities");
-        return getResponseEntity(String.join(System.lineSeparator(), SCEP_CA_CAPABILITIES), "text/plain", null);
+        return getResponseEntity(context.caCapabilities(), "text/plain", null);
     }
 
     private ResponseEntity<Object> getResponseEntity(Object body, String contentType, Integer contentLength) {
@@ -298,7 +325,7 @@ public class ScepServiceImpl implements ScepService {
         return new ResponseEntity<>(body, responseHeaders, HttpStatus.OK);
     }
 
-    private ResponseEntity<Object> pkiOperation(byte[] body) throws ScepException {
+    private ResponseEntity<Object> pkiOperation(ScepOperationContext context, byte[] body) throws ScepException {
         ScepRequest scepRequest;
         ScepResponse scepResponse;
         IntuneScepServiceClient intuneClient = null;
@@ -307,7 +334,7 @@ public class ScepServiceImpl implements ScepService {
 
         logger.debug("Processing SCEP request: transactionId={}", scepRequest.getTransactionId());
 
-        CryptographicKey key = scepProfile.getCaCertificate().getKey();
+        CryptographicKey key = context.scepProfile().getCaCertificate().getKey();
         CryptographicKeyItem item = cryptographicKeyService.getKeyItemFromKey(key, KeyType.PRIVATE_KEY);
         // Get the private key from the configuration of SCEP Profile
         CzertainlyPrivateKey czertainlyPrivateKey = new CzertainlyPrivateKey(
@@ -317,64 +344,64 @@ public class ScepServiceImpl implements ScepService {
                 item.getKeyAlgorithm().getLabel()
         );
 
-        CzertainlyProvider czertainlyProvider = CzertainlyProvider.getInstance(scepProfile.getName(), true, cryptographicOperationsApiClient);
+        CzertainlyProvider czertainlyProvider = CzertainlyProvider.getInstance(context.scepProfile().getName(), true, cryptographicOperationsApiClient);
 
         // decrypt the PKCS#10 request
         try {
             scepRequest.decryptData(
                     czertainlyPrivateKey,
                     czertainlyProvider,
-                    cryptographicKeyService.getKeyItemFromKey(scepProfile.getCaCertificate().getKey(), KeyType.PRIVATE_KEY).getKeyAlgorithm(),
-                    scepProfile.getChallengePassword()
+                    cryptographicKeyService.getKeyItemFromKey(context.scepProfile().getCaCertificate().getKey(), KeyType.PRIVATE_KEY).getKeyAlgorithm(),
+                    context.scepProfile().getChallengePassword()
             );
         } catch (CMSException e) {
-            return buildResponse(scepRequest, buildFailedResponse(new ScepException("Unable to decrypt the data. " + e.getMessage(), FailInfo.BAD_REQUEST), scepRequest.getTransactionId()));
+            return buildResponse(context, scepRequest, buildFailedResponse(context.profile(), new ScepException("Unable to decrypt the data. " + e.getMessage(), FailInfo.BAD_REQUEST), scepRequest.getTransactionId()));
         }
 
-        if (scepProfile.isIntuneEnabled()) {
-            Properties properties = getIntuneConfiguration();
+        if (context.scepProfile().isIntuneEnabled()) {
+            Properties properties = getIntuneConfiguration(context.scepProfile());
             intuneClient = buildIntuneClient(properties);
         }
 
         // validate challenge password, if configured
         if (scepRequest.getMessageType().equals(MessageType.PKCS_REQ) || scepRequest.getMessageType().equals(MessageType.RENEWAL_REQ)) {
-            if (!validateScepChallengePassword(scepRequest.getChallengePassword())) {
-                return buildResponse(scepRequest, buildFailedResponse(new ScepException("Challenge password validation failed.", FailInfo.BAD_MESSAGE_CHECK), scepRequest.getTransactionId()));
+            if (!validateScepChallengePassword(context.scepProfile(), scepRequest.getChallengePassword())) {
+                return buildResponse(context, scepRequest, buildFailedResponse(context.profile(), new ScepException("Challenge password validation failed.", FailInfo.BAD_MESSAGE_CHECK), scepRequest.getTransactionId()));
             }
             // validate the request POP
             try {
-                verifyRequest(scepRequest);
+                verifyRequest(context.scepProfile(), scepRequest);
             } catch (ScepException e) {
-                return buildResponse(scepRequest, buildFailedResponse(e, scepRequest.getTransactionId()));
+                return buildResponse(context, scepRequest, buildFailedResponse(context.profile(), e, scepRequest.getTransactionId()));
             }
         }
 
-        if (scepTransactionRepository.existsByTransactionIdAndScepProfile(scepRequest.getTransactionId(), scepProfile)) {
+        if (scepTransactionRepository.existsByTransactionIdAndScepProfile(scepRequest.getTransactionId(), context.scepProfile())) {
             LoggingHelper.putAuditLogOperation(Operation.SCEP_TRANSACTION_CHECK);
             try {
-                scepResponse = getExistingTransaction(scepRequest.getTransactionId());
+                scepResponse = getExistingTransaction(context, scepRequest.getTransactionId());
             } catch (ScepException e) {
-                scepResponse = buildFailedResponse(new ScepException("Error while formatting certificate", FailInfo.BAD_REQUEST), scepRequest.getTransactionId());
+                scepResponse = buildFailedResponse(context.profile(), new ScepException("Error while formatting certificate", FailInfo.BAD_REQUEST), scepRequest.getTransactionId());
             } catch (NotFoundException e) {
-                scepResponse = buildFailedResponse(new ScepException("Transaction certificate not found", FailInfo.BAD_REQUEST), scepRequest.getTransactionId());
+                scepResponse = buildFailedResponse(context.profile(), new ScepException("Transaction certificate not found", FailInfo.BAD_REQUEST), scepRequest.getTransactionId());
             }
         } else if (scepRequest.getMessageType().equals(MessageType.PKCS_REQ)) {
             try {
                 // Manual approval for the SCEP clients are configured in the SCEP Profile.
                 // If the SCEP Profile has the manual approval set to true, only the CSR will be generated
-                if (scepProfile.getRequireManualApproval() != null && !scepProfile.getRequireManualApproval()) {
+                if (context.scepProfile().getRequireManualApproval() != null && !context.scepProfile().getRequireManualApproval()) {
                     LoggingHelper.putAuditLogOperation(Operation.ISSUE);
-                    scepResponse = issueCertificate(scepRequest, intuneClient);
+                    scepResponse = issueCertificate(context, scepRequest, intuneClient);
                 } else {
                     LoggingHelper.putAuditLogOperation(Operation.REQUEST);
-                    scepResponse = generateCsr(scepRequest, intuneClient);
+                    scepResponse = generateCsr(context, scepRequest, intuneClient);
                 }
             } catch (ScepException e) {
-                scepResponse = buildFailedResponse(e, scepRequest.getTransactionId());
+                scepResponse = buildFailedResponse(context.profile(), e, scepRequest.getTransactionId());
                 // 32-bit error code formulated using the instructions specified in https://msdn.microsoft.com/en-us/library/cc231198.aspx
                 // this is a vendor specific error code
                 final long errorCode = 0x20000000L + e.getFailInfo().getValue();
-                if (scepProfile.isIntuneEnabled()) {
+                if (context.scepProfile().isIntuneEnabled()) {
                     sendIntuneFailureMessage(
                             intuneClient,
                             scepRequest,
@@ -385,14 +412,14 @@ public class ScepServiceImpl implements ScepService {
             }
         } else if (scepRequest.getMessageType().equals(MessageType.CERT_POLL)) {
             LoggingHelper.putAuditLogOperation(Operation.SCEP_CERTIFICATE_POLL);
-            scepResponse = pollCertificate(scepRequest, intuneClient);
+            scepResponse = pollCertificate(context, scepRequest, intuneClient);
         } else {
-            scepResponse = buildFailedResponse(new ScepException("Unsupported Operation. The requested operation is not supported", FailInfo.BAD_REQUEST), scepRequest.getTransactionId());
+            scepResponse = buildFailedResponse(context.profile(), new ScepException("Unsupported Operation. The requested operation is not supported", FailInfo.BAD_REQUEST), scepRequest.getTransactionId());
         }
-        return buildResponse(scepRequest, scepResponse);
+        return buildResponse(context, scepRequest, scepResponse);
     }
 
-    private ScepResponse buildFailedResponse(ScepException scepException, String transactionId) {
+    private ScepResponse buildFailedResponse(ScepProfileContext context, ScepException scepException, String transactionId) {
         ScepResponse scepResponse = new ScepResponse();
         scepResponse.setPkiStatus(PkiStatus.FAILURE);
         scepResponse.setFailInfo(scepException.getFailInfo());
@@ -406,17 +433,17 @@ public class ScepServiceImpl implements ScepService {
                 scepException.getFailInfo(),
                 scepException.getCause() != null ? scepException.getCause().getMessage() : null,
                 transactionId,
-                this.scepProfile.getName(),
-                this.raProfileBased ? this.raProfile.getName() : null
+                context.scepProfileName(),
+                context.raProfileBased() ? context.raProfileName() : null
         );
 
         return scepResponse;
     }
 
-    private ResponseEntity<Object> buildResponse(ScepRequest scepRequest, ScepResponse scepResponse) throws ScepException {
-        prepareMessage(scepRequest, scepResponse);
-        CzertainlyProvider czertainlyProvider = CzertainlyProvider.getInstance(scepProfile.getName(), true, cryptographicOperationsApiClient);
-        CryptographicKey key = scepProfile.getCaCertificate().getKey();
+    private ResponseEntity<Object> buildResponse(ScepOperationContext context, ScepRequest scepRequest, ScepResponse scepResponse) throws ScepException {
+        prepareMessage(context.profile(), scepRequest, scepResponse);
+        CzertainlyProvider czertainlyProvider = CzertainlyProvider.getInstance(context.scepProfile().getName(), true, cryptographicOperationsApiClient);
+        CryptographicKey key = context.scepProfile().getCaCertificate().getKey();
         CryptographicKeyItem item = cryptographicKeyService.getKeyItemFromKey(key, KeyType.PRIVATE_KEY);
         // Get the private key from the configuration of SCEP Profile
         CzertainlyPrivateKey czertainlyPrivateKey = new CzertainlyPrivateKey(
@@ -425,16 +452,11 @@ public class ScepServiceImpl implements ScepService {
                 key.getTokenInstanceReference().getConnector().mapToDto(),
                 item.getKeyAlgorithm().getLabel()
         );
-        try {
-            scepResponse.setSigningAttributes(
-                    CertificateUtil.getX509Certificate(scepProfile.getCaCertificate().getCertificateContent().getContent()),
-                    czertainlyPrivateKey,
-                    czertainlyProvider
-
-            );
-        } catch (CertificateException e) {
-            throw new ScepException("Unable to set certificate for signing SCEP response", e, FailInfo.BAD_REQUEST);
-        }
+        scepResponse.setSigningAttributes(
+                context.profile().recipient(),
+                czertainlyPrivateKey,
+                czertainlyProvider
+        );
         scepResponse.generate();
         byte[] responseBody;
         try {
@@ -445,8 +467,8 @@ public class ScepServiceImpl implements ScepService {
         return getResponseEntity(responseBody, "application/x-pki-message", responseBody.length);
     }
 
-    private ScepResponse issueCertificate(ScepRequest scepRequest, IntuneScepServiceClient intuneClient) throws ScepException {
-        if (scepProfile.isIntuneEnabled()) {
+    private ScepResponse issueCertificate(ScepOperationContext context, ScepRequest scepRequest, IntuneScepServiceClient intuneClient) throws ScepException {
+        if (context.scepProfile().isIntuneEnabled()) {
             validateIntuneRequest(
                     intuneClient,
                     scepRequest
@@ -456,13 +478,13 @@ public class ScepServiceImpl implements ScepService {
         try {
             requestDto.setRequest(new String(Base64.getEncoder().encode(scepRequest.getPkcs10Request().getEncoded())));
             requestDto.setFormat(CertificateRequestFormat.PKCS10);
-            requestDto.setAttributes(issueAttributes);
+            requestDto.setAttributes(context.profile().issueAttributes() != null ? new ArrayList<>(context.profile().issueAttributes()) : null);
         } catch (IOException e) {
             throw new ScepException("Unable to decode PKCS#10 request", e, FailInfo.BAD_REQUEST);
         }
         ClientCertificateDataResponseDto response;
         try {
-            response = clientOperationService.issueCertificate(raProfile.getAuthorityInstanceReference().getSecuredParentUuid(), raProfile.getSecuredUuid(), requestDto, CertificateProtocolInfo.Scep(scepProfile.getUuid()));
+            response = clientOperationService.issueCertificate(context.raProfile().getAuthorityInstanceReference().getSecuredParentUuid(), context.raProfile().getSecuredUuid(), requestDto, CertificateProtocolInfo.Scep(context.scepProfile().getUuid()));
         } catch (ConnectorException e) {
             throw new ScepException("Unable to use connector to issue certificate", e, FailInfo.BAD_REQUEST);
         } catch (CertificateException | CertificateOperationException e) {
@@ -478,7 +500,7 @@ public class ScepServiceImpl implements ScepService {
         ScepResponse scepResponse = new ScepResponse();
         if (response.getCertificateData() == null || response.getCertificateData().isEmpty()) {
             // certificate is not yet issued
-            addTransactionEntity(scepRequest.getTransactionId(), response.getUuid());
+            addTransactionEntity(context, scepRequest.getTransactionId(), response.getUuid());
             scepResponse.setPkiStatus(PkiStatus.PENDING);
             return scepResponse;
         }
@@ -493,15 +515,15 @@ public class ScepServiceImpl implements ScepService {
         Certificate certificateEntity;
         try {
             certificateEntity = certificateService.getCertificateEntity(SecuredUUID.fromString(response.getUuid()));
-            scepResponse.setCertificateChain(getIssuedCertificateChain(certificateEntity));
+            scepResponse.setCertificateChain(getIssuedCertificateChain(context, certificateEntity));
         } catch (NotFoundException e) {
             throw new ScepException(String.format("Issued certificate not found in inventory: uuid=%s", response.getUuid()), FailInfo.BAD_REQUEST);
         }
 
-        addTransactionEntity(scepRequest.getTransactionId(), response.getUuid());
+        addTransactionEntity(context, scepRequest.getTransactionId(), response.getUuid());
 
         scepResponse.setPkiStatus(PkiStatus.SUCCESS);
-        if (scepProfile.isIntuneEnabled()) sendIntuneSuccessNotification(
+        if (context.scepProfile().isIntuneEnabled()) sendIntuneSuccessNotification(
                 intuneClient,
                 scepRequest,
                 certificate
@@ -510,8 +532,8 @@ public class ScepServiceImpl implements ScepService {
     }
 
 
-    private ScepResponse generateCsr(ScepRequest scepRequest, IntuneScepServiceClient intuneClient) throws ScepException {
-        if (scepProfile.isIntuneEnabled()) {
+    private ScepResponse generateCsr(ScepOperationContext context, ScepRequest scepRequest, IntuneScepServiceClient intuneClient) throws ScepException {
+        if (context.scepProfile().isIntuneEnabled()) {
             validateIntuneRequest(
                     intuneClient,
                     scepRequest
@@ -519,7 +541,7 @@ public class ScepServiceImpl implements ScepService {
         }
         ScepResponse scepResponse = new ScepResponse();
         ClientCertificateRequestDto requestDto = new ClientCertificateRequestDto();
-        if (raProfile != null) requestDto.setRaProfileUuid(raProfile.getUuid());
+        requestDto.setRaProfileUuid(context.raProfile().getUuid());
         try {
             requestDto.setRequest(new String(Base64.getEncoder().encode(scepRequest.getPkcs10Request().getEncoded())));
             requestDto.setFormat(CertificateRequestFormat.PKCS10);
@@ -528,63 +550,63 @@ public class ScepServiceImpl implements ScepService {
         }
         CertificateDetailDto response;
         try {
-            response = clientOperationService.submitCertificateRequest(requestDto, CertificateProtocolInfo.Scep(scepProfile.getUuid()));
+            response = clientOperationService.submitCertificateRequest(requestDto, CertificateProtocolInfo.Scep(context.scepProfile().getUuid()));
         } catch (CertificateException | NoSuchAlgorithmException | AttributeException | ConnectorException | CertificateRequestException e) {
             throw new ScepException("Unable to submit certificate request", e, FailInfo.BAD_REQUEST);
         }
 
-        addTransactionEntity(scepRequest.getTransactionId(), response.getUuid());
+        addTransactionEntity(context, scepRequest.getTransactionId(), response.getUuid());
         scepResponse.setPkiStatus(PkiStatus.PENDING);
 
         return scepResponse;
     }
 
-    private ScepResponse getExistingTransaction(String transactionId) throws ScepException, NotFoundException {
-        ScepTransaction scepTransaction = scepTransactionRepository.findByTransactionIdAndScepProfile(transactionId, scepProfile).orElse(null);
+    private ScepResponse getExistingTransaction(ScepOperationContext context, String transactionId) throws ScepException, NotFoundException {
+        ScepTransaction scepTransaction = scepTransactionRepository.findByTransactionIdAndScepProfile(transactionId, context.scepProfile()).orElse(null);
         assert scepTransaction != null;
         Certificate certificate = scepTransaction.getCertificate();
 
         if (certificate.getState() == CertificateState.REJECTED) {
-            return buildFailedResponse(new ScepException("Certificate issuance was rejected", FailInfo.BAD_REQUEST), transactionId);
+            return buildFailedResponse(context.profile(), new ScepException("Certificate issuance was rejected", FailInfo.BAD_REQUEST), transactionId);
         }
         if (certificate.getState() == CertificateState.FAILED) {
-            return buildFailedResponse(new ScepException("Certificate issuance failed", FailInfo.BAD_REQUEST), transactionId);
+            return buildFailedResponse(context.profile(), new ScepException("Certificate issuance failed", FailInfo.BAD_REQUEST), transactionId);
         }
 
         ScepResponse scepResponse = new ScepResponse();
         if (certificate.getState() == CertificateState.ISSUED) {
             scepResponse.setPkiStatus(PkiStatus.SUCCESS);
-            scepResponse.setCertificateChain(getIssuedCertificateChain(certificate));
+            scepResponse.setCertificateChain(getIssuedCertificateChain(context, certificate));
         } else {
             scepResponse.setPkiStatus(PkiStatus.PENDING);
         }
         return scepResponse;
     }
 
-    private void addTransactionEntity(String transactionId, String certificateUuid) {
+    private void addTransactionEntity(ScepOperationContext context, String transactionId, String certificateUuid) {
         ScepTransaction scepTransaction = new ScepTransaction();
         scepTransaction.setTransactionId(transactionId);
         scepTransaction.setCertificateUuid(UUID.fromString(certificateUuid));
-        scepTransaction.setScepProfile(scepProfile);
+        scepTransaction.setScepProfile(context.scepProfile());
         scepTransactionRepository.save(scepTransaction);
     }
 
-    private ScepResponse pollCertificate(ScepRequest scepRequest, IntuneScepServiceClient intuneClient) {
+    private ScepResponse pollCertificate(ScepOperationContext context, ScepRequest scepRequest, IntuneScepServiceClient intuneClient) {
         ScepResponse scepResponse = new ScepResponse();
         try {
             ScepTransaction transaction = getTransaction(scepRequest.getTransactionId());
             if (transaction != null) {
                 Certificate certificate = transaction.getCertificate();
                 if (certificate.getState() == CertificateState.REJECTED) {
-                    return buildFailedResponse(new ScepException("Certificate issuance was rejected", FailInfo.BAD_REQUEST), scepRequest.getTransactionId());
+                    return buildFailedResponse(context.profile(), new ScepException("Certificate issuance was rejected", FailInfo.BAD_REQUEST), scepRequest.getTransactionId());
                 }
                 if (certificate.getState() == CertificateState.FAILED) {
-                    return buildFailedResponse(new ScepException("Certificate issuance failed", FailInfo.BAD_REQUEST), scepRequest.getTransactionId());
+                    return buildFailedResponse(context.profile(), new ScepException("Certificate issuance failed", FailInfo.BAD_REQUEST), scepRequest.getTransactionId());
                 }
 
                 if (certificate.getState().equals(CertificateState.ISSUED)) {
                     X509Certificate x509Certificate = CertificateUtil.parseCertificate(certificate.getCertificateContent().getContent());
-                    scepResponse.setCertificateChain(getIssuedCertificateChain(certificate));
+                    scepResponse.setCertificateChain(getIssuedCertificateChain(context, certificate));
                     scepResponse.setPkiStatus(PkiStatus.SUCCESS);
                     sendIntuneSuccessNotification(
                             intuneClient,
@@ -595,7 +617,7 @@ public class ScepServiceImpl implements ScepService {
             } else {
                 scepResponse.setPkiStatus(PkiStatus.PENDING);
             }
-            prepareMessage(scepRequest, scepResponse);
+            prepareMessage(context.profile(), scepRequest, scepResponse);
 
         } catch (Exception e) {
             logger.error(e.getMessage());
@@ -626,8 +648,8 @@ public class ScepServiceImpl implements ScepService {
         return certificateChain;
     }
 
-    private List<X509Certificate> getIssuedCertificateChain(Certificate certificate) throws ScepException, NotFoundException {
-        if (!this.scepProfile.isIncludeCaCertificateChain() && !this.scepProfile.isIncludeCaCertificate()) {
+    private List<X509Certificate> getIssuedCertificateChain(ScepOperationContext context, Certificate certificate) throws ScepException, NotFoundException {
+        if (!context.scepProfile().isIncludeCaCertificateChain() && !context.scepProfile().isIncludeCaCertificate()) {
             try {
                 return List.of(CertificateUtil.parseCertificate(certificate.getCertificateContent().getContent()));
             } catch (CertificateException e) {
@@ -639,11 +661,11 @@ public class ScepServiceImpl implements ScepService {
 
         logger.debug("Building the certificate chain for the response message");
         var certificateChain = loadCertificateChain(certificate);
-        if (this.scepProfile.isIncludeCaCertificateChain()) return certificateChain;
+        if (context.scepProfile().isIncludeCaCertificateChain()) return certificateChain;
         else return certificateChain.subList(0, Math.min(2, certificateChain.size()));
     }
 
-    private void prepareMessage(ScepRequest scepRequest, ScepResponse scepResponse) {
+    private void prepareMessage(ScepProfileContext context, ScepRequest scepRequest, ScepResponse scepResponse) {
         if (scepRequest == null) {
             return;
         }
@@ -651,7 +673,7 @@ public class ScepServiceImpl implements ScepService {
         // are handled when generating the attributes for the CMS signed data for the response
         scepResponse.setRecipientNonce(scepRequest.getSenderNonce());
         scepResponse.setTransactionId(scepRequest.getTransactionId());
-        scepResponse.setCaCertificate(recipient);
+        scepResponse.setCaCertificate(context.recipient());
         scepResponse.setRecipientKeyInfo(scepRequest.getRequestKeyInfo());
         scepResponse.setDigestAlgorithmOid(scepRequest.getDigestAlgorithmOid());
         scepResponse.setSenderNonce(RandomUtil.generateRandomNonceBase64(16));
@@ -662,14 +684,14 @@ public class ScepServiceImpl implements ScepService {
         return scepTransactionRepository.findByTransactionId(transactionId).orElse(null);
     }
 
-    private boolean validateScepChallengePassword(String challengePassword) {
+    private boolean validateScepChallengePassword(ScepProfile scepProfile, String challengePassword) {
         if (scepProfile.getChallengePassword() == null || scepProfile.getChallengePassword().isEmpty()) {
             return true;
         }
         return challengePassword.equals(scepProfile.getChallengePassword());
     }
 
-    public void verifyRequest(ScepRequest scepRequest) throws ScepException {
+    private void verifyRequest(ScepProfile scepProfile, ScepRequest scepRequest) throws ScepException {
 
         // Throw exception if the request type is not renewal or issuing a new certificate
         if (!scepRequest.getMessageType().equals(MessageType.RENEWAL_REQ) && !scepRequest.getMessageType().equals(MessageType.PKCS_REQ)) {
@@ -681,7 +703,7 @@ public class ScepServiceImpl implements ScepService {
             // (https://datatracker.ietf.org/doc/id/draft-nourse-scep-23.txt), RENEWAL_REQ is not part of the message type
             // Commonly used SCEP clients like JSCEP and SSCEP uses this version of RFC and
             // may use PKCS_REQ for renewal
-            renewalValidation(scepRequest);
+            renewalValidation(scepProfile, scepRequest);
             try {
                 if (!scepRequest.verifyRequest()) {
                     throw new ScepException("Failed to verify PKCS#10 request POP, invalid signature", FailInfo.BAD_REQUEST);
@@ -690,11 +712,11 @@ public class ScepServiceImpl implements ScepService {
                 throw new ScepException("Failed to verify PKCS#10 request POP", FailInfo.BAD_REQUEST);
             }
         } else if (scepRequest.getMessageType().equals(MessageType.RENEWAL_REQ)) {
-            renewalValidation(scepRequest);
+            renewalValidation(scepProfile, scepRequest);
         }
     }
 
-    private void renewalValidation(ScepRequest scepRequest) throws ScepException {
+    private void renewalValidation(ScepProfile scepProfile, ScepRequest scepRequest) throws ScepException {
         JcaPKCS10CertificationRequest pkcs10Request = scepRequest.getPkcs10Request();
         Certificate extCertificate;
         try {
@@ -716,10 +738,10 @@ public class ScepServiceImpl implements ScepService {
             throw new ScepException("Exception when verifying signature." + e.getMessage());
         }
         // No need to verify the same key pair used in request since it is already handled by the rekey method in client operations
-        checkRenewalTimeframe(extCertificate);
+        checkRenewalTimeframe(scepProfile, extCertificate);
     }
 
-    private void checkRenewalTimeframe(Certificate certificate) throws ScepException {
+    private void checkRenewalTimeframe(ScepProfile scepProfile, Certificate certificate) throws ScepException {
         // Empty renewal threshold or the value 0 will be considered as null value and the half life of the certificate will be assumed
         if (scepProfile.getRenewalThreshold() == null || scepProfile.getRenewalThreshold() == 0) {
             // If the renewal timeframe is not given, we consider that renewal is possible only after the certificate
@@ -736,7 +758,7 @@ public class ScepServiceImpl implements ScepService {
         }
     }
 
-    private Properties getIntuneConfiguration() {
+    private Properties getIntuneConfiguration(ScepProfile scepProfile) {
         // Create the properties based on the SCEP profile Intune properties
         Properties configProperties = new Properties();
         configProperties.put("AAD_APP_ID", scepProfile.getIntuneApplicationId());
@@ -810,4 +832,7 @@ public class ScepServiceImpl implements ScepService {
             logger.error("Unable to update Intune because the client is not available.");
         }
     }
+
+    private record ScepOperationContext(ScepProfileContext profile, ScepProfile scepProfile, RaProfile raProfile) {
+    }
 }
@@ -0,0 +1,152 @@
+package com.czertainly.core.statistics;
+
+import com.czertainly.core.dao.entity.Certificate;
+import com.czertainly.core.dao.entity.Group;
+import com.czertainly.core.dao.entity.GroupAssociation;
+import com.czertainly.core.dao.entity.RaProfile;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * Propagates committed changes of certificates and their group associations to {@link CertificateStatisticsStore}.
+ * Changes of RA profiles and groups invalidate their names cached by the store.
+ * Listener is registered only when materialized statistics are enabled.
+ */
+@Component
+public class CertificateStatisticsListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private static final String NOT_AFTER_PROPERTY = "notAfter";
+
+    private EntityManagerFactory entityManagerFactory;
+    private CertificateStatisticsStore certificateStatisticsStore;
+
+    @Autowired
+    public void setEntityManagerFactory(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Autowired
+    public void setCertificateStatisticsStore(CertificateStatisticsStore certificateStatisticsStore) {
+        this.certificateStatisticsStore = certificateStatisticsStore;
+    }
+
+    @PostConstruct
+    public void registerListener() {
+        if (!certificateStatisticsStore.isEnabled()) return;
+
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        Class<?> mappedClass = persister.getMappedClass();
+        return Certificate.class.equals(mappedClass) || GroupAssociation.class.equals(mappedClass) || isNamedEntity(persister);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (isNamedEntity(event.getPersister())) {
+            certificateStatisticsStore.markNamesStale();
+            return;
+        }
+        if (isGroupAssociation(event.getPersister())) {
+            certificateStatisticsStore.markGroupsStale();
+            return;
+        }
+        updateStatistics(event.getPersister(), event.getState(), 1);
+        // new certificate is not member of any group yet
+        certificateStatisticsStore.markGroupsStale();
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (isNamedEntity(event.getPersister())) {
+            certificateStatisticsStore.markNamesStale();
+            return;
+        }
+        if (isGroupAssociation(event.getPersister())) {
+            certificateStatisticsStore.markGroupsStale();
+            return;
+        }
+        if (event.getOldState() == null) {
+            // previous state is unknown for detached entities merged without loading, aggregates need to be recomputed
+            certificateStatisticsStore.markStale();
+            return;
+        }
+        updateStatistics(event.getPersister(), event.getOldState(), -1);
+        updateStatistics(event.getPersister(), event.getState(), 1);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (isNamedEntity(event.getPersister())) {
+            certificateStatisticsStore.markNamesStale();
+            return;
+        }
+        if (isGroupAssociation(event.getPersister())) {
+            certificateStatisticsStore.markGroupsStale();
+            return;
+        }
+        updateStatistics(event.getPersister(), event.getDeletedState(), -1);
+        certificateStatisticsStore.markGroupsStale();
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // nothing was committed, aggregates are unchanged
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // nothing was committed, aggregates are unchanged
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // nothing was committed, aggregates are unchanged
+    }
+
+    private static boolean isGroupAssociation(EntityPersister persister) {
+        return GroupAssociation.class.equals(persister.getMappedClass());
+    }
+
+    private static boolean isNamedEntity(EntityPersister persister) {
+        Class<?> mappedClass = persister.getMappedClass();
+        return RaProfile.class.equals(mappedClass) || Group.class.equals(mappedClass);
+    }
+
+    private void updateStatistics(EntityPersister persister, Object[] state, int delta) {
+        if (state == null) {
+            certificateStatisticsStore.markStale();
+            return;
+        }
+
+        String[] propertyNames = persister.getPropertyNames();
+        CertificateStatisticsStore.StatisticsDimension[] dimensions = CertificateStatisticsStore.StatisticsDimension.values();
+        Object[] dimensionValues = new Object[dimensions.length];
+        for (CertificateStatisticsStore.StatisticsDimension dimension : dimensions) {
+            dimensionValues[dimension.ordinal()] = state[indexOf(propertyNames, dimension.getPropertyName())];
+        }
+        certificateStatisticsStore.update(dimensionValues, (Date) state[indexOf(propertyNames, NOT_AFTER_PROPERTY)], delta);
+    }
+
+    private static int indexOf(String[] propertyNames, String propertyName) {
+        int index = Arrays.asList(propertyNames).indexOf(propertyName);
+        if (index < 0) {
+            throw new IllegalStateException("Property " + propertyName + " of certificate entity is not mapped");
+        }
+        return index;
+    }
+}
@@ -0,0 +1,418 @@
+package com.czertainly.core.statistics;
+
+import com.czertainly.api.model.client.dashboard.StatisticsDto;
+import com.czertainly.api.model.common.enums.IPlatformEnum;
+import com.czertainly.core.dao.entity.Group;
+import com.czertainly.core.dao.entity.RaProfile;
+import com.czertainly.core.dao.repository.CertificateRepository;
+import com.czertainly.core.dao.repository.GroupRepository;
+import com.czertainly.core.dao.repository.RaProfileRepository;
+import com.czertainly.core.security.authz.SecurityResourceFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory aggregates of certificate statistics shown on dashboard, kept separately for each RA profile so that
+ * statistics can be served also to users with access restricted to some RA profiles. Aggregates are updated
+ * incrementally from committed changes of certificates and periodically reconciled with database to correct drift
+ * caused by bulk updates. Changes committed while reconciliation is running are applied on top of the reconciled
+ * snapshot. Membership of certificates in groups is recounted only when group associations change. Expiry of certificates
+ * is aggregated by day of notAfter, so certificates expiring today are counted as expiring in the first period even
+ * after their notAfter passed. Names of RA profiles and groups are cached and reloaded only after their change.
+ * <p>
+ * Aggregates are local to the instance. Changes done by other instances are reflected only after next
+ * reconciliation, so with multiple instances the statistics can be stale up to the reconcile interval.
+ */
+@Component
+public class CertificateStatisticsStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(CertificateStatisticsStore.class);
+
+    private static final String UNASSIGNED = "Unassigned";
+    private static final int[] EXPIRY_BUCKET_DAYS = {10, 20, 30, 60, 90};
+
+    private final boolean enabled;
+    private final Object reconcileLock = new Object();
+
+    private CertificateRepository certificateRepository;
+    private RaProfileRepository raProfileRepository;
+    private GroupRepository groupRepository;
+
+    private boolean initialized;
+    private boolean groupsStale = true;
+    // aggregates by RA profile UUID, certificates without RA profile are under null key
+    private Map<UUID, ProfileStatistics> profileStatistics = new HashMap<>();
+    // number of certificates by RA profile UUID and group UUID, certificates without group are under null group UUID
+    private Map<UUID, Map<UUID, Long>> groupCounts = Map.of();
+    private boolean namesStale = true;
+    private Map<UUID, String> raProfileNames = Map.of();
+    private Map<UUID, String> groupNames = Map.of();
+    // updates committed while reconciliation is running, null when no reconciliation is running
+    private List<PendingUpdate> pendingUpdates;
+    private boolean staleDuringReconcile;
+
+    public CertificateStatisticsStore(@Value("${certificate.statistics.materialized.enabled:false}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Autowired
+    public void setCertificateRepository(CertificateRepository certificateRepository) {
+        this.certificateRepository = certificateRepository;
+    }
+
+    @Autowired
+    public void setRaProfileRepository(RaProfileRepository raProfileRepository) {
+        this.raProfileRepository = raProfileRepository;
+    }
+
+    @Autowired
+    public void setGroupRepository(GroupRepository groupRepository) {
+        this.groupRepository = groupRepository;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Update aggregates by certificate that was created, deleted or is counted in updated state
+     *
+     * @param dimensionValues values of statistics dimensions in order of {@link StatisticsDimension}
+     * @param notAfter        notAfter of the certificate
+     * @param delta           1 when certificate was added, -1 when it was removed
+     */
+    public synchronized void update(Object[] dimensionValues, Date notAfter, int delta) {
+        if (pendingUpdates != null) {
+            pendingUpdates.add(new PendingUpdate(dimensionValues, notAfter, delta));
+        }
+        if (initialized) {
+            applyUpdate(profileStatistics, dimensionValues, notAfter, delta);
+        }
+    }
+
+    public synchronized void markGroupsStale() {
+        groupsStale = true;
+    }
+
+    public synchronized void markNamesStale() {
+        namesStale = true;
+    }
+
+    public synchronized void markStale() {
+        initialized = false;
+        if (pendingUpdates != null) {
+            staleDuringReconcile = true;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${certificate.statistics.materialized.reconcile-interval:1800}", timeUnit = TimeUnit.SECONDS)
+    public void scheduledReconcile() {
+        if (enabled && isInitialized()) {
+            reconcile();
+        }
+    }
+
+    /**
+     * Recompute all aggregates from database. Updates committed while the aggregates are being recomputed are applied
+     * to the recomputed aggregates before they replace the current ones.
+     */
+    public void reconcile() {
+        synchronized (reconcileLock) {
+            synchronized (this) {
+                pendingUpdates = new ArrayList<>();
+                staleDuringReconcile = false;
+            }
+            try {
+                long start = System.nanoTime();
+                Map<UUID, ProfileStatistics> newProfileStatistics = new HashMap<>();
+                for (Object[] row : certificateRepository.countGroupedByStatisticsDimensions()) {
+                    long count = (Long) row[row.length - 1];
+                    ProfileStatistics statistics = newProfileStatistics.computeIfAbsent((UUID) row[StatisticsDimension.RA_PROFILE.ordinal()], k -> new ProfileStatistics());
+                    statistics.totalCertificates += count;
+                    for (StatisticsDimension dimension : StatisticsDimension.values()) {
+                        statistics.dimensionCounts.computeIfAbsent(dimension, k -> new HashMap<>()).merge(row[dimension.ordinal()], count, Long::sum);
+                    }
+                }
+                for (Object[] row : certificateRepository.countGroupedByRaProfileAndNotAfterDate()) {
+                    LocalDate notAfterDate = (LocalDate) row[1];
+                    newProfileStatistics.computeIfAbsent((UUID) row[0], k -> new ProfileStatistics())
+                            .notAfterCounts.merge(notAfterDate == null ? null : notAfterDate.toEpochDay(), (Long) row[2], Long::sum);
+                }
+                Map<UUID, Map<UUID, Long>> newGroupCounts = countGroups();
+
+                synchronized (this) {
+                    for (PendingUpdate pendingUpdate : pendingUpdates) {
+                        applyUpdate(newProfileStatistics, pendingUpdate.dimensionValues(), pendingUpdate.notAfter(), pendingUpdate.delta());
+                    }
+                    profileStatistics = newProfileStatistics;
+                    groupCounts = newGroupCounts;
+                    groupsStale = false;
+                    initialized = !staleDuringReconcile;
+                }
+                logger.debug("Certificate statistics reconciled in {} ms", (System.nanoTime() - start) / 1_000_000L);
+            } finally {
+                synchronized (this) {
+                    pendingUpdates = null;
+                }
+            }
+        }
+    }
+
+    public long getTotalCertificates() {
+        return getTotalCertificates(null);
+    }
+
+    /**
+     * Get number of certificates in RA profiles permitted by the filter
+     *
+     * @param raProfileFilter security filter of RA profiles, null when access to RA profiles is not restricted
+     * @return number of certificates
+     */
+    public long getTotalCertificates(SecurityResourceFilter raProfileFilter) {
+        ensureInitialized();
+        synchronized (this) {
+            long total = 0;
+            for (Map.Entry<UUID, ProfileStatistics> entry : profileStatistics.entrySet()) {
+                if (isPermitted(raProfileFilter, entry.getKey())) {
+                    total += entry.getValue().totalCertificates;
+                }
+            }
+            return total;
+        }
+    }
+
+    public StatisticsDto fillStatistics(StatisticsDto dto) {
+        return fillStatistics(dto, null, null);
+    }
+
+    public StatisticsDto fillStatistics(StatisticsDto dto, SecurityResourceFilter raProfileFilter) {
+        return fillStatistics(dto, raProfileFilter, null);
+    }
+
+    /**
+     * Fill certificate statistics of dashboard from aggregates of RA profiles permitted by the filter, statistics
+     * by groups contain only groups permitted by the group filter
+     *
+     * @param dto             statistics DTO to fill
+     * @param raProfileFilter security filter of RA profiles, null when access to RA profiles is not restricted
+     * @param groupFilter     security filter of groups, null when access to groups is not restricted
+     * @return filled statistics DTO
+     */
+    public StatisticsDto fillStatistics(StatisticsDto dto, SecurityResourceFilter raProfileFilter, SecurityResourceFilter groupFilter) {
+        ensureInitialized();
+        boolean refreshGroups;
+        boolean refreshNames;
+        synchronized (this) {
+            refreshGroups = groupsStale;
+            refreshNames = namesStale;
+        }
+        if (refreshGroups) {
+            Map<UUID, Map<UUID, Long>> newGroupCounts = countGroups();
+            synchronized (this) {
+                groupCounts = newGroupCounts;
+                groupsStale = false;
+            }
+        }
+        if (refreshNames) {
+            loadNames();
+        }
+
+        ProfileStatistics statistics = new ProfileStatistics();
+        Map<String, Long> permittedGroupCounts = new HashMap<>();
+        Map<UUID, String> profileNames;
+        synchronized (this) {
+            for (Map.Entry<UUID, ProfileStatistics> entry : profileStatistics.entrySet()) {
+                if (isPermitted(raProfileFilter, entry.getKey())) {
+                    statistics.add(entry.getValue());
+                }
+            }
+            for (Map.Entry<UUID, Map<UUID, Long>> entry : groupCounts.entrySet()) {
+                if (!isPermitted(raProfileFilter, entry.getKey())) continue;
+                for (Map.Entry<UUID, Long> groupCount : entry.getValue().entrySet()) {
+                    UUID groupUuid = groupCount.getKey();
+                    // certificates without group are not restricted by group permissions
+                    if (groupUuid == null || isPermitted(groupFilter, groupUuid)) {
+                        String groupName = groupUuid == null ? UNASSIGNED : groupNames.getOrDefault(groupUuid, groupUuid.toString());
+                        permittedGroupCounts.merge(groupName, groupCount.getValue(), Long::sum);
+                    }
+                }
+            }
+            profileNames = raProfileNames;
+        }
+
+        dto.setCertificateStatByKeySize(mapDimension(statistics, StatisticsDimension.KEY_SIZE, null));
+        dto.setCertificateStatByType(mapDimension(statistics, StatisticsDimension.CERTIFICATE_TYPE, null));
+        dto.setCertificateStatBySubjectType(mapDimension(statistics, StatisticsDimension.SUBJECT_TYPE, null));
+        dto.setCertificateStatByState(mapDimension(statistics, StatisticsDimension.STATE, null));
+        dto.setCertificateStatByValidationStatus(mapDimension(statistics, StatisticsDimension.VALIDATION_STATUS, null));
+        dto.setCertificateStatByComplianceStatus(mapDimension(statistics, StatisticsDimension.COMPLIANCE_STATUS, null));
+        dto.setRaProfileStatByCertificateCount(mapDimension(statistics, StatisticsDimension.RA_PROFILE, profileNames));
+        dto.setGroupStatByCertificateCount(permittedGroupCounts);
+        dto.setCertificateStatByExpiry(countByExpiry(statistics.notAfterCounts));
+        return dto;
+    }
+
+    private synchronized boolean isInitialized() {
+        return initialized;
+    }
+
+    private void ensureInitialized() {
+        if (!isInitialized()) {
+            reconcile();
+        }
+    }
+
+    /**
+     * Check whether object is permitted by the filter, same as security filter predicate on object UUID,
+     * i.e. certificates without RA profile are permitted only when access is not restricted
+     */
+    private static boolean isPermitted(SecurityResourceFilter resourceFilter, UUID objectUuid) {
+        if (resourceFilter == null || (!resourceFilter.areOnlySpecificObjectsAllowed() && resourceFilter.getForbiddenObjects().isEmpty())) {
+            return true;
+        }
+        if (objectUuid == null) {
+            return false;
+        }
+        return resourceFilter.areOnlySpecificObjectsAllowed() ? resourceFilter.getAllowedObjects().contains(objectUuid) : !resourceFilter.getForbiddenObjects().contains(objectUuid);
+    }
+
+    private Map<UUID, Map<UUID, Long>> countGroups() {
+        Map<UUID, Map<UUID, Long>> result = new HashMap<>();
+        for (Object[] row : certificateRepository.countGroupedByRaProfileAndGroup()) {
+            result.computeIfAbsent((UUID) row[0], k -> new HashMap<>()).merge((UUID) row[1], (Long) row[2], Long::sum);
+        }
+        return result;
+    }
+
+    private void loadNames() {
+        Map<UUID, String> newRaProfileNames = new HashMap<>();
+        for (RaProfile raProfile : raProfileRepository.findAll()) {
+            newRaProfileNames.put(raProfile.getUuid(), raProfile.getName());
+        }
+        Map<UUID, String> newGroupNames = new HashMap<>();
+        for (Group group : groupRepository.findAll()) {
+            newGroupNames.put(group.getUuid(), group.getName());
+        }
+        synchronized (this) {
+            raProfileNames = newRaProfileNames;
+            groupNames = newGroupNames;
+            namesStale = false;
+        }
+    }
+
+    private static void applyUpdate(Map<UUID, ProfileStatistics> statisticsByProfile, Object[] dimensionValues, Date notAfter, int delta) {
+        ProfileStatistics statistics = statisticsByProfile.computeIfAbsent((UUID) dimensionValues[StatisticsDimension.RA_PROFILE.ordinal()], k -> new ProfileStatistics());
+        statistics.totalCertificates += delta;
+        for (StatisticsDimension dimension : StatisticsDimension.values()) {
+            statistics.dimensionCounts.computeIfAbsent(dimension, k -> new HashMap<>()).merge(dimensionValues[dimension.ordinal()], (long) delta, Long::sum);
+        }
+        statistics.notAfterCounts.merge(toEpochDay(notAfter), (long) delta, Long::sum);
+    }
+
+    /**
+     * Day of notAfter in time zone used for timestamps stored in database, same as the date of notAfter computed by database
+     */
+    private static Long toEpochDay(Date notAfter) {
+        return notAfter == null ? null : LocalDate.ofInstant(notAfter.toInstant(), ZoneId.systemDefault()).toEpochDay();
+    }
+
+    private static Map<String, Long> mapDimension(ProfileStatistics statistics, StatisticsDimension dimension, Map<UUID, String> names) {
+        Map<String, Long> result = new HashMap<>();
+        for (Map.Entry<Object, Long> entry : statistics.dimensionCounts.getOrDefault(dimension, Map.of()).entrySet()) {
+            if (entry.getValue() <= 0) continue;
+            Object value = entry.getKey();
+            String key;
+            if (value == null) {
+                key = UNASSIGNED;
+            } else if (names != null) {
+                key = names.getOrDefault(value, value.toString());
+            } else if (value instanceof IPlatformEnum platformEnum) {
+                key = platformEnum.getCode();
+            } else {
+                key = value.toString();
+            }
+            result.merge(key, entry.getValue(), Long::sum);
+        }
+        return result;
+    }
+
+    private static Map<String, Long> countByExpiry(TreeMap<Long, Long> notAfterCounts) {
+        long today = LocalDate.now().toEpochDay();
+        Map<String, Long> result = new HashMap<>();
+
+        long expired = notAfterCounts.getOrDefault(null, 0L) + sum(notAfterCounts.subMap(Long.MIN_VALUE, true, today, false));
+        long lastBucketEnd = today;
+        boolean lastBucketInclusive = false;
+        for (int days : EXPIRY_BUCKET_DAYS) {
+            long bucketEnd = today + days;
+            putIfPositive(result, String.valueOf(days), sum(notAfterCounts.subMap(lastBucketEnd, !lastBucketInclusive, bucketEnd, true)));
+            lastBucketEnd = bucketEnd;
+            lastBucketInclusive = true;
+        }
+        putIfPositive(result, "More", sum(notAfterCounts.tailMap(lastBucketEnd, false)));
+        putIfPositive(result, "Expired", expired);
+        return result;
+    }
+
+    private static long sum(SortedMap<Long, Long> counts) {
+        return counts.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    private static void putIfPositive(Map<String, Long> result, String key, long count) {
+        if (count > 0) {
+            result.put(key, count);
+        }
+    }
+
+    /**
+     * Certificate properties aggregated in statistics, order corresponds to columns returned by
+     * {@link CertificateRepository#countGroupedByStatisticsDimensions()}
+     */
+    public enum StatisticsDimension {
+        KEY_SIZE("keySize"),
+        CERTIFICATE_TYPE("certificateType"),
+        SUBJECT_TYPE("subjectType"),
+        STATE("state"),
+        VALIDATION_STATUS("validationStatus"),
+        COMPLIANCE_STATUS("complianceStatus"),
+        RA_PROFILE("raProfileUuid");
+
+        private final String propertyName;
+
+        StatisticsDimension(String propertyName) {
+            this.propertyName = propertyName;
+        }
+
+        public String getPropertyName() {
+            return propertyName;
+        }
+    }
+
+    private static class ProfileStatistics {
+        private long totalCertificates;
+        private final Map<StatisticsDimension, Map<Object, Long>> dimensionCounts = new EnumMap<>(StatisticsDimension.class);
+        // number of certificates by epoch day of their notAfter, certificates without notAfter are under null key
+        private final TreeMap<Long, Long> notAfterCounts = new TreeMap<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+
+        private void add(ProfileStatistics other) {
+            totalCertificates += other.totalCertificates;
+            other.dimensionCounts.forEach((dimension, counts) -> {
+                Map<Object, Long> merged = dimensionCounts.computeIfAbsent(dimension, k -> new HashMap<>());
+                counts.forEach((value, count) -> merged.merge(value, count, Long::sum));
+            });
+            other.notAfterCounts.forEach((notAfter, count) -> notAfterCounts.merge(notAfter, count, Long::sum));
+        }
+    }
+
+    private record PendingUpdate(Object[] dimensionValues, Date notAfter, int delta) {
+    }
+}
@@ -0,0 +1,154 @@
+package com.czertainly.core.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Concurrency limiter adjusting its limit by AIMD (additive increase, multiplicative decrease). Limit is increased by one
+ * after number of successful tasks equal to current limit and decreased by backoff ratio when task fails, its latency
+ * exceeds tolerated multiple of the lowest observed latency or when overload of shared resource is signalled. Limit is
+ * decreased at most once per sampling window, i.e. only by tasks started after the previous decrease, so that tasks
+ * running concurrently when the congestion started do not collapse the limit to minimum.
+ * Capacity is shared fairly among keys (e.g. running discoveries), single key can hold at most its fair share of the limit
+ * when other keys are waiting.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+
+    private static final double BACKOFF_RATIO = 0.7;
+    private static final double LATENCY_TOLERANCE = 2.0;
+    // lowest observed latency slowly drifts up, so that limiter adapts to permanently slower resources
+    private static final double BASELINE_DRIFT = 1.01;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final BooleanSupplier overloaded;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = lock.newCondition();
+    private final Map<Object, KeyState> keys = new HashMap<>();
+
+    // written under lock, volatile so that current limit can be read without lock
+    private volatile double limit;
+    private int inFlight;
+    private int successesSinceIncrease;
+    private long baselineLatencyNanos = Long.MAX_VALUE;
+    private long lastDecreaseNanos;
+
+    /**
+     * @param name         name of the limiter used in logs
+     * @param minLimit     minimal concurrency
+     * @param maxLimit     maximal concurrency
+     * @param initialLimit initial concurrency
+     * @param overloaded   signal of overloaded shared resource, e.g. exhausted database connection pool, can be null
+     */
+    public AdaptiveConcurrencyLimiter(String name, int minLimit, int maxLimit, int initialLimit, BooleanSupplier overloaded) {
+        this.name = name;
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.clamp(initialLimit, this.minLimit, this.maxLimit);
+        this.overloaded = overloaded;
+        this.lastDecreaseNanos = System.nanoTime();
+    }
+
+    /**
+     * Acquire permit for key, waits until there is free capacity and the key does not exceed its fair share
+     *
+     * @param key key the task belongs to
+     */
+    public void acquire(Object key) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            KeyState keyState = keys.computeIfAbsent(key, k -> new KeyState());
+            ++keyState.waiting;
+            try {
+                while (inFlight >= getLimit() || keyState.inFlight >= fairShare()) {
+                    permitReleased.await();
+                }
+            } finally {
+                --keyState.waiting;
+                if (keyState.isIdle()) keys.remove(key);
+            }
+            ++keyState.inFlight;
+            keys.putIfAbsent(key, keyState);
+            ++inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Release permit acquired for key and adjust limit by result of the task
+     *
+     * @param key          key the task belongs to
+     * @param latencyNanos duration of the task
+     * @param success      if task finished successfully
+     */
+    public void release(Object key, long latencyNanos, boolean success) {
+        boolean overload = overloaded != null && overloaded.getAsBoolean();
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            KeyState keyState = keys.get(key);
+            if (keyState != null) {
+                --keyState.inFlight;
+                if (keyState.isIdle()) keys.remove(key);
+            }
+            --inFlight;
+
+            if (success) {
+                baselineLatencyNanos = Math.min((long) (baselineLatencyNanos * BASELINE_DRIFT), latencyNanos);
+            }
+            if (!success || overload || latencyNanos > baselineLatencyNanos * LATENCY_TOLERANCE) {
+                successesSinceIncrease = 0;
+                // task started before previous decrease already experienced congestion reflected by that decrease
+                if (now - latencyNanos - lastDecreaseNanos >= 0) {
+                    double previousLimit = limit;
+                    limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                    lastDecreaseNanos = now;
+                    if (getLimit() != (int) previousLimit) {
+                        logger.debug("Concurrency limit of {} decreased to {} (success: {}, overload: {}, latency: {} ms)", name, getLimit(), success, overload, TimeUnit.NANOSECONDS.toMillis(latencyNanos));
+                    }
+                }
+            } else if (++successesSinceIncrease >= getLimit() && limit < maxLimit) {
+                limit = Math.min(maxLimit, limit + 1);
+                successesSinceIncrease = 0;
+                logger.trace("Concurrency limit of {} increased to {}", name, getLimit());
+            }
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    private int fairShare() {
+        long activeKeys = keys.values().stream().filter(k -> k.inFlight > 0 || k.waiting > 0).count();
+        return (int) Math.max(1, Math.ceil(limit / Math.max(1, activeKeys)));
+    }
+
+    private static class KeyState {
+        private int inFlight;
+        private int waiting;
+
+        private boolean isIdle() {
+            return inFlight == 0 && waiting == 0;
+        }
+    }
+}
@@ -1,24 +1,25 @@
 package com.czertainly.core.util;
 
-import org.bouncycastle.asn1.ASN1InputStream;
-import org.bouncycastle.asn1.ASN1Primitive;
-import org.bouncycastle.asn1.DERIA5String;
-import org.bouncycastle.asn1.DEROctetString;
+import org.bouncycastle.asn1.*;
+import org.bouncycastle.asn1.x500.X500Name;
 import org.bouncycastle.asn1.x509.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayInputStream;
-import java.io.DataInputStream;
-import java.io.IOException;
+import java.io.*;
+import java.math.BigInteger;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.cert.CRLException;
 import java.security.cert.CertificateException;
 import java.security.cert.CertificateFactory;
 import java.security.cert.X509CRL;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class CrlUtil {
     private static final Logger logger = LoggerFactory.getLogger(CrlUtil.class);
@@ -65,7 +66,7 @@ public class CrlUtil {
         return crlUrls;
     }
 
-    public static X509CRL getX509Crl(String crlUrl) throws Exception {
+    public static X509CRL getX509Crl(String crlUrl, RevocationHttpClient httpClient) throws Exception {
         CertificateFactory cf = CertificateFactory.getInstance("X509");
 
         // Handle ldap protocol
@@ -74,6 +75,13 @@ public class CrlUtil {
             if (crl == null) throw new Exception("Crl not available in LDAP.");
             return (X509CRL) cf.generateCRL(new ByteArrayInputStream(crl));
         }
+        if (crlUrl.startsWith("http")) {
+            try {
+                return (X509CRL) cf.generateCRL(new ByteArrayInputStream(httpClient.getCrl(crlUrl)));
+            } catch (CRLException e) {
+                throw new CertificateException("File " + e.getMessage() + " not found");
+            }
+        }
         X509CRL X509Crl;
         URL url = new URL(crlUrl);
         URLConnection connection = url.openConnection();
@@ -87,4 +95,149 @@ public class CrlUtil {
         return X509Crl;
     }
 
+    /**
+     * Download CRL from URL into temporary file without loading its content into memory.
+     * Caller is responsible for deleting the returned file.
+     *
+     * @param crlUrl     URL of the CRL (HTTP or LDAP)
+     * @param httpClient HTTP client used to download CRL from HTTP URL
+     * @return path to temporary file with downloaded CRL
+     */
+    public static Path downloadX509CrlToFile(String crlUrl, RevocationHttpClient httpClient) throws Exception {
+        Path crlFile = Files.createTempFile("crl-", ".crl");
+        try {
+            // Handle ldap protocol
+            if (crlUrl.startsWith("ldap")) {
+                byte[] crl = LdapUtils.downloadFromLdap(crlUrl);
+                if (crl == null) throw new Exception("Crl not available in LDAP.");
+                Files.write(crlFile, crl);
+                return crlFile;
+            }
+
+            if (crlUrl.startsWith("http")) {
+                httpClient.downloadCrl(crlUrl, crlFile);
+                return crlFile;
+            }
+
+            URL url = new URL(crlUrl);
+            URLConnection connection = url.openConnection();
+            connection.setConnectTimeout(CRL_CONNECTION_TIMEOUT);
+            try (InputStream inStream = connection.getInputStream(); OutputStream outStream = Files.newOutputStream(crlFile)) {
+                inStream.transferTo(outStream);
+            }
+            return crlFile;
+        } catch (Exception e) {
+            Files.deleteIfExists(crlFile);
+            throw e;
+        }
+    }
+
+    /**
+     * Check if the downloaded CRL is DER encoded, PEM encoded CRLs cannot be parsed in streaming way
+     *
+     * @param crlFile path to file with CRL
+     * @return true if file starts with ASN.1 SEQUENCE tag
+     */
+    public static boolean isDerEncoded(Path crlFile) throws IOException {
+        try (InputStream inStream = Files.newInputStream(crlFile)) {
+            return inStream.read() == (BERTags.SEQUENCE | BERTags.CONSTRUCTED);
+        }
+    }
+
+    public static X509CRL getX509Crl(Path crlFile) throws CertificateException, IOException {
+        CertificateFactory cf = CertificateFactory.getInstance("X509");
+        try (InputStream inStream = new BufferedInputStream(Files.newInputStream(crlFile))) {
+            return (X509CRL) cf.generateCRL(inStream);
+        } catch (CRLException e) {
+            throw new CertificateException("Unable to parse CRL: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Parse DER encoded CRL incrementally. Revoked certificate entries are passed one by one to the entry consumer
+     * and are never held in memory together. Signature of the CRL is not verified.
+     *
+     * @param crlFile       path to file with DER encoded CRL
+     * @param entryConsumer consumer of revoked certificate entries, if null, entries are skipped
+     * @return information from CRL TBS structure except revoked certificates
+     */
+    public static StreamedCrlInfo parseX509CrlStreaming(Path crlFile, Consumer<TBSCertList.CRLEntry> entryConsumer) throws IOException {
+        try (InputStream inStream = new BufferedInputStream(Files.newInputStream(crlFile))) {
+            ASN1StreamParser parser = new ASN1StreamParser(inStream);
+            ASN1SequenceParser certificateList = getSequenceParser(parser.readObject(), "CertificateList");
+            ASN1SequenceParser tbsCertList = getSequenceParser(certificateList.readObject(), "TBSCertList");
+
+            ASN1Encodable element = tbsCertList.readObject();
+            // optional version
+            if (element instanceof ASN1Integer) element = tbsCertList.readObject();
+            // signature algorithm identifier, read it fully to move to next element
+            AlgorithmIdentifier.getInstance(requireElement(element, "signature").toASN1Primitive());
+            X500Name issuer = X500Name.getInstance(requireElement(tbsCertList.readObject(), "issuer").toASN1Primitive());
+            Date thisUpdate = Time.getInstance(requireElement(tbsCertList.readObject(), "thisUpdate").toASN1Primitive()).getDate();
+
+            Date nextUpdate = null;
+            element = tbsCertList.readObject();
+            if (element instanceof ASN1UTCTime || element instanceof ASN1GeneralizedTime) {
+                nextUpdate = Time.getInstance(element).getDate();
+                element = tbsCertList.readObject();
+            }
+
+            long entriesCount = 0;
+            if (element instanceof ASN1SequenceParser revokedCertificates) {
+                ASN1Encodable entry;
+                while ((entry = revokedCertificates.readObject()) != null) {
+                    TBSCertList.CRLEntry crlEntry = TBSCertList.CRLEntry.getInstance(entry.toASN1Primitive());
+                    if (entryConsumer != null) entryConsumer.accept(crlEntry);
+                    ++entriesCount;
+                }
+                element = tbsCertList.readObject();
+            }
+
+            Extensions crlExtensions = null;
+            if (element != null) {
+                crlExtensions = Extensions.getInstance(ASN1TaggedObject.getInstance(element.toASN1Primitive()), true);
+            }
+
+            return new StreamedCrlInfo(issuer, thisUpdate, nextUpdate, getExtensionIntegerValue(crlExtensions, Extension.cRLNumber), getExtensionIntegerValue(crlExtensions, Extension.deltaCRLIndicator), entriesCount);
+        }
+    }
+
+    /**
+     * Get revocation reason code of CRL entry
+     *
+     * @param crlEntry CRL entry
+     * @return revocation reason from reasonCode extension or null when extension is not present
+     */
+    public static java.security.cert.CRLReason getRevocationReason(TBSCertList.CRLEntry crlEntry) {
+        Extensions entryExtensions = crlEntry.getExtensions();
+        if (entryExtensions == null) return null;
+        Extension reasonCode = entryExtensions.getExtension(Extension.reasonCode);
+        if (reasonCode == null) return null;
+
+        int reason = CRLReason.getInstance(reasonCode.getParsedValue()).getValue().intValue();
+        java.security.cert.CRLReason[] reasons = java.security.cert.CRLReason.values();
+        return reason >= 0 && reason < reasons.length ? reasons[reason] : java.security.cert.CRLReason.UNSPECIFIED;
+    }
+
+    private static ASN1SequenceParser getSequenceParser(ASN1Encodable element, String name) throws IOException {
+        if (element instanceof ASN1SequenceParser sequenceParser) return sequenceParser;
+        throw new IOException("Invalid CRL structure, expected " + name + " sequence");
+    }
+
+    private static ASN1Encodable requireElement(ASN1Encodable element, String name) throws IOException {
+        if (element == null) throw new IOException("Invalid CRL structure, missing " + name);
+        return element;
+    }
+
+    private static String getExtensionIntegerValue(Extensions extensions, ASN1ObjectIdentifier extensionOid) {
+        if (extensions == null) return null;
+        Extension extension = extensions.getExtension(extensionOid);
+        if (extension == null) return null;
+        BigInteger value = ASN1Integer.getInstance(extension.getParsedValue()).getValue();
+        return value.toString();
+    }
+
+    public record StreamedCrlInfo(X500Name issuer, Date thisUpdate, Date nextUpdate, String crlNumber, String deltaCrlIndicator, long entriesCount) {
+    }
+
 }
@@ -0,0 +1,86 @@
+package com.czertainly.core.util;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiPredicate;
+
+/**
+ * Simple thread-safe in-memory cache with bounded number of entries and expiration of individual entries.
+ * When the cache is full, least recently used entry is evicted.
+ *
+ * @param <K> type of cache keys
+ * @param <V> type of cached values
+ */
+public class ExpiringCache<K, V> {
+
+    private final int maxEntries;
+    private final Clock clock;
+    private final LinkedHashMap<K, CacheEntry<V>> entries;
+
+    public ExpiringCache(int maxEntries) {
+        this(maxEntries, Clock.systemUTC());
+    }
+
+    public ExpiringCache(int maxEntries, Clock clock) {
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        // access ordered map to evict least recently used entries
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+                return size() > ExpiringCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Get cached value
+     *
+     * @param key key of the entry
+     * @return cached value or null if entry is not present or is expired
+     */
+    public synchronized V get(K key) {
+        CacheEntry<V> entry = entries.get(key);
+        if (entry == null) return null;
+        if (!entry.expiresAt().isAfter(clock.instant())) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value();
+    }
+
+    public synchronized void put(K key, V value, Instant expiresAt) {
+        if (maxEntries <= 0 || !expiresAt.isAfter(clock.instant())) return;
+        entries.put(key, new CacheEntry<>(value, expiresAt));
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateIf(BiPredicate<K, V> predicate) {
+        Iterator<Map.Entry<K, CacheEntry<V>>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<K, CacheEntry<V>> entry = iterator.next();
+            if (predicate.test(entry.getKey(), entry.getValue().value())) iterator.remove();
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public Instant now() {
+        return clock.instant();
+    }
+
+    private record CacheEntry<V>(V value, Instant expiresAt) {
+    }
+}
@@ -2,8 +2,12 @@ package com.czertainly.core.util;
 
 import com.czertainly.api.model.core.certificate.CertificateValidationCheck;
 import com.czertainly.api.model.core.certificate.CertificateValidationCheckDto;
+import com.czertainly.api.model.core.certificate.CertificateValidationStatus;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import java.util.*;
 
@@ -30,21 +34,57 @@ public class MetaDefinitions {
 		}
 	}
 
-	public static String serializeValidation(Map<String, CertificateValidationCheckDto> metaData) {
+	/**
+	 * Serialize validation checks in compact form. Each check is serialized as array of its status and message keyed
+	 * by the check, e.g. {"CERTIFICATE_CHAIN":["VALID","Certificate chain is complete."]}. Serialization of the same
+	 * checks always produces the same string, so that changes of the validation result can be detected by comparison.
+	 *
+	 * @param validationChecks validation checks
+	 * @return serialized validation checks
+	 */
+	public static String serializeValidation(Map<CertificateValidationCheck, CertificateValidationCheckDto> validationChecks) {
+		ObjectNode root = OBJECT_MAPPER.createObjectNode();
+		for (Map.Entry<CertificateValidationCheck, CertificateValidationCheckDto> entry : validationChecks.entrySet()) {
+			ArrayNode check = root.putArray(entry.getKey().name());
+			check.add(entry.getValue().getStatus().name());
+			if (entry.getValue().getMessage() != null) {
+				check.add(entry.getValue().getMessage());
+			}
+		}
 		try {
-			return OBJECT_MAPPER.writeValueAsString(metaData);
+			return OBJECT_MAPPER.writeValueAsString(root);
 		} catch (Exception e) {
 			throw new IllegalStateException(e);
 		}
 	}
 
+	/**
+	 * Deserialize validation checks serialized in compact form or in full form of validation check DTOs
+	 *
+	 * @param metaJson serialized validation checks
+	 * @return validation checks
+	 */
 	public static Map<CertificateValidationCheck, CertificateValidationCheckDto> deserializeValidation(String metaJson) {
 		if (metaJson == null || metaJson.isEmpty()) {
 			return new EnumMap<>(CertificateValidationCheck.class);
 		}
 		try {
-			return OBJECT_MAPPER.readValue(metaJson, new TypeReference<>() {
-			});
+			JsonNode root = OBJECT_MAPPER.readTree(metaJson);
+			if (!isCompactValidation(root)) {
+				return OBJECT_MAPPER.readValue(metaJson, new TypeReference<>() {
+				});
+			}
+
+			Map<CertificateValidationCheck, CertificateValidationCheckDto> validationChecks = new LinkedHashMap<>();
+			Iterator<Map.Entry<String, JsonNode>> fields = root.fields();
+			while (fields.hasNext()) {
+				Map.Entry<String, JsonNode> field = fields.next();
+				CertificateValidationCheck check = CertificateValidationCheck.valueOf(field.getKey());
+				CertificateValidationStatus status = CertificateValidationStatus.valueOf(field.getValue().get(0).asText());
+				String message = field.getValue().has(1) ? field.getValue().get(1).asText() : null;
+				validationChecks.put(check, new CertificateValidationCheckDto(check, status, message));
+			}
+			return validationChecks;
 		} catch (Exception e) {
 			throw new IllegalStateException(e);
 		}
@@ -70,4 +110,9 @@ public class MetaDefinitions {
 		}
 	}
 
+	private static boolean isCompactValidation(JsonNode root) {
+		Iterator<JsonNode> checks = root.elements();
+		return checks.hasNext() && checks.next().isArray();
+	}
+
 }
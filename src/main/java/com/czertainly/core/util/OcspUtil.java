@@ -13,6 +13,7 @@ import org.bouncycastle.asn1.x509.AuthorityInformationAccess;
 import org.bouncycastle.asn1.x509.Extension;
 import org.bouncycastle.asn1.x509.Extensions;
 import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
 import org.bouncycastle.asn1.x509.X509ObjectIdentifiers;
 import org.bouncycastle.cert.jcajce.JcaX509CertificateHolder;
 import org.bouncycastle.cert.jcajce.JcaX509ExtensionUtils;
@@ -21,19 +22,17 @@ import org.bouncycastle.operator.DigestCalculator;
 import org.bouncycastle.operator.DigestCalculatorProvider;
 import org.bouncycastle.operator.OperatorException;
 import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+import org.bouncycastle.util.encoders.Hex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.math.BigInteger;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateEncodingException;
 import java.security.cert.X509Certificate;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 public class OcspUtil {
     private static final Logger logger = LoggerFactory.getLogger(OcspUtil.class);
@@ -102,37 +101,117 @@ public class OcspUtil {
         return ocspUrls;
     }
 
-    public static CertificateValidationStatus checkOcsp(X509Certificate certificate, X509Certificate issuer, String serviceUrl) throws Exception {
+    public static CertificateValidationStatus checkOcsp(X509Certificate certificate, X509Certificate issuer, String serviceUrl, RevocationHttpClient httpClient) throws Exception {
+        return checkOcspWithValidity(certificate, issuer, serviceUrl, httpClient).status();
+    }
+
+    /**
+     * Check OCSP status of certificate and return also validity period of the OCSP response
+     *
+     * @param certificate certificate to check
+     * @param issuer      issuer certificate
+     * @param serviceUrl  URL of OCSP responder
+     * @param httpClient  HTTP client used to send OCSP request
+     * @return OCSP status with thisUpdate and nextUpdate of the single response
+     */
+    public static OcspCheckResult checkOcspWithValidity(X509Certificate certificate, X509Certificate issuer, String serviceUrl, RevocationHttpClient httpClient) throws Exception {
         OCSPReq request = generateOCSPRequest(issuer, certificate.getSerialNumber());
-        OCSPResp ocspResponse = getOCSPResponse(serviceUrl, request);
+        OCSPResp ocspResponse = getOCSPResponse(serviceUrl, request, httpClient);
 
         BasicOCSPResp basicResponse = (BasicOCSPResp) ocspResponse.getResponseObject();
         SingleResp[] responses = (basicResponse == null) ? null : basicResponse.getResponses();
         if (responses != null && responses.length == 1) {
             SingleResp resp = responses[0];
-            Object status = resp.getCertStatus();
-            if (status == org.bouncycastle.cert.ocsp.CertificateStatus.GOOD) {
-                return CertificateValidationStatus.VALID;
-            } else if (status instanceof RevokedStatus) {
-                return CertificateValidationStatus.REVOKED;
-            } else if (status instanceof UnknownStatus) {
-                return CertificateValidationStatus.FAILED;
-            }
+            return new OcspCheckResult(getSingleResponseStatus(resp), resp.getThisUpdate(), resp.getNextUpdate());
         } else if (OCSPResponseStatus.SUCCESSFUL != ocspResponse.getStatus()) {
             throw new IOException("OCSP Request failed with status " + ocspResponseStatuses.get(ocspResponse.getStatus()));
         }
+        return new OcspCheckResult(CertificateValidationStatus.FAILED, null, null);
+    }
+
+    /**
+     * Check OCSP status of multiple certificates of the same issuer using single OCSP request with multiple CertIDs
+     *
+     * @param certificates certificates to check, all must be issued by the issuer
+     * @param issuer       issuer certificate
+     * @param serviceUrl   URL of OCSP responder
+     * @param httpClient   HTTP client used to send OCSP request
+     * @return OCSP results mapped by certificate serial number, certificates missing in the response are not included
+     * and single responses are accepted only when their CertID matches issuer name hash, issuer key hash and serial number
+     */
+    public static Map<BigInteger, OcspCheckResult> checkOcspBatch(List<X509Certificate> certificates, X509Certificate issuer, String serviceUrl, RevocationHttpClient httpClient) throws Exception {
+        List<BigInteger> serialNumbers = certificates.stream().map(X509Certificate::getSerialNumber).toList();
+        OCSPReq request = generateOCSPRequest(issuer, serialNumbers);
+        OCSPResp ocspResponse = getOCSPResponse(serviceUrl, request, httpClient);
+        if (OCSPResponseStatus.SUCCESSFUL != ocspResponse.getStatus()) {
+            throw new IOException("OCSP Request failed with status " + ocspResponseStatuses.get(ocspResponse.getStatus()));
+        }
+
+        Map<BigInteger, OcspCheckResult> results = new HashMap<>();
+        BasicOCSPResp basicResponse = (BasicOCSPResp) ocspResponse.getResponseObject();
+        if (basicResponse == null) return results;
+
+        Set<BigInteger> requestedSerialNumbers = new HashSet<>(serialNumbers);
+        DigestCalculatorProvider digestCalculatorProvider = new JcaDigestCalculatorProviderBuilder().build();
+        JcaX509CertificateHolder issuerCertHolder = new JcaX509CertificateHolder(issuer);
+        for (SingleResp resp : basicResponse.getResponses()) {
+            CertificateID certId = resp.getCertID();
+            BigInteger serialNumber = certId.getSerialNumber();
+            // ignore responses for certificates that were not requested, issuer hashes are computed by hash algorithm of the response
+            if (requestedSerialNumbers.contains(serialNumber) && certId.matchesIssuer(issuerCertHolder, digestCalculatorProvider)) {
+                results.put(serialNumber, new OcspCheckResult(getSingleResponseStatus(resp), resp.getThisUpdate(), resp.getNextUpdate()));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Compute hash of issuer distinguished name as used in OCSP CertID
+     *
+     * @param issuer issuer certificate
+     * @return hex encoded SHA-1 hash of DER encoded issuer subject name
+     */
+    public static String getIssuerNameHash(X509Certificate issuer) throws NoSuchAlgorithmException {
+        return Hex.toHexString(MessageDigest.getInstance("SHA-1").digest(issuer.getSubjectX500Principal().getEncoded()));
+    }
+
+    /**
+     * Compute hash of issuer public key as used in OCSP CertID
+     *
+     * @param issuer issuer certificate
+     * @return hex encoded SHA-1 hash of issuer public key
+     */
+    public static String getIssuerKeyHash(X509Certificate issuer) throws NoSuchAlgorithmException {
+        byte[] publicKeyData = SubjectPublicKeyInfo.getInstance(issuer.getPublicKey().getEncoded()).getPublicKeyData().getBytes();
+        return Hex.toHexString(MessageDigest.getInstance("SHA-1").digest(publicKeyData));
+    }
+
+    private static CertificateValidationStatus getSingleResponseStatus(SingleResp resp) {
+        Object status = resp.getCertStatus();
+        if (status == org.bouncycastle.cert.ocsp.CertificateStatus.GOOD) {
+            return CertificateValidationStatus.VALID;
+        } else if (status instanceof RevokedStatus) {
+            return CertificateValidationStatus.REVOKED;
+        }
         return CertificateValidationStatus.FAILED;
     }
 
     private static OCSPReq generateOCSPRequest(X509Certificate issuerCert, BigInteger serialNumber)
             throws OCSPException, OperatorException, CertificateEncodingException {
+        return generateOCSPRequest(issuerCert, List.of(serialNumber));
+    }
+
+    private static OCSPReq generateOCSPRequest(X509Certificate issuerCert, List<BigInteger> serialNumbers)
+            throws OCSPException, OperatorException, CertificateEncodingException {
         JcaDigestCalculatorProviderBuilder digestCalculatorProviderBuilder = new JcaDigestCalculatorProviderBuilder();
         DigestCalculatorProvider digestCalculatorProvider = digestCalculatorProviderBuilder.build();
         DigestCalculator digestCalculator = digestCalculatorProvider.get(CertificateID.HASH_SHA1);
-        CertificateID id = new CertificateID(digestCalculator, new JcaX509CertificateHolder(issuerCert), serialNumber);
-        BigInteger nonce = BigInteger.valueOf(System.currentTimeMillis());
+        JcaX509CertificateHolder issuerCertHolder = new JcaX509CertificateHolder(issuerCert);
         OCSPReqBuilder gen = new OCSPReqBuilder();
-        gen.addRequest(id);
+        for (BigInteger serialNumber : serialNumbers) {
+            gen.addRequest(new CertificateID(digestCalculator, issuerCertHolder, serialNumber));
+        }
+        BigInteger nonce = BigInteger.valueOf(System.currentTimeMillis());
         Extension ext = new Extension(OCSPObjectIdentifiers.id_pkix_ocsp_nonce, false,
                 new DEROctetString(nonce.toByteArray()));
         gen.setRequestExtensions(new Extensions(new Extension[]{ext}));
@@ -140,26 +219,12 @@ public class OcspUtil {
         return gen.build();
     }
 
-    private static OCSPResp getOCSPResponse(String serviceUrl, OCSPReq request) throws IOException {
+    private static OCSPResp getOCSPResponse(String serviceUrl, OCSPReq request, RevocationHttpClient httpClient) throws IOException {
 
         try {
             byte[] array = request.getEncoded();
             if (serviceUrl.startsWith("http")) {
-                URL url = new URL(serviceUrl);
-                HttpURLConnection con = (HttpURLConnection) url.openConnection();
-                con.setRequestProperty("Content-Type", "application/ocsp-request");
-                con.setRequestProperty("Accept", "application/ocsp-response");
-                con.setDoOutput(true);
-                OutputStream out = con.getOutputStream();
-                DataOutputStream dataOut = new DataOutputStream(new BufferedOutputStream(out));
-                dataOut.write(array);
-
-                dataOut.flush();
-                dataOut.close();
-
-                // Get Response
-                InputStream in = (InputStream) con.getContent();
-                return new OCSPResp(in);
+                return new OCSPResp(httpClient.post(serviceUrl, array, "application/ocsp-request", "application/ocsp-response"));
             } else {
                 throw new IllegalArgumentException("Only http is supported for OCSP requests");
             }
@@ -167,4 +232,7 @@ public class OcspUtil {
             throw new IOException("Cannot get OCSP response from URL: " + serviceUrl, e);
         }
     }
+
+    public record OcspCheckResult(CertificateValidationStatus status, Date thisUpdate, Date nextUpdate) {
+    }
 }
@@ -0,0 +1,130 @@
+package com.czertainly.core.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared HTTP client used to retrieve revocation information (OCSP responses and CRLs).
+ * Connections are pooled by the underlying {@link HttpClient}, requests run on virtual threads,
+ * number of concurrent requests to single host is limited and every request is bounded by connect and request timeout.
+ * CRLs can be large, so their downloads are bounded by separate timeout.
+ */
+@Component
+public class RevocationHttpClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevocationHttpClient.class);
+
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+
+    private final Duration requestTimeout;
+    private final Duration crlDownloadTimeout;
+    private final int maxRequestsPerHost;
+    private final HttpClient httpClient;
+
+    public RevocationHttpClient(@Value("${validation.revocation.connect-timeout:5}") long connectTimeoutSeconds,
+                                @Value("${validation.revocation.request-timeout:10}") long requestTimeoutSeconds,
+                                @Value("${validation.revocation.crl-download-timeout:120}") long crlDownloadTimeoutSeconds,
+                                @Value("${validation.revocation.max-requests-per-host:8}") int maxRequestsPerHost) {
+        this.requestTimeout = Duration.ofSeconds(requestTimeoutSeconds);
+        this.crlDownloadTimeout = Duration.ofSeconds(crlDownloadTimeoutSeconds);
+        this.maxRequestsPerHost = maxRequestsPerHost;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(connectTimeoutSeconds))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .proxy(ProxySelector.getDefault())
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    /**
+     * Send POST request and return body of the response, request is bounded by request timeout
+     *
+     * @param url         URL of the request
+     * @param body        body of the request
+     * @param contentType content type of the request body
+     * @param accept      accepted content type of the response
+     * @return body of the response
+     */
+    public byte[] post(String url, byte[] body, String contentType, String accept) throws IOException {
+        HttpRequest request = requestBuilder(url, requestTimeout)
+                .header("Content-Type", contentType)
+                .header("Accept", accept)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        return send(request, requestTimeout, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    /**
+     * Download CRL and return its content, request is bounded by CRL download timeout
+     *
+     * @param url URL of the CRL
+     * @return content of the CRL
+     */
+    public byte[] getCrl(String url) throws IOException {
+        return send(requestBuilder(url, crlDownloadTimeout).GET().build(), crlDownloadTimeout, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    /**
+     * Download CRL into file, request is bounded by CRL download timeout
+     *
+     * @param url    URL of the CRL
+     * @param target file the CRL is written to, existing content is replaced
+     */
+    public void downloadCrl(String url, Path target) throws IOException {
+        send(requestBuilder(url, crlDownloadTimeout).GET().build(), crlDownloadTimeout, HttpResponse.BodyHandlers.ofFile(target, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+    }
+
+    private static HttpRequest.Builder requestBuilder(String url, Duration timeout) throws IOException {
+        try {
+            return HttpRequest.newBuilder(URI.create(url)).timeout(timeout);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid URL " + url + ": " + e.getMessage(), e);
+        }
+    }
+
+    private <T> T send(HttpRequest request, Duration timeout, HttpResponse.BodyHandler<T> bodyHandler) throws IOException {
+        URI uri = request.uri();
+        String host = uri.getHost() + ":" + uri.getPort();
+        Semaphore permits = hostPermits.computeIfAbsent(host, k -> new Semaphore(maxRequestsPerHost));
+        try {
+            if (!permits.tryAcquire(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new IOException("Too many concurrent requests to host " + uri.getHost());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for request to host " + uri.getHost());
+        }
+
+        try {
+            logger.trace("Sending {} request to {}", request.method(), uri);
+            HttpResponse<T> response = httpClient.send(request, bodyHandler);
+            if (response.statusCode() != 200) {
+                throw new IOException("Unexpected HTTP status " + response.statusCode() + " received from " + uri);
+            }
+            return response.body();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for response from " + uri);
+        } finally {
+            permits.release();
+        }
+    }
+}
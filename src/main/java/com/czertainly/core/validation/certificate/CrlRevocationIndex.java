@@ -0,0 +1,104 @@
+package com.czertainly.core.validation.certificate;
+
+import com.czertainly.api.model.core.authority.CertificateRevocationReason;
+import com.czertainly.core.dao.entity.Crl;
+import com.czertainly.core.dao.entity.CrlEntry;
+
+import java.util.*;
+
+/**
+ * Immutable in-memory index of revoked serial numbers of single CRL. Serial numbers are kept in sorted array
+ * and looked up by binary search. Index is bound to CRL number and delta CRL number it was built from.
+ */
+public class CrlRevocationIndex {
+
+    // estimated heap size of single entry without characters of serial number: String with its byte array,
+    // references in arrays of serial numbers and revocation reasons and revocation date
+    static final int ENTRY_OVERHEAD_BYTES = 64;
+
+    private final UUID crlUuid;
+    private final String crlNumber;
+    private final String crlNumberDelta;
+
+    private final String[] serialNumbers;
+    private final long[] revocationDates;
+    private final CertificateRevocationReason[] revocationReasons;
+    private final long estimatedBytes;
+
+    private CrlRevocationIndex(UUID crlUuid, String crlNumber, String crlNumberDelta, String[] serialNumbers, long[] revocationDates, CertificateRevocationReason[] revocationReasons, long estimatedBytes) {
+        this.crlUuid = crlUuid;
+        this.crlNumber = crlNumber;
+        this.crlNumberDelta = crlNumberDelta;
+        this.serialNumbers = serialNumbers;
+        this.revocationDates = revocationDates;
+        this.revocationReasons = revocationReasons;
+        this.estimatedBytes = estimatedBytes;
+    }
+
+    /**
+     * Build index from CRL entries data
+     *
+     * @param crl     CRL entity the entries belong to
+     * @param entries rows of serial number (String), revocation date (Date) and revocation reason (CertificateRevocationReason)
+     * @return revocation index of the CRL
+     */
+    public static CrlRevocationIndex build(Crl crl, List<Object[]> entries) {
+        Object[][] sortedEntries = entries.toArray(new Object[0][]);
+        Arrays.sort(sortedEntries, Comparator.comparing(entry -> (String) entry[0]));
+
+        String[] serialNumbers = new String[sortedEntries.length];
+        long[] revocationDates = new long[sortedEntries.length];
+        CertificateRevocationReason[] revocationReasons = new CertificateRevocationReason[sortedEntries.length];
+        long estimatedBytes = 0;
+        for (int i = 0; i < sortedEntries.length; i++) {
+            serialNumbers[i] = (String) sortedEntries[i][0];
+            estimatedBytes += ENTRY_OVERHEAD_BYTES + serialNumbers[i].length();
+            revocationDates[i] = ((Date) sortedEntries[i][1]).getTime();
+            revocationReasons[i] = (CertificateRevocationReason) sortedEntries[i][2];
+        }
+        return new CrlRevocationIndex(crl.getUuid(), crl.getCrlNumber(), crl.getCrlNumberDelta(), serialNumbers, revocationDates, revocationReasons, estimatedBytes);
+    }
+
+    /**
+     * Check if index was built from the current state of CRL entity
+     *
+     * @param crl CRL entity
+     * @return true if CRL number and delta CRL number did not change since index was built
+     */
+    public boolean isCurrent(Crl crl) {
+        return Objects.equals(crlUuid, crl.getUuid()) && Objects.equals(crlNumber, crl.getCrlNumber()) && Objects.equals(crlNumberDelta, crl.getCrlNumberDelta());
+    }
+
+    /**
+     * Find revocation of certificate with given serial number
+     *
+     * @param crl          CRL entity the returned entry is associated with
+     * @param serialNumber serial number of certificate in hexadecimal format
+     * @return detached CRL entry or null if certificate is not revoked
+     */
+    public CrlEntry find(Crl crl, String serialNumber) {
+        int position = Arrays.binarySearch(serialNumbers, serialNumber);
+        if (position < 0) return null;
+
+        CrlEntry crlEntry = new CrlEntry();
+        crlEntry.setCrl(crl);
+        crlEntry.getId().setCrlUuid(crlUuid);
+        crlEntry.getId().setSerialNumber(serialNumbers[position]);
+        crlEntry.setRevocationDate(new Date(revocationDates[position]));
+        crlEntry.setRevocationReason(revocationReasons[position]);
+        return crlEntry;
+    }
+
+    public int size() {
+        return serialNumbers.length;
+    }
+
+    /**
+     * Get estimated size of the index in heap
+     *
+     * @return estimated number of bytes held by the index
+     */
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+}
@@ -0,0 +1,168 @@
+package com.czertainly.core.validation.certificate;
+
+import com.czertainly.core.dao.entity.Crl;
+import com.czertainly.core.dao.entity.CrlEntry;
+import com.czertainly.core.dao.entity.CrlEntryId;
+import com.czertainly.core.dao.repository.CrlEntryRepository;
+import com.czertainly.core.util.ExpiringCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Cache of CRL revocation indexes. Estimated heap size of all indexes is bounded and least recently used indexes are
+ * evicted first. CRLs whose index would not fit are remembered, so their entries are looked up in database without
+ * counting them again. Index is rebuilt when CRL number or delta CRL number changes. CRLs modified by the current
+ * transaction are looked up in database and their index is built only after the transaction is completed,
+ * so that indexes contain only committed entries.
+ */
+@Component
+public class CrlRevocationIndexCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CrlRevocationIndexCache.class);
+
+    private static final long BYTES_IN_MEGABYTE = 1024L * 1024L;
+    private static final Duration NOT_INDEXABLE_TTL = Duration.ofHours(1);
+
+    private CrlEntryRepository crlEntryRepository;
+
+    @Value("${crl.revocation-index.enabled:true}")
+    private boolean enabled;
+
+    private long maxBytes;
+
+    // access ordered map to evict least recently used indexes
+    private final LinkedHashMap<UUID, CrlRevocationIndex> indexes = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    // CRL versions (CRL number and delta CRL number) too large to be indexed
+    private final ExpiringCache<UUID, String> notIndexable = new ExpiringCache<>(1000);
+    // key of transaction resource holding UUIDs of CRLs modified by the transaction
+    private final Object modifiedCrlsKey = new Object();
+
+    @Autowired
+    public void setCrlEntryRepository(CrlEntryRepository crlEntryRepository) {
+        this.crlEntryRepository = crlEntryRepository;
+    }
+
+    @Value("${crl.revocation-index.max-size:256}")
+    public void setMaxSize(long maxSizeMegabytes) {
+        this.maxBytes = maxSizeMegabytes * BYTES_IN_MEGABYTE;
+    }
+
+    /**
+     * Find CRL entry of certificate in the CRL, revocation index of the CRL is built on first use
+     *
+     * @param crl          CRL entity
+     * @param serialNumber serial number of certificate in hexadecimal format
+     * @return CRL entry or null if certificate is not revoked by the CRL
+     */
+    public CrlEntry findCrlEntry(Crl crl, String serialNumber) {
+        if (!enabled) {
+            return crlEntryRepository.findById(new CrlEntryId(crl.getUuid(), serialNumber)).orElse(null);
+        }
+
+        CrlRevocationIndex index = getIndex(crl);
+        if (index == null) {
+            return crlEntryRepository.findById(new CrlEntryId(crl.getUuid(), serialNumber)).orElse(null);
+        }
+        return index.find(crl, serialNumber);
+    }
+
+    public synchronized void evict(UUID crlUuid) {
+        CrlRevocationIndex removed = indexes.remove(crlUuid);
+        if (removed != null) totalBytes -= removed.getEstimatedBytes();
+    }
+
+    /**
+     * Mark CRL as modified by the current transaction. Index of the CRL is evicted and is not built until
+     * the transaction is completed.
+     *
+     * @param crlUuid UUID of the modified CRL
+     */
+    @SuppressWarnings("unchecked")
+    public void markModified(UUID crlUuid) {
+        evict(crlUuid);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        Set<UUID> modifiedCrls = (Set<UUID>) TransactionSynchronizationManager.getResource(modifiedCrlsKey);
+        if (modifiedCrls == null) {
+            modifiedCrls = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(modifiedCrlsKey, modifiedCrls);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    Set<UUID> completedCrls = (Set<UUID>) TransactionSynchronizationManager.unbindResourceIfPossible(modifiedCrlsKey);
+                    if (completedCrls != null) {
+                        // index could have been built by other transaction in the meantime from entries replaced by this transaction
+                        completedCrls.forEach(CrlRevocationIndexCache.this::evict);
+                    }
+                }
+            });
+        }
+        modifiedCrls.add(crlUuid);
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean isModifiedInTransaction(UUID crlUuid) {
+        Set<UUID> modifiedCrls = (Set<UUID>) TransactionSynchronizationManager.getResource(modifiedCrlsKey);
+        return modifiedCrls != null && modifiedCrls.contains(crlUuid);
+    }
+
+    private CrlRevocationIndex getIndex(Crl crl) {
+        synchronized (this) {
+            CrlRevocationIndex index = indexes.get(crl.getUuid());
+            if (index != null && index.isCurrent(crl)) return index;
+        }
+
+        if (isModifiedInTransaction(crl.getUuid())) {
+            return null;
+        }
+
+        String crlVersion = crl.getCrlNumber() + "|" + crl.getCrlNumberDelta();
+        if (crlVersion.equals(notIndexable.get(crl.getUuid()))) {
+            return null;
+        }
+        if (crlEntryRepository.countByIdCrlUuid(crl.getUuid()) * CrlRevocationIndex.ENTRY_OVERHEAD_BYTES > maxBytes) {
+            markNotIndexable(crl, crlVersion);
+            return null;
+        }
+
+        // build index outside of lock, concurrent builds of the same index are harmless
+        CrlRevocationIndex index = CrlRevocationIndex.build(crl, crlEntryRepository.findRevocationEntriesByCrlUuid(crl.getUuid()));
+        if (index.getEstimatedBytes() > maxBytes) {
+            markNotIndexable(crl, crlVersion);
+            return null;
+        }
+        logger.debug("Revocation index of CRL {} with number {} built with {} entries and estimated size {} bytes", crl.getUuid(), crl.getCrlNumber(), index.size(), index.getEstimatedBytes());
+
+        synchronized (this) {
+            CrlRevocationIndex previous = indexes.put(crl.getUuid(), index);
+            if (previous != null) totalBytes -= previous.getEstimatedBytes();
+            totalBytes += index.getEstimatedBytes();
+
+            Iterator<Map.Entry<UUID, CrlRevocationIndex>> iterator = indexes.entrySet().iterator();
+            while (totalBytes > maxBytes && iterator.hasNext()) {
+                Map.Entry<UUID, CrlRevocationIndex> eldest = iterator.next();
+                if (eldest.getKey().equals(crl.getUuid())) continue;
+                totalBytes -= eldest.getValue().getEstimatedBytes();
+                iterator.remove();
+            }
+        }
+        return index;
+    }
+
+    private void markNotIndexable(Crl crl, String crlVersion) {
+        logger.debug("Revocation index of CRL {} with number {} would exceed maximum size of cached indexes and will not be built", crl.getUuid(), crl.getCrlNumber());
+        evict(crl.getUuid());
+        notIndexable.put(crl.getUuid(), crlVersion, notIndexable.now().plus(NOT_INDEXABLE_TTL));
+    }
+}
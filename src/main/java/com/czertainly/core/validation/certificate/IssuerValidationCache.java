@@ -0,0 +1,57 @@
+package com.czertainly.core.validation.certificate;
+
+import com.czertainly.api.model.core.certificate.CertificateValidationStatus;
+import com.czertainly.core.util.ExpiringCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Short-lived cache of validated CA certificates from certificate chains. When many certificates issued by the same CA
+ * are validated, issuer certificates are loaded, parsed and validated only once within configured time window.
+ */
+@Component
+public class IssuerValidationCache {
+
+    private final boolean enabled;
+    private final Duration ttl;
+    private final ExpiringCache<IssuerKey, ValidatedIssuer> issuers;
+
+    public IssuerValidationCache(@Value("${validation.issuer-cache.enabled:true}") boolean enabled,
+                                 @Value("${validation.issuer-cache.max-entries:1000}") int maxEntries,
+                                 @Value("${validation.issuer-cache.ttl:60}") long ttlSeconds) {
+        this.enabled = enabled;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.issuers = new ExpiringCache<>(maxEntries);
+    }
+
+    /**
+     * Get validated issuer certificate
+     *
+     * @param issuerUuid    UUID of the issuer certificate
+     * @param completeChain if certificate chain of validated certificate is complete
+     * @return validated issuer or null when issuer was not validated recently
+     */
+    public ValidatedIssuer get(UUID issuerUuid, boolean completeChain) {
+        if (!enabled) return null;
+        return issuers.get(new IssuerKey(issuerUuid, completeChain));
+    }
+
+    public void put(UUID issuerUuid, boolean completeChain, X509Certificate x509Certificate, CertificateValidationStatus status) {
+        if (!enabled) return;
+        issuers.put(new IssuerKey(issuerUuid, completeChain), new ValidatedIssuer(x509Certificate, status), issuers.now().plus(ttl));
+    }
+
+    public void invalidate(UUID issuerUuid) {
+        issuers.invalidateIf((key, issuer) -> key.uuid().equals(issuerUuid));
+    }
+
+    public record ValidatedIssuer(X509Certificate x509Certificate, CertificateValidationStatus status) {
+    }
+
+    private record IssuerKey(UUID uuid, boolean completeChain) {
+    }
+}
@@ -0,0 +1,189 @@
+package com.czertainly.core.validation.certificate;
+
+import com.czertainly.api.model.core.certificate.CertificateValidationStatus;
+import com.czertainly.core.util.ExpiringCache;
+import com.czertainly.core.util.OcspUtil;
+import com.czertainly.core.util.RevocationHttpClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.net.http.HttpTimeoutException;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache of OCSP responses keyed by CertID (issuer name hash, issuer key hash and certificate serial number) and OCSP
+ * responder URL.
+ * Definitive GOOD and REVOKED responses are cached until their nextUpdate, but at most for configured maximum age,
+ * other results are cached only for short negative TTL. Responders that could not be connected or timed out are
+ * remembered for the negative TTL so they are not contacted repeatedly.
+ */
+@Component
+public class OcspResponseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(OcspResponseCache.class);
+
+    private final boolean enabled;
+    private final int batchMaxSize;
+    private final Duration maxAge;
+    private final Duration negativeTtl;
+    private final RevocationHttpClient httpClient;
+
+    private final ExpiringCache<OcspResponseKey, OcspUtil.OcspCheckResult> responses;
+    private final ExpiringCache<String, String> failedResponders;
+
+    public OcspResponseCache(RevocationHttpClient httpClient,
+                             @Value("${ocsp.cache.enabled:true}") boolean enabled,
+                             @Value("${ocsp.cache.max-entries:100000}") int maxEntries,
+                             @Value("${ocsp.cache.max-age:3600}") long maxAgeSeconds,
+                             @Value("${ocsp.cache.negative-ttl:60}") long negativeTtlSeconds,
+                             @Value("${ocsp.batch.max-size:100}") int batchMaxSize) {
+        this.httpClient = httpClient;
+        this.enabled = enabled;
+        this.batchMaxSize = batchMaxSize;
+        this.maxAge = Duration.ofSeconds(maxAgeSeconds);
+        this.negativeTtl = Duration.ofSeconds(negativeTtlSeconds);
+        this.responses = new ExpiringCache<>(maxEntries);
+        this.failedResponders = new ExpiringCache<>(1000);
+    }
+
+    /**
+     * Check OCSP status of certificate, cached response is used when available
+     *
+     * @param certificate certificate to check
+     * @param issuer      issuer certificate
+     * @param ocspUrl     URL of OCSP responder
+     * @return OCSP status of the certificate
+     */
+    public CertificateValidationStatus checkOcsp(X509Certificate certificate, X509Certificate issuer, String ocspUrl) throws Exception {
+        if (!enabled) {
+            return OcspUtil.checkOcsp(certificate, issuer, ocspUrl, httpClient);
+        }
+
+        String failure = failedResponders.get(ocspUrl);
+        if (failure != null) {
+            throw new IOException("OCSP responder recently failed to respond: " + failure);
+        }
+
+        OcspResponseKey key = new OcspResponseKey(OcspUtil.getIssuerNameHash(issuer), OcspUtil.getIssuerKeyHash(issuer), certificate.getSerialNumber().toString(16), ocspUrl);
+        OcspUtil.OcspCheckResult result = responses.get(key);
+        if (result != null) {
+            logger.trace("Using cached OCSP response for certificate {} from URL {}", key.serialNumber(), ocspUrl);
+            return result.status();
+        }
+
+        try {
+            result = OcspUtil.checkOcspWithValidity(certificate, issuer, ocspUrl, httpClient);
+        } catch (IOException e) {
+            if (isResponderUnavailable(e)) {
+                failedResponders.put(ocspUrl, e.getMessage(), failedResponders.now().plus(negativeTtl));
+            }
+            throw e;
+        }
+
+        cacheResult(key, result);
+        return result.status();
+    }
+
+    /**
+     * Load OCSP responses of multiple certificates of the same issuer into the cache. Certificates are grouped
+     * by OCSP responder URL and checked using OCSP requests containing multiple CertIDs.
+     * Certificates not present in batch responses are checked individually later during validation.
+     *
+     * @param issuer       issuer certificate
+     * @param certificates certificates issued by the issuer
+     */
+    public void prefetch(X509Certificate issuer, List<X509Certificate> certificates) {
+        if (!enabled || batchMaxSize <= 1 || certificates.size() <= 1) return;
+
+        String issuerNameHash;
+        String issuerKeyHash;
+        try {
+            issuerNameHash = OcspUtil.getIssuerNameHash(issuer);
+            issuerKeyHash = OcspUtil.getIssuerKeyHash(issuer);
+        } catch (NoSuchAlgorithmException e) {
+            return;
+        }
+
+        Map<String, List<X509Certificate>> certificatesByResponder = new HashMap<>();
+        for (X509Certificate certificate : certificates) {
+            List<String> ocspUrls;
+            try {
+                ocspUrls = OcspUtil.getOcspUrlFromCertificate(certificate);
+            } catch (IOException e) {
+                continue;
+            }
+            for (String ocspUrl : ocspUrls) {
+                if (responses.get(new OcspResponseKey(issuerNameHash, issuerKeyHash, certificate.getSerialNumber().toString(16), ocspUrl)) == null) {
+                    certificatesByResponder.computeIfAbsent(ocspUrl, k -> new ArrayList<>()).add(certificate);
+                }
+            }
+        }
+
+        for (Map.Entry<String, List<X509Certificate>> responderCertificates : certificatesByResponder.entrySet()) {
+            String ocspUrl = responderCertificates.getKey();
+            List<X509Certificate> responderCertificatesList = responderCertificates.getValue();
+            for (int i = 0; i < responderCertificatesList.size() && failedResponders.get(ocspUrl) == null; i += batchMaxSize) {
+                List<X509Certificate> batch = responderCertificatesList.subList(i, Math.min(i + batchMaxSize, responderCertificatesList.size()));
+                try {
+                    Map<BigInteger, OcspUtil.OcspCheckResult> results = OcspUtil.checkOcspBatch(batch, issuer, ocspUrl, httpClient);
+                    results.forEach((serialNumber, result) -> cacheResult(new OcspResponseKey(issuerNameHash, issuerKeyHash, serialNumber.toString(16), ocspUrl), result));
+                    logger.debug("Batch OCSP request to {} returned {}/{} responses", ocspUrl, results.size(), batch.size());
+                } catch (Exception e) {
+                    // unavailable responder is not contacted again by individual checks of the certificates, otherwise
+                    // responder may not support requests with multiple CertIDs and certificates will be checked individually
+                    if (isResponderUnavailable(e)) {
+                        failedResponders.put(ocspUrl, e.getMessage(), failedResponders.now().plus(negativeTtl));
+                    }
+                    logger.debug("Batch OCSP request to {} failed: {}", ocspUrl, e.getMessage());
+                    break;
+                }
+            }
+        }
+    }
+
+    private void cacheResult(OcspResponseKey key, OcspUtil.OcspCheckResult result) {
+        if (result.status() != CertificateValidationStatus.VALID && result.status() != CertificateValidationStatus.REVOKED) {
+            responses.put(key, result, responses.now().plus(negativeTtl));
+            return;
+        }
+
+        Instant expiresAt = responses.now().plus(maxAge);
+        if (result.nextUpdate() != null && result.nextUpdate().toInstant().isBefore(expiresAt)) {
+            expiresAt = result.nextUpdate().toInstant();
+        }
+        responses.put(key, result, expiresAt);
+    }
+
+    private static boolean isResponderUnavailable(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof NoRouteToHostException || cause instanceof UnknownHostException
+                    || cause instanceof SocketTimeoutException || cause instanceof HttpTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void invalidateAll() {
+        responses.invalidateAll();
+        failedResponders.invalidateAll();
+    }
+
+    private record OcspResponseKey(String issuerNameHash, String issuerKeyHash, String serialNumber, String responderUrl) {
+    }
+}
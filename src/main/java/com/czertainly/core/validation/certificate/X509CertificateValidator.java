@@ -8,32 +8,41 @@ import com.czertainly.core.dao.entity.CrlEntry;
 import com.czertainly.core.dao.repository.CertificateRepository;
 import com.czertainly.core.service.CrlService;
 import com.czertainly.core.util.CertificateUtil;
+import com.czertainly.core.util.MetaDefinitions;
 import com.czertainly.core.util.OcspUtil;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.bouncycastle.asn1.x509.Extension;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
 
 @Service("X.509")
 public class X509CertificateValidator implements ICertificateValidator {
     private static final Logger logger = LoggerFactory.getLogger(X509CertificateValidator.class);
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
     private static final int DAYS_TO_EXPIRE = 30;
+    private static final ExecutorService REVOCATION_CHECK_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
     private CertificateRepository certificateRepository;
 
 
     private CrlService crlService;
 
+    private OcspResponseCache ocspResponseCache;
+
+    private IssuerValidationCache issuerValidationCache;
+
+    @Value("${validation.revocation.timeout:30}")
+    private long revocationCheckTimeout;
+
     @Autowired
     public void setCertificateRepository(CertificateRepository certificateRepository) {
         this.certificateRepository = certificateRepository;
@@ -44,40 +53,72 @@ public class X509CertificateValidator implements ICertificateValidator {
         this.crlService = crlService;
     }
 
+    @Autowired
+    public void setOcspResponseCache(OcspResponseCache ocspResponseCache) {
+        this.ocspResponseCache = ocspResponseCache;
+    }
+
+    @Autowired
+    public void setIssuerValidationCache(IssuerValidationCache issuerValidationCache) {
+        this.issuerValidationCache = issuerValidationCache;
+    }
+
 
     @Override
     public CertificateValidationStatus validateCertificate(Certificate certificate, boolean isCompleteChain) throws CertificateException {
         logger.debug("Initiating the certificate validation: {}", certificate.toStringShort());
 
+        // walk the chain until issuer validated recently is found, its result is reused instead of validating it again
         ArrayList<Certificate> certificateChain = new ArrayList<>();
+        IssuerValidationCache.ValidatedIssuer validatedIssuer;
         Certificate lastCertificate = certificate;
         do {
             certificateChain.add(lastCertificate);
-            lastCertificate = lastCertificate.getIssuerCertificateUuid() == null ? null : certificateRepository.findByUuid(lastCertificate.getIssuerCertificateUuid()).orElse(null);
+            UUID issuerUuid = lastCertificate.getIssuerCertificateUuid();
+            validatedIssuer = issuerUuid == null ? null : issuerValidationCache.get(issuerUuid, isCompleteChain);
+            lastCertificate = issuerUuid == null || validatedIssuer != null ? null : certificateRepository.findByUuid(issuerUuid).orElse(null);
         } while (lastCertificate != null);
+        X509Certificate validatedIssuerCertificate = validatedIssuer == null ? null : validatedIssuer.x509Certificate();
 
-        X509Certificate x509Certificate;
-        X509Certificate x509IssuerCertificate = null;
-        CertificateValidationStatus previousCertStatus = CertificateValidationStatus.NOT_CHECKED;
-        Map<CertificateValidationCheck, CertificateValidationCheckDto> validationOutput;
-        for (int i = certificateChain.size() - 1; i >= 0; i--) {
+        List<X509Certificate> x509CertificateChain = new ArrayList<>(certificateChain.size());
+        for (Certificate chainCertificate : certificateChain) {
             // initialization by preparing X509Certificate object
-            x509Certificate = CertificateUtil.getX509Certificate(certificateChain.get(i).getCertificateContent().getContent());
+            x509CertificateChain.add(CertificateUtil.getX509Certificate(chainCertificate.getCertificateContent().getContent()));
+        }
 
-            boolean isEndCertificate = i == 0;
-            validationOutput = validatePathCertificate(x509Certificate, x509IssuerCertificate, certificateChain.get(i).getTrustedCa(), previousCertStatus, isCompleteChain, isEndCertificate, certificateChain.get(i).getSubjectType());
-            CertificateValidationStatus resultStatus = calculateResultStatus(validationOutput);
-            finalizeValidation(certificateChain.get(i), resultStatus, validationOutput);
+        // OCSP checks of chain elements do not depend on each other, run them in parallel with the rest of validation
+        Instant revocationCheckDeadline = Instant.now().plusSeconds(revocationCheckTimeout);
+        List<Future<CertificateValidationCheckDto>> ocspChecks = new ArrayList<>(certificateChain.size());
+        for (int i = 0; i < x509CertificateChain.size(); i++) {
+            X509Certificate x509Certificate = x509CertificateChain.get(i);
+            X509Certificate x509IssuerCertificate = i + 1 < x509CertificateChain.size() ? x509CertificateChain.get(i + 1) : validatedIssuerCertificate;
+            ocspChecks.add(REVOCATION_CHECK_EXECUTOR.submit(() -> checkOcspRevocationStatus(x509Certificate, x509IssuerCertificate)));
+        }
 
-            previousCertStatus = resultStatus;
-            x509IssuerCertificate = x509Certificate;
+        CertificateValidationStatus previousCertStatus = validatedIssuer == null ? CertificateValidationStatus.NOT_CHECKED : validatedIssuer.status();
+        Map<CertificateValidationCheck, CertificateValidationCheckDto> validationOutput;
+        try {
+            for (int i = certificateChain.size() - 1; i >= 0; i--) {
+                X509Certificate x509IssuerCertificate = i + 1 < x509CertificateChain.size() ? x509CertificateChain.get(i + 1) : validatedIssuerCertificate;
+                boolean isEndCertificate = i == 0;
+                validationOutput = validatePathCertificate(x509CertificateChain.get(i), x509IssuerCertificate, certificateChain.get(i).getTrustedCa(), previousCertStatus, isCompleteChain, isEndCertificate, certificateChain.get(i).getSubjectType(), ocspChecks.get(i), revocationCheckDeadline);
+                CertificateValidationStatus resultStatus = calculateResultStatus(validationOutput);
+                finalizeValidation(certificateChain.get(i), resultStatus, validationOutput);
+                if (!isEndCertificate || certificateChain.get(i).getSubjectType().isCa()) {
+                    issuerValidationCache.put(certificateChain.get(i).getUuid(), isCompleteChain, x509CertificateChain.get(i), resultStatus);
+                }
+
+                previousCertStatus = resultStatus;
+            }
+        } finally {
+            ocspChecks.forEach(ocspCheck -> ocspCheck.cancel(true));
         }
 
         logger.debug("Certificate validation of {} finalized with result: {}", certificate.toStringShort(), previousCertStatus);
         return previousCertStatus;
     }
 
-    private Map<CertificateValidationCheck, CertificateValidationCheckDto> validatePathCertificate(X509Certificate certificate, X509Certificate issuerCertificate, Boolean trustedCa, CertificateValidationStatus issuerCertificateStatus, boolean isCompleteChain, boolean isEndCertificate, CertificateSubjectType subjectType) {
+    private Map<CertificateValidationCheck, CertificateValidationCheckDto> validatePathCertificate(X509Certificate certificate, X509Certificate issuerCertificate, Boolean trustedCa, CertificateValidationStatus issuerCertificateStatus, boolean isCompleteChain, boolean isEndCertificate, CertificateSubjectType subjectType, Future<CertificateValidationCheckDto> ocspCheck, Instant revocationCheckDeadline) {
         Map<CertificateValidationCheck, CertificateValidationCheckDto> validationOutput = initializeValidationOutput();
 
         // check certificate signature
@@ -90,8 +131,9 @@ public class X509CertificateValidator implements ICertificateValidator {
 
         // check if certificate is not revoked - OCSP & CRL
         // section (a)(3) in https://datatracker.ietf.org/doc/html/rfc5280#section-6.1.3
-        validationOutput.put(CertificateValidationCheck.OCSP_VERIFICATION, checkOcspRevocationStatus(certificate, issuerCertificate));
+        // CRL is checked in current thread since it works with database, OCSP check is already running in parallel
         validationOutput.put(CertificateValidationCheck.CRL_VERIFICATION, checkCrlRevocationStatus(certificate, issuerCertificate, isCompleteChain));
+        validationOutput.put(CertificateValidationCheck.OCSP_VERIFICATION, awaitOcspRevocationStatus(ocspCheck, revocationCheckDeadline));
 
         // check certificate issuer DN and if certificate chain is valid
         // section (a)(4) in https://datatracker.ietf.org/doc/html/rfc5280#section-6.1.3
@@ -181,6 +223,21 @@ public class X509CertificateValidator implements ICertificateValidator {
         }
     }
 
+    private CertificateValidationCheckDto awaitOcspRevocationStatus(Future<CertificateValidationCheckDto> ocspCheck, Instant deadline) {
+        try {
+            return ocspCheck.get(Math.max(0, Duration.between(Instant.now(), deadline).toMillis()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            ocspCheck.cancel(true);
+            return new CertificateValidationCheckDto(CertificateValidationCheck.OCSP_VERIFICATION, CertificateValidationStatus.FAILED, "OCSP verification did not finish in " + revocationCheckTimeout + " seconds.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            ocspCheck.cancel(true);
+            return new CertificateValidationCheckDto(CertificateValidationCheck.OCSP_VERIFICATION, CertificateValidationStatus.FAILED, "OCSP verification was interrupted.");
+        } catch (ExecutionException e) {
+            return new CertificateValidationCheckDto(CertificateValidationCheck.OCSP_VERIFICATION, CertificateValidationStatus.FAILED, "Error while checking OCSP: " + e.getCause().getMessage());
+        }
+    }
+
     private CertificateValidationCheckDto checkOcspRevocationStatus(X509Certificate certificate, X509Certificate issuerCertificate) {
         if (issuerCertificate == null) {
             return new CertificateValidationCheckDto(CertificateValidationCheck.OCSP_VERIFICATION, CertificateValidationStatus.NOT_CHECKED, "Issuer certificate is not available.");
@@ -201,7 +258,7 @@ public class X509CertificateValidator implements ICertificateValidator {
         CertificateValidationStatus ocspOutputStatus = CertificateValidationStatus.NOT_CHECKED;
         for (String ocspUrl : ocspUrls) {
             try {
-                CertificateValidationStatus ocspStatus = OcspUtil.checkOcsp(certificate, issuerCertificate, ocspUrl);
+                CertificateValidationStatus ocspStatus = ocspResponseCache.checkOcsp(certificate, issuerCertificate, ocspUrl);
                 if (ocspStatus.equals(CertificateValidationStatus.VALID)) {
                     if (ocspOutputStatus.equals(CertificateValidationStatus.NOT_CHECKED)) {
                         ocspOutputStatus = ocspStatus;
@@ -261,7 +318,7 @@ public class X509CertificateValidator implements ICertificateValidator {
         StringBuilder crlMessage = new StringBuilder();
         CertificateValidationStatus crlOutputStatus;
 
-        CrlEntry crlEntry = crlService.findCrlEntryForCertificate(certificate.getSerialNumber().toString(16), crl.getUuid());
+        CrlEntry crlEntry = crlService.findCrlEntryForCertificate(certificate.getSerialNumber().toString(16), crl);
 
         if (crlEntry == null) {
             crlOutputStatus = CertificateValidationStatus.VALID;
@@ -339,22 +396,52 @@ public class X509CertificateValidator implements ICertificateValidator {
     }
 
     private void finalizeValidation(Certificate certificate, CertificateValidationStatus resultStatus, Map<CertificateValidationCheck, CertificateValidationCheckDto> validationOutput) throws CertificateException {
-        certificate.setValidationStatus(resultStatus);
-        certificate.setStatusValidationTimestamp(LocalDateTime.now());
-
         // change certificate state to revoked if applicable
-        if (certificate.getState() == CertificateState.ISSUED
+        CertificateState state = certificate.getState();
+        if (state == CertificateState.ISSUED
                 && (validationOutput.get(CertificateValidationCheck.OCSP_VERIFICATION).getStatus().equals(CertificateValidationStatus.REVOKED)
                 || validationOutput.get(CertificateValidationCheck.CRL_VERIFICATION).getStatus().equals(CertificateValidationStatus.REVOKED))) {
-            certificate.setState(CertificateState.REVOKED);
+            state = CertificateState.REVOKED;
         }
 
+        String validationResult;
         try {
-            certificate.setCertificateValidationResult(OBJECT_MAPPER.writeValueAsString(validationOutput));
-            certificateRepository.save(certificate);
+            validationResult = MetaDefinitions.serializeValidation(validationOutput);
         } catch (Exception e) {
             throw new CertificateException("Error in serialization of validation output for " + certificate);
         }
+
+        // when status and statuses of checks did not change, only validation timestamp is updated and the certificate
+        // is not written again, messages are not compared since some of them contain values changing with each validation
+        if (certificate.getValidationStatus() == resultStatus && certificate.getState() == state
+                && getValidationFingerprint(validationOutput).equals(getStoredValidationFingerprint(certificate))) {
+            logger.trace("Validation result of certificate {} did not change", certificate.getUuid());
+            certificateRepository.updateStatusValidationTimestamp(certificate, LocalDateTime.now());
+            return;
+        }
+
+        certificate.setStatusValidationTimestamp(LocalDateTime.now());
+        certificate.setValidationStatus(resultStatus);
+        certificate.setState(state);
+        certificate.setCertificateValidationResult(validationResult);
+        certificateRepository.save(certificate);
+    }
+
+    private String getStoredValidationFingerprint(Certificate certificate) {
+        try {
+            return getValidationFingerprint(MetaDefinitions.deserializeValidation(certificate.getCertificateValidationResult()));
+        } catch (Exception e) {
+            logger.debug("Unable to read stored validation result of certificate {}: {}", certificate.getUuid(), e.getMessage());
+            return null;
+        }
+    }
+
+    private String getValidationFingerprint(Map<CertificateValidationCheck, CertificateValidationCheckDto> validationChecks) {
+        StringBuilder fingerprint = new StringBuilder();
+        for (Map.Entry<CertificateValidationCheck, CertificateValidationCheckDto> validationCheck : validationChecks.entrySet()) {
+            fingerprint.append(validationCheck.getKey().name()).append('=').append(validationCheck.getValue().getStatus().name()).append(';');
+        }
+        return fingerprint.toString();
     }
 
     private boolean verifySignature(X509Certificate subjectCertificate, X509Certificate issuerCertificate) {
@@ -0,0 +1,13 @@
+UPDATE certificate c SET certificate_content_id = d.keep_id
+FROM (SELECT id, MIN(id) OVER (PARTITION BY fingerprint) AS keep_id FROM certificate_content) d
+WHERE c.certificate_content_id = d.id AND d.id != d.keep_id;
+
+UPDATE discovery_certificate dc SET certificate_content_id = d.keep_id
+FROM (SELECT id, MIN(id) OVER (PARTITION BY fingerprint) AS keep_id FROM certificate_content) d
+WHERE dc.certificate_content_id = d.id AND d.id != d.keep_id;
+
+DELETE FROM certificate_content cc
+USING certificate_content keep
+WHERE cc.fingerprint = keep.fingerprint AND cc.id > keep.id;
+
+ALTER TABLE certificate_content ADD UNIQUE (fingerprint);
@@ -233,6 +233,45 @@ public class RuleEvaluatorTest extends BaseSpringBootTest {
     }
 
 
+    @Test
+    public void testCompiledTrigger() throws RuleException, ParseException {
+        condition.setFieldSource(FilterFieldSource.PROPERTY);
+        condition.setFieldIdentifier(FilterField.NOT_BEFORE.toString());
+        condition.setOperator(FilterConditionOperator.GREATER_OR_EQUAL);
+        condition.setValue("2019-12-01");
+
+        ConditionItem groupCondition = new ConditionItem();
+        groupCondition.setFieldSource(FilterFieldSource.PROPERTY);
+        groupCondition.setFieldIdentifier(FilterField.GROUP_NAME.toString());
+        groupCondition.setOperator(FilterConditionOperator.EQUALS);
+        groupCondition.setValue("group1");
+
+        Condition ruleCondition = new Condition();
+        ruleCondition.setItems(List.of(condition, groupCondition));
+        Rule rule = new Rule();
+        rule.setResource(Resource.CERTIFICATE);
+        rule.setConditions(List.of(ruleCondition));
+        trigger.setRules(List.of(rule));
+
+        // compiled trigger is evaluated repeatedly on different objects
+        CompiledTrigger compiledTrigger = certificateRuleEvaluator.compileTrigger(trigger);
+        Assertions.assertEquals(1, compiledTrigger.executionItems().size());
+
+        Group group = new Group();
+        group.setName("group1");
+        certificate.setGroups(new HashSet<>(List.of(group)));
+        certificate.setNotBefore(new SimpleDateFormat(("yyyy-MM-dd HH:mm:ss")).parse("2019-12-01 22:10:15"));
+        Assertions.assertTrue(certificateRuleEvaluator.evaluateRules(compiledTrigger, certificate, new TriggerHistory()));
+
+        Certificate otherCertificate = new Certificate();
+        otherCertificate.setNotBefore(new SimpleDateFormat(("yyyy-MM-dd HH:mm:ss")).parse("2020-01-01 00:00:00"));
+        otherCertificate.setGroups(new HashSet<>());
+        Assertions.assertTrue(certificateRuleEvaluator.evaluateRules(compiledTrigger, otherCertificate, new TriggerHistory()));
+
+        DiscoveryHistory discovery = new DiscoveryHistory();
+        Assertions.assertFalse(discoveryHistoryRuleEvaluator.evaluateRules(compiledTrigger, discovery, new TriggerHistory()));
+    }
+
     @Test
     public void testsCryptographicKeyRuleEvaluator() throws RuleException {
         CryptographicKeyItem cryptographicKey = new CryptographicKeyItem();
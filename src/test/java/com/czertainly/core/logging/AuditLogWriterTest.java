@@ -0,0 +1,176 @@
+package com.czertainly.core.logging;
+
+import com.czertainly.api.model.core.auth.Resource;
+import com.czertainly.api.model.core.logging.enums.ActorType;
+import com.czertainly.api.model.core.logging.enums.AuthMethod;
+import com.czertainly.api.model.core.logging.enums.Module;
+import com.czertainly.api.model.core.logging.enums.Operation;
+import com.czertainly.api.model.core.logging.enums.OperationResult;
+import com.czertainly.api.model.core.logging.records.ActorRecord;
+import com.czertainly.api.model.core.logging.records.LogRecord;
+import com.czertainly.api.model.core.logging.records.ResourceRecord;
+import com.czertainly.core.dao.entity.AuditLog;
+import com.czertainly.core.dao.repository.AuditLogRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.any;
+
+class AuditLogWriterTest {
+
+    @TempDir
+    Path spillDirectory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<String> writtenMessages = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch firstSaveEntered = new CountDownLatch(1);
+    private final CountDownLatch firstSaveReleased = new CountDownLatch(1);
+    private volatile boolean blockFirstSave;
+    private volatile boolean failInvalidLogs;
+
+    private AuditLogWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        AuditLogRepository auditLogRepository = Mockito.mock(AuditLogRepository.class);
+        Mockito.when(auditLogRepository.saveAll(any())).thenAnswer(invocation -> {
+            if (blockFirstSave && firstSaveEntered.getCount() > 0) {
+                firstSaveEntered.countDown();
+                firstSaveReleased.await(10, TimeUnit.SECONDS);
+            }
+            Iterable<AuditLog> auditLogs = invocation.getArgument(0);
+            List<String> messages = new ArrayList<>();
+            for (AuditLog auditLog : auditLogs) {
+                if (failInvalidLogs && "invalid".equals(auditLog.getMessage())) {
+                    throw new IllegalStateException("Invalid audit log");
+                }
+                messages.add(auditLog.getMessage());
+            }
+            writtenMessages.addAll(messages);
+            return List.of();
+        });
+        PlatformTransactionManager transactionManager = Mockito.mock(PlatformTransactionManager.class);
+        Mockito.when(transactionManager.getTransaction(any())).thenReturn(Mockito.mock(TransactionStatus.class));
+
+        writer = new AuditLogWriter();
+        writer.setAuditLogRepository(auditLogRepository);
+        writer.setTransactionManager(transactionManager);
+        writer.setMeterRegistry(meterRegistry);
+        ReflectionTestUtils.setField(writer, "asyncEnabled", true);
+        ReflectionTestUtils.setField(writer, "bufferSize", 1);
+        ReflectionTestUtils.setField(writer, "batchSize", 1);
+        ReflectionTestUtils.setField(writer, "spillDirectory", spillDirectory.toString());
+        ReflectionTestUtils.setField(writer, "replayInterval", 60000L);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        firstSaveReleased.countDown();
+        writer.stop();
+    }
+
+    @Test
+    void testDropWhenBufferIsFull() throws InterruptedException {
+        startWithBlockedWriter(AuditLogWriter.OverflowPolicy.DROP);
+
+        writer.write(createLogRecord("buffered"));
+        writer.write(createLogRecord("dropped"));
+        Assertions.assertEquals(1, meterRegistry.counter("audit.log.writer.dropped").count());
+
+        firstSaveReleased.countDown();
+        awaitCondition(() -> writtenMessages.size() == 2);
+        Assertions.assertEquals(List.of("first", "buffered"), writtenMessages);
+    }
+
+    @Test
+    void testSpillWhenBufferIsFullAndReplay() throws InterruptedException, IOException {
+        startWithBlockedWriter(AuditLogWriter.OverflowPolicy.SPILL);
+
+        writer.write(createLogRecord("buffered"));
+        writer.write(createLogRecord("spilled"));
+        Assertions.assertEquals(1, meterRegistry.counter("audit.log.writer.spilled").count());
+        Assertions.assertEquals(1, Files.readAllLines(spillDirectory.resolve("audit-log-spill.jsonl")).size());
+
+        // spilled audit log is replayed when buffer is drained
+        firstSaveReleased.countDown();
+        awaitCondition(() -> writtenMessages.size() == 3);
+        Assertions.assertEquals(List.of("first", "buffered", "spilled"), writtenMessages);
+        awaitCondition(() -> listSpillFiles().isEmpty());
+    }
+
+    @Test
+    void testFailedAuditLogsAreSpilledAndKeptUntilWritten() throws InterruptedException {
+        ReflectionTestUtils.setField(writer, "overflowPolicy", AuditLogWriter.OverflowPolicy.SPILL);
+        failInvalidLogs = true;
+        writer.start();
+
+        writer.write(createLogRecord("invalid"));
+        writer.write(createLogRecord("valid"));
+        awaitCondition(() -> writtenMessages.contains("valid") && meterRegistry.counter("audit.log.writer.spilled").count() == 1);
+
+        // replay of the spilled audit log fails, so it stays on disk for next replay
+        awaitCondition(() -> listSpillFiles().stream().anyMatch(file -> file.getFileName().toString().endsWith(".replay")));
+        Assertions.assertFalse(writtenMessages.contains("invalid"));
+
+        failInvalidLogs = false;
+        awaitCondition(() -> writtenMessages.contains("invalid"));
+        awaitCondition(() -> listSpillFiles().isEmpty());
+        Assertions.assertEquals(1, Collections.frequency(writtenMessages, "invalid"));
+    }
+
+    private void startWithBlockedWriter(AuditLogWriter.OverflowPolicy overflowPolicy) throws InterruptedException {
+        ReflectionTestUtils.setField(writer, "overflowPolicy", overflowPolicy);
+        blockFirstSave = true;
+        writer.start();
+        writer.write(createLogRecord("first"));
+        Assertions.assertTrue(firstSaveEntered.await(10, TimeUnit.SECONDS));
+    }
+
+    private List<Path> listSpillFiles() {
+        try (Stream<Path> files = Files.list(spillDirectory)) {
+            return files.toList();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            Assertions.assertTrue(System.nanoTime() < deadline, "Condition was not met in time");
+            Thread.sleep(50);
+        }
+    }
+
+    private static LogRecord createLogRecord(String message) {
+        return LogRecord.builder()
+                .version("1.0")
+                .audited(true)
+                .module(Module.CORE)
+                .actor(new ActorRecord(ActorType.CORE, AuthMethod.NONE, null, null))
+                .resource(new ResourceRecord(Resource.CERTIFICATE, null, (String) null))
+                .operation(Operation.CREATE)
+                .operationResult(OperationResult.SUCCESS)
+                .message(message)
+                .build();
+    }
+}
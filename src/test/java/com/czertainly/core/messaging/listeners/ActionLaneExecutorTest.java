@@ -0,0 +1,102 @@
+package com.czertainly.core.messaging.listeners;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.ImmediateRequeueAmqpException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+class ActionLaneExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch slowActionStarted = new CountDownLatch(1);
+    private final CountDownLatch slowActionReleased = new CountDownLatch(1);
+
+    private ActionLaneExecutor executor;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        slowActionReleased.countDown();
+        executor.stop();
+    }
+
+    @Test
+    void testSlowLaneDoesNotBlockOtherLane() throws Exception {
+        executor = createExecutor(1, 10);
+        CompletableFuture<Void> slow = executor.submit("slow", this::slowAction);
+        Assertions.assertTrue(slowActionStarted.await(10, TimeUnit.SECONDS));
+
+        // action of other lane is processed while the only permit of the slow lane is held
+        CompletableFuture<Void> fast = executor.submit("fast", () -> null);
+        fast.get(10, TimeUnit.SECONDS);
+        Assertions.assertFalse(slow.isDone());
+
+        slowActionReleased.countDown();
+        slow.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testFullBacklogIsRequeued() throws Exception {
+        executor = createExecutor(1, 1);
+        CompletableFuture<Void> running = executor.submit("lane", this::slowAction);
+        Assertions.assertTrue(slowActionStarted.await(10, TimeUnit.SECONDS));
+        CompletableFuture<Void> queued = executor.submit("lane", () -> null);
+
+        // backlog of the lane is full, action is rejected so that its message is returned to the queue
+        CompletableFuture<Void> rejected = executor.submit("lane", () -> null);
+        ExecutionException exception = Assertions.assertThrows(ExecutionException.class, () -> rejected.get(10, TimeUnit.SECONDS));
+        Assertions.assertInstanceOf(ImmediateRequeueAmqpException.class, exception.getCause());
+        Assertions.assertEquals(1, getGauge("messaging.actions.lane.queued", "lane").value());
+
+        slowActionReleased.countDown();
+        running.get(10, TimeUnit.SECONDS);
+        queued.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testIdleLaneIsRemovedWithMetrics() throws Exception {
+        executor = createExecutor(1, 10);
+        CompletableFuture<Void> running = executor.submit("lane", this::slowAction);
+        Assertions.assertTrue(slowActionStarted.await(10, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, getGauge("messaging.actions.lane.active", "lane").value());
+
+        slowActionReleased.countDown();
+        running.get(10, TimeUnit.SECONDS);
+        awaitCondition(() -> getGauge("messaging.actions.lane.active", "lane") == null && getGauge("messaging.actions.lane.queued", "lane") == null);
+
+        // lane is created again with new metrics for next action
+        executor.submit("lane", () -> null).get(10, TimeUnit.SECONDS);
+        awaitCondition(() -> getGauge("messaging.actions.lane.active", "lane") == null);
+    }
+
+    private ActionLaneExecutor createExecutor(int laneConcurrency, int laneMaxQueued) {
+        ActionLaneExecutor laneExecutor = new ActionLaneExecutor(true, laneConcurrency, laneMaxQueued, 10);
+        laneExecutor.setMeterRegistry(meterRegistry);
+        return laneExecutor;
+    }
+
+    private Void slowAction() throws InterruptedException {
+        slowActionStarted.countDown();
+        Assertions.assertTrue(slowActionReleased.await(10, TimeUnit.SECONDS));
+        return null;
+    }
+
+    private Gauge getGauge(String name, String lane) {
+        return meterRegistry.find(name).tag("lane", lane).gauge();
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            Assertions.assertTrue(System.nanoTime() < deadline, "Condition was not met in time");
+            Thread.sleep(50);
+        }
+    }
+}
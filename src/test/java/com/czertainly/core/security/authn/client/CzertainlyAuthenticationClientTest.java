@@ -3,6 +3,7 @@ package com.czertainly.core.security.authn.client;
 import com.czertainly.core.security.authn.CzertainlyAuthenticationException;
 import com.czertainly.core.service.AuditLogService;
 import com.czertainly.core.service.impl.AuditLogServiceImpl;
+import com.czertainly.core.util.AuthHelper;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import okhttp3.mockwebserver.MockResponse;
@@ -23,6 +24,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class CzertainlyAuthenticationClientTest {
@@ -120,6 +122,34 @@ class CzertainlyAuthenticationClientTest {
         assertThrows(CzertainlyAuthenticationException.class, willThrow);
     }
 
+    @Test
+    void servesCachedAuthentication() {
+        // given
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        CzertainlyAuthenticationClient cachingClient = new CzertainlyAuthenticationClient(new AuditLogServiceImpl(), objectMapper, "http://%s:%d".formatted(authServiceMock.getHostName(), authServiceMock.getPort()));
+        AuthenticationCache authenticationCache = new AuthenticationCache(true, 100, 60, 60);
+        cachingClient.setAuthenticationCache(authenticationCache);
+        setUpSuccessfulAuthenticationResponse();
+        setUpSuccessfulAuthenticationResponse();
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(AuthHelper.USER_UUID_HEADER_NAME, "32281955-eed2-4520-9f42-15b82c96f940");
+        int requestCount = authServiceMock.getRequestCount();
+
+        // when
+        AuthenticationInfo info = cachingClient.authenticate(headers, false);
+        AuthenticationInfo cachedInfo = cachingClient.authenticate(headers, false);
+
+        // then
+        assertEquals(1, authServiceMock.getRequestCount() - requestCount);
+        assertSame(info, cachedInfo);
+
+        // authentication service is called again after invalidation
+        authenticationCache.invalidateAll();
+        assertEquals("FrantisekJednicka", cachingClient.authenticate(headers, false).getUsername());
+        assertEquals(2, authServiceMock.getRequestCount() - requestCount);
+    }
+
     RecordedRequest getLastRequest() throws InterruptedException {
         return authServiceMock.takeRequest(500, TimeUnit.MILLISECONDS);
     }
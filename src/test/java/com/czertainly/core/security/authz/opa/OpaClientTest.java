@@ -123,6 +123,29 @@ class OpaClientTest {
         //@formatter:on
     }
 
+    @Test
+    void usesCachedDecisions() throws InterruptedException {
+        // given
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        OpaClient cachingOpaClient = new OpaClient(objectMapper, "http://%s:%d".formatted(opaMock.getHostName(), opaMock.getPort()));
+        cachingOpaClient.setDecisionCache(new OpaDecisionCache(true, 100, 60));
+        setUpSuccessfulResourceAccessResponse();
+        setUpSuccessfulResourceAccessResponse();
+        int requestCount = opaMock.getRequestCount();
+
+        // when
+        cachingOpaClient.checkResourceAccess(OpaPolicy.METHOD.policyName, getResource(), getPrincipal(), null);
+        OpaRequestedResource otherResource = getResource();
+        otherResource.setObjectUUIDs(List.of("f258cdda-17b5-11ed-861d-0242ac120002"));
+        List<OpaResourceAccessResult> results = cachingOpaClient.checkResourcesAccess(OpaPolicy.METHOD.policyName, List.of(getResource(), otherResource), getPrincipal(), null);
+
+        // then
+        assertEquals(2, results.size());
+        assertTrue(results.stream().allMatch(OpaResourceAccessResult::isAuthorized));
+        assertEquals(2, opaMock.getRequestCount() - requestCount);
+    }
+
     @Test
     void throwsExceptionWhenResponseIsEmpty() {
         // given
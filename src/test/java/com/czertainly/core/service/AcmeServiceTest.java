@@ -13,8 +13,8 @@ import com.czertainly.core.dao.entity.acme.*;
 import com.czertainly.core.dao.repository.*;
 import com.czertainly.core.dao.repository.acme.*;
 import com.czertainly.core.service.acme.AcmeConstants;
+import com.czertainly.core.service.acme.AcmeNonceService;
 import com.czertainly.core.service.acme.AcmeService;
-import com.czertainly.core.util.AcmeCommonHelper;
 import com.czertainly.core.util.BaseSpringBootTest;
 import com.czertainly.core.util.CertificateUtil;
 import com.github.tomakehurst.wiremock.WireMockServer;
@@ -37,7 +37,6 @@ import java.security.*;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import java.util.Base64;
-import java.util.Date;
 import java.util.List;
 import java.util.Objects;
 
@@ -61,7 +60,7 @@ public class AcmeServiceTest extends BaseSpringBootTest {
     @Autowired
     private ConnectorRepository connectorRepository;
     @Autowired
-    private AcmeNonceRepository acmeNonceRepository;
+    private AcmeNonceService acmeNonceService;
 
     @Autowired
     private AcmeAccountRepository acmeAccountRepository;
@@ -87,7 +86,7 @@ public class AcmeServiceTest extends BaseSpringBootTest {
     @Autowired
     private AcmeService acmeService;
 
-    private AcmeNonce acmeValidNonce;
+    private String acmeValidNonce;
     private JWSSigner rsa2048Signer;
     private RSAKey rsa2048PublicJWK;
     private JWSSigner newRsa2048Signer;
@@ -206,12 +205,7 @@ public class AcmeServiceTest extends BaseSpringBootTest {
         challenge2.setAuthorizationUuid(authorization1.getUuid());
         acmeChallengeRepository.save(challenge2);
 
-        Date expires = AcmeCommonHelper.addSeconds(new Date(), AcmeConstants.NONCE_VALIDITY);
-        acmeValidNonce = new AcmeNonce();
-        acmeValidNonce.setNonce("5pSv1vR6SEJryGlA0JRns6e376ZGjUt-CYxmqvwBEaY");
-        acmeValidNonce.setCreated(new Date());
-        acmeValidNonce.setExpires(expires);
-        acmeNonceRepository.save(acmeValidNonce);
+        acmeValidNonce = acmeNonceService.generateNonce();
 
     }
 
@@ -255,6 +249,20 @@ public class AcmeServiceTest extends BaseSpringBootTest {
         assertGetNonce(response);
     }
 
+    @Test
+    public void testConsumeNonce() {
+        String nonce = acmeNonceService.generateNonce();
+        Assertions.assertTrue(acmeNonceService.consumeNonce(nonce));
+        // nonce can be used only once
+        Assertions.assertFalse(acmeNonceService.consumeNonce(nonce));
+
+        String otherNonce = acmeNonceService.generateNonce();
+        String tamperedNonce = otherNonce.substring(0, 20) + (otherNonce.charAt(20) == 'A' ? 'B' : 'A') + otherNonce.substring(21);
+        Assertions.assertFalse(acmeNonceService.consumeNonce(tamperedNonce));
+        Assertions.assertFalse(acmeNonceService.consumeNonce("5pSv1vR6SEJryGlA0JRns6e376ZGjUt-CYxmqvwBEaY"));
+        Assertions.assertTrue(acmeNonceService.consumeNonce(otherNonce));
+    }
+
     private void assertGetNonce(ResponseEntity<?> response) {
         // status code is 200
         Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -281,7 +289,7 @@ public class AcmeServiceTest extends BaseSpringBootTest {
         jwsObjectJSON.sign(
                 new JWSHeader.Builder(JWSAlgorithm.RS256)
                         .jwk(rsa2048PublicJWK)
-                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeValidNonce.getNonce())
+                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeValidNonce)
                         .customParam(URL_HEADER_CUSTOM_PARAM, requestUri.toString())
                         .build(),
                 rsa2048Signer
@@ -337,7 +345,7 @@ public class AcmeServiceTest extends BaseSpringBootTest {
         jwsObjectJSON.sign(
                 new JWSHeader.Builder(JWSAlgorithm.RS256)
                         .jwk(rsa2048PublicJWK)
-                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeValidNonce.getNonce())
+                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeValidNonce)
                         .customParam(URL_HEADER_CUSTOM_PARAM, requestUri.toString())
                         .build(),
                 rsa2048Signer
@@ -357,7 +365,7 @@ public class AcmeServiceTest extends BaseSpringBootTest {
         jwsObjectJSON.sign(
                 new JWSHeader.Builder(JWSAlgorithm.RS256)
                         .jwk(newRsa2048PublicJWK)
-                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeValidNonce.getNonce())
+                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeValidNonce)
                         .customParam(URL_HEADER_CUSTOM_PARAM, requestUri.toString())
                         .build(),
                 newRsa2048Signer
@@ -388,7 +396,7 @@ public class AcmeServiceTest extends BaseSpringBootTest {
         jwsObjectJSON.sign(
                 new JWSHeader.Builder(JWSAlgorithm.RS256)
                         .keyID(baseUri + "/acct/" + ACME_ACCOUNT_ID_VALID)
-                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeValidNonce.getNonce())
+                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeValidNonce)
                         .customParam(URL_HEADER_CUSTOM_PARAM, requestUri.toString())
                         .build(),
                 rsa2048Signer
@@ -454,7 +462,7 @@ public class AcmeServiceTest extends BaseSpringBootTest {
         jwsObjectJSON.sign(
                 new JWSHeader.Builder(JWSAlgorithm.RS256)
                         .keyID(baseUri + "/acct/" + ACME_ACCOUNT_ID_VALID)
-                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeValidNonce.getNonce())
+                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeValidNonce)
                         .customParam(URL_HEADER_CUSTOM_PARAM, requestUri.toString())
                         .build(),
                 rsa2048Signer
@@ -495,7 +503,7 @@ public class AcmeServiceTest extends BaseSpringBootTest {
         jwsObjectJSON.sign(
                 new JWSHeader.Builder(JWSAlgorithm.RS256)
                         .keyID(baseUri + "/acct/" + ACME_ACCOUNT_ID_VALID)
-                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeValidNonce.getNonce())
+                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeValidNonce)
                         .customParam(URL_HEADER_CUSTOM_PARAM, requestUri.toString())
                         .build(),
                 rsa2048Signer
@@ -528,7 +536,7 @@ public class AcmeServiceTest extends BaseSpringBootTest {
         jwsObjectJSON.sign(
                 new JWSHeader.Builder(JWSAlgorithm.RS256)
                         .keyID(baseUri + "/acct/" + ACME_ACCOUNT_ID_VALID)
-                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeValidNonce.getNonce())
+                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeValidNonce)
                         .customParam(URL_HEADER_CUSTOM_PARAM, requestUri.toString())
                         .build(),
                 rsa2048Signer
@@ -559,7 +567,7 @@ public class AcmeServiceTest extends BaseSpringBootTest {
         jwsObjectJSON.sign(
                 new JWSHeader.Builder(JWSAlgorithm.RS256)
                         .jwk(rsa2048PublicJWK)
-                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeValidNonce.getNonce())
+                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeValidNonce)
                         .customParam(URL_HEADER_CUSTOM_PARAM, requestUri.toString())
                         .build(),
                 rsa2048Signer
@@ -663,7 +671,7 @@ public class AcmeServiceTest extends BaseSpringBootTest {
         jwsObjectJSON.sign(
                 new JWSHeader.Builder(JWSAlgorithm.RS256)
                         .keyID(baseUri + "/acct/" + ACME_ACCOUNT_ID_VALID)
-                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeValidNonce.getNonce())
+                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeValidNonce)
                         .customParam(URL_HEADER_CUSTOM_PARAM, requestUri.toString())
                         .build(),
                 rsa2048Signer
@@ -2,12 +2,12 @@ package com.czertainly.core.service;
 
 import com.czertainly.api.interfaces.core.web.AuditLogController;
 import com.czertainly.api.model.client.certificate.SearchRequestDto;
-import com.czertainly.api.model.core.audit.ExportResultDto;
 import com.czertainly.api.model.core.logging.enums.AuditLogOutput;
 import com.czertainly.api.model.core.settings.logging.AuditLoggingSettingsDto;
 import com.czertainly.api.model.core.settings.logging.LoggingSettingsDto;
 import com.czertainly.api.model.core.settings.logging.ResourceLoggingSettingsDto;
 import com.czertainly.core.dao.repository.AuditLogRepository;
+import com.czertainly.core.model.ExportFile;
 import com.czertainly.core.util.BaseSpringBootTest;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,9 +15,11 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
-import java.io.File;
-import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
+import java.util.zip.ZipInputStream;
 
 @SpringBootTest
 class AuditLogServiceTest extends BaseSpringBootTest {
@@ -55,12 +57,16 @@ class AuditLogServiceTest extends BaseSpringBootTest {
     @Test
     void testExportAuditLog() {
         auditLogController.listAuditLogs(new SearchRequestDto());
-        ExportResultDto result = auditLogService.exportAuditLogs(List.of());
+        ExportFile result = auditLogService.exportAuditLogs(List.of());
 
+        Assertions.assertNotNull(result.fileName());
+        Assertions.assertTrue(result.size() > 0);
         Assertions.assertDoesNotThrow(() -> {
-            try (FileOutputStream fos = new FileOutputStream(File.createTempFile(result.getFileName(), ""))) {
-                fos.write(result.getFileContent());
-                fos.flush();
+            try (ZipInputStream zis = new ZipInputStream(Files.newInputStream(result.file(), StandardOpenOption.DELETE_ON_CLOSE))) {
+                Assertions.assertNotNull(zis.getNextEntry());
+                String csv = new String(zis.readAllBytes(), StandardCharsets.UTF_8);
+                // header and exported audit logs
+                Assertions.assertTrue(csv.lines().count() >= 2);
             }
         });
     }
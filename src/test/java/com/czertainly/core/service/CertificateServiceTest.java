@@ -4,6 +4,7 @@ import com.czertainly.api.exception.AlreadyExistException;
 import com.czertainly.api.exception.AttributeException;
 import com.czertainly.api.exception.CertificateOperationException;
 import com.czertainly.api.exception.NotFoundException;
+import com.czertainly.api.exception.ValidationException;
 import com.czertainly.api.model.client.certificate.*;
 import com.czertainly.api.model.common.NameAndUuidDto;
 import com.czertainly.api.model.common.attribute.v2.AttributeType;
@@ -20,6 +21,7 @@ import com.czertainly.core.attribute.engine.AttributeEngine;
 import com.czertainly.core.attribute.engine.records.ObjectAttributeContentInfo;
 import com.czertainly.core.dao.entity.*;
 import com.czertainly.core.dao.repository.*;
+import com.czertainly.core.model.CertificateKeysetResponseDto;
 import com.czertainly.core.security.authz.SecuredUUID;
 import com.czertainly.core.security.authz.SecurityFilter;
 import com.czertainly.core.util.BaseSpringBootTest;
@@ -195,6 +197,40 @@ public class CertificateServiceTest extends BaseSpringBootTest {
         Assertions.assertEquals(certificate.getUuid().toString(), certificateEntities.getCertificates().get(0).getUuid());
     }
 
+    @Test
+    void testListCertificatesByKeyset() {
+        for (int i = 0; i < 4; i++) {
+            Certificate keysetCertificate = new Certificate();
+            keysetCertificate.setSubjectDn("testKeysetCertificate" + i);
+            keysetCertificate.setIssuerDn("testKeysetCertificate" + i);
+            keysetCertificate.setSerialNumber("12345678" + i);
+            keysetCertificate.setState(CertificateState.ISSUED);
+            keysetCertificate.setValidationStatus(CertificateValidationStatus.VALID);
+            certificateRepository.save(keysetCertificate);
+        }
+
+        SearchRequestDto request = new SearchRequestDto();
+        request.setItemsPerPage(2);
+        CertificateKeysetResponseDto page = certificateService.listCertificatesByKeyset(SecurityFilter.create(), request, null);
+        Assertions.assertEquals(5, page.getTotalItems());
+
+        List<String> listedUuids = new ArrayList<>();
+        int pages = 1;
+        page.getCertificates().forEach(c -> listedUuids.add(c.getUuid()));
+        while (page.getNextCursor() != null) {
+            page = certificateService.listCertificatesByKeyset(SecurityFilter.create(), request, page.getNextCursor());
+            page.getCertificates().forEach(c -> listedUuids.add(c.getUuid()));
+            Assertions.assertNull(page.getTotalItems());
+            ++pages;
+        }
+        Assertions.assertEquals(3, pages);
+        Assertions.assertEquals(5, listedUuids.size());
+        Assertions.assertEquals(5, listedUuids.stream().distinct().count());
+        Assertions.assertTrue(listedUuids.contains(certificate.getUuid().toString()));
+
+        Assertions.assertThrows(ValidationException.class, () -> certificateService.listCertificatesByKeyset(SecurityFilter.create(), request, "invalid"));
+    }
+
     @Test
     public void testGetCertificate() throws NotFoundException, CertificateException, IOException {
         CertificateDetailDto dto = certificateService.getCertificate(certificate.getSecuredUuid());
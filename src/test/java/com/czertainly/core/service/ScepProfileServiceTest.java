@@ -20,6 +20,8 @@ import com.czertainly.core.dao.repository.*;
 import com.czertainly.core.dao.repository.scep.ScepProfileRepository;
 import com.czertainly.core.security.authz.SecuredUUID;
 import com.czertainly.core.security.authz.SecurityFilter;
+import com.czertainly.core.service.scep.impl.ScepProfileContext;
+import com.czertainly.core.service.scep.impl.ScepProfileContextCache;
 import com.czertainly.core.util.BaseSpringBootTest;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -30,6 +32,7 @@ import java.security.cert.CertificateException;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.UUID;
 
 public class ScepProfileServiceTest extends BaseSpringBootTest {
 
@@ -54,6 +57,8 @@ public class ScepProfileServiceTest extends BaseSpringBootTest {
     private TokenProfileRepository tokenProfileRepository;
     @Autowired
     private CryptographicKeyItemRepository cryptographicKeyItemRepository;
+    @Autowired
+    private ScepProfileContextCache scepProfileContextCache;
 
     private TokenInstanceReference tokenInstanceReference;
     private CryptographicKeyItem content;
@@ -248,6 +253,13 @@ public class ScepProfileServiceTest extends BaseSpringBootTest {
         Assertions.assertTrue(scepProfileService.getScepProfile(scepProfile.getSecuredUuid()).isEnabled());
     }
 
+    @Test
+    public void testEnableScepProfileInvalidatesContextCache() throws NotFoundException {
+        cacheScepProfileContext();
+        scepProfileService.enableScepProfile(scepProfile.getSecuredUuid());
+        Assertions.assertNull(scepProfileContextCache.get(false, scepProfile.getName()));
+    }
+
     @Test
     public void testEnableScepProfile_notFound() {
         Assertions.assertThrows(NotFoundException.class, () -> scepProfileService.enableScepProfile(SecuredUUID.fromString("abfbc322-29e1-11ed-a261-0242ac120002")));
@@ -261,6 +273,13 @@ public class ScepProfileServiceTest extends BaseSpringBootTest {
         Assertions.assertFalse(scepProfileService.getScepProfile(scepProfile.getSecuredUuid()).isEnabled());
     }
 
+    @Test
+    public void testDisableScepProfileInvalidatesContextCache() throws NotFoundException {
+        cacheScepProfileContext();
+        scepProfileService.disableScepProfile(scepProfile.getSecuredUuid());
+        Assertions.assertNull(scepProfileContextCache.get(false, scepProfile.getName()));
+    }
+
     @Test
     public void testDisableScepProfile_notFound() {
         Assertions.assertThrows(NotFoundException.class, () -> scepProfileService.disableScepProfile(SecuredUUID.fromString("abfbc322-29e1-11ed-a261-0242ac120002")));
@@ -291,4 +310,11 @@ public class ScepProfileServiceTest extends BaseSpringBootTest {
         List<NameAndUuidDto> dtos = scepProfileService.listResourceObjects(SecurityFilter.create());
         Assertions.assertEquals(1, dtos.size());
     }
+
+    private void cacheScepProfileContext() {
+        ScepProfileContext context = new ScepProfileContext(false, scepProfile.getUuid(), scepProfile.getName(), UUID.randomUUID(), "raProfile",
+                null, List.of(), new byte[0], "application/x-x509-ca-cert", "POSTPKIOperation", List.of());
+        scepProfileContextCache.put(scepProfile.getName(), context, scepProfileContextCache.getGeneration());
+        Assertions.assertSame(context, scepProfileContextCache.get(false, scepProfile.getName()));
+    }
 }
@@ -1,8 +1,19 @@
 package com.czertainly.core.service;
 
 import com.czertainly.api.model.client.dashboard.StatisticsDto;
+import com.czertainly.api.model.core.auth.Resource;
+import com.czertainly.api.model.core.certificate.CertificateState;
+import com.czertainly.api.model.core.certificate.CertificateValidationStatus;
+import com.czertainly.core.dao.entity.Certificate;
 import com.czertainly.core.dao.entity.Group;
+import com.czertainly.core.dao.entity.GroupAssociation;
+import com.czertainly.core.dao.repository.CertificateRepository;
+import com.czertainly.core.dao.repository.GroupAssociationRepository;
 import com.czertainly.core.dao.repository.GroupRepository;
+import com.czertainly.core.dao.repository.RaProfileRepository;
+import com.czertainly.core.security.authz.SecurityFilter;
+import com.czertainly.core.security.authz.SecurityResourceFilter;
+import com.czertainly.core.statistics.CertificateStatisticsStore;
 import com.czertainly.core.util.BaseSpringBootTest;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -11,6 +22,11 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
 @SpringBootTest
 @Transactional
 @Rollback
@@ -22,6 +38,18 @@ public class StatisticsServiceTest extends BaseSpringBootTest {
     @Autowired
     private GroupRepository groupRepository;
 
+    @Autowired
+    private CertificateService certificateService;
+
+    @Autowired
+    private CertificateRepository certificateRepository;
+
+    @Autowired
+    private RaProfileRepository raProfileRepository;
+
+    @Autowired
+    private GroupAssociationRepository groupAssociationRepository;
+
     @Test
     public void testGetStatistics() {
         StatisticsDto result = statisticsService.getStatistics();
@@ -39,4 +67,73 @@ public class StatisticsServiceTest extends BaseSpringBootTest {
         Assertions.assertEquals(0l, result.getTotalCertificates());
         Assertions.assertEquals(1l, result.getTotalGroups());
     }
+
+    @Test
+    public void testMaterializedCertificateStatistics() {
+        Certificate expiring = createCertificate("CN=expiring", CertificateState.ISSUED, Date.from(Instant.now().plus(Duration.ofDays(5))));
+        createCertificate("CN=expired", CertificateState.REVOKED, Date.from(Instant.now().minus(Duration.ofDays(5))));
+        createCertificate("CN=requested", CertificateState.REQUESTED, null);
+
+        Group group = new Group();
+        group.setName("testGroup");
+        groupRepository.save(group);
+        GroupAssociation groupAssociation = new GroupAssociation();
+        groupAssociation.setResource(Resource.CERTIFICATE);
+        groupAssociation.setObjectUuid(expiring.getUuid());
+        groupAssociation.setGroupUuid(group.getUuid());
+        groupAssociationRepository.save(groupAssociation);
+
+        CertificateStatisticsStore store = new CertificateStatisticsStore(true);
+        store.setCertificateRepository(certificateRepository);
+        store.setRaProfileRepository(raProfileRepository);
+        store.setGroupRepository(groupRepository);
+
+        StatisticsDto materialized = store.fillStatistics(new StatisticsDto());
+        StatisticsDto live = certificateService.addCertificateStatistics(SecurityFilter.create(), new StatisticsDto());
+        Assertions.assertEquals(3, store.getTotalCertificates());
+        Assertions.assertEquals(live.getCertificateStatByState(), materialized.getCertificateStatByState());
+        Assertions.assertEquals(live.getCertificateStatByValidationStatus(), materialized.getCertificateStatByValidationStatus());
+        Assertions.assertEquals(live.getCertificateStatByExpiry(), materialized.getCertificateStatByExpiry());
+        Assertions.assertEquals(live.getGroupStatByCertificateCount(), materialized.getGroupStatByCertificateCount());
+        Assertions.assertEquals(1L, materialized.getCertificateStatByExpiry().get("10"));
+        Assertions.assertEquals(2L, materialized.getCertificateStatByExpiry().get("Expired"));
+
+        // certificates without RA profile are not counted for user with access only to specific RA profiles
+        SecurityResourceFilter raProfileFilter = new SecurityResourceFilter(List.of(), List.of(), true);
+        Assertions.assertEquals(0, store.getTotalCertificates(raProfileFilter));
+        Assertions.assertTrue(store.fillStatistics(new StatisticsDto(), raProfileFilter).getCertificateStatByState().isEmpty());
+
+        // groups are counted only when permitted by group filter, certificates without group are counted always
+        Assertions.assertEquals(1L, materialized.getGroupStatByCertificateCount().get("testGroup"));
+        SecurityResourceFilter groupFilter = new SecurityResourceFilter(List.of(), List.of(group.getUuid().toString()), false);
+        StatisticsDto groupRestricted = store.fillStatistics(new StatisticsDto(), null, groupFilter);
+        Assertions.assertNull(groupRestricted.getGroupStatByCertificateCount().get("testGroup"));
+        Assertions.assertEquals(2L, groupRestricted.getGroupStatByCertificateCount().get("Unassigned"));
+
+        // certificate changed from requested to issued
+        Object[] requested = new Object[CertificateStatisticsStore.StatisticsDimension.values().length];
+        requested[CertificateStatisticsStore.StatisticsDimension.STATE.ordinal()] = CertificateState.REQUESTED;
+        Object[] issued = requested.clone();
+        issued[CertificateStatisticsStore.StatisticsDimension.STATE.ordinal()] = CertificateState.ISSUED;
+        store.update(requested, null, -1);
+        store.update(issued, Date.from(Instant.now().plus(Duration.ofDays(100))), 1);
+
+        materialized = store.fillStatistics(new StatisticsDto());
+        Assertions.assertEquals(3, store.getTotalCertificates());
+        Assertions.assertEquals(2L, materialized.getCertificateStatByState().get(CertificateState.ISSUED.getCode()));
+        Assertions.assertNull(materialized.getCertificateStatByState().get(CertificateState.REQUESTED.getCode()));
+        Assertions.assertEquals(1L, materialized.getCertificateStatByExpiry().get("Expired"));
+        Assertions.assertEquals(1L, materialized.getCertificateStatByExpiry().get("More"));
+    }
+
+    private Certificate createCertificate(String subjectDn, CertificateState state, Date notAfter) {
+        Certificate certificate = new Certificate();
+        certificate.setSubjectDn(subjectDn);
+        certificate.setIssuerDn(subjectDn);
+        certificate.setSerialNumber(subjectDn);
+        certificate.setState(state);
+        certificate.setValidationStatus(CertificateValidationStatus.VALID);
+        certificate.setNotAfter(notAfter);
+        return certificateRepository.save(certificate);
+    }
 }
@@ -0,0 +1,60 @@
+package com.czertainly.core.service.scep;
+
+import com.czertainly.core.service.scep.impl.ScepProfileContext;
+import com.czertainly.core.service.scep.impl.ScepProfileContextCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+class ScepProfileContextCacheTest {
+
+    @Test
+    void testCacheHit() {
+        ScepProfileContextCache cache = new ScepProfileContextCache(true, 10, 300);
+        ScepProfileContext context = createContext();
+
+        cache.put("scepProfile", context, cache.getGeneration());
+        Assertions.assertSame(context, cache.get(false, "scepProfile"));
+        // SCEP endpoints of SCEP profile and RA profile with the same name are cached separately
+        Assertions.assertNull(cache.get(true, "scepProfile"));
+    }
+
+    @Test
+    void testInvalidateAll() {
+        ScepProfileContextCache cache = new ScepProfileContextCache(true, 10, 300);
+        cache.put("scepProfile", createContext(), cache.getGeneration());
+
+        cache.invalidateAll();
+        Assertions.assertNull(cache.get(false, "scepProfile"));
+    }
+
+    @Test
+    void testContextLoadedBeforeInvalidationIsNotCached() {
+        ScepProfileContextCache cache = new ScepProfileContextCache(true, 10, 300);
+
+        // profile is changed while the context is being loaded
+        long generation = cache.getGeneration();
+        ScepProfileContext context = createContext();
+        cache.invalidateAll();
+
+        cache.put("scepProfile", context, generation);
+        Assertions.assertNull(cache.get(false, "scepProfile"));
+
+        cache.put("scepProfile", context, cache.getGeneration());
+        Assertions.assertSame(context, cache.get(false, "scepProfile"));
+    }
+
+    @Test
+    void testDisabledCache() {
+        ScepProfileContextCache cache = new ScepProfileContextCache(false, 10, 300);
+        cache.put("scepProfile", createContext(), cache.getGeneration());
+        Assertions.assertNull(cache.get(false, "scepProfile"));
+    }
+
+    private static ScepProfileContext createContext() {
+        return new ScepProfileContext(false, UUID.randomUUID(), "scepProfile", UUID.randomUUID(), "raProfile",
+                null, List.of(), new byte[0], "application/x-x509-ca-cert", "POSTPKIOperation", List.of());
+    }
+}
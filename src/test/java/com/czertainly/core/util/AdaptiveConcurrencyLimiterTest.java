@@ -0,0 +1,100 @@
+package com.czertainly.core.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long LATENCY = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    void testLimitAdaptation() throws InterruptedException {
+        AtomicBoolean overloaded = new AtomicBoolean(false);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 10, 4, overloaded::get);
+
+        // additive increase after limit of successful tasks
+        for (int i = 0; i < 4; i++) {
+            limiter.acquire("key");
+            limiter.release("key", LATENCY, true);
+        }
+        Assertions.assertEquals(5, limiter.getLimit());
+
+        // multiplicative decrease on failure, latency increase and overload, tasks need to start after previous decrease
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(LATENCY * 4));
+        limiter.acquire("key");
+        limiter.release("key", LATENCY, false);
+        Assertions.assertEquals(3, limiter.getLimit());
+
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(LATENCY * 4));
+        limiter.acquire("key");
+        limiter.release("key", LATENCY * 3, true);
+        Assertions.assertEquals(2, limiter.getLimit());
+
+        overloaded.set(true);
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(LATENCY * 4));
+        limiter.acquire("key");
+        limiter.release("key", LATENCY, true);
+        Assertions.assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    void testSingleDecreasePerWindow() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 10, 10, null);
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(LATENCY * 4));
+
+        // concurrently running tasks failing at once decrease the limit only once
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire("key");
+        }
+        for (int i = 0; i < 5; i++) {
+            limiter.release("key", LATENCY, false);
+        }
+        Assertions.assertEquals(7, limiter.getLimit());
+
+        // task started after the decrease decreases the limit again
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(LATENCY * 4));
+        limiter.acquire("key");
+        limiter.release("key", LATENCY, false);
+        Assertions.assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    void testFairShare() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 2, 2, null);
+        limiter.acquire("first");
+
+        // second key waits for capacity and gets the half of the limit when first key releases its permit
+        CountDownLatch secondAcquired = new CountDownLatch(1);
+        limiter.acquire("first");
+        Thread second = Thread.ofVirtual().start(() -> {
+            try {
+                limiter.acquire("second");
+                secondAcquired.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Assertions.assertFalse(secondAcquired.await(100, TimeUnit.MILLISECONDS));
+
+        limiter.release("first", LATENCY, true);
+        Assertions.assertTrue(secondAcquired.await(1, TimeUnit.SECONDS));
+
+        // first key cannot exceed its share while second key holds permit
+        Thread first = Thread.ofVirtual().start(() -> {
+            try {
+                limiter.acquire("first");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        first.join(100);
+        Assertions.assertTrue(first.isAlive());
+        first.interrupt();
+        first.join();
+        second.join();
+    }
+}
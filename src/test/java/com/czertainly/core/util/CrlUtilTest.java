@@ -0,0 +1,77 @@
+package com.czertainly.core.util;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.CRLNumber;
+import org.bouncycastle.asn1.x509.CRLReason;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.ExtensionsGenerator;
+import org.bouncycastle.asn1.x509.TBSCertList;
+import org.bouncycastle.cert.X509v2CRLBuilder;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+class CrlUtilTest {
+
+    private static final int NUMBER_OF_ENTRIES = 2500;
+
+    @Test
+    void testParseX509CrlStreaming() throws Exception {
+        KeyPairGenerator keyPairGen = KeyPairGenerator.getInstance("RSA");
+        keyPairGen.initialize(2048);
+        KeyPair pair = keyPairGen.generateKeyPair();
+
+        Date thisUpdate = new Date(System.currentTimeMillis() / 1000 * 1000);
+        Date nextUpdate = new Date(thisUpdate.getTime() + 3600 * 1000);
+        X509v2CRLBuilder crlGen = new X509v2CRLBuilder(new X500Name("CN=Streaming CRL Test CA"), thisUpdate);
+        crlGen.setNextUpdate(nextUpdate);
+        crlGen.addExtension(Extension.cRLNumber, false, new CRLNumber(BigInteger.valueOf(42)));
+        for (int i = 1; i <= NUMBER_OF_ENTRIES; i++) {
+            if (i % 2 == 0) {
+                ExtensionsGenerator extGen = new ExtensionsGenerator();
+                extGen.addExtension(Extension.reasonCode, false, CRLReason.lookup(CRLReason.keyCompromise));
+                crlGen.addCRLEntry(BigInteger.valueOf(i), thisUpdate, extGen.generate());
+            } else {
+                crlGen.addCRLEntry(BigInteger.valueOf(i), thisUpdate, CRLReason.unspecified);
+            }
+        }
+        ContentSigner signer = new JcaContentSignerBuilder("SHA256WithRSAEncryption").build(pair.getPrivate());
+
+        Path crlFile = Files.createTempFile("crl-test-", ".crl");
+        try {
+            Files.write(crlFile, crlGen.build(signer).getEncoded());
+            Assertions.assertTrue(CrlUtil.isDerEncoded(crlFile));
+
+            List<TBSCertList.CRLEntry> entries = new ArrayList<>();
+            CrlUtil.StreamedCrlInfo crlInfo = CrlUtil.parseX509CrlStreaming(crlFile, entries::add);
+            Assertions.assertEquals("42", crlInfo.crlNumber());
+            Assertions.assertNull(crlInfo.deltaCrlIndicator());
+            Assertions.assertEquals(new X500Name("CN=Streaming CRL Test CA"), crlInfo.issuer());
+            Assertions.assertEquals(thisUpdate, crlInfo.thisUpdate());
+            Assertions.assertEquals(nextUpdate, crlInfo.nextUpdate());
+            Assertions.assertEquals(NUMBER_OF_ENTRIES, crlInfo.entriesCount());
+            Assertions.assertEquals(NUMBER_OF_ENTRIES, entries.size());
+
+            Assertions.assertEquals(BigInteger.ONE, entries.get(0).getUserCertificate().getValue());
+            Assertions.assertEquals(java.security.cert.CRLReason.UNSPECIFIED, CrlUtil.getRevocationReason(entries.get(0)));
+            Assertions.assertEquals(java.security.cert.CRLReason.KEY_COMPROMISE, CrlUtil.getRevocationReason(entries.get(1)));
+
+            // skipping entries must still read through the whole structure
+            CrlUtil.StreamedCrlInfo crlInfoWithoutEntries = CrlUtil.parseX509CrlStreaming(crlFile, null);
+            Assertions.assertEquals("42", crlInfoWithoutEntries.crlNumber());
+            Assertions.assertEquals(NUMBER_OF_ENTRIES, crlInfoWithoutEntries.entriesCount());
+        } finally {
+            Files.deleteIfExists(crlFile);
+        }
+    }
+}
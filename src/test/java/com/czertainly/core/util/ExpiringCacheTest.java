@@ -0,0 +1,66 @@
+package com.czertainly.core.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+class ExpiringCacheTest {
+
+    @Test
+    void testExpirationAndEviction() {
+        MutableClock clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        ExpiringCache<String, String> cache = new ExpiringCache<>(2, clock);
+
+        cache.put("a", "A", clock.instant().plusSeconds(10));
+        cache.put("b", "B", clock.instant().plusSeconds(100));
+        Assertions.assertEquals("A", cache.get("a"));
+
+        // "b" is least recently used and is evicted
+        cache.put("c", "C", clock.instant().plusSeconds(100));
+        Assertions.assertNull(cache.get("b"));
+        Assertions.assertEquals("A", cache.get("a"));
+        Assertions.assertEquals("C", cache.get("c"));
+
+        clock.advance(Duration.ofSeconds(10));
+        Assertions.assertNull(cache.get("a"));
+        Assertions.assertEquals("C", cache.get("c"));
+
+        // already expired entries are not stored
+        cache.put("d", "D", clock.instant());
+        Assertions.assertNull(cache.get("d"));
+
+        cache.invalidateIf((key, value) -> value.equals("C"));
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.czertainly.core.util;
+
+import com.czertainly.api.model.core.certificate.CertificateValidationCheck;
+import com.czertainly.api.model.core.certificate.CertificateValidationCheckDto;
+import com.czertainly.api.model.core.certificate.CertificateValidationStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+class MetaDefinitionsTest {
+
+    @Test
+    void testSerializeValidationCompact() {
+        Map<CertificateValidationCheck, CertificateValidationCheckDto> validationChecks = getValidationChecks();
+
+        String serialized = MetaDefinitions.serializeValidation(validationChecks);
+        Assertions.assertEquals("{\"CERTIFICATE_CHAIN\":[\"VALID\",\"Certificate chain is complete.\"],\"OCSP_VERIFICATION\":[\"NOT_CHECKED\"]}", serialized);
+        Assertions.assertEquals(serialized, MetaDefinitions.serializeValidation(getValidationChecks()));
+
+        Map<CertificateValidationCheck, CertificateValidationCheckDto> deserialized = MetaDefinitions.deserializeValidation(serialized);
+        Assertions.assertEquals(2, deserialized.size());
+        Assertions.assertEquals(CertificateValidationStatus.VALID, deserialized.get(CertificateValidationCheck.CERTIFICATE_CHAIN).getStatus());
+        Assertions.assertEquals("Certificate chain is complete.", deserialized.get(CertificateValidationCheck.CERTIFICATE_CHAIN).getMessage());
+        Assertions.assertEquals(CertificateValidationStatus.NOT_CHECKED, deserialized.get(CertificateValidationCheck.OCSP_VERIFICATION).getStatus());
+        Assertions.assertNull(deserialized.get(CertificateValidationCheck.OCSP_VERIFICATION).getMessage());
+    }
+
+    @Test
+    void testDeserializeValidationFullForm() throws JsonProcessingException {
+        String serialized = new ObjectMapper().writeValueAsString(getValidationChecks());
+
+        Map<CertificateValidationCheck, CertificateValidationCheckDto> deserialized = MetaDefinitions.deserializeValidation(serialized);
+        Assertions.assertEquals(2, deserialized.size());
+        Assertions.assertEquals(CertificateValidationStatus.VALID, deserialized.get(CertificateValidationCheck.CERTIFICATE_CHAIN).getStatus());
+        Assertions.assertEquals("Certificate chain is complete.", deserialized.get(CertificateValidationCheck.CERTIFICATE_CHAIN).getMessage());
+        Assertions.assertTrue(MetaDefinitions.deserializeValidation(null).isEmpty());
+    }
+
+    private static Map<CertificateValidationCheck, CertificateValidationCheckDto> getValidationChecks() {
+        Map<CertificateValidationCheck, CertificateValidationCheckDto> validationChecks = new LinkedHashMap<>();
+        validationChecks.put(CertificateValidationCheck.CERTIFICATE_CHAIN, new CertificateValidationCheckDto(CertificateValidationCheck.CERTIFICATE_CHAIN, CertificateValidationStatus.VALID, "Certificate chain is complete."));
+        validationChecks.put(CertificateValidationCheck.OCSP_VERIFICATION, new CertificateValidationCheckDto(CertificateValidationCheck.OCSP_VERIFICATION, CertificateValidationStatus.NOT_CHECKED, null));
+        return validationChecks;
+    }
+}
@@ -0,0 +1,44 @@
+package com.czertainly.core.validation.certificate;
+
+import com.czertainly.api.model.core.authority.CertificateRevocationReason;
+import com.czertainly.core.dao.entity.Crl;
+import com.czertainly.core.dao.entity.CrlEntry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.security.cert.CRLReason;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+class CrlRevocationIndexTest {
+
+    @Test
+    void testIndexLookup() {
+        Crl crl = new Crl();
+        crl.setUuid(UUID.randomUUID());
+        crl.setCrlNumber("5");
+
+        Date revocationDate = new Date();
+        List<Object[]> entries = new ArrayList<>();
+        entries.add(new Object[]{"ff01", revocationDate, CertificateRevocationReason.fromCrlReason(CRLReason.KEY_COMPROMISE)});
+        entries.add(new Object[]{"1a", revocationDate, CertificateRevocationReason.UNSPECIFIED});
+        entries.add(new Object[]{"7b2c", revocationDate, CertificateRevocationReason.fromCrlReason(CRLReason.SUPERSEDED)});
+
+        CrlRevocationIndex index = CrlRevocationIndex.build(crl, entries);
+        Assertions.assertEquals(3, index.size());
+        Assertions.assertEquals(3L * CrlRevocationIndex.ENTRY_OVERHEAD_BYTES + "ff01".length() + "1a".length() + "7b2c".length(), index.getEstimatedBytes());
+        Assertions.assertTrue(index.isCurrent(crl));
+
+        CrlEntry crlEntry = index.find(crl, "7b2c");
+        Assertions.assertNotNull(crlEntry);
+        Assertions.assertEquals(CertificateRevocationReason.fromCrlReason(CRLReason.SUPERSEDED), crlEntry.getRevocationReason());
+        Assertions.assertEquals(revocationDate, crlEntry.getRevocationDate());
+        Assertions.assertEquals(crl.getUuid(), crlEntry.getId().getCrlUuid());
+        Assertions.assertNull(index.find(crl, "7b2d"));
+
+        crl.setCrlNumberDelta("6");
+        Assertions.assertFalse(index.isCurrent(crl));
+    }
+}